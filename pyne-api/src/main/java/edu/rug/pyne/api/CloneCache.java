@@ -0,0 +1,242 @@
+package edu.rug.pyne.api;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.ResetCommand;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Ref;
+import org.eclipse.jgit.lib.RefUpdate;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.transport.TagOpt;
+import org.eclipse.jgit.util.FileUtils;
+
+/**
+ * This class keeps one bare mirror of every repository that is cloned, so the
+ * same repository is only downloaded once.
+ *
+ * A clone made using the cache does not copy any objects. Its object
+ * database points to the objects of the mirror using the alternates file of
+ * git, so creating a clone only creates the references and checks out the
+ * work tree. The mirror is updated with a fetch the first time it is used by
+ * a cache, later clones use it as is.
+ *
+ * A clone depends on the objects of its mirror, so the mirror should not be
+ * removed while a clone of it is in use.
+ *
+ * @author Patrick Beuks (s2288842) <code@beuks.net>
+ */
+public class CloneCache {
+
+    private static final Logger LOGGER
+            = LogManager.getLogger(CloneCache.class);
+
+    // The references copied to a clone
+    private static final String[] SHARED_REFS = {
+        Constants.R_HEADS, Constants.R_REMOTES, Constants.R_TAGS
+    };
+
+    // The directory the mirrors are stored in
+    private final File cacheDirectory;
+
+    // If true the cache directory is removed on clean up
+    private final boolean temporary;
+
+    // The opened mirrors per repository URI
+    private final Map<String, Repository> mirrors = new HashMap<>();
+
+    private boolean cleand = false;
+
+    /**
+     * Creates a clone cache storing the mirrors in a directory. The mirrors
+     * are kept after the cache is cleaned up, so later runs can use them.
+     *
+     * @param cacheDirectory The directory to store the mirrors in
+     */
+    public CloneCache(File cacheDirectory) {
+        this.cacheDirectory = cacheDirectory;
+        this.temporary = false;
+    }
+
+    /**
+     * Creates a clone cache in a temporary location, removed on clean up
+     *
+     * @throws IOException Thrown when failed to create a temporary directory
+     */
+    public CloneCache() throws IOException {
+        this.cacheDirectory
+                = Files.createTempDirectory("temp_git_mirror_").toFile();
+        this.temporary = true;
+
+        Runtime.getRuntime().addShutdownHook(new Thread(this::cleanUp));
+    }
+
+    /**
+     * Gets the directory the mirrors are stored in
+     *
+     * @return The cache directory
+     */
+    public File getCacheDirectory() {
+        return cacheDirectory;
+    }
+
+    /**
+     * Gets the mirror of a repository. The repository is cloned if it is not
+     * in the cache yet, or fetched if it is used for the first time by this
+     * cache.
+     *
+     * @param repository The URI of the repository
+     * @return The mirror, a bare repository
+     * @throws IOException Thrown if the mirror could not be opened
+     * @throws GitAPIException Thrown if git failed to clone or fetch
+     */
+    public synchronized Repository getMirror(String repository)
+            throws IOException, GitAPIException {
+
+        if (cleand) {
+            throw new IllegalStateException("The clone cache is cleaned up");
+        }
+
+        Repository mirror = mirrors.get(repository);
+        if (mirror != null) {
+            return mirror;
+        }
+
+        File mirrorDirectory
+                = new File(cacheDirectory, getMirrorName(repository));
+        if (mirrorDirectory.isDirectory()) {
+            LOGGER.info("Updating mirror of " + repository);
+            Git git = Git.open(mirrorDirectory);
+            git.fetch().setRemoveDeletedRefs(true)
+                    .setTagOpt(TagOpt.FETCH_TAGS).call();
+            mirror = git.getRepository();
+        } else {
+            LOGGER.info("Creating mirror of " + repository);
+            mirror = Git.cloneRepository().setURI(repository)
+                    .setDirectory(mirrorDirectory).setBare(true)
+                    .setCloneAllBranches(true).call().getRepository();
+        }
+
+        mirrors.put(repository, mirror);
+        return mirror;
+    }
+
+    /**
+     * Creates a clone of a repository using the mirror in the cache
+     *
+     * @param repository The URI of the repository
+     * @param directory The empty directory to create the clone in
+     * @return The git of the clone
+     * @throws IOException Thrown if the clone could not be created
+     * @throws GitAPIException Thrown if git failed to update the mirror or to
+     * check out the clone
+     */
+    public Git createClone(String repository, File directory)
+            throws IOException, GitAPIException {
+        return createSharedClone(getMirror(repository), directory);
+    }
+
+    /**
+     * Creates a clone that uses the objects of another repository instead of
+     * copying them. The references of the other repository are copied and the
+     * same head is checked out.
+     *
+     * @param source The repository to share the objects of
+     * @param directory The empty directory to create the clone in
+     * @return The git of the clone
+     * @throws IOException Thrown if the clone could not be created
+     * @throws GitAPIException Thrown if git failed to check out the clone
+     */
+    public static Git createSharedClone(Repository source, File directory)
+            throws IOException, GitAPIException {
+
+        Git git = Git.init().setDirectory(directory).call();
+        Repository repository = git.getRepository();
+
+        // Point to the objects of the source
+        File alternates = new File(
+                repository.getDirectory(), "objects" + File.separator
+                + "info" + File.separator + "alternates"
+        );
+        String objects = new File(source.getDirectory(), "objects")
+                .getAbsolutePath();
+        FileUtils.mkdirs(alternates.getParentFile(), true);
+        Files.write(
+                alternates.toPath(),
+                (objects + "\n").getBytes(StandardCharsets.UTF_8)
+        );
+
+        // Copy the references
+        for (String prefix : SHARED_REFS) {
+            for (Ref ref : source.getRefDatabase().getRefsByPrefix(prefix)) {
+                if (ref.isSymbolic() || ref.getObjectId() == null) {
+                    continue;
+                }
+                RefUpdate refUpdate = repository.updateRef(ref.getName());
+                refUpdate.setNewObjectId(ref.getObjectId());
+                refUpdate.setForceUpdate(true);
+                refUpdate.update();
+            }
+        }
+
+        // Use the same head as the source and check it out
+        Ref head = source.exactRef(Constants.HEAD);
+        if (head != null && head.isSymbolic()) {
+            repository.updateRef(Constants.HEAD)
+                    .link(head.getTarget().getName());
+        } else if (head != null && head.getObjectId() != null) {
+            RefUpdate refUpdate = repository.updateRef(Constants.HEAD, true);
+            refUpdate.setNewObjectId(head.getObjectId());
+            refUpdate.forceUpdate();
+        }
+        ObjectId headCommit = repository.resolve(Constants.HEAD);
+        if (headCommit != null) {
+            git.reset().setMode(ResetCommand.ResetType.HARD).call();
+        }
+
+        return git;
+    }
+
+    /**
+     * Closes the mirrors, and removes them if the cache is temporary. Clones
+     * of the mirrors can not be used after this.
+     */
+    public synchronized void cleanUp() {
+
+        if (cleand) {
+            return;
+        }
+        mirrors.values().forEach(Repository::close);
+        mirrors.clear();
+        if (temporary) {
+            try {
+                FileUtils.delete(cacheDirectory, FileUtils.RECURSIVE);
+            } catch (IOException ex) {
+                LOGGER.trace(ex);
+            }
+        }
+        cleand = true;
+    }
+
+    /**
+     * Gets the name of the mirror directory of a repository. The URI can
+     * contain any character, so its hash is used.
+     *
+     * @param repository The URI of the repository
+     * @return The directory name
+     */
+    private static String getMirrorName(String repository) {
+        return ObjectId.fromRaw(Constants.newMessageDigest().digest(
+                repository.getBytes(StandardCharsets.UTF_8)
+        )).name() + Constants.DOT_GIT_EXT;
+    }
+
+}
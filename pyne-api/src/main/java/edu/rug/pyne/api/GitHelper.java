@@ -1,10 +1,11 @@
 package edu.rug.pyne.api;
 
+import edu.rug.pyne.api.parser.ChangeSet;
+import edu.rug.pyne.api.parser.FileSystemSourceTree;
 import edu.rug.pyne.api.parser.Parser;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import org.apache.logging.log4j.LogManager;
@@ -12,14 +13,17 @@ import org.apache.logging.log4j.Logger;
 import org.eclipse.jgit.api.Git;
 import org.eclipse.jgit.api.errors.GitAPIException;
 import org.eclipse.jgit.diff.DiffEntry;
+import org.eclipse.jgit.diff.DiffFormatter;
+import org.eclipse.jgit.diff.RenameDetector;
 import org.eclipse.jgit.lib.ObjectId;
 import org.eclipse.jgit.lib.ObjectReader;
 import org.eclipse.jgit.lib.Repository;
 import org.eclipse.jgit.revwalk.RevCommit;
 import org.eclipse.jgit.revwalk.RevWalk;
 import org.eclipse.jgit.storage.file.WindowCacheConfig;
-import org.eclipse.jgit.treewalk.CanonicalTreeParser;
+import org.eclipse.jgit.treewalk.filter.PathSuffixFilter;
 import org.eclipse.jgit.util.FileUtils;
+import org.eclipse.jgit.util.io.DisabledOutputStream;
 
 /**
  * This is a helper class for the parser that gives the ability to parse source
@@ -35,10 +39,27 @@ public class GitHelper {
     // The graph key used to store the commit id on
     public static final String COMMIT_ID_VARIABLE = "CommitId";
 
+    // Only changes to these files can change the graph
+    private static final String SOURCE_FILE_SUFFIX = ".java";
+
+    // Moving a package renames all its files at once, and each of these
+    // files is changed as its package declaration is changed. The limit is
+    // high enough to still find these renames.
+    private static final int RENAME_LIMIT = 5000;
+
     private final File cloneDir;
     private final Git git;
     private boolean cleand = false;
 
+    // If false the commits are read from the object database instead
+    private boolean useWorkTree;
+
+    // If true renamed files are detected when the difference is calculated
+    private boolean detectRenames = true;
+
+    // The minimum similarity, in percent, of a renamed file
+    private int renameScore = 60;
+
     /**
      * Creates a clone repository in a temporary location and gives access to
      * parse functions using commit ids
@@ -65,12 +86,51 @@ public class GitHelper {
             cloneDir = new File(repository);
             git = Git.open(cloneDir);
         }
+        useWorkTree = !git.getRepository().isBare();
     }
 
     public GitHelper(String repository) throws IOException, GitAPIException{
         this(repository, true);
     }
 
+    /**
+     * Creates a clone in a temporary location using the mirror of the
+     * repository in a clone cache, so the repository is not downloaded again
+     * if it was cloned before
+     *
+     * @param repository The URI to the repository to clone
+     * @param cloneCache The cache with the mirrors of repositories
+     * @throws IOException Thrown when failed to create a temporary directory
+     * @throws GitAPIException Thrown when failed to update the mirror or to
+     * check out the clone
+     */
+    public GitHelper(String repository, CloneCache cloneCache)
+            throws IOException, GitAPIException {
+        this(cloneCache.getMirror(repository));
+    }
+
+    /**
+     * Creates a clone in a temporary location that uses the objects of another
+     * repository instead of copying them
+     *
+     * @param source The repository to clone, needs to stay available while
+     * the clone is used
+     * @throws IOException Thrown when failed to create a temporary directory
+     * @throws GitAPIException Thrown when failed to check out the clone
+     */
+    public GitHelper(Repository source) throws IOException, GitAPIException {
+
+        WindowCacheConfig config = new WindowCacheConfig();
+        config.setPackedGitMMAP(false);
+        config.install();
+
+        cloneDir = Files.createTempDirectory("temp_git_clone_").toFile();
+        git = CloneCache.createSharedClone(source, cloneDir);
+
+        Runtime.getRuntime().addShutdownHook(new Thread(this::cleanUp));
+        useWorkTree = true;
+    }
+
     /**
      * Returns the git created by the cloned repository.
      *
@@ -89,6 +149,79 @@ public class GitHelper {
         return cloneDir.getAbsoluteFile();
     }
 
+    /**
+     * Sets if the commits are checked out in the work tree before parsing.
+     * If not, the source files are read straight from the git object database
+     * and the work tree is never touched. Bare repositories can only be read
+     * from the object database.
+     *
+     * @param useWorkTree True to check out the commits, true by default for
+     * non bare repositories
+     */
+    public void setUseWorkTree(boolean useWorkTree) {
+        if (useWorkTree && git.getRepository().isBare()) {
+            throw new IllegalStateException(
+                    "A bare repository has no work tree to check out"
+            );
+        }
+        this.useWorkTree = useWorkTree;
+    }
+
+    /**
+     * Gets if the commits are checked out in the work tree before parsing.
+     *
+     * @return True if the work tree is used
+     */
+    public boolean isUseWorkTree() {
+        return useWorkTree;
+    }
+
+    /**
+     * Sets if renamed files are detected. The classes in a renamed file keep
+     * their vertices, otherwise the old file is removed and the new file is
+     * added.
+     *
+     * @param detectRenames True to detect renamed files, true by default
+     */
+    public void setDetectRenames(boolean detectRenames) {
+        this.detectRenames = detectRenames;
+    }
+
+    /**
+     * Gets if renamed files are detected.
+     *
+     * @return True if renamed files are detected
+     */
+    public boolean isDetectRenames() {
+        return detectRenames;
+    }
+
+    /**
+     * Sets how similar a removed and an added file need to be to be seen as
+     * a renamed file.
+     *
+     * @param renameScore The minimum similarity in percent, from 0 to 100.
+     * 60 by default
+     */
+    public void setRenameScore(int renameScore) {
+        if (renameScore < 0 || renameScore > 100) {
+            throw new IllegalArgumentException(
+                    "The rename score must be between 0 and 100"
+            );
+        }
+        this.renameScore = renameScore;
+    }
+
+    /**
+     * Gets how similar a removed and an added file need to be to be seen as
+     * a renamed file.
+     *
+     * @return The minimum similarity in percent
+     */
+    public int getRenameScore() {
+        return renameScore;
+    }
+
     /**
      * parses a given commit. If a commit id is set on the graph it will check
      * out the difference between that commit and the given one.
@@ -121,24 +254,17 @@ public class GitHelper {
      * @param parser The parser that is used to process the files
      * @param commitId The commit id to parse
      * @throws GitAPIException Thrown if git failed to checkout a commit
+     * @throws IOException Thrown if the commit could not be read
      */
     private void initGraph(Parser parser, String commitId)
-            throws GitAPIException {
-
-        // Set git config before checkout. 
-        // This is always needed or cleanup cannot occure
-        WindowCacheConfig config = new WindowCacheConfig();
-        config.setPackedGitMMAP(false);
-        config.install();
+            throws GitAPIException, IOException {
 
         LOGGER.info("Checking out commit");
-        git.checkout().setName(commitId).call();
+        checkoutCommit(parser, commitId);
 
         // Reset files if not already on null. 
         // This indicates a full parsing of classes.
-        parser.setAddedFiles(null);
-        parser.setModifiedFiles(null);
-        parser.setRemovedFiles(null);
+        parser.setChangeSet(null);
 
         LOGGER.info("Processing classes");
         parser.process();
@@ -149,8 +275,15 @@ public class GitHelper {
 
     /**
      * This first gets the difference between the commits, saves the files
-     * changed. It then reinstates the old commit and does the remove process.
-     * After this it checks out the new commit and does the normal process.
+     * changed. It then does the remove process on the graph. After this it
+     * checks out the new commit and does the normal process.
+     *
+     * Only java source files are compared. If none of them changed the graph
+     * stays the same, so only the commit id on the graph is updated. The new
+     * commit is then not checked out either.
+     *
+     * A file that is renamed, for example by moving a package, is given to
+     * the parser as a renamed file, so its classes keep their vertices.
      *
      * @param parser The parser that is used to process the files
      * @param oldCommit The commit id of the old commit
@@ -167,82 +300,80 @@ public class GitHelper {
         Repository repository = git.getRepository();
         RevWalk revWalk = new RevWalk(repository);
         ObjectReader reader = repository.newObjectReader();
-        File rootDir = repository.getWorkTree();
+        File rootDir = useWorkTree ? repository.getWorkTree() : getDir();
 
         // Get old commit tree
         ObjectId oldCommitObject = ObjectId.fromString(oldCommit);
         RevCommit revOldCommit = revWalk.parseCommit(oldCommitObject);
-        CanonicalTreeParser canonicalTreeParserOld = new CanonicalTreeParser(
-                null, reader, revOldCommit.getTree().getId()
-        );
 
         // Get new commit tree
         ObjectId newCommitObject = ObjectId.fromString(newCommit);
         RevCommit revNewCommit = revWalk.parseCommit(newCommitObject);
-        CanonicalTreeParser canonicalTreeParserNew = new CanonicalTreeParser(
-                null, reader, revNewCommit.getTree().getId()
-        );
 
         LOGGER.info("Finding diffrences");
-        List<DiffEntry> diffEntries = git
-                .diff()
-                .setOldTree(canonicalTreeParserOld)
-                .setNewTree(canonicalTreeParserNew)
-                .call();
+        List<DiffEntry> diffEntries;
+        try (DiffFormatter diffFormatter
+                = new DiffFormatter(DisabledOutputStream.INSTANCE)) {
+            diffFormatter.setReader(reader, repository.getConfig());
+            diffFormatter.setPathFilter(
+                    PathSuffixFilter.create(SOURCE_FILE_SUFFIX)
+            );
+            diffFormatter.setDetectRenames(detectRenames);
+            if (detectRenames) {
+                RenameDetector renameDetector
+                        = diffFormatter.getRenameDetector();
+                renameDetector.setRenameScore(renameScore);
+                renameDetector.setRenameLimit(RENAME_LIMIT);
+            }
+            diffEntries = diffFormatter.scan(
+                    revOldCommit.getTree(), revNewCommit.getTree()
+            );
+        }
 
-        // Init diff arrays
-        List<File> addedFiles = new ArrayList<>();
-        List<File> modifiedFiles = new ArrayList<>();
-        List<File> removedFiles = new ArrayList<>();
+        // Nothing to parse, the graph of the old commit is the same as the
+        // graph of the new commit.
+        if (diffEntries.isEmpty()) {
+            LOGGER.info("No source files changed");
+            parser.getGraph().variables().set(COMMIT_ID_VARIABLE, newCommit);
+            return;
+        }
+
+        // The diff paths are relative to the root, as the change set stores
+        // them
+        ChangeSet changeSet = new ChangeSet(rootDir);
 
         for (DiffEntry diffEntry : diffEntries) {
             switch (diffEntry.getChangeType()) {
                 case ADD:
                 case COPY:
-                    addedFiles.add(new File(rootDir, diffEntry.getNewPath()));
+                    changeSet.addAdded(diffEntry.getNewPath());
                     break;
                 case DELETE:
-                    removedFiles.add(new File(rootDir, diffEntry.getOldPath()));
+                    changeSet.addRemoved(diffEntry.getOldPath());
                     break;
                 case MODIFY:
-                    addedFiles.add(new File(rootDir, diffEntry.getNewPath()));
-                    modifiedFiles
-                            .add(new File(rootDir, diffEntry.getOldPath()));
+                    changeSet.addAdded(diffEntry.getNewPath());
+                    changeSet.addModified(diffEntry.getOldPath());
                     break;
                 case RENAME:
-                    addedFiles.add(new File(rootDir, diffEntry.getNewPath()));
-                    removedFiles
-                            .add(new File(rootDir, diffEntry.getOldPath()));
+                    changeSet.addRenamed(
+                            diffEntry.getOldPath(), diffEntry.getNewPath()
+                    );
                     break;
             }
 
         }
 
         // Setup parser
-        parser.setAddedFiles(addedFiles);
-        parser.setModifiedFiles(modifiedFiles);
-        parser.setRemovedFiles(removedFiles);
-
-        // Set git config before checkout. 
-        // This is always needed or cleanup cannot occure
-        WindowCacheConfig config = new WindowCacheConfig();
-        config.setPackedGitMMAP(false);
-        config.install();
-
-        LOGGER.info("Checking out old commit");
-        git.checkout().setName(oldCommit).call();
+        parser.setChangeSet(changeSet);
 
+        // The removed classes are found using the graph, so the old commit
+        // does not need to be checked out.
         LOGGER.info("Proccessing removed files");
         parser.processRemoved();
 
-        // Set git config before checkout. 
-        // This is always needed or cleanup cannot occure
-        config = new WindowCacheConfig();
-        config.setPackedGitMMAP(false);
-        config.install();
-
         LOGGER.info("Checking out new commit");
-        git.checkout().setName(newCommit).call();
+        checkoutCommit(parser, newCommit);
 
         LOGGER.info("Processing classes");
         parser.process();
@@ -251,6 +382,41 @@ public class GitHelper {
         parser.getGraph().variables().set(COMMIT_ID_VARIABLE, newCommit);
     }
 
+    /**
+     * Makes the source files of a commit available to the parser. Either the
+     * commit is checked out in the work tree, or the parser is given the tree
+     * of the commit in the object database.
+     *
+     * @param parser The parser that is used to process the files
+     * @param commitId The commit id to make available
+     * @throws GitAPIException Thrown if git failed to checkout the commit
+     * @throws IOException Thrown if the commit could not be read
+     */
+    private void checkoutCommit(Parser parser, String commitId)
+            throws GitAPIException, IOException {
+
+        if (!useWorkTree) {
+            Repository repository = git.getRepository();
+            ObjectId commitObject = repository.resolve(commitId);
+            if (commitObject == null) {
+                throw new IOException("Could not find commit " + commitId);
+            }
+            parser.setSourceTree(
+                    new GitSourceTree(repository, commitObject, getDir())
+            );
+            return;
+        }
+
+        // Set git config before checkout. 
+        // This is always needed or cleanup cannot occure
+        WindowCacheConfig config = new WindowCacheConfig();
+        config.setPackedGitMMAP(false);
+        config.install();
+
+        git.checkout().setName(commitId).call();
+        parser.setSourceTree(new FileSystemSourceTree());
+    }
+
     /**
      * Closes the repository, tries to remove all temporary files and closes git
      */
@@ -259,13 +425,13 @@ public class GitHelper {
         if (cleand) {
             return;
         }
-        git.getRepository().close();
+        // Also closes the repository, git is always created by opening it
+        git.close();
         try {
             FileUtils.delete(cloneDir, FileUtils.RECURSIVE);
         } catch (IOException ex) {
             LOGGER.trace(ex);
         }
-        git.close();
         cleand = true;
     }
 
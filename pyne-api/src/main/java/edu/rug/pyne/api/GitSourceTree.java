@@ -0,0 +1,249 @@
+package edu.rug.pyne.api;
+
+import edu.rug.pyne.api.parser.SourceTree;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.eclipse.jgit.lib.FileMode;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.treewalk.TreeWalk;
+import spoon.Launcher;
+import spoon.support.compiler.VirtualFile;
+
+/**
+ * This source tree reads the source code files of a commit straight from the
+ * git object database. The files are given to spoon as virtual files, so the
+ * commit does not need to be checked out and bare repositories can be used.
+ *
+ * The files are given as if the commit was checked out in the root directory,
+ * so the source files spoon reports are the same as with a check out.
+ *
+ * @author Patrick Beuks (s2288842) <code@beuks.net>
+ */
+public class GitSourceTree implements SourceTree {
+
+    private static final Logger LOGGER
+            = LogManager.getLogger(GitSourceTree.class);
+
+    // The repository to read the files from
+    private final Repository repository;
+
+    // The directory the commit would be checked out in
+    private final Path root;
+
+    // The paths relative to the root of the files and their blob
+    private final Map<String, ObjectId> files = new HashMap<>();
+
+    // The paths relative to the root of the directories, the root is ""
+    private final Set<String> directories = new HashSet<>();
+
+    // The paths of the directories directly inside a directory
+    private final Map<String, List<String>> childDirectories = new HashMap<>();
+
+    /**
+     * Reads the tree of a commit.
+     *
+     * @param repository The repository containing the commit
+     * @param commitId The id of the commit
+     * @param rootDirectory The directory the commit would be checked out in
+     * @throws IOException Thrown if the commit or its tree could not be read
+     */
+    public GitSourceTree(
+            Repository repository, ObjectId commitId, File rootDirectory
+    ) throws IOException {
+        this.repository = repository;
+        this.root = rootDirectory.getAbsoluteFile().toPath().normalize();
+        directories.add("");
+
+        try (RevWalk revWalk = new RevWalk(repository);
+                TreeWalk treeWalk = new TreeWalk(repository)) {
+            RevCommit commit = revWalk.parseCommit(commitId);
+            treeWalk.addTree(commit.getTree());
+            treeWalk.setRecursive(true);
+
+            while (treeWalk.next()) {
+                // Skip symbolic links and submodules
+                int type = treeWalk.getRawMode(0) & FileMode.TYPE_MASK;
+                if (type != FileMode.TYPE_FILE) {
+                    continue;
+                }
+                String path = treeWalk.getPathString();
+                files.put(path, treeWalk.getObjectId(0));
+
+                // Add all parent directories
+                int slash = path.lastIndexOf('/');
+                while (slash > 0 && directories.add(path.substring(0, slash))) {
+                    slash = path.lastIndexOf('/', slash - 1);
+                }
+            }
+        }
+
+        for (String directory : directories) {
+            if (!directory.isEmpty()) {
+                int slash = directory.lastIndexOf('/');
+                childDirectories.computeIfAbsent(
+                        slash < 0 ? "" : directory.substring(0, slash),
+                        (key) -> new ArrayList<>()
+                ).add(directory);
+            }
+        }
+    }
+
+    @Override
+    public boolean isFile(File file) {
+        String path = getPath(file);
+        return path != null && files.containsKey(path);
+    }
+
+    @Override
+    public boolean isDirectory(File file) {
+        String path = getPath(file);
+        return path != null && directories.contains(path);
+    }
+
+    @Override
+    public Stream<File> walk(File directory) throws IOException {
+        String path = getPath(directory);
+        if (path == null || !directories.contains(path)) {
+            throw new FileNotFoundException(directory.getPath());
+        }
+
+        List<String> found = new ArrayList<>();
+        for (String directoryPath : directories) {
+            if (isInside(directoryPath, path)) {
+                found.add(directoryPath);
+            }
+        }
+        for (String filePath : files.keySet()) {
+            if (isInside(filePath, path)) {
+                found.add(filePath);
+            }
+        }
+        return found.stream().map(this::getFile);
+    }
+
+    @Override
+    public List<File> listDirectories(File directory) throws IOException {
+        String path = getPath(directory);
+        if (path == null || !directories.contains(path)) {
+            throw new FileNotFoundException(directory.getPath());
+        }
+
+        List<File> found = new ArrayList<>();
+        for (String childPath
+                : childDirectories.getOrDefault(path, List.of())) {
+            found.add(getFile(childPath));
+        }
+        return found;
+    }
+
+    @Override
+    public InputStream open(File file) throws IOException {
+        String path = getPath(file);
+        ObjectId blob = path == null ? null : files.get(path);
+        if (blob == null) {
+            throw new FileNotFoundException(file.getPath());
+        }
+        return repository.open(blob).openStream();
+    }
+
+    @Override
+    public String getBlobId(File file) throws IOException {
+        String path = getPath(file);
+        ObjectId blob = path == null ? null : files.get(path);
+        if (blob == null) {
+            throw new FileNotFoundException(file.getPath());
+        }
+        return blob.name();
+    }
+
+    @Override
+    public void addInputResource(Launcher launcher, File resource) {
+        String path = getPath(resource);
+        if (path == null) {
+            LOGGER.warn("Not inside the repository: " + resource.getPath());
+            return;
+        }
+
+        if (files.containsKey(path)) {
+            addVirtualFile(launcher, path);
+            return;
+        }
+        for (String filePath : files.keySet()) {
+            if (filePath.endsWith(".java") && isInside(filePath, path)) {
+                addVirtualFile(launcher, filePath);
+            }
+        }
+    }
+
+    /**
+     * Reads a blob and adds it as a virtual file to spoon. The name of the
+     * virtual file is the path it would have when checked out.
+     *
+     * @param launcher The launcher to add the file to
+     * @param path The path of the file relative to the root
+     */
+    private void addVirtualFile(Launcher launcher, String path) {
+        try {
+            byte[] content = repository.open(files.get(path)).getBytes();
+            launcher.addInputResource(new VirtualFile(
+                    new String(content, launcher.getEnvironment().getEncoding()),
+                    getFile(path).getPath()
+            ));
+        } catch (IOException ex) {
+            LOGGER.error("Could not read " + path + " from the repository", ex);
+        }
+    }
+
+    /**
+     * Gets the path relative to the root of a file, using forward slashes.
+     *
+     * @param file The file
+     * @return The relative path, or null if the file is not inside the root
+     */
+    private String getPath(File file) {
+        Path path = file.getAbsoluteFile().toPath().normalize();
+        if (!path.startsWith(root)) {
+            return null;
+        }
+        return root.relativize(path).toString()
+                .replace(File.separatorChar, '/');
+    }
+
+    /**
+     * Gets the file of a path relative to the root.
+     *
+     * @param path The relative path
+     * @return The file inside the root directory
+     */
+    private File getFile(String path) {
+        return path.isEmpty() ? root.toFile() : root.resolve(path).toFile();
+    }
+
+    /**
+     * Checks if a path is inside a directory or is the directory itself.
+     *
+     * @param path The relative path to check
+     * @param directory The relative path of the directory
+     * @return True if the path is inside the directory
+     */
+    private static boolean isInside(String path, String directory) {
+        return directory.isEmpty() || path.equals(directory)
+                || path.startsWith(directory + "/");
+    }
+
+}
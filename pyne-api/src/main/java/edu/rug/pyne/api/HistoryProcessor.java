@@ -0,0 +1,324 @@
+package edu.rug.pyne.api;
+
+import edu.rug.pyne.api.parser.Parser;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.tinkerpop.gremlin.structure.Graph;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerGraph;
+import org.eclipse.jgit.api.errors.GitAPIException;
+
+/**
+ * This class parses a range of commits in parallel.
+ *
+ * The commits are split in contiguous windows, one per thread. Every window
+ * gets its own clone of the repository, so its own checkout directory, and its
+ * own parser and graph. The clones share the objects of the repository of the
+ * git helper, so only the work trees are created. The first commit of a
+ * window is parsed completely and the others are parsed incrementally, the
+ * same as a single git helper does.
+ *
+ * The graph of a window changes with every commit, so a snapshot of it is
+ * taken right after a commit is parsed, in the thread of the window. The
+ * snapshots are given to the consumer in commit order, from the thread that
+ * called process. Snapshots of later windows are kept until the earlier
+ * windows are done, but a window only runs a few commits ahead of the
+ * consumer. Once it holds the maximum number of snapshots that are not
+ * consumed yet it waits, so the memory used does not grow with the length of
+ * the windows.
+ *
+ * @author Patrick Beuks (s2288842) <code@beuks.net>
+ */
+public class HistoryProcessor {
+
+    private static final Logger LOGGER
+            = LogManager.getLogger(HistoryProcessor.class);
+
+    /**
+     * Takes a snapshot of the graph of a parsed commit. Called from the thread
+     * of the window parsing the commit.
+     *
+     * @param <T> The type of the snapshot
+     */
+    @FunctionalInterface
+    public interface SnapshotFunction<T> {
+
+        /**
+         * Takes the snapshot
+         *
+         * @param commitId The commit that was parsed
+         * @param graph The graph of the commit, changed after this returns
+         * @return The snapshot
+         * @throws IOException Thrown if the snapshot could not be taken
+         */
+        T apply(String commitId, Graph graph) throws IOException;
+
+    }
+
+    /**
+     * Receives the snapshots in commit order.
+     *
+     * @param <T> The type of the snapshot
+     */
+    @FunctionalInterface
+    public interface SnapshotConsumer<T> {
+
+        /**
+         * Receives a snapshot
+         *
+         * @param commitId The commit of the snapshot
+         * @param snapshot The snapshot
+         * @throws IOException Thrown if the snapshot could not be used
+         */
+        void accept(String commitId, T snapshot) throws IOException;
+
+    }
+
+    // The repository the windows are cloned from
+    private final GitHelper gitHelper;
+
+    // The number of windows processed at the same time
+    private final int windows;
+
+    // Creates the parser of a window
+    private Function<Graph, Parser> parserFactory = Parser::new;
+
+    // The number of snapshots a window can take before they are consumed
+    private int maxPendingSnapshots = 4;
+
+    /**
+     * Creates a history processor
+     *
+     * @param gitHelper The repository to clone the windows from, its settings
+     * are used for the clones
+     * @param windows The number of windows, and so threads, to use
+     */
+    public HistoryProcessor(GitHelper gitHelper, int windows) {
+        if (windows < 1) {
+            throw new IllegalArgumentException(
+                    "At least one window is needed"
+            );
+        }
+        this.gitHelper = gitHelper;
+        this.windows = windows;
+    }
+
+    /**
+     * Sets the function creating the parser of a window. Every window gets a
+     * new empty graph and its own parser. The parsers can share thread safe
+     * objects, like a fact cache.
+     *
+     * @param parserFactory The function creating a parser for a graph
+     */
+    public void setParserFactory(Function<Graph, Parser> parserFactory) {
+        this.parserFactory = parserFactory;
+    }
+
+    /**
+     * Sets the number of snapshots a window can take that are not given to
+     * the consumer yet. A window waits before parsing its next commit when it
+     * holds this many snapshots.
+     *
+     * @param maxPendingSnapshots The maximum number of pending snapshots per
+     * window, at least 1. 4 by default
+     */
+    public void setMaxPendingSnapshots(int maxPendingSnapshots) {
+        if (maxPendingSnapshots < 1) {
+            throw new IllegalArgumentException(
+                    "At least one pending snapshot is needed"
+            );
+        }
+        this.maxPendingSnapshots = maxPendingSnapshots;
+    }
+
+    /**
+     * Splits commits in contiguous windows of almost the same size.
+     *
+     * @param commits The commits in the order to parse them
+     * @param windows The maximum number of windows
+     * @return The windows, none of them empty
+     */
+    public static List<List<String>> splitWindows(
+            List<String> commits, int windows
+    ) {
+        List<List<String>> split = new ArrayList<>();
+        int count = Math.min(windows, commits.size());
+        int start = 0;
+        for (int i = 0; i < count; i++) {
+            // The first windows get one more commit if it does not divide
+            int size = commits.size() / count
+                    + (i < commits.size() % count ? 1 : 0);
+            split.add(commits.subList(start, start + size));
+            start += size;
+        }
+        return split;
+    }
+
+    /**
+     * Parses the commits and gives the snapshots of their graphs to the
+     * consumer in commit order.
+     *
+     * @param <T> The type of the snapshots
+     * @param commits The commits in the order to parse them
+     * @param snapshotFunction Takes the snapshot of a parsed commit
+     * @param consumer Receives the snapshots in commit order
+     * @throws IOException Thrown if a window failed to parse or snapshot a
+     * commit, or the consumer failed
+     */
+    public <T> void process(
+            List<String> commits,
+            SnapshotFunction<T> snapshotFunction,
+            SnapshotConsumer<T> consumer
+    ) throws IOException {
+
+        // One future per commit, completed by the window of the commit. The
+        // permits of the window are given back once the snapshot is consumed.
+        List<CompletableFuture<T>> snapshots = new ArrayList<>();
+        List<Semaphore> permits = new ArrayList<>();
+        for (int i = 0; i < commits.size(); i++) {
+            snapshots.add(new CompletableFuture<>());
+        }
+
+        List<List<String>> split = splitWindows(commits, windows);
+        LOGGER.info("Processing " + commits.size() + " commits in "
+                + split.size() + " windows");
+        ExecutorService executor = Executors.newFixedThreadPool(
+                Math.max(1, split.size())
+        );
+        try {
+            int offset = 0;
+            for (List<String> window : split) {
+                // The window gets its own list, so it does not keep the
+                // snapshots that are consumed
+                List<CompletableFuture<T>> windowSnapshots = new ArrayList<>(
+                        snapshots.subList(offset, offset + window.size())
+                );
+                Semaphore windowPermits = new Semaphore(maxPendingSnapshots);
+                for (int i = 0; i < window.size(); i++) {
+                    permits.add(windowPermits);
+                }
+                executor.execute(() -> processWindow(
+                        window, snapshotFunction, windowSnapshots,
+                        windowPermits
+                ));
+                offset += window.size();
+            }
+
+            for (int i = 0; i < commits.size(); i++) {
+                consumer.accept(commits.get(i), getSnapshot(snapshots.get(i)));
+                snapshots.set(i, null);
+                permits.get(i).release();
+            }
+        } finally {
+            // Stop the windows still running when the consumer failed, a
+            // window waiting for permits is interrupted
+            snapshots.forEach((snapshot) -> {
+                if (snapshot != null) {
+                    snapshot.cancel(false);
+                }
+            });
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Parses the commits of a window in its own clone of the repository.
+     *
+     * A permit is taken before each commit is parsed, and given back by the
+     * consumer of the snapshot. The futures are removed from the list once
+     * completed, so only the consumer holds on to the snapshots.
+     *
+     * @param <T> The type of the snapshots
+     * @param window The commits of the window
+     * @param snapshotFunction Takes the snapshot of a parsed commit
+     * @param snapshots The futures to complete with the snapshots
+     * @param permits The permits for the pending snapshots of the window
+     */
+    private <T> void processWindow(
+            List<String> window,
+            SnapshotFunction<T> snapshotFunction,
+            List<CompletableFuture<T>> snapshots,
+            Semaphore permits
+    ) {
+        GitHelper windowHelper = null;
+        int done = 0;
+        try {
+            windowHelper = cloneRepository();
+            Graph graph = TinkerGraph.open();
+            Parser parser = parserFactory.apply(graph);
+
+            for (String commit : window) {
+                permits.acquire();
+                CompletableFuture<T> snapshot = snapshots.get(done);
+                if (snapshot.isDone()) {
+                    // Cancelled, the result is not needed anymore
+                    return;
+                }
+                windowHelper.parseCommit(parser, commit);
+                snapshot.complete(snapshotFunction.apply(commit, graph));
+                snapshots.set(done, null);
+                done++;
+            }
+        } catch (InterruptedException ex) {
+            // Stopped by process, the results are not needed anymore
+            Thread.currentThread().interrupt();
+        } catch (IOException | GitAPIException | RuntimeException ex) {
+            LOGGER.error("Failed to process window starting at "
+                    + window.get(0), ex);
+            for (int i = done; i < snapshots.size(); i++) {
+                snapshots.get(i).completeExceptionally(ex);
+            }
+        } finally {
+            if (windowHelper != null) {
+                windowHelper.cleanUp();
+            }
+        }
+    }
+
+    /**
+     * Clones the repository for a window, using the same settings.
+     *
+     * @return The git helper of the clone
+     * @throws IOException Thrown if the clone could not be created
+     * @throws GitAPIException Thrown if git failed to clone
+     */
+    private GitHelper cloneRepository() throws IOException, GitAPIException {
+        GitHelper clone = new GitHelper(gitHelper.getGit().getRepository());
+        clone.setUseWorkTree(gitHelper.isUseWorkTree());
+        clone.setDetectRenames(gitHelper.isDetectRenames());
+        clone.setRenameScore(gitHelper.getRenameScore());
+        return clone;
+    }
+
+    /**
+     * Waits for a snapshot
+     *
+     * @param <T> The type of the snapshot
+     * @param snapshot The future of the snapshot
+     * @return The snapshot
+     * @throws IOException Thrown if the window failed to take the snapshot
+     */
+    private static <T> T getSnapshot(CompletableFuture<T> snapshot)
+            throws IOException {
+        try {
+            return snapshot.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for a commit", ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof IOException) {
+                throw (IOException) ex.getCause();
+            }
+            throw new IOException("Failed to process a commit", ex.getCause());
+        }
+    }
+
+}
@@ -0,0 +1,450 @@
+package edu.rug.pyne.api.io;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import org.apache.tinkerpop.gremlin.structure.Edge;
+import org.apache.tinkerpop.gremlin.structure.Element;
+import org.apache.tinkerpop.gremlin.structure.Graph;
+import org.apache.tinkerpop.gremlin.structure.Property;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+
+/**
+ * This class writes and reads graphs in a compact binary format.
+ *
+ * The file starts with a magic number and a version, followed by records.
+ * Every record starts with its type: a graph variable, a vertex or an edge.
+ * The vertices are written before the edges, so every edge can be connected
+ * when it is read. The last record is the end record.
+ *
+ * Labels, property keys and string values repeat a lot in a graph of a
+ * system, like the names of packages and the property names of every class.
+ * Every string is written once. The first time a string is written it gets
+ * the next number in a dictionary, after that only its number is written.
+ * Numbers are written as variable length integers, so small numbers take a
+ * single byte.
+ *
+ * Property values can be strings, booleans, integers, longs, floats and
+ * doubles, the types used by the vertices and edges of pyne. The ids of
+ * vertices and edges are written as values as well. If the graph read into
+ * does not support user supplied ids, it gives its own ids.
+ *
+ * @author Patrick Beuks (s2288842) <code@beuks.net>
+ */
+public class BinaryGraphCodec {
+
+    // The first bytes of every file, "PYNE"
+    private static final int MAGIC = 0x50594E45;
+    private static final int VERSION = 1;
+
+    // The record types
+    private static final int END = 0;
+    private static final int VARIABLE = 1;
+    private static final int VERTEX = 2;
+    private static final int EDGE = 3;
+
+    // The value types
+    private static final int NULL = 0;
+    private static final int STRING = 1;
+    private static final int BOOLEAN = 2;
+    private static final int INTEGER = 3;
+    private static final int LONG = 4;
+    private static final int FLOAT = 5;
+    private static final int DOUBLE = 6;
+
+    private BinaryGraphCodec() {
+    }
+
+    /**
+     * Writes a graph to a stream
+     *
+     * @param graph The graph to write
+     * @param outputStream The stream to write to, not closed
+     * @throws IOException Thrown if the graph could not be written or has a
+     * value of an unsupported type
+     */
+    public static void write(Graph graph, OutputStream outputStream)
+            throws IOException {
+        Encoder encoder = new Encoder(new DataOutputStream(
+                new BufferedOutputStream(outputStream)
+        ));
+        DataOutputStream output = encoder.output;
+        output.writeInt(MAGIC);
+        output.writeInt(VERSION);
+
+        if (graph.features().graph().variables().supportsVariables()) {
+            for (Map.Entry<String, Object> variable
+                    : graph.variables().asMap().entrySet()) {
+                encoder.writeVarInt(VARIABLE);
+                encoder.writeString(variable.getKey());
+                encoder.writeValue(variable.getValue());
+            }
+        }
+
+        Iterator<Vertex> vertices = graph.vertices();
+        while (vertices.hasNext()) {
+            Vertex vertex = vertices.next();
+            encoder.writeVarInt(VERTEX);
+            encoder.writeValue(vertex.id());
+            encoder.writeString(vertex.label());
+            encoder.writeProperties(vertex);
+        }
+
+        Iterator<Edge> edges = graph.edges();
+        while (edges.hasNext()) {
+            Edge edge = edges.next();
+            encoder.writeVarInt(EDGE);
+            encoder.writeValue(edge.id());
+            encoder.writeString(edge.label());
+            encoder.writeValue(edge.outVertex().id());
+            encoder.writeValue(edge.inVertex().id());
+            encoder.writeProperties(edge);
+        }
+
+        encoder.writeVarInt(END);
+        output.flush();
+    }
+
+    /**
+     * Reads a graph from a stream into a graph
+     *
+     * @param inputStream The stream to read from, not closed
+     * @param graph The graph to add the variables, vertices and edges to
+     * @throws IOException Thrown if the stream could not be read or is not in
+     * this format
+     */
+    public static void read(InputStream inputStream, Graph graph)
+            throws IOException {
+        Decoder decoder = new Decoder(new DataInputStream(
+                new BufferedInputStream(inputStream)
+        ));
+        DataInputStream input = decoder.input;
+        if (input.readInt() != MAGIC) {
+            throw new IOException("Not a binary graph");
+        }
+        int version = input.readInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported binary graph version "
+                    + version);
+        }
+
+        boolean vertexIds = graph.features().vertex().supportsUserSuppliedIds();
+        boolean edgeIds = graph.features().edge().supportsUserSuppliedIds();
+        Map<Object, Vertex> vertices = new HashMap<>();
+
+        int record;
+        while ((record = decoder.readVarInt()) != END) {
+            switch (record) {
+                case VARIABLE:
+                    graph.variables().set(
+                            decoder.readString(), decoder.readValue()
+                    );
+                    break;
+                case VERTEX:
+                    Object vertexId = decoder.readValue();
+                    String vertexLabel = decoder.readString();
+                    vertices.put(vertexId, graph.addVertex(
+                            decoder.readKeyValues(vertexIds ? vertexId : null,
+                                    vertexLabel)
+                    ));
+                    break;
+                case EDGE:
+                    Object edgeId = decoder.readValue();
+                    String edgeLabel = decoder.readString();
+                    Vertex outVertex = getVertex(vertices, decoder.readValue());
+                    Vertex inVertex = getVertex(vertices, decoder.readValue());
+                    outVertex.addEdge(edgeLabel, inVertex, decoder
+                            .readKeyValues(edgeIds ? edgeId : null, null));
+                    break;
+                default:
+                    throw new IOException("Unknown record type " + record);
+            }
+        }
+    }
+
+    /**
+     * Gets a vertex that is read before
+     *
+     * @param vertices The read vertices per written id
+     * @param id The written id
+     * @return The vertex
+     * @throws IOException Thrown if the vertex is not read before
+     */
+    private static Vertex getVertex(Map<Object, Vertex> vertices, Object id)
+            throws IOException {
+        Vertex vertex = vertices.get(id);
+        if (vertex == null) {
+            throw new IOException("Edge to unknown vertex " + id);
+        }
+        return vertex;
+    }
+
+    /**
+     * Writes the values and strings, keeping the string dictionary. Also used
+     * by GraphDelta.
+     */
+    static class Encoder {
+
+        final DataOutputStream output;
+        private final Map<String, Integer> dictionary = new HashMap<>();
+
+        /**
+         * Creates an encoder
+         *
+         * @param output The stream to write to
+         */
+        Encoder(DataOutputStream output) {
+            this.output = output;
+        }
+
+        /**
+         * Writes the properties of an element, preceded by their number
+         *
+         * @param element The element to write the properties of
+         * @throws IOException Thrown if the properties could not be written
+         */
+        void writeProperties(Element element) throws IOException {
+            List<Property<Object>> properties = new ArrayList<>();
+            element.properties().forEachRemaining(properties::add);
+            writeVarInt(properties.size());
+            for (Property<Object> property : properties) {
+                writeString(property.key());
+                writeValue(property.value());
+            }
+        }
+
+        /**
+         * Writes a value preceded by its type
+         *
+         * @param value The value to write
+         * @throws IOException Thrown if the value could not be written or has
+         * an unsupported type
+         */
+        void writeValue(Object value) throws IOException {
+            if (value == null) {
+                writeVarInt(NULL);
+            } else if (value instanceof String) {
+                writeVarInt(STRING);
+                writeString((String) value);
+            } else if (value instanceof Boolean) {
+                writeVarInt(BOOLEAN);
+                output.writeBoolean((Boolean) value);
+            } else if (value instanceof Integer) {
+                writeVarInt(INTEGER);
+                writeVarLong((Integer) value);
+            } else if (value instanceof Long) {
+                writeVarInt(LONG);
+                writeVarLong((Long) value);
+            } else if (value instanceof Float) {
+                writeVarInt(FLOAT);
+                output.writeFloat((Float) value);
+            } else if (value instanceof Double) {
+                writeVarInt(DOUBLE);
+                output.writeDouble((Double) value);
+            } else {
+                throw new IOException("Unsupported value type "
+                        + value.getClass().getName());
+            }
+        }
+
+        /**
+         * Writes a string as its number in the dictionary, or as a new string
+         * if it is not in the dictionary yet
+         *
+         * @param string The string to write
+         * @throws IOException Thrown if the string could not be written
+         */
+        void writeString(String string) throws IOException {
+            Integer index = dictionary.get(string);
+            if (index != null) {
+                writeVarInt(index + 1);
+                return;
+            }
+            dictionary.put(string, dictionary.size());
+            byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+            writeVarInt(0);
+            writeVarInt(bytes.length);
+            output.write(bytes);
+        }
+
+        /**
+         * Writes a non negative integer using 7 bits per byte
+         *
+         * @param value The value to write
+         * @throws IOException Thrown if the value could not be written
+         */
+        void writeVarInt(int value) throws IOException {
+            while ((value & ~0x7F) != 0) {
+                output.writeByte((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            output.writeByte(value);
+        }
+
+        /**
+         * Writes a signed long using zig zag encoding and 7 bits per byte
+         *
+         * @param value The value to write
+         * @throws IOException Thrown if the value could not be written
+         */
+        void writeVarLong(long value) throws IOException {
+            long zigZag = (value << 1) ^ (value >> 63);
+            while ((zigZag & ~0x7FL) != 0) {
+                output.writeByte((int) ((zigZag & 0x7F) | 0x80));
+                zigZag >>>= 7;
+            }
+            output.writeByte((int) zigZag);
+        }
+
+    }
+
+    /**
+     * Reads the values and strings, building the string dictionary. Also used
+     * by GraphDelta.
+     */
+    static class Decoder {
+
+        final DataInputStream input;
+        private final List<String> dictionary = new ArrayList<>();
+
+        /**
+         * Creates a decoder
+         *
+         * @param input The stream to read from
+         */
+        Decoder(DataInputStream input) {
+            this.input = input;
+        }
+
+        /**
+         * Reads the properties of an element as the key values used to
+         * create it, so all properties are set at once
+         *
+         * @param id The id of the element, or null to let the graph give one
+         * @param label The label of the element, or null if given separately
+         * @return The id, label and properties as key value pairs
+         * @throws IOException Thrown if the properties could not be read
+         */
+        Object[] readKeyValues(Object id, String label) throws IOException {
+            int count = readVarInt();
+            int extra = (id == null ? 0 : 2) + (label == null ? 0 : 2);
+            Object[] keyValues = new Object[count * 2 + extra];
+            int i = 0;
+            if (id != null) {
+                keyValues[i++] = T.id;
+                keyValues[i++] = id;
+            }
+            if (label != null) {
+                keyValues[i++] = T.label;
+                keyValues[i++] = label;
+            }
+            while (i < keyValues.length) {
+                keyValues[i++] = readString();
+                keyValues[i++] = readValue();
+            }
+            return keyValues;
+        }
+
+        /**
+         * Reads a value preceded by its type
+         *
+         * @return The value
+         * @throws IOException Thrown if the value could not be read
+         */
+        Object readValue() throws IOException {
+            int type = readVarInt();
+            switch (type) {
+                case NULL:
+                    return null;
+                case STRING:
+                    return readString();
+                case BOOLEAN:
+                    return input.readBoolean();
+                case INTEGER:
+                    return (int) readVarLong();
+                case LONG:
+                    return readVarLong();
+                case FLOAT:
+                    return input.readFloat();
+                case DOUBLE:
+                    return input.readDouble();
+                default:
+                    throw new IOException("Unknown value type " + type);
+            }
+        }
+
+        /**
+         * Reads a string from the dictionary, or a new string that is added
+         * to the dictionary
+         *
+         * @return The string
+         * @throws IOException Thrown if the string could not be read
+         */
+        String readString() throws IOException {
+            int index = readVarInt();
+            if (index > 0) {
+                if (index > dictionary.size()) {
+                    throw new IOException("Unknown string " + index);
+                }
+                return dictionary.get(index - 1);
+            }
+            byte[] bytes = new byte[readVarInt()];
+            input.readFully(bytes);
+            String string = new String(bytes, StandardCharsets.UTF_8);
+            dictionary.add(string);
+            return string;
+        }
+
+        /**
+         * Reads a non negative integer written using 7 bits per byte
+         *
+         * @return The value
+         * @throws IOException Thrown if the value could not be read
+         */
+        int readVarInt() throws IOException {
+            return (int) readVarBits();
+        }
+
+        /**
+         * Reads a signed long written using zig zag encoding
+         *
+         * @return The value
+         * @throws IOException Thrown if the value could not be read
+         */
+        long readVarLong() throws IOException {
+            long zigZag = readVarBits();
+            return (zigZag >>> 1) ^ -(zigZag & 1);
+        }
+
+        /**
+         * Reads the bits of a variable length number
+         *
+         * @return The bits
+         * @throws IOException Thrown if the number could not be read
+         */
+        private long readVarBits() throws IOException {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = input.readUnsignedByte();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IOException("Malformed variable length number");
+        }
+
+    }
+
+}
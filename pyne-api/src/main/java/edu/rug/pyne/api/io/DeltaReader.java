@@ -0,0 +1,173 @@
+package edu.rug.pyne.api.io;
+
+import edu.rug.pyne.api.HistoryProcessor;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.apache.tinkerpop.gremlin.structure.Graph;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerGraph;
+
+/**
+ * This class rebuilds the graph versions written by a DeltaWriter.
+ *
+ * A version is rebuilt by reading the last keyframe before it and applying
+ * the deltas from that keyframe up to the version. All versions can also be
+ * replayed in order, applying every delta once.
+ *
+ * @author Patrick Beuks (s2288842) <code@beuks.net>
+ */
+public class DeltaReader {
+
+    // The directory with the files
+    private final File directory;
+
+    // The versions in the order they were written
+    private final List<Version> versions = new ArrayList<>();
+
+    /**
+     * A version as listed in the index file
+     */
+    private static class Version {
+
+        private final boolean keyframe;
+        private final String fileName;
+        private final String name;
+
+        /**
+         * Creates a version
+         *
+         * @param keyframe If the version is a keyframe
+         * @param fileName The name of the keyframe or delta file
+         * @param name The name of the version
+         */
+        Version(boolean keyframe, String fileName, String name) {
+            this.keyframe = keyframe;
+            this.fileName = fileName;
+            this.name = name;
+        }
+
+    }
+
+    /**
+     * Creates a delta reader, reading the index file in a directory
+     *
+     * @param directory The directory the delta writer wrote to
+     * @throws IOException Thrown if the index file could not be read or is
+     * invalid
+     */
+    public DeltaReader(File directory) throws IOException {
+        this.directory = directory;
+        List<String> lines = Files.readAllLines(
+                new File(directory, DeltaWriter.INDEX_FILE).toPath(),
+                StandardCharsets.UTF_8
+        );
+        for (String line : lines) {
+            if (line.isEmpty()) {
+                continue;
+            }
+            String[] parts = line.split("\t", 3);
+            if (parts.length != 3) {
+                throw new IOException("Invalid index line: " + line);
+            }
+            boolean keyframe = DeltaWriter.KEYFRAME.equals(parts[0]);
+            if (!keyframe && !DeltaWriter.DELTA.equals(parts[0])) {
+                throw new IOException("Invalid version type: " + parts[0]);
+            }
+            if (!keyframe && versions.isEmpty()) {
+                throw new IOException("The first version is not a keyframe");
+            }
+            versions.add(new Version(keyframe, parts[1], parts[2]));
+        }
+    }
+
+    /**
+     * Gets the names of the versions in the order they were written
+     *
+     * @return The names of the versions
+     */
+    public List<String> getNames() {
+        List<String> names = new ArrayList<>(versions.size());
+        versions.forEach((version) -> names.add(version.name));
+        return Collections.unmodifiableList(names);
+    }
+
+    /**
+     * Rebuilds a version
+     *
+     * @param name The name of the version
+     * @return A new graph with the version
+     * @throws IOException Thrown if the version is not found or its files
+     * could not be read
+     */
+    public Graph read(String name) throws IOException {
+        int index = -1;
+        for (int i = 0; i < versions.size(); i++) {
+            if (versions.get(i).name.equals(name)) {
+                index = i;
+            }
+        }
+        if (index < 0) {
+            throw new IOException("Unknown version: " + name);
+        }
+
+        int keyframe = index;
+        while (!versions.get(keyframe).keyframe) {
+            keyframe--;
+        }
+
+        Graph graph = TinkerGraph.open();
+        for (int i = keyframe; i <= index; i++) {
+            apply(versions.get(i), graph);
+        }
+        return graph;
+    }
+
+    /**
+     * Rebuilds all versions in order. The same graph is given for every
+     * version, changed to the next version after the consumer returns.
+     *
+     * @param consumer Receives the name and graph of every version
+     * @throws IOException Thrown if the files could not be read or the
+     * consumer failed
+     */
+    public void replay(HistoryProcessor.SnapshotConsumer<Graph> consumer)
+            throws IOException {
+        Graph graph = null;
+        for (Version version : versions) {
+            if (version.keyframe) {
+                graph = TinkerGraph.open();
+            }
+            apply(version, graph);
+            consumer.accept(version.name, graph);
+        }
+    }
+
+    /**
+     * Applies a version to a graph. A keyframe is read into the graph, which
+     * should be empty, and a delta changes the graph.
+     *
+     * @param version The version to apply
+     * @param graph The graph with the version before a delta
+     * @throws IOException Thrown if the file of the version could not be read
+     */
+    private void apply(Version version, Graph graph) throws IOException {
+        File file = new File(directory, version.fileName);
+        if (version.keyframe) {
+            GraphFormat.readFile(file, graph);
+            return;
+        }
+        boolean compressed = version.fileName.endsWith(
+                "." + GraphFormat.COMPRESSED_EXTENSION
+        );
+        try (InputStream inputStream
+                = GraphFormat.openInput(file, compressed)) {
+            GraphDelta.apply(inputStream, graph);
+        }
+    }
+
+}
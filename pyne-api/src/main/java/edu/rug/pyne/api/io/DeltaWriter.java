@@ -0,0 +1,138 @@
+package edu.rug.pyne.api.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.tinkerpop.gremlin.structure.Graph;
+
+/**
+ * This class writes a history of graph versions as keyframes and deltas.
+ *
+ * The first version, and every version after a given number of versions, is
+ * written completely as a keyframe in the binary format. The other versions
+ * only get a delta with the changes since the version before, see GraphDelta.
+ * Consecutive versions of a system differ by a small part of the graph, so
+ * this takes a lot less space and time than writing every version.
+ *
+ * The versions are listed in order in an index file in the output directory,
+ * which is read by DeltaReader to rebuild any version. The versions need to be
+ * snapshots of the same graph given in order, as the changes are found by the
+ * ids of the vertices and edges.
+ *
+ * The delta writer is a sink of a snapshot writer, so the changes are found
+ * and written in the background. The name of the file given with a snapshot
+ * is used as the name of the version.
+ *
+ * @author Patrick Beuks (s2288842) <code@beuks.net>
+ */
+public class DeltaWriter implements SnapshotWriter.Sink {
+
+    private static final Logger LOGGER
+            = LogManager.getLogger(DeltaWriter.class);
+
+    // The file listing the versions, in the output directory
+    public static final String INDEX_FILE = "deltas.index";
+
+    // The extension of the delta files
+    public static final String DELTA_EXTENSION = "delta";
+
+    // The types of the versions in the index file
+    static final String KEYFRAME = "keyframe";
+    static final String DELTA = "delta";
+
+    // The directory to write the files to
+    private final File directory;
+
+    // The number of versions from one keyframe to the next
+    private final int keyframeInterval;
+
+    // If true the files are compressed with gzip
+    private final boolean compressed;
+
+    // The last written version and the versions since the last keyframe
+    private Graph previous;
+    private int sinceKeyframe;
+
+    /**
+     * Creates a delta writer. An index file of an earlier history in the
+     * directory is replaced.
+     *
+     * @param directory The directory to write the files to
+     * @param keyframeInterval The number of versions from one keyframe to the
+     * next, 1 to write every version as a keyframe
+     * @param compressed If the files are compressed with gzip
+     * @throws IOException Thrown if the old index file could not be removed
+     */
+    public DeltaWriter(File directory, int keyframeInterval, boolean compressed)
+            throws IOException {
+        if (keyframeInterval < 1) {
+            throw new IllegalArgumentException(
+                    "The keyframe interval needs to be at least 1"
+            );
+        }
+        this.directory = directory;
+        this.keyframeInterval = keyframeInterval;
+        this.compressed = compressed;
+        Files.deleteIfExists(new File(directory, INDEX_FILE).toPath());
+    }
+
+    /**
+     * Writes the next version, as a keyframe or as a delta
+     *
+     * @param snapshot The snapshot of the version, kept until the next version
+     * is written
+     * @param file The file with the name of the version
+     * @throws IOException Thrown if the version could not be written
+     */
+    @Override
+    public void write(Graph snapshot, File file) throws IOException {
+        String name = file.getName();
+        File output;
+        String type;
+
+        if (previous == null || sinceKeyframe >= keyframeInterval) {
+            type = KEYFRAME;
+            output = new File(
+                    directory, GraphFormat.BINARY.getFileName(name, compressed)
+            );
+            GraphFormat.BINARY.writeFile(snapshot, output, compressed);
+            sinceKeyframe = 0;
+        } else {
+            type = DELTA;
+            output = new File(directory, getDeltaFileName(name, compressed));
+            try (OutputStream outputStream
+                    = GraphFormat.openOutput(output, compressed)) {
+                GraphDelta.write(previous, snapshot, outputStream);
+            }
+        }
+        previous = snapshot;
+        sinceKeyframe++;
+
+        // The name of the version is last, so it can contain tabs
+        Files.write(
+                new File(directory, INDEX_FILE).toPath(),
+                (type + "\t" + output.getName() + "\t" + name + "\n")
+                        .getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND
+        );
+        LOGGER.info("Saved " + type + " to: " + output.getAbsolutePath());
+    }
+
+    /**
+     * Gets the name of a delta file
+     *
+     * @param name The name of the version
+     * @param compressed If the file is compressed
+     * @return The file name
+     */
+    private static String getDeltaFileName(String name, boolean compressed) {
+        return name + "." + DELTA_EXTENSION + (compressed
+                ? "." + GraphFormat.COMPRESSED_EXTENSION : "");
+    }
+
+}
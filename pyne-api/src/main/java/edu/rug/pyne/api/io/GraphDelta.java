@@ -0,0 +1,423 @@
+package edu.rug.pyne.api.io;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import org.apache.tinkerpop.gremlin.structure.Edge;
+import org.apache.tinkerpop.gremlin.structure.Element;
+import org.apache.tinkerpop.gremlin.structure.Graph;
+import org.apache.tinkerpop.gremlin.structure.Property;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+
+/**
+ * This class writes and applies the changes between two versions of a graph.
+ *
+ * The vertices and edges of the versions are matched by id, so the versions
+ * need to come from the same graph, like two snapshots taken while the
+ * commits of a repository are parsed one after the other. A vertex or edge
+ * that is only in the old version is removed, one that is only in the new
+ * version is added, and for the others the changed properties are written.
+ * A vertex that changed its label, or an edge that changed its label or
+ * vertices, is removed and added again. The graph variables are compared the
+ * same way.
+ *
+ * The changes are written as records in the binary format of
+ * BinaryGraphCodec, so strings are only written once. The removals come first,
+ * then the vertices and then the edges, so the records can be applied in the
+ * order they are read. The graph the changes are applied to needs to support
+ * user supplied ids, as the ids of the added vertices and edges are kept.
+ *
+ * @author Patrick Beuks (s2288842) <code@beuks.net>
+ */
+public class GraphDelta {
+
+    // The first bytes of every delta, "PYND"
+    private static final int MAGIC = 0x50594E44;
+    private static final int VERSION = 1;
+
+    // The record types
+    private static final int END = 0;
+    private static final int SET_VARIABLE = 1;
+    private static final int REMOVE_VARIABLE = 2;
+    private static final int REMOVE_EDGE = 3;
+    private static final int REMOVE_VERTEX = 4;
+    private static final int ADD_VERTEX = 5;
+    private static final int SET_VERTEX_PROPERTY = 6;
+    private static final int REMOVE_VERTEX_PROPERTY = 7;
+    private static final int ADD_EDGE = 8;
+    private static final int SET_EDGE_PROPERTY = 9;
+    private static final int REMOVE_EDGE_PROPERTY = 10;
+
+    private GraphDelta() {
+    }
+
+    /**
+     * Writes the changes from one version of a graph to another
+     *
+     * @param previous The old version
+     * @param current The new version
+     * @param outputStream The stream to write to, not closed
+     * @throws IOException Thrown if the changes could not be written or have
+     * a value of an unsupported type
+     */
+    public static void write(
+            Graph previous, Graph current, OutputStream outputStream
+    ) throws IOException {
+        BinaryGraphCodec.Encoder encoder = new BinaryGraphCodec.Encoder(
+                new DataOutputStream(new BufferedOutputStream(outputStream))
+        );
+        DataOutputStream output = encoder.output;
+        output.writeInt(MAGIC);
+        output.writeInt(VERSION);
+
+        writeVariables(encoder, getVariables(previous), getVariables(current));
+
+        Map<Object, Vertex> previousVertices = getVertices(previous);
+        Map<Object, Vertex> currentVertices = getVertices(current);
+        Map<Object, Edge> previousEdges = getEdges(previous);
+        Map<Object, Edge> currentEdges = getEdges(current);
+
+        // Remove the edges that are gone or changed
+        for (Edge edge : previousEdges.values()) {
+            if (!isSameEdge(edge, currentEdges.get(edge.id()),
+                    previousVertices, currentVertices)) {
+                encoder.writeVarInt(REMOVE_EDGE);
+                encoder.writeValue(edge.id());
+            }
+        }
+
+        // Remove the vertices that are gone or changed, with their edges
+        for (Vertex vertex : previousVertices.values()) {
+            if (!isSameVertex(vertex, currentVertices.get(vertex.id()))) {
+                encoder.writeVarInt(REMOVE_VERTEX);
+                encoder.writeValue(vertex.id());
+            }
+        }
+
+        // Add the new vertices and change the properties of the others
+        for (Vertex vertex : currentVertices.values()) {
+            Vertex previousVertex = previousVertices.get(vertex.id());
+            if (isSameVertex(previousVertex, vertex)) {
+                writeProperties(encoder, previousVertex, vertex,
+                        SET_VERTEX_PROPERTY, REMOVE_VERTEX_PROPERTY);
+            } else {
+                encoder.writeVarInt(ADD_VERTEX);
+                encoder.writeValue(vertex.id());
+                encoder.writeString(vertex.label());
+                encoder.writeProperties(vertex);
+            }
+        }
+
+        // Add the new edges and change the properties of the others
+        for (Edge edge : currentEdges.values()) {
+            Edge previousEdge = previousEdges.get(edge.id());
+            if (isSameEdge(previousEdge, edge,
+                    previousVertices, currentVertices)) {
+                writeProperties(encoder, previousEdge, edge,
+                        SET_EDGE_PROPERTY, REMOVE_EDGE_PROPERTY);
+            } else {
+                encoder.writeVarInt(ADD_EDGE);
+                encoder.writeValue(edge.id());
+                encoder.writeString(edge.label());
+                encoder.writeValue(edge.outVertex().id());
+                encoder.writeValue(edge.inVertex().id());
+                encoder.writeProperties(edge);
+            }
+        }
+
+        encoder.writeVarInt(END);
+        output.flush();
+    }
+
+    /**
+     * Applies changes to a graph, changing it from the old to the new version
+     *
+     * @param inputStream The stream to read the changes from, not closed
+     * @param graph The old version of the graph, changed to the new version
+     * @throws IOException Thrown if the changes could not be read, are not in
+     * this format or do not fit the graph
+     */
+    public static void apply(InputStream inputStream, Graph graph)
+            throws IOException {
+        BinaryGraphCodec.Decoder decoder = new BinaryGraphCodec.Decoder(
+                new DataInputStream(new BufferedInputStream(inputStream))
+        );
+        DataInputStream input = decoder.input;
+        if (input.readInt() != MAGIC) {
+            throw new IOException("Not a graph delta");
+        }
+        int version = input.readInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported graph delta version "
+                    + version);
+        }
+
+        int record;
+        while ((record = decoder.readVarInt()) != END) {
+            switch (record) {
+                case SET_VARIABLE:
+                    graph.variables().set(
+                            decoder.readString(), decoder.readValue()
+                    );
+                    break;
+                case REMOVE_VARIABLE:
+                    graph.variables().remove(decoder.readString());
+                    break;
+                case REMOVE_EDGE:
+                    getEdge(graph, decoder.readValue()).remove();
+                    break;
+                case REMOVE_VERTEX:
+                    getVertex(graph, decoder.readValue()).remove();
+                    break;
+                case ADD_VERTEX:
+                    Object vertexId = decoder.readValue();
+                    graph.addVertex(decoder.readKeyValues(
+                            vertexId, decoder.readString()
+                    ));
+                    break;
+                case SET_VERTEX_PROPERTY:
+                    getVertex(graph, decoder.readValue()).property(
+                            decoder.readString(), decoder.readValue()
+                    );
+                    break;
+                case REMOVE_VERTEX_PROPERTY:
+                    getVertex(graph, decoder.readValue())
+                            .property(decoder.readString()).remove();
+                    break;
+                case ADD_EDGE:
+                    Object edgeId = decoder.readValue();
+                    String label = decoder.readString();
+                    Vertex outVertex = getVertex(graph, decoder.readValue());
+                    Vertex inVertex = getVertex(graph, decoder.readValue());
+                    outVertex.addEdge(label, inVertex,
+                            decoder.readKeyValues(edgeId, null));
+                    break;
+                case SET_EDGE_PROPERTY:
+                    getEdge(graph, decoder.readValue()).property(
+                            decoder.readString(), decoder.readValue()
+                    );
+                    break;
+                case REMOVE_EDGE_PROPERTY:
+                    getEdge(graph, decoder.readValue())
+                            .property(decoder.readString()).remove();
+                    break;
+                default:
+                    throw new IOException("Unknown record type " + record);
+            }
+        }
+    }
+
+    /**
+     * Writes the changed graph variables
+     *
+     * @param encoder The encoder to write with
+     * @param previous The variables of the old version
+     * @param current The variables of the new version
+     * @throws IOException Thrown if the variables could not be written
+     */
+    private static void writeVariables(
+            BinaryGraphCodec.Encoder encoder,
+            Map<String, Object> previous,
+            Map<String, Object> current
+    ) throws IOException {
+        for (String key : previous.keySet()) {
+            if (!current.containsKey(key)) {
+                encoder.writeVarInt(REMOVE_VARIABLE);
+                encoder.writeString(key);
+            }
+        }
+        for (Map.Entry<String, Object> variable : current.entrySet()) {
+            if (!Objects.equals(previous.get(variable.getKey()),
+                    variable.getValue())) {
+                encoder.writeVarInt(SET_VARIABLE);
+                encoder.writeString(variable.getKey());
+                encoder.writeValue(variable.getValue());
+            }
+        }
+    }
+
+    /**
+     * Writes the changed properties of an element that is in both versions
+     *
+     * @param encoder The encoder to write with
+     * @param previous The element in the old version
+     * @param current The element in the new version
+     * @param setRecord The record type to set a property
+     * @param removeRecord The record type to remove a property
+     * @throws IOException Thrown if the properties could not be written
+     */
+    private static void writeProperties(
+            BinaryGraphCodec.Encoder encoder,
+            Element previous,
+            Element current,
+            int setRecord,
+            int removeRecord
+    ) throws IOException {
+        Map<String, Object> previousProperties = getProperties(previous);
+        Map<String, Object> currentProperties = getProperties(current);
+
+        for (String key : previousProperties.keySet()) {
+            if (!currentProperties.containsKey(key)) {
+                encoder.writeVarInt(removeRecord);
+                encoder.writeValue(current.id());
+                encoder.writeString(key);
+            }
+        }
+        for (Map.Entry<String, Object> property
+                : currentProperties.entrySet()) {
+            if (!Objects.equals(previousProperties.get(property.getKey()),
+                    property.getValue())) {
+                encoder.writeVarInt(setRecord);
+                encoder.writeValue(current.id());
+                encoder.writeString(property.getKey());
+                encoder.writeValue(property.getValue());
+            }
+        }
+    }
+
+    /**
+     * Checks if a vertex of the old version is kept in the new version. It is
+     * kept if it is in both versions with the same label.
+     *
+     * @param previous The vertex in the old version, may be null
+     * @param current The vertex with the same id in the new version, may be
+     * null
+     * @return True if the vertex is kept
+     */
+    private static boolean isSameVertex(Vertex previous, Vertex current) {
+        return previous != null && current != null
+                && previous.label().equals(current.label());
+    }
+
+    /**
+     * Checks if an edge of the old version is kept in the new version. It is
+     * kept if it is in both versions with the same label, and connects the
+     * same vertices, which are kept as well.
+     *
+     * @param previous The edge in the old version, may be null
+     * @param current The edge with the same id in the new version, may be
+     * null
+     * @param previousVertices The vertices of the old version by id
+     * @param currentVertices The vertices of the new version by id
+     * @return True if the edge is kept
+     */
+    private static boolean isSameEdge(
+            Edge previous,
+            Edge current,
+            Map<Object, Vertex> previousVertices,
+            Map<Object, Vertex> currentVertices
+    ) {
+        if (previous == null || current == null
+                || !previous.label().equals(current.label())) {
+            return false;
+        }
+        Object outId = current.outVertex().id();
+        Object inId = current.inVertex().id();
+        return outId.equals(previous.outVertex().id())
+                && inId.equals(previous.inVertex().id())
+                && isSameVertex(
+                        previousVertices.get(outId), currentVertices.get(outId)
+                )
+                && isSameVertex(
+                        previousVertices.get(inId), currentVertices.get(inId)
+                );
+    }
+
+    /**
+     * Gets the variables of a graph
+     *
+     * @param graph The graph to get the variables of
+     * @return The variables by key
+     */
+    private static Map<String, Object> getVariables(Graph graph) {
+        if (!graph.features().graph().variables().supportsVariables()) {
+            return Collections.emptyMap();
+        }
+        return graph.variables().asMap();
+    }
+
+    /**
+     * Gets the vertices of a graph by id
+     *
+     * @param graph The graph to get the vertices of
+     * @return The vertices by id
+     */
+    private static Map<Object, Vertex> getVertices(Graph graph) {
+        Map<Object, Vertex> vertices = new HashMap<>();
+        graph.vertices().forEachRemaining(
+                (vertex) -> vertices.put(vertex.id(), vertex)
+        );
+        return vertices;
+    }
+
+    /**
+     * Gets the edges of a graph by id
+     *
+     * @param graph The graph to get the edges of
+     * @return The edges by id
+     */
+    private static Map<Object, Edge> getEdges(Graph graph) {
+        Map<Object, Edge> edges = new HashMap<>();
+        graph.edges().forEachRemaining((edge) -> edges.put(edge.id(), edge));
+        return edges;
+    }
+
+    /**
+     * Gets the properties of an element by key
+     *
+     * @param element The element to get the properties of
+     * @return The property values by key
+     */
+    private static Map<String, Object> getProperties(Element element) {
+        Map<String, Object> properties = new HashMap<>();
+        Iterator<? extends Property<Object>> iterator = element.properties();
+        while (iterator.hasNext()) {
+            Property<Object> property = iterator.next();
+            properties.put(property.key(), property.value());
+        }
+        return properties;
+    }
+
+    /**
+     * Gets a vertex of a graph
+     *
+     * @param graph The graph to get the vertex from
+     * @param id The id of the vertex
+     * @return The vertex
+     * @throws IOException Thrown if the graph has no vertex with the id
+     */
+    private static Vertex getVertex(Graph graph, Object id)
+            throws IOException {
+        Iterator<Vertex> vertices = graph.vertices(id);
+        if (!vertices.hasNext()) {
+            throw new IOException("Delta changes unknown vertex " + id);
+        }
+        return vertices.next();
+    }
+
+    /**
+     * Gets an edge of a graph
+     *
+     * @param graph The graph to get the edge from
+     * @param id The id of the edge
+     * @return The edge
+     * @throws IOException Thrown if the graph has no edge with the id
+     */
+    private static Edge getEdge(Graph graph, Object id) throws IOException {
+        Iterator<Edge> edges = graph.edges(id);
+        if (!edges.hasNext()) {
+            throw new IOException("Delta changes unknown edge " + id);
+        }
+        return edges.next();
+    }
+
+}
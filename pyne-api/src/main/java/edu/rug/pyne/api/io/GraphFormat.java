@@ -0,0 +1,223 @@
+package edu.rug.pyne.api.io;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import org.apache.tinkerpop.gremlin.structure.Graph;
+import org.apache.tinkerpop.gremlin.structure.io.graphml.GraphMLReader;
+import org.apache.tinkerpop.gremlin.structure.io.graphml.GraphMLWriter;
+import org.apache.tinkerpop.gremlin.structure.io.graphson.GraphSONReader;
+import org.apache.tinkerpop.gremlin.structure.io.graphson.GraphSONWriter;
+
+/**
+ * The formats a graph can be written to and read from.
+ *
+ * GraphML is readable by most graph tools, but it is verbose and slow to read
+ * back. The binary format is a lot smaller and faster to read, but can only be
+ * read by pyne, see BinaryGraphCodec. GraphSON is the JSON format of
+ * TinkerPop.
+ *
+ * Any format can be compressed with gzip while it is written. A compressed
+ * file gets the gz extension after the extension of the format, so the format
+ * and compression of a file can be found from its name when it is read.
+ *
+ * @author Patrick Beuks (s2288842) <code@beuks.net>
+ */
+public enum GraphFormat {
+
+    GRAPHML("graphml"),
+    BINARY("pyne"),
+    GRAPHSON("json");
+
+    // The extension added to compressed files
+    public static final String COMPRESSED_EXTENSION = "gz";
+
+    // The size of the buffers around the file streams
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final String extension;
+
+    /**
+     * Creates a graph format
+     *
+     * @param extension The file extension of the format
+     */
+    private GraphFormat(String extension) {
+        this.extension = extension;
+    }
+
+    /**
+     * Gets the file extension of the format, without the dot
+     *
+     * @return The extension
+     */
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * Gets the name of a file in this format
+     *
+     * @param baseName The name without extension
+     * @param compressed If the file is compressed
+     * @return The name with the extensions
+     */
+    public String getFileName(String baseName, boolean compressed) {
+        return baseName + "." + extension
+                + (compressed ? "." + COMPRESSED_EXTENSION : "");
+    }
+
+    /**
+     * Writes a graph to a stream
+     *
+     * @param graph The graph to write
+     * @param outputStream The stream to write to, not closed
+     * @throws IOException Thrown if the graph could not be written
+     */
+    public void write(Graph graph, OutputStream outputStream)
+            throws IOException {
+        switch (this) {
+            case BINARY:
+                BinaryGraphCodec.write(graph, outputStream);
+                break;
+            case GRAPHSON:
+                GraphSONWriter.build().create().writeGraph(outputStream, graph);
+                break;
+            default:
+                GraphMLWriter.build().create().writeGraph(outputStream, graph);
+                break;
+        }
+    }
+
+    /**
+     * Reads a graph from a stream into a graph
+     *
+     * @param inputStream The stream to read from, not closed
+     * @param graph The graph to add the vertices and edges to
+     * @throws IOException Thrown if the graph could not be read
+     */
+    public void read(InputStream inputStream, Graph graph) throws IOException {
+        switch (this) {
+            case BINARY:
+                BinaryGraphCodec.read(inputStream, graph);
+                break;
+            case GRAPHSON:
+                GraphSONReader.build().create().readGraph(inputStream, graph);
+                break;
+            default:
+                GraphMLReader.build().create().readGraph(inputStream, graph);
+                break;
+        }
+    }
+
+    /**
+     * Writes a graph to a file
+     *
+     * @param graph The graph to write
+     * @param file The file to write to
+     * @param compressed If the file is compressed with gzip
+     * @throws IOException Thrown if the file could not be written
+     */
+    public void writeFile(Graph graph, File file, boolean compressed)
+            throws IOException {
+        try (OutputStream outputStream = openOutput(file, compressed)) {
+            write(graph, outputStream);
+        }
+    }
+
+    /**
+     * Reads a file into a graph. The format and compression are found using
+     * the extensions of the file.
+     *
+     * @param file The file to read
+     * @param graph The graph to add the vertices and edges to
+     * @throws IOException Thrown if the file could not be read or is not in a
+     * known format
+     */
+    public static void readFile(File file, Graph graph) throws IOException {
+        String name = file.getName();
+        boolean compressed = name.endsWith("." + COMPRESSED_EXTENSION);
+        if (compressed) {
+            name = name.substring(
+                    0, name.length() - COMPRESSED_EXTENSION.length() - 1
+            );
+        }
+
+        GraphFormat format = null;
+        for (GraphFormat graphFormat : values()) {
+            if (name.endsWith("." + graphFormat.extension)) {
+                format = graphFormat;
+            }
+        }
+        if (format == null) {
+            throw new IOException("Unknown graph format: " + file.getName());
+        }
+
+        try (InputStream inputStream = openInput(file, compressed)) {
+            format.read(inputStream, graph);
+        }
+    }
+
+    /**
+     * Gets a format by its name or extension, ignoring case
+     *
+     * @param name The name or extension of the format
+     * @return The format
+     * @throws IllegalArgumentException Thrown if no format has the name
+     */
+    public static GraphFormat fromName(String name) {
+        for (GraphFormat graphFormat : values()) {
+            if (graphFormat.name().equalsIgnoreCase(name)
+                    || graphFormat.extension.equalsIgnoreCase(name)) {
+                return graphFormat;
+            }
+        }
+        throw new IllegalArgumentException("Unknown graph format: " + name);
+    }
+
+    /**
+     * Opens a buffered stream to write a file
+     *
+     * @param file The file to write
+     * @param compressed If the stream compresses with gzip
+     * @return The stream
+     * @throws IOException Thrown if the file could not be opened
+     */
+    public static OutputStream openOutput(File file, boolean compressed)
+            throws IOException {
+        OutputStream outputStream = new BufferedOutputStream(
+                new FileOutputStream(file), BUFFER_SIZE
+        );
+        if (compressed) {
+            outputStream = new GZIPOutputStream(outputStream, BUFFER_SIZE);
+        }
+        return outputStream;
+    }
+
+    /**
+     * Opens a buffered stream to read a file
+     *
+     * @param file The file to read
+     * @param compressed If the stream decompresses with gzip
+     * @return The stream
+     * @throws IOException Thrown if the file could not be opened
+     */
+    public static InputStream openInput(File file, boolean compressed)
+            throws IOException {
+        InputStream inputStream = new BufferedInputStream(
+                new FileInputStream(file), BUFFER_SIZE
+        );
+        if (compressed) {
+            inputStream = new GZIPInputStream(inputStream, BUFFER_SIZE);
+        }
+        return inputStream;
+    }
+
+}
@@ -0,0 +1,305 @@
+package edu.rug.pyne.api.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.tinkerpop.gremlin.structure.Edge;
+import org.apache.tinkerpop.gremlin.structure.Graph;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerGraph;
+
+/**
+ * This class writes graphs to files in the background.
+ *
+ * Writing a large graph takes about as long as parsing a commit
+ * incrementally. A graph given to the writer is copied to an in memory
+ * snapshot, which is cheap compared to writing it, and the snapshot is put in
+ * a queue. A background thread takes the snapshots from the queue and writes
+ * them, so the next commit can be parsed while the last one is written.
+ *
+ * The queue is bounded, so a caller that parses faster than the snapshots are
+ * written waits until there is room in the queue. The snapshots are written
+ * in the order they are given, graphs can be given from multiple threads. A
+ * failed write is thrown by the next call to write or close.
+ *
+ * The snapshots are written as GraphML by default. Another format and gzip
+ * compression can be set when the writer is created, or a sink that does
+ * something else with the snapshots, like writing the changes since the last
+ * snapshot only. The sink is only called from the writer thread.
+ *
+ * @author Patrick Beuks (s2288842) <code@beuks.net>
+ */
+public class SnapshotWriter implements AutoCloseable {
+
+    private static final Logger LOGGER
+            = LogManager.getLogger(SnapshotWriter.class);
+
+    // The number of snapshots waiting to be written by default
+    public static final int DEFAULT_QUEUE_SIZE = 2;
+
+    // Put in the queue to stop the writer thread
+    private static final Snapshot END = new Snapshot(null, null);
+
+    // The snapshots waiting to be written
+    private final BlockingQueue<Snapshot> queue;
+
+    // The thread writing the snapshots
+    private final Thread writerThread;
+
+    // Writes the snapshots, called by the writer thread
+    private final Sink sink;
+
+    // The first failure of the writer thread
+    private volatile IOException failure;
+
+    private volatile boolean closed = false;
+
+    /**
+     * Writes the snapshots taken by a snapshot writer
+     */
+    @FunctionalInterface
+    public interface Sink {
+
+        /**
+         * Writes a snapshot. Called for one snapshot at a time, in the order
+         * the snapshots were given to the writer.
+         *
+         * @param snapshot The copy of the graph, owned by the sink
+         * @param file The file given with the graph
+         * @throws IOException Thrown if the snapshot could not be written
+         */
+        void write(Graph snapshot, File file) throws IOException;
+
+    }
+
+    /**
+     * Holds a snapshot and the file to write it to
+     */
+    private static class Snapshot {
+
+        private final Graph graph;
+        private final File file;
+
+        /**
+         * Creates a snapshot to write
+         *
+         * @param graph The copy of the graph
+         * @param file The file to write to
+         */
+        Snapshot(Graph graph, File file) {
+            this.graph = graph;
+            this.file = file;
+        }
+
+    }
+
+    /**
+     * Creates a snapshot writer with the default queue size
+     */
+    public SnapshotWriter() {
+        this(DEFAULT_QUEUE_SIZE);
+    }
+
+    /**
+     * Creates a snapshot writer writing GraphML
+     *
+     * @param queueSize The number of snapshots that can wait to be written
+     * before a write blocks
+     */
+    public SnapshotWriter(int queueSize) {
+        this(queueSize, GraphFormat.GRAPHML, false);
+    }
+
+    /**
+     * Creates a snapshot writer
+     *
+     * @param queueSize The number of snapshots that can wait to be written
+     * before a write blocks
+     * @param format The format to write the snapshots in
+     * @param compressed If the snapshots are compressed with gzip
+     */
+    public SnapshotWriter(
+            int queueSize, GraphFormat format, boolean compressed
+    ) {
+        this(queueSize, (snapshot, file) -> {
+            format.writeFile(snapshot, file, compressed);
+            LOGGER.info("Saved graph to: " + file.getAbsolutePath());
+        });
+    }
+
+    /**
+     * Creates a snapshot writer giving the snapshots to a sink
+     *
+     * @param queueSize The number of snapshots that can wait to be written
+     * before a write blocks
+     * @param sink The sink writing the snapshots
+     */
+    public SnapshotWriter(int queueSize, Sink sink) {
+        if (queueSize < 1) {
+            throw new IllegalArgumentException(
+                    "The queue size needs to be at least 1"
+            );
+        }
+        this.sink = sink;
+        queue = new ArrayBlockingQueue<>(queueSize);
+        writerThread = new Thread(this::writeSnapshots, "snapshot-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    /**
+     * Takes a snapshot of a graph and queues it to be written. Waits if the
+     * queue is full. The graph can be changed as soon as this returns.
+     *
+     * @param graph The graph to write
+     * @param file The file to write the graph to
+     * @throws IOException Thrown if an earlier snapshot could not be written,
+     * or if interrupted while waiting
+     */
+    public void write(Graph graph, File file) throws IOException {
+        checkFailure();
+        if (closed) {
+            throw new IllegalStateException("The snapshot writer is closed");
+        }
+        writeSnapshot(snapshot(graph), file);
+    }
+
+    /**
+     * Queues a snapshot that is already taken to be written. Waits if the
+     * queue is full. The snapshot should not be changed after this.
+     *
+     * @param snapshot The snapshot to write, see snapshot
+     * @param file The file to write the snapshot to
+     * @throws IOException Thrown if an earlier snapshot could not be written,
+     * or if interrupted while waiting
+     */
+    public void writeSnapshot(Graph snapshot, File file) throws IOException {
+        checkFailure();
+        if (closed) {
+            throw new IllegalStateException("The snapshot writer is closed");
+        }
+        put(new Snapshot(snapshot, file));
+    }
+
+    /**
+     * Waits until all queued snapshots are written and stops the writer
+     * thread.
+     *
+     * @throws IOException Thrown if a snapshot could not be written, or if
+     * interrupted while waiting
+     */
+    @Override
+    public void close() throws IOException {
+        if (!closed) {
+            closed = true;
+            put(END);
+            try {
+                writerThread.join();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while closing", ex);
+            }
+        }
+        checkFailure();
+    }
+
+    /**
+     * Copies a graph to a new in memory graph. The vertices and edges keep
+     * their ids, labels and properties, and the graph variables are copied.
+     *
+     * @param graph The graph to copy
+     * @return The copy
+     */
+    public static Graph snapshot(Graph graph) {
+        TinkerGraph copy = TinkerGraph.open();
+        Map<Object, Vertex> vertices = new HashMap<>();
+
+        graph.vertices().forEachRemaining((vertex) -> {
+            Vertex vertexCopy = copy.addVertex(
+                    T.id, vertex.id(), T.label, vertex.label()
+            );
+            vertex.properties().forEachRemaining((property)
+                    -> vertexCopy.property(property.key(), property.value())
+            );
+            vertices.put(vertex.id(), vertexCopy);
+        });
+
+        graph.edges().forEachRemaining((edge) -> {
+            Edge edgeCopy = vertices.get(edge.outVertex().id()).addEdge(
+                    edge.label(), vertices.get(edge.inVertex().id()),
+                    T.id, edge.id()
+            );
+            edge.properties().forEachRemaining((property)
+                    -> edgeCopy.property(property.key(), property.value())
+            );
+        });
+
+        if (graph.features().graph().variables().supportsVariables()) {
+            graph.variables().asMap().forEach(copy.variables()::set);
+        }
+        return copy;
+    }
+
+    /**
+     * Puts a snapshot in the queue, waiting if it is full
+     *
+     * @param snapshot The snapshot to put
+     * @throws IOException Thrown if interrupted while waiting
+     */
+    private void put(Snapshot snapshot) throws IOException {
+        try {
+            queue.put(snapshot);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while queueing a snapshot", ex);
+        }
+    }
+
+    /**
+     * Throws the failure of the writer thread, if any
+     *
+     * @throws IOException The failure
+     */
+    private void checkFailure() throws IOException {
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Writes the snapshots in the queue until the end is reached. After a
+     * failure the remaining snapshots are skipped.
+     */
+    private void writeSnapshots() {
+        while (true) {
+            Snapshot snapshot;
+            try {
+                snapshot = queue.take();
+            } catch (InterruptedException ex) {
+                return;
+            }
+            if (snapshot == END) {
+                return;
+            }
+            if (failure != null) {
+                continue;
+            }
+
+            try {
+                sink.write(snapshot.graph, snapshot.file);
+            } catch (IOException | RuntimeException ex) {
+                LOGGER.error("Failed to write graph to: "
+                        + snapshot.file.getAbsolutePath(), ex);
+                failure = new IOException("Failed to write graph to: "
+                        + snapshot.file.getAbsolutePath(), ex);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,504 @@
+package edu.rug.pyne.api.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.apache.commons.configuration.BaseConfiguration;
+import org.apache.commons.configuration.Configuration;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.tinkerpop.gremlin.process.traversal.P;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversal;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversalSource;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__;
+import org.apache.tinkerpop.gremlin.process.traversal.strategy.decoration.SubgraphStrategy;
+import org.apache.tinkerpop.gremlin.structure.Edge;
+import org.apache.tinkerpop.gremlin.structure.Element;
+import org.apache.tinkerpop.gremlin.structure.Graph;
+import org.apache.tinkerpop.gremlin.structure.Property;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.apache.tinkerpop.gremlin.structure.VertexProperty;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerGraph;
+
+/**
+ * This class keeps a history of graph versions in a single graph.
+ *
+ * Consecutive versions of a system differ by a small part of the graph, so
+ * instead of a graph per version every vertex and edge is only kept once,
+ * with the versions in which it existed. The versions are numbered in the
+ * order they are added, and every element gets the number of the first
+ * version it is in as validFrom, and the number of the first version it is no
+ * longer in as validTo. An element that is still in the last version is valid
+ * to OPEN.
+ *
+ * The properties of a vertex are kept as a list of values, every value with
+ * its own validFrom and validTo, so the history of for example the lines of
+ * code of a class is kept on its vertex. An edge that changes its properties,
+ * like the weight of a dependency, is closed and added again, so the history
+ * of an edge is the list of edges with the same label between the same
+ * vertices.
+ *
+ * Vertices are matched between versions by their label and name, so the
+ * versions do not need to be snapshots of the same graph, like graphs parsed
+ * in different windows. Vertices without a name are matched by their id.
+ * Edges are matched by their label and the vertices they connect. The graph
+ * variables are not kept.
+ *
+ * A version is read with a traversal that only sees the elements and
+ * property values that were valid in the version. The temporal graph is a
+ * sink of a snapshot writer, the name of the file given with a snapshot is
+ * used as the name of the version.
+ *
+ * @author Patrick Beuks (s2288842) <code@beuks.net>
+ */
+public class TemporalGraph implements SnapshotWriter.Sink {
+
+    private static final Logger LOGGER
+            = LogManager.getLogger(TemporalGraph.class);
+
+    // The keys with the versions an element or property value is valid in
+    public static final String VALID_FROM = "validFrom";
+    public static final String VALID_TO = "validTo";
+
+    // The validTo of an element that is in the last version
+    public static final int OPEN = Integer.MAX_VALUE;
+
+    // The name of the graph file and the file listing the versions
+    public static final String GRAPH_NAME = "history";
+    public static final String INDEX_FILE = "history.index";
+
+    // The key the vertices are matched by
+    private static final String NAME_KEY = "name";
+
+    // The graph with all elements of all versions
+    private final Graph graph;
+
+    // The names of the versions in the order they were added
+    private final List<String> names = new ArrayList<>();
+    private final Map<String, Integer> versionNumbers = new HashMap<>();
+
+    // The vertices and edges in the last version, by their keys
+    private final Map<Object, Vertex> openVertices = new HashMap<>();
+    private final Map<Object, Edge> openEdges = new HashMap<>();
+
+    /**
+     * Creates an empty temporal graph
+     */
+    public TemporalGraph() {
+        this(createGraph());
+    }
+
+    /**
+     * Creates a temporal graph around a graph with a history
+     *
+     * @param graph The graph with the history, its vertex properties need to
+     * have list cardinality by default
+     */
+    private TemporalGraph(Graph graph) {
+        this.graph = graph;
+    }
+
+    /**
+     * Adds the next version of the graph. The graph is only read while this
+     * method runs, so the graph of a parser can be given directly.
+     *
+     * @param name The name of the version
+     * @param version The graph of the version
+     */
+    public void add(String name, Graph version) {
+        if (versionNumbers.containsKey(name)) {
+            throw new IllegalArgumentException(
+                    "The version is already added: " + name
+            );
+        }
+        int number = names.size();
+        names.add(name);
+        versionNumbers.put(name, number);
+
+        // Add the new vertices and update the properties of the others
+        Map<Vertex, Vertex> vertices = new HashMap<>();
+        Set<Object> vertexKeys = new HashSet<>();
+        version.vertices().forEachRemaining((vertex) -> {
+            Object key = getVertexKey(vertex);
+            Vertex historyVertex = openVertices.get(key);
+            if (historyVertex == null) {
+                historyVertex = graph.addVertex(vertex.label());
+                setValidity(historyVertex, number, OPEN);
+                openVertices.put(key, historyVertex);
+            }
+            updateProperties(historyVertex, vertex, number);
+            vertices.put(vertex, historyVertex);
+            vertexKeys.add(key);
+        });
+
+        // Add the new and changed edges
+        Map<Object, Integer> edgeCounts = new HashMap<>();
+        Set<Object> edgeKeys = new HashSet<>();
+        version.edges().forEachRemaining((edge) -> {
+            Object key = getEdgeKey(edge, edgeCounts);
+            Map<String, Object> properties = getProperties(edge);
+            Edge historyEdge = openEdges.get(key);
+            if (historyEdge != null
+                    && !properties.equals(getProperties(historyEdge))) {
+                historyEdge.property(VALID_TO, number);
+                historyEdge = null;
+            }
+            if (historyEdge == null) {
+                historyEdge = vertices.get(edge.outVertex()).addEdge(
+                        edge.label(), vertices.get(edge.inVertex())
+                );
+                historyEdge.property(VALID_FROM, number);
+                historyEdge.property(VALID_TO, OPEN);
+                properties.forEach(historyEdge::property);
+                openEdges.put(key, historyEdge);
+            }
+            edgeKeys.add(key);
+        });
+
+        // Close the elements that are no longer in the graph
+        Iterator<Map.Entry<Object, Edge>> edgeIterator
+                = openEdges.entrySet().iterator();
+        while (edgeIterator.hasNext()) {
+            Map.Entry<Object, Edge> entry = edgeIterator.next();
+            if (!edgeKeys.contains(entry.getKey())) {
+                entry.getValue().property(VALID_TO, number);
+                edgeIterator.remove();
+            }
+        }
+        Iterator<Map.Entry<Object, Vertex>> vertexIterator
+                = openVertices.entrySet().iterator();
+        while (vertexIterator.hasNext()) {
+            Map.Entry<Object, Vertex> entry = vertexIterator.next();
+            if (!vertexKeys.contains(entry.getKey())) {
+                Vertex historyVertex = entry.getValue();
+                getOpenProperties(historyVertex).values().forEach(
+                        (property) -> property.property(VALID_TO, number)
+                );
+                setValidity(historyVertex,
+                        historyVertex.value(VALID_FROM), number);
+                vertexIterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Adds a snapshot as the next version
+     *
+     * @param snapshot The snapshot of the version
+     * @param file The file with the name of the version
+     */
+    @Override
+    public void write(Graph snapshot, File file) {
+        add(file.getName(), snapshot);
+        LOGGER.info("Added version: " + file.getName());
+    }
+
+    /**
+     * Gets the names of the versions in the order they were added
+     *
+     * @return The names of the versions
+     */
+    public List<String> getNames() {
+        return Collections.unmodifiableList(names);
+    }
+
+    /**
+     * Gets the graph with the complete history
+     *
+     * @return The graph with the elements of all versions
+     */
+    public Graph getGraph() {
+        return graph;
+    }
+
+    /**
+     * Gets a traversal source that only sees the vertices, edges and property
+     * values of a version
+     *
+     * @param name The name of the version
+     * @return The traversal source of the version
+     */
+    public GraphTraversalSource traversal(String name) {
+        int number = getVersionNumber(name);
+        return graph.traversal().withStrategies(SubgraphStrategy.build()
+                .vertices(isValidIn(number))
+                .edges(isValidIn(number))
+                .vertexProperties(__.<VertexProperty>or(
+                        __.hasKey(VALID_FROM, VALID_TO), isValidIn(number)
+                ))
+                .create());
+    }
+
+    /**
+     * Copies a version to a new graph, without the validity of the elements
+     *
+     * @param name The name of the version
+     * @return A new graph with the version
+     */
+    public Graph getVersion(String name) {
+        GraphTraversalSource traversal = traversal(name);
+        Graph copy = TinkerGraph.open();
+
+        // Copy the vertices with the values valid in the version
+        Map<Object, Vertex> vertices = new HashMap<>();
+        traversal.V().forEachRemaining((vertex) -> {
+            Vertex vertexCopy = copy.addVertex(
+                    T.id, vertex.id(), T.label, vertex.label()
+            );
+            traversal.V(vertex).properties().forEachRemaining((property) -> {
+                if (!isValidityKey(property.key())) {
+                    vertexCopy.property(property.key(), property.value());
+                }
+            });
+            vertices.put(vertex.id(), vertexCopy);
+        });
+
+        traversal.E().forEachRemaining((edge) -> {
+            Edge edgeCopy = vertices.get(edge.outVertex().id()).addEdge(
+                    edge.label(), vertices.get(edge.inVertex().id()),
+                    T.id, edge.id()
+            );
+            getProperties(edge).forEach(edgeCopy::property);
+        });
+        return copy;
+    }
+
+    /**
+     * Writes the history to a directory, as a graph in the GraphSON format
+     * and an index file with the names of the versions
+     *
+     * @param directory The directory to write to
+     * @param compressed If the graph file is compressed with gzip
+     * @throws IOException Thrown if the files could not be written
+     */
+    public void writeFiles(File directory, boolean compressed)
+            throws IOException {
+        File output = new File(directory,
+                GraphFormat.GRAPHSON.getFileName(GRAPH_NAME, compressed));
+        GraphFormat.GRAPHSON.writeFile(graph, output, compressed);
+
+        StringBuilder index = new StringBuilder();
+        names.forEach((name) -> index.append(name).append("\n"));
+        Files.write(
+                new File(directory, INDEX_FILE).toPath(),
+                index.toString().getBytes(StandardCharsets.UTF_8)
+        );
+        LOGGER.info("Saved history to: " + output.getAbsolutePath());
+    }
+
+    /**
+     * Reads a history written by writeFiles. More versions can be added to
+     * the history that is read.
+     *
+     * @param directory The directory the history was written to
+     * @return The temporal graph with the history
+     * @throws IOException Thrown if the files could not be read
+     */
+    public static TemporalGraph readFiles(File directory) throws IOException {
+        File input = new File(directory,
+                GraphFormat.GRAPHSON.getFileName(GRAPH_NAME, false));
+        if (!input.isFile()) {
+            input = new File(directory,
+                    GraphFormat.GRAPHSON.getFileName(GRAPH_NAME, true));
+        }
+        TemporalGraph temporalGraph = new TemporalGraph(createGraph());
+        GraphFormat.readFile(input, temporalGraph.graph);
+
+        for (String name : Files.readAllLines(
+                new File(directory, INDEX_FILE).toPath(),
+                StandardCharsets.UTF_8
+        )) {
+            if (!name.isEmpty()) {
+                temporalGraph.versionNumbers.put(
+                        name, temporalGraph.names.size()
+                );
+                temporalGraph.names.add(name);
+            }
+        }
+
+        // Find the elements in the last version, to add the next version to
+        Map<Object, Integer> edgeCounts = new HashMap<>();
+        temporalGraph.graph.vertices().forEachRemaining((vertex) -> {
+            if ((int) vertex.value(VALID_TO) == OPEN) {
+                temporalGraph.openVertices.put(getVertexKey(vertex), vertex);
+            }
+        });
+        temporalGraph.graph.edges().forEachRemaining((edge) -> {
+            if ((int) edge.value(VALID_TO) == OPEN) {
+                temporalGraph.openEdges.put(
+                        getEdgeKey(edge, edgeCounts), edge
+                );
+            }
+        });
+        return temporalGraph;
+    }
+
+    /**
+     * Creates a graph that keeps a list of values for a vertex property
+     *
+     * @return The new graph
+     */
+    private static Graph createGraph() {
+        Configuration configuration = new BaseConfiguration();
+        configuration.setProperty(
+                TinkerGraph.GREMLIN_TINKERGRAPH_DEFAULT_VERTEX_PROPERTY_CARDINALITY,
+                VertexProperty.Cardinality.list.name()
+        );
+        return TinkerGraph.open(configuration);
+    }
+
+    /**
+     * Gets the number of a version
+     *
+     * @param name The name of the version
+     * @return The number of the version
+     */
+    private int getVersionNumber(String name) {
+        Integer number = versionNumbers.get(name);
+        if (number == null) {
+            throw new IllegalArgumentException("Unknown version: " + name);
+        }
+        return number;
+    }
+
+    /**
+     * Creates a filter for the elements and property values that are valid in
+     * a version
+     *
+     * @param <E> The type of the elements or property values
+     * @param number The number of the version
+     * @return The filter traversal
+     */
+    private static <E extends Element> GraphTraversal<E, E> isValidIn(
+            int number) {
+        return __.<E>has(VALID_FROM, P.lte(number))
+                .has(VALID_TO, P.gt(number));
+    }
+
+    /**
+     * Sets the versions a history vertex is valid in
+     *
+     * @param vertex The history vertex
+     * @param validFrom The first version the vertex is in
+     * @param validTo The first version the vertex is no longer in
+     */
+    private static void setValidity(Vertex vertex, int validFrom,
+            int validTo) {
+        vertex.property(VertexProperty.Cardinality.single, VALID_FROM,
+                validFrom);
+        vertex.property(VertexProperty.Cardinality.single, VALID_TO, validTo);
+    }
+
+    /**
+     * Closes the property values of a history vertex that changed or are
+     * removed, and adds the new values
+     *
+     * @param historyVertex The history vertex
+     * @param vertex The vertex in the version
+     * @param number The number of the version
+     */
+    private static void updateProperties(Vertex historyVertex, Vertex vertex,
+            int number) {
+        Map<String, VertexProperty<Object>> openProperties
+                = getOpenProperties(historyVertex);
+        Map<String, Object> properties = getProperties(vertex);
+
+        openProperties.forEach((key, property) -> {
+            if (!property.value().equals(properties.get(key))) {
+                property.property(VALID_TO, number);
+            }
+        });
+        properties.forEach((key, value) -> {
+            VertexProperty<Object> property = openProperties.get(key);
+            if (property == null || !property.value().equals(value)) {
+                historyVertex.property(VertexProperty.Cardinality.list, key,
+                        value, VALID_FROM, number, VALID_TO, OPEN);
+            }
+        });
+    }
+
+    /**
+     * Gets the property values of a history vertex that are in the last
+     * version
+     *
+     * @param historyVertex The history vertex
+     * @return The open property values by their key
+     */
+    private static Map<String, VertexProperty<Object>> getOpenProperties(
+            Vertex historyVertex) {
+        Map<String, VertexProperty<Object>> properties = new HashMap<>();
+        historyVertex.properties().forEachRemaining((property) -> {
+            if (!isValidityKey(property.key())
+                    && (int) property.value(VALID_TO) == OPEN) {
+                properties.put(property.key(), (VertexProperty) property);
+            }
+        });
+        return properties;
+    }
+
+    /**
+     * Gets the properties of an element, without the validity
+     *
+     * @param element The element
+     * @return The values of the properties by their key
+     */
+    private static Map<String, Object> getProperties(Element element) {
+        Map<String, Object> properties = new HashMap<>();
+        element.properties().forEachRemaining((property) -> {
+            if (!isValidityKey(property.key())) {
+                properties.put(property.key(), property.value());
+            }
+        });
+        return properties;
+    }
+
+    /**
+     * Checks if a property key is used for the validity of an element
+     *
+     * @param key The property key
+     * @return True if the key is validFrom or validTo
+     */
+    private static boolean isValidityKey(String key) {
+        return VALID_FROM.equals(key) || VALID_TO.equals(key);
+    }
+
+    /**
+     * Gets the key a vertex is matched by between versions
+     *
+     * @param vertex The vertex
+     * @return The label with the name, or the id if there is no name
+     */
+    private static Object getVertexKey(Vertex vertex) {
+        Property<Object> name = vertex.property(NAME_KEY);
+        return List.of(vertex.label(),
+                name.isPresent() ? name.value() : vertex.id());
+    }
+
+    /**
+     * Gets the key an edge is matched by between versions. Edges with the
+     * same label between the same vertices are numbered in the order they are
+     * found.
+     *
+     * @param edge The edge
+     * @param edgeCounts The number of edges found for every key
+     * @return The label with the keys of the vertices and the number
+     */
+    private static Object getEdgeKey(Edge edge,
+            Map<Object, Integer> edgeCounts) {
+        List<Object> key = List.of(edge.label(),
+                getVertexKey(edge.outVertex()), getVertexKey(edge.inVertex()));
+        int count = edgeCounts.merge(key, 1, Integer::sum);
+        return List.of(key, count);
+    }
+
+}
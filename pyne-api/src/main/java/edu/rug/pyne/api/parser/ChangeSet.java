@@ -0,0 +1,291 @@
+package edu.rug.pyne.api.parser;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * This class holds the files that are added, modified and removed between two
+ * versions of the source code.
+ *
+ * The files are stored as paths relative to the root directory, using forward
+ * slashes, like the paths git uses in its diffs. A file is looked up by
+ * converting it to this form first, so different forms of the same path, like
+ * a relative and an absolute path, match the same entry. The paths are kept in
+ * hash sets, so a lookup takes constant time no matter how many files changed.
+ *
+ * A renamed file is stored as an added file with the path it was renamed
+ * from, so the classes declared in it can be kept instead of being removed
+ * and created again.
+ *
+ * @author Patrick Beuks (s2288842) <code@beuks.net>
+ */
+public class ChangeSet {
+
+    // The directory the paths are relative to
+    private final File rootDirectory;
+    private final Path rootPath;
+
+    // The changed paths, in the order they are added
+    private final Set<String> addedPaths = new LinkedHashSet<>();
+    private final Set<String> modifiedPaths = new LinkedHashSet<>();
+    private final Set<String> removedPaths = new LinkedHashSet<>();
+
+    // The new path per old path of the renamed files
+    private final Map<String, String> renamedPaths = new LinkedHashMap<>();
+
+    /**
+     * Creates an empty change set
+     *
+     * @param rootDirectory The directory the paths are relative to
+     */
+    public ChangeSet(File rootDirectory) {
+        this.rootDirectory = rootDirectory;
+        this.rootPath = rootDirectory == null ? null
+                : rootDirectory.getAbsoluteFile().toPath().normalize();
+    }
+
+    /**
+     * Gets the directory the paths are relative to
+     *
+     * @return The root directory
+     */
+    public File getRootDirectory() {
+        return rootDirectory;
+    }
+
+    /**
+     * Gets the path of a file as stored in the change set. This is the path
+     * relative to the root directory, or the absolute path if the file is not
+     * inside the root directory.
+     *
+     * @param file The file to get the path of
+     * @return The path with forward slashes
+     */
+    public String getPath(File file) {
+        Path path = file.getAbsoluteFile().toPath().normalize();
+        if (rootPath != null && path.startsWith(rootPath)) {
+            path = rootPath.relativize(path);
+        }
+        return path.toString().replace(File.separatorChar, '/');
+    }
+
+    /**
+     * Gets the file of a path as stored in the change set
+     *
+     * @param path The path relative to the root directory
+     * @return The file inside the root directory
+     */
+    public File getFile(String path) {
+        File file = new File(path);
+        if (file.isAbsolute() || rootDirectory == null) {
+            return file;
+        }
+        return new File(rootDirectory, path);
+    }
+
+    /**
+     * Adds a path of an added file
+     *
+     * @param path The path relative to the root directory
+     */
+    public void addAdded(String path) {
+        addedPaths.add(path);
+    }
+
+    /**
+     * Adds a path of a modified file
+     *
+     * @param path The path relative to the root directory
+     */
+    public void addModified(String path) {
+        modifiedPaths.add(path);
+    }
+
+    /**
+     * Adds a path of a removed file
+     *
+     * @param path The path relative to the root directory
+     */
+    public void addRemoved(String path) {
+        removedPaths.add(path);
+    }
+
+    /**
+     * Adds the paths of a renamed file. The new path is added as an added
+     * file.
+     *
+     * @param oldPath The path before the rename, relative to the root
+     * directory
+     * @param newPath The path after the rename, relative to the root
+     * directory
+     */
+    public void addRenamed(String oldPath, String newPath) {
+        addedPaths.add(newPath);
+        renamedPaths.put(oldPath, newPath);
+    }
+
+    /**
+     * Replaces the added files with the given files
+     *
+     * @param files The added files
+     */
+    public void setAddedFiles(Collection<File> files) {
+        setFiles(addedPaths, files);
+    }
+
+    /**
+     * Replaces the modified files with the given files
+     *
+     * @param files The modified files
+     */
+    public void setModifiedFiles(Collection<File> files) {
+        setFiles(modifiedPaths, files);
+    }
+
+    /**
+     * Replaces the removed files with the given files
+     *
+     * @param files The removed files
+     */
+    public void setRemovedFiles(Collection<File> files) {
+        setFiles(removedPaths, files);
+    }
+
+    /**
+     * Checks if a file is added
+     *
+     * @param file The file to check, may be null
+     * @return True if the file is added
+     */
+    public boolean isAdded(File file) {
+        return file != null && addedPaths.contains(getPath(file));
+    }
+
+    /**
+     * Checks if a file is modified
+     *
+     * @param file The file to check, may be null
+     * @return True if the file is modified
+     */
+    public boolean isModified(File file) {
+        return file != null && modifiedPaths.contains(getPath(file));
+    }
+
+    /**
+     * Checks if a file is removed
+     *
+     * @param file The file to check, may be null
+     * @return True if the file is removed
+     */
+    public boolean isRemoved(File file) {
+        return file != null && removedPaths.contains(getPath(file));
+    }
+
+    /**
+     * Gets the paths of the added files
+     *
+     * @return The paths relative to the root directory
+     */
+    public Set<String> getAddedPaths() {
+        return Collections.unmodifiableSet(addedPaths);
+    }
+
+    /**
+     * Gets the paths of the modified files
+     *
+     * @return The paths relative to the root directory
+     */
+    public Set<String> getModifiedPaths() {
+        return Collections.unmodifiableSet(modifiedPaths);
+    }
+
+    /**
+     * Gets the paths of the removed files
+     *
+     * @return The paths relative to the root directory
+     */
+    public Set<String> getRemovedPaths() {
+        return Collections.unmodifiableSet(removedPaths);
+    }
+
+    /**
+     * Gets the paths of the renamed files
+     *
+     * @return The path after the rename per path before the rename, relative
+     * to the root directory
+     */
+    public Map<String, String> getRenamedPaths() {
+        return Collections.unmodifiableMap(renamedPaths);
+    }
+
+    /**
+     * Gets the added files
+     *
+     * @return The added files inside the root directory
+     */
+    public List<File> getAddedFiles() {
+        return getFiles(addedPaths);
+    }
+
+    /**
+     * Gets the modified files
+     *
+     * @return The modified files inside the root directory
+     */
+    public List<File> getModifiedFiles() {
+        return getFiles(modifiedPaths);
+    }
+
+    /**
+     * Gets the removed files
+     *
+     * @return The removed files inside the root directory
+     */
+    public List<File> getRemovedFiles() {
+        return getFiles(removedPaths);
+    }
+
+    /**
+     * Returns true if no files are added, modified or removed
+     *
+     * @return True if nothing changed
+     */
+    public boolean isEmpty() {
+        return addedPaths.isEmpty() && modifiedPaths.isEmpty()
+                && removedPaths.isEmpty() && renamedPaths.isEmpty();
+    }
+
+    /**
+     * Replaces the paths in a set with the paths of the given files
+     *
+     * @param paths The set of paths to replace
+     * @param files The files to store, null to clear the set
+     */
+    private void setFiles(Set<String> paths, Collection<File> files) {
+        paths.clear();
+        if (files != null) {
+            files.forEach(file -> paths.add(getPath(file)));
+        }
+    }
+
+    /**
+     * Converts a set of paths to files
+     *
+     * @param paths The paths relative to the root directory
+     * @return The files inside the root directory
+     */
+    private List<File> getFiles(Set<String> paths) {
+        List<File> files = new ArrayList<>(paths.size());
+        paths.forEach(path -> files.add(getFile(path)));
+        return files;
+    }
+
+}
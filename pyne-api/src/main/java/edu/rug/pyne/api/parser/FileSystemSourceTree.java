@@ -0,0 +1,70 @@
+package edu.rug.pyne.api.parser;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectInserter;
+import spoon.Launcher;
+
+/**
+ * This source tree reads the source code files from the file system. It is
+ * the source tree used by the parser by default.
+ *
+ * @author Patrick Beuks (s2288842) <code@beuks.net>
+ */
+public class FileSystemSourceTree implements SourceTree {
+
+    @Override
+    public boolean isFile(File file) {
+        return file.isFile();
+    }
+
+    @Override
+    public boolean isDirectory(File file) {
+        return file.isDirectory();
+    }
+
+    @Override
+    public Stream<File> walk(File directory) throws IOException {
+        return Files.walk(directory.toPath()).map(Path::toFile);
+    }
+
+    @Override
+    public List<File> listDirectories(File directory) throws IOException {
+        // Symbolic links are not followed, the same as walk
+        List<File> directories = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(
+                directory.toPath(),
+                (path) -> Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS)
+        )) {
+            stream.forEach((path) -> directories.add(path.toFile()));
+        }
+        return directories;
+    }
+
+    @Override
+    public InputStream open(File file) throws IOException {
+        return Files.newInputStream(file.toPath());
+    }
+
+    @Override
+    public String getBlobId(File file) throws IOException {
+        byte[] content = Files.readAllBytes(file.toPath());
+        return new ObjectInserter.Formatter()
+                .idFor(Constants.OBJ_BLOB, content).name();
+    }
+
+    @Override
+    public void addInputResource(Launcher launcher, File resource) {
+        launcher.addInputResource(resource.getAbsolutePath());
+    }
+
+}
@@ -0,0 +1,304 @@
+package edu.rug.pyne.api.parser;
+
+import com.syncleus.ferma.FramedGraph;
+import edu.rug.pyne.api.structure.VertexClass;
+import edu.rug.pyne.api.structure.VertexPackage;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * This class finds the source files to give to spoon when only the added
+ * files need to be parsed.
+ *
+ * Next to the added files themselves, only the files of their direct imports
+ * are given to spoon. These are the files of the imported classes, of the
+ * classes in a package imported with a wildcard and of the classes referred
+ * to by their qualified name. They are found using the import declarations of
+ * the files and the source files stored on the graph, so the rest of the
+ * project is not parsed.
+ *
+ * The imports of the context files are not followed. Types that are not in
+ * the model, like the classes in the same package or the return type of a
+ * method declared in a context file, are resolved by their name against the
+ * graph by the analysis. A dependency found through a method of a class that
+ * is not in the model, like the second call in a.getB().getC(), can not be
+ * resolved and is lost.
+ *
+ * @author Patrick Beuks (s2288842) <code@beuks.net>
+ */
+public class IncrementalInput {
+
+    private static final Logger LOGGER
+            = LogManager.getLogger(IncrementalInput.class);
+
+    // A qualified name, starting with a lower case package name
+    private static final Pattern QUALIFIED_NAME
+            = Pattern.compile("\\b[a-z_][\\w$]*(?:\\.[\\w$]+)+");
+
+    // The parser containing the root directory
+    private final Parser parser;
+
+    // The graph containing the classes of the previous commit
+    private final FramedGraph framedGraph;
+
+    // The class found for a qualified name, or null if none, per name
+    private final Map<String, VertexClass> qualifiedNames = new HashMap<>();
+
+    /**
+     * Creates the incremental input finder
+     *
+     * @param parser The parser to use
+     * @param framedGraph The graph with the already parsed classes
+     */
+    public IncrementalInput(Parser parser, FramedGraph framedGraph) {
+        this.parser = parser;
+        this.framedGraph = framedGraph;
+    }
+
+    /**
+     * Gets the source files spoon needs to parse for the given added files.
+     * Only added files inside one of the source directories are used.
+     *
+     * @param addedFiles The added files
+     * @param sourceDirectories The source directories of the project
+     * @return The added files followed by the files needed to resolve them
+     */
+    public Set<File> getInputFiles(
+            Collection<File> addedFiles, Collection<File> sourceDirectories
+    ) {
+        Set<File> inputFiles = new LinkedHashSet<>();
+        List<File> javaFiles = new ArrayList<>();
+
+        for (File addedFile : addedFiles) {
+            if (addedFile.getName().endsWith(".java")
+                    && parser.getSourceTree().isFile(addedFile)
+                    && isInDirectory(addedFile, sourceDirectories)) {
+                inputFiles.add(addedFile);
+                javaFiles.add(addedFile);
+            }
+        }
+
+        // Add the direct imports of the added files, the context files are
+        // not read
+        for (File javaFile : javaFiles) {
+            try {
+                addContext(javaFile, inputFiles);
+            } catch (IOException ex) {
+                LOGGER.warn("Could not read declarations of "
+                        + javaFile.getAbsolutePath() + ": " + ex.getMessage());
+            }
+        }
+
+        return inputFiles;
+    }
+
+    /**
+     * Reads the import declarations of a file and adds the files of the
+     * classes they refer to. After the declarations the files of the classes
+     * referred to by their qualified name are added.
+     *
+     * @param javaFile The file to read
+     * @param inputFiles The files to add the context to
+     * @throws IOException Thrown if the file could not be read
+     */
+    private void addContext(File javaFile, Set<File> inputFiles)
+            throws IOException {
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                parser.getSourceTree().open(javaFile), StandardCharsets.UTF_8
+        ))) {
+            boolean header = true;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (header && line.startsWith("import ")) {
+                    String imported = declaredName(line, "import ");
+                    if (imported.startsWith("static ")) {
+                        imported = imported.substring("static ".length())
+                                .trim();
+                    }
+                    addImportedFiles(imported, inputFiles);
+                } else if (header && !isHeaderLine(line)) {
+                    // No more package or import declarations can follow
+                    header = false;
+                }
+                if (!header) {
+                    addQualifiedNameFiles(line, inputFiles);
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds the files of the classes referred to by their qualified name in a
+     * line of code. Names that are not of a class, like a field access, are
+     * not found on the graph and left out.
+     *
+     * @param line The line of code
+     * @param inputFiles The files to add to
+     */
+    private void addQualifiedNameFiles(String line, Set<File> inputFiles) {
+        Matcher matcher = QUALIFIED_NAME.matcher(line);
+        while (matcher.find()) {
+            String name = matcher.group();
+            VertexClass vertexClass;
+            if (qualifiedNames.containsKey(name)) {
+                vertexClass = qualifiedNames.get(name);
+            } else {
+                vertexClass = findClass(name);
+                qualifiedNames.put(name, vertexClass);
+            }
+            if (vertexClass != null) {
+                addSourceFile(vertexClass, inputFiles);
+            }
+        }
+    }
+
+    /**
+     * Adds the files of the classes referred to by an import declaration.
+     *
+     * @param imported The imported name, can end with .* for wildcards
+     * @param inputFiles The files to add to
+     */
+    private void addImportedFiles(String imported, Set<File> inputFiles) {
+        if (imported.endsWith(".*")) {
+            String name = imported.substring(0, imported.length() - 2);
+            if (VertexPackage.getVertexPackageByName(framedGraph, name)
+                    != null) {
+                addPackageFiles(name, inputFiles);
+                return;
+            }
+            imported = name;
+        }
+
+        VertexClass vertexClass = findClass(imported);
+        if (vertexClass != null) {
+            addSourceFile(vertexClass, inputFiles);
+        }
+    }
+
+    /**
+     * Finds the class a qualified name refers to. Static imports and names of
+     * inner classes or members contain names after the class name, so these
+     * are stripped until a class is found.
+     *
+     * @param qualifiedName The qualified name
+     * @return The class, or null if the name does not refer to a class
+     */
+    private VertexClass findClass(String qualifiedName) {
+        String name = qualifiedName;
+        while (!name.isEmpty()) {
+            VertexClass vertexClass
+                    = VertexClass.getVertexClassByName(framedGraph, name);
+            if (vertexClass != null) {
+                return vertexClass;
+            }
+            int lastDot = name.lastIndexOf('.');
+            if (lastDot < 0) {
+                return null;
+            }
+            name = name.substring(0, lastDot);
+        }
+        return null;
+    }
+
+    /**
+     * Adds the files of all classes that belong to a package.
+     *
+     * @param packageName The qualified name of the package
+     * @param inputFiles The files to add to
+     */
+    private void addPackageFiles(String packageName, Set<File> inputFiles) {
+        VertexPackage vertexPackage = VertexPackage
+                .getVertexPackageByName(framedGraph, packageName);
+        if (vertexPackage == null) {
+            return;
+        }
+        framedGraph.traverse(
+                (g) -> g.V(vertexPackage.getElement().id()).in("belongsTo")
+        ).toList(VertexClass.class).forEach(
+                (vertexClass) -> addSourceFile(vertexClass, inputFiles)
+        );
+    }
+
+    /**
+     * Adds the source file of a class if it has one and it still exists.
+     *
+     * @param vertexClass The class to add the file of
+     * @param inputFiles The files to add to
+     */
+    private void addSourceFile(VertexClass vertexClass, Set<File> inputFiles) {
+        String sourceFile = vertexClass.getSourceFile();
+        if (sourceFile == null) {
+            return;
+        }
+        File file = parser.getSourceFile(sourceFile);
+        if (parser.getSourceTree().isFile(file)) {
+            inputFiles.add(file);
+        }
+    }
+
+    /**
+     * Gets the name of a package or import declaration.
+     *
+     * @param line The line with the declaration
+     * @param keyword The keyword the declaration starts with
+     * @return The declared name
+     */
+    private static String declaredName(String line, String keyword) {
+        int end = line.indexOf(';');
+        if (end < 0) {
+            end = line.length();
+        }
+        return line.substring(keyword.length(), end).trim();
+    }
+
+    /**
+     * Checks if a line can be part of the package and import declarations.
+     * Any other line, like an annotation or a modifier, starts the type
+     * declarations.
+     *
+     * @param line The trimmed line to check
+     * @return True if the line is empty, a comment or a declaration
+     */
+    private static boolean isHeaderLine(String line) {
+        return line.isEmpty() || line.startsWith("//") || line.startsWith("/*")
+                || line.startsWith("*") || line.startsWith("package ")
+                || line.startsWith("import ");
+    }
+
+    /**
+     * Checks if a file is inside one of the given directories.
+     *
+     * @param file The file to check
+     * @param directories The directories
+     * @return True if the file is in one of the directories
+     */
+    static boolean isInDirectory(
+            File file, Collection<File> directories
+    ) {
+        for (File directory : directories) {
+            if (file.getAbsoluteFile().toPath().normalize().startsWith(
+                    directory.getAbsoluteFile().toPath().normalize()
+            )) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+}
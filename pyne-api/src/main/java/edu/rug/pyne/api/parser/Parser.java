@@ -1,25 +1,28 @@
 package edu.rug.pyne.api.parser;
 
-import com.syncleus.ferma.DelegatingFramedGraph;
 import com.syncleus.ferma.FramedGraph;
 import edu.rug.pyne.api.GitHelper;
 import edu.rug.pyne.api.parser.analysisprocessor.ClassAnalysis;
+import edu.rug.pyne.api.parser.analysisprocessor.ClassDependencies;
 import edu.rug.pyne.api.parser.analysisprocessor.ClassPostProcess;
 import edu.rug.pyne.api.parser.analysisprocessor.InterfaceAnalysis;
+import edu.rug.pyne.api.parser.analysisprocessor.ReferencedType;
+import edu.rug.pyne.api.parser.analysisprocessor.VertexCache;
+import edu.rug.pyne.api.parser.cache.ClassFacts;
+import edu.rug.pyne.api.parser.cache.FactCache;
+import edu.rug.pyne.api.parser.cache.FactRecorder;
+import edu.rug.pyne.api.parser.cache.SourceFacts;
 import edu.rug.pyne.api.parser.removeprocessor.ClassRemovePostProcess;
 import edu.rug.pyne.api.parser.removeprocessor.ClassRemover;
-import edu.rug.pyne.api.parser.removeprocessor.InterfaceRemover;
 import edu.rug.pyne.api.parser.structureprocessor.ClassProcessor;
 import edu.rug.pyne.api.parser.structureprocessor.InterfaceProcessor;
+import edu.rug.pyne.api.structure.StructureGraph;
+import edu.rug.pyne.api.structure.VertexClass;
 
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.util.*;
 import java.io.File;
-import java.util.stream.Collectors;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -51,6 +54,9 @@ public class Parser {
     // code files themself 
     private File rootDirectory;
 
+    // The tree the source code files are read from
+    private SourceTree sourceTree = new FileSystemSourceTree();
+
     // The processors to use
     private final List<Processor<? extends CtElement>> structureProcessors
             = new ArrayList<>();
@@ -58,15 +64,45 @@ public class Parser {
             = new ArrayList<>();
     private final List<PostProcess> analysisPostProcessors
             = new ArrayList<>();
-    private final List<Processor<? extends CtElement>> removeProcessors
+    private final List<PostProcess> removeProcessors = new ArrayList<>();
+    private final List<Processor<? extends CtElement>> modelRemoveProcessors
             = new ArrayList<>();
     private final List<PostProcess> removePostProcessors
             = new ArrayList<>();
 
+    // The number of threads used to analyse classes
+    private int analysisThreads = 1;
+
+    // If true only the added files and their context are given to spoon
+    private boolean incrementalInput = false;
+
+    // The cache with the facts of parsed files, null if not used
+    private FactCache factCache;
+
+    // The recorder of the facts while a fact cache is used
+    private FactRecorder factRecorder;
+
+    // The source paths of the files the processors work on while a fact cache
+    // is used
+    private Set<String> processedFiles;
+
+    // True while the files missed by the fact cache are parsed without the
+    // cached files
+    private boolean partialModel = false;
+
     // The files to work on, null if all files
-    private List<File> addedFiles;
-    private List<File> modifiedFiles;
-    private List<File> removedFiles;
+    private ChangeSet changeSet;
+
+    // The source paths of the files that are parsed again next to the added
+    // files, as a class they depend on was removed or renamed
+    private final Set<String> reparsedPaths = new LinkedHashSet<>();
+
+    // The vertices of the referenced types found during the current parse
+    private final VertexCache vertexCache = new VertexCache();
+
+    // Finds the source directories, cached across parses
+    private final SourceDirectoryFinder sourceDirectoryFinder
+            = new SourceDirectoryFinder();
 
     /**
      * Creates a parser that contains all relevant information to be able to
@@ -75,17 +111,25 @@ public class Parser {
      * @param graph The graph to apply the parsing on.
      */
     public Parser(Graph graph) {
-        this(new DelegatingFramedGraph<Graph>(graph, true, true));
+        this(new StructureGraph(graph));
     }
 
     /**
      * Creates a parser that contains all relevant information to be able to
-     * process java source code file
+     * process java source code file. A framed graph that is not a structure
+     * graph is replaced by a structure graph of the same graph, as the changes
+     * of the structure are tracked by the structure graph.
      *
      * @param framedGraph The graph to apply the parsing on
      */
     public Parser(FramedGraph framedGraph) {
-        this.framedGraph = framedGraph;
+        if (framedGraph instanceof StructureGraph) {
+            this.framedGraph = framedGraph;
+        } else {
+            this.framedGraph = new StructureGraph(
+                    framedGraph.getRawTraversal().getGraph()
+            );
+        }
     }
 
     /**
@@ -107,26 +151,39 @@ public class Parser {
     }
 
     /**
-     * Adds a processor that handels removed classes.
+     * Adds a processor that handels removed classes. The remove step only
+     * works on the graph, so no source code is available to these processors.
+     *
+     * @param processor The processor to add
+     * @return true if this collection changed as a result of the call.
+     */
+    public boolean addRemoveProcessor(PostProcess processor) {
+        return this.removeProcessors.add(processor);
+    }
+
+    /**
+     * Adds a spoon processor that handels removed classes. These are run after
+     * the graph remove processors over a model of the current source
+     * directories. The removed files are no longer in the source tree, so
+     * these processors only see the classes of the other files.
      *
      * @param processor The processor to add
      * @return true if this collection changed as a result of the call.
+     * @deprecated The remove step only works on the graph, use
+     * addRemoveProcessor(PostProcess) instead.
      */
+    @Deprecated
     public boolean addRemoveProcessor(
             Processor<? extends CtElement> processor
     ) {
-        return this.removeProcessors.add(processor);
+        return this.modelRemoveProcessors.add(processor);
     }
 
     /**
      * Adds the remove processors that by default come with this library.
      */
     public void addDefaultRemoveProcessors() {
-        ClassRemover classRemover = new ClassRemover(this, framedGraph);
-        InterfaceRemover interfaceRemover = new InterfaceRemover(classRemover);
-
-        addRemoveProcessor(classRemover);
-        addRemoveProcessor(interfaceRemover);
+        addRemoveProcessor(new ClassRemover(this));
     }
 
     /**
@@ -231,26 +288,88 @@ public class Parser {
         this.rootDirectory = rootDirectory;
     }
 
+    /**
+     * Sets the files that changed since the previous parse. Only classes in
+     * the added files should be parsed and the classes in the removed and
+     * modified files are removed first. This behavior is done inside the
+     * processors themselves, so actual behavior might differ.
+     *
+     * Set to null to parse all the files and not do the remove step.
+     *
+     * @param changeSet The changed files
+     */
+    public void setChangeSet(ChangeSet changeSet) {
+        this.changeSet = changeSet;
+        reparsedPaths.clear();
+    }
+
+    /**
+     * Adds files that need to be parsed again next to the added files, like
+     * the files of the classes depending on a removed class. They are
+     * processed by the next call to process.
+     *
+     * @param files The files to parse again
+     */
+    public void addReparsedFiles(Collection<File> files) {
+        files.forEach(file -> reparsedPaths.add(getSourcePath(file)));
+    }
+
+    /**
+     * Gets the added files together with the files that are parsed again
+     *
+     * @return The files to parse
+     */
+    private List<File> getParsedFiles() {
+        Set<File> files = new LinkedHashSet<>(changeSet.getAddedFiles());
+        reparsedPaths.forEach(path -> files.add(getSourceFile(path)));
+        return new ArrayList<>(files);
+    }
+
+    /**
+     * Gets the files that changed since the previous parse
+     *
+     * @return The changed files, or null if all files are parsed
+     */
+    public ChangeSet getChangeSet() {
+        return changeSet;
+    }
+
+    /**
+     * Gets the cache with the vertices of the referenced types found during
+     * the current parse. It is cleared before the remove step and before
+     * every parse.
+     *
+     * @return The vertex cache
+     */
+    public VertexCache getVertexCache() {
+        return vertexCache;
+    }
+
     /**
      * Sets the added files. Only classes inside should be parsed. This behavior
      * is done inside the processors themselves, so actual behavior might
      * differ.
      *
-     * Set to null to parse all the files.
+     * Set to null to parse all the files, this also clears the modified and
+     * removed files.
      *
      * @param addedFiles The files to parse.
      */
     public void setAddedFiles(List<File> addedFiles) {
-        this.addedFiles = addedFiles;
+        if (addedFiles == null) {
+            changeSet = null;
+            return;
+        }
+        getOrCreateChangeSet().setAddedFiles(addedFiles);
     }
 
     /**
      * Gets the list of added files
      *
-     * @return The added files
+     * @return The added files, or null if all files are parsed
      */
     public List<File> getAddedFiles() {
-        return addedFiles;
+        return changeSet == null ? null : changeSet.getAddedFiles();
     }
 
     /**
@@ -258,21 +377,23 @@ public class Parser {
      * behavior is done inside the processors themselves, so actual behavior
      * might differ.
      *
-     * Set to null to not do the remove step.
+     * The remove step is not done if no change set is set.
      *
      * @param removedFiles The files to remove.
      */
     public void setRemovedFiles(List<File> removedFiles) {
-        this.removedFiles = removedFiles;
+        if (removedFiles != null || changeSet != null) {
+            getOrCreateChangeSet().setRemovedFiles(removedFiles);
+        }
     }
 
     /**
      * Gets the list of removed files
      *
-     * @return The removed files
+     * @return The removed files, or null if all files are parsed
      */
     public List<File> getRemovedFiles() {
-        return removedFiles;
+        return changeSet == null ? null : changeSet.getRemovedFiles();
     }
 
     /**
@@ -283,19 +404,197 @@ public class Parser {
      * @param modifiedFiles The files that have been modified.
      */
     public void setModifiedFiles(List<File> modifiedFiles) {
-        this.modifiedFiles = modifiedFiles;
+        if (modifiedFiles != null || changeSet != null) {
+            getOrCreateChangeSet().setModifiedFiles(modifiedFiles);
+        }
     }
 
     /**
      * Gets the list of modified files
      *
-     * @return The modified files
+     * @return The modified files, or null if all files are parsed
      */
     public List<File> getModifiedFiles() {
-        return modifiedFiles;
+        return changeSet == null ? null : changeSet.getModifiedFiles();
+    }
+
+    /**
+     * Gets the change set, creating an empty one for the root directory if
+     * not set yet
+     *
+     * @return The change set
+     */
+    private ChangeSet getOrCreateChangeSet() {
+        if (changeSet == null) {
+            changeSet = new ChangeSet(rootDirectory);
+        }
+        return changeSet;
+    }
+
+    /**
+     * Sets the tree the source code files are read from. The files in the
+     * tree are given as files inside the root directory.
+     *
+     * @param sourceTree The source tree, the file system by default
+     */
+    public void setSourceTree(SourceTree sourceTree) {
+        this.sourceTree = sourceTree;
+    }
+
+    /**
+     * Gets the tree the source code files are read from
+     *
+     * @return The source tree
+     */
+    public SourceTree getSourceTree() {
+        return sourceTree;
+    }
+
+    /**
+     * Sets the number of threads used to analyse the classes. With more than
+     * one thread the dependencies of the classes are found in parallel, while
+     * the graph is still only written to by a single thread.
+     *
+     * @param analysisThreads The number of threads, 1 by default
+     */
+    public void setAnalysisThreads(int analysisThreads) {
+        if (analysisThreads < 1) {
+            throw new IllegalArgumentException(
+                    "Expected at least one analysis thread"
+            );
+        }
+        this.analysisThreads = analysisThreads;
+    }
+
+    /**
+     * Gets the number of threads used to analyse the classes
+     *
+     * @return The number of analysis threads
+     */
+    public int getAnalysisThreads() {
+        return analysisThreads;
+    }
+
+    /**
+     * Sets if only the added files are given to spoon when the added files are
+     * set. The files of the direct imports of the added files are found using
+     * the graph and are parsed as well, but not processed. Other types are
+     * resolved by their name against the graph.
+     *
+     * When false, which is the default, all source directories are parsed.
+     *
+     * @param incrementalInput True to only parse the added files
+     */
+    public void setIncrementalInput(boolean incrementalInput) {
+        this.incrementalInput = incrementalInput;
+    }
+
+    /**
+     * Gets if only the added files are given to spoon
+     *
+     * @return True if only the added files are parsed
+     */
+    public boolean isIncrementalInput() {
+        return incrementalInput;
+    }
+
+    /**
+     * Checks if the model only contains a part of the source code. The types
+     * that are not in the model are then resolved by their name against the
+     * graph.
+     *
+     * @return True if only the added files, or the files missed by the fact
+     * cache, and their imports are parsed
+     */
+    public boolean isPartialModel() {
+        return partialModel || (incrementalInput && changeSet != null);
+    }
+
+    /**
+     * Sets the cache with the facts found in earlier parsed files. When set,
+     * the facts of the files found in the cache are applied to the graph
+     * without parsing them, only the other files are given to spoon together
+     * with the files needed to resolve their types. The facts of those files
+     * are then stored in the cache.
+     *
+     * The cache stores the facts found by the default structure and analysis
+     * processors. Other processors only see the files not in the cache.
+     *
+     * @param factCache The fact cache, or null to not use a cache
+     */
+    public void setFactCache(FactCache factCache) {
+        this.factCache = factCache;
+    }
+
+    /**
+     * Gets the cache with the facts found in earlier parsed files
+     *
+     * @return The fact cache, or null if not used
+     */
+    public FactCache getFactCache() {
+        return factCache;
+    }
+
+    /**
+     * Gets the recorder the processors give the facts they find to. Only set
+     * while processing with a fact cache.
+     *
+     * @return The fact recorder, or null if the facts are not recorded
+     */
+    public FactRecorder getFactRecorder() {
+        return factRecorder;
+    }
+
+    /**
+     * Checks if the classes declared in a file need to be processed. These are
+     * all files when the added files are not set, otherwise only the added
+     * files. When processing with a fact cache, only the files not found in
+     * the cache are processed.
+     *
+     * @param file The file a class is declared in
+     * @return True if the classes in the file need to be processed
+     */
+    public boolean isProcessedFile(File file) {
+        if (processedFiles != null) {
+            return file != null
+                    && processedFiles.contains(getSourcePath(file));
+        }
+        return changeSet == null || changeSet.isAdded(file)
+                || (file != null
+                && reparsedPaths.contains(getSourcePath(file)));
+    }
+
+    /**
+     * Creates the launcher with the input resources. If input files are given
+     * only those and their context are added, otherwise all source
+     * directories are added.
+     *
+     * @param sourceDirectories The source directories of the project
+     * @param inputFiles The files to parse, or null for all files
+     * @return The launcher
+     */
+    private Launcher getLauncher(
+            Set<File> sourceDirectories, Collection<File> inputFiles
+    ){
+        return getLauncher(sourceDirectories, inputFiles, Set.of());
     }
 
-    private Launcher getLauncher(){
+    /**
+     * Creates the launcher with the input resources. If input files are given
+     * only those, their context and the extra context files are added,
+     * otherwise all source directories are added.
+     *
+     * @param sourceDirectories The source directories of the project
+     * @param inputFiles The files to parse, or null for all files
+     * @param extraContextFiles Other files to add to the context of the input
+     * files
+     * @return The launcher
+     */
+    private Launcher getLauncher(
+            Set<File> sourceDirectories,
+            Collection<File> inputFiles,
+            Set<File> extraContextFiles
+    ){
         var launcher = new ArcanSpoonLauncher();
         launcher.getEnvironment().setLevel(SPOON_LOGGER_LEVEL);
         launcher.getEnvironment().setIgnoreDuplicateDeclarations(true);
@@ -303,16 +602,30 @@ public class Parser {
         launcher.getEnvironment().setNoClasspath(true);
         launcher.getEnvironment().setShouldCompile(false);
         launcher.getEnvironment().setComplianceLevel(9);
-        findSourceDirectories().forEach(f -> {
-            launcher.addInputResource(f.getAbsolutePath());
+        if (inputFiles != null) {
+            Set<File> contextFiles = new IncrementalInput(this, framedGraph)
+                    .getInputFiles(inputFiles, sourceDirectories);
+            contextFiles.addAll(extraContextFiles);
+            contextFiles.forEach(f -> {
+                sourceTree.addInputResource(launcher, f);
+            });
+            LOGGER.info("Added " + contextFiles.size()
+                    + " files to input resource");
+            return launcher;
+        }
+        sourceDirectories.forEach(f -> {
+            sourceTree.addInputResource(launcher, f);
             LOGGER.info("Added directory to input resource: " + f.getAbsolutePath());
         });
         return launcher;
     }
 
     /**
-     * Processes the removed files. If removedFiles is set to null then this not
-     * execute anything.
+     * Processes the removed files. If the change set is set to null then this
+     * not execute anything.
+     *
+     * The classes to remove are found using the source files stored on the
+     * graph, so the old source code does not need to be parsed.
      *
      * After the remove process the post remove processors are used.
      *
@@ -320,23 +633,31 @@ public class Parser {
      * default ones will be used.
      */
     public void processRemoved() {
-        if (removedFiles == null) {
+        if (changeSet == null) {
             return;
         }
-        if (removeProcessors.isEmpty()) {
+
+        // Removed vertices must not be found in the cache
+        vertexCache.clear();
+        reparsedPaths.clear();
+
+        if (removeProcessors.isEmpty() && modelRemoveProcessors.isEmpty()) {
             addDefaultRemoveProcessors();
         }
         if (removePostProcessors.isEmpty()) {
             addDefaultRemovePostProcessors();
         }
 
-        Launcher launcher = getLauncher();
-        launcher.buildModel();
-        launcher.getModel();
-        SpoonModelBuilder modelBuilder = launcher.getModelBuilder();
+        for (PostProcess removeProcessor : removeProcessors) {
+            removeProcessor.postProcess(framedGraph);
+        }
 
-        launcher.process();
-        modelBuilder.process(removeProcessors);
+        if (!modelRemoveProcessors.isEmpty()) {
+            Launcher launcher = getLauncher(findSourceDirectories(), null);
+            launcher.buildModel();
+            process(launcher, new TypeCatalog(launcher.getModel()),
+                    modelRemoveProcessors);
+        }
 
         for (PostProcess removePostProcessor : removePostProcessors) {
             removePostProcessor.postProcess(framedGraph);
@@ -364,86 +685,383 @@ public class Parser {
             addDefaultAnalysisPostProcessors();
         }
 
-        Launcher launcher = getLauncher();
+        // The graph might have changed since the previous parse
+        vertexCache.clear();
 
-        launcher.buildModel();
-        launcher.getModel();
-        SpoonModelBuilder modelBuilder = launcher.getModelBuilder();
+        if (factCache != null) {
+            processWithFactCache();
+            reparsedPaths.clear();
+            return;
+        }
 
-        launcher.process();
-        modelBuilder.process(structureProcessors);
+        // Build the model once and collect its types, both steps use the
+        // same types.
+        Launcher launcher = getLauncher(
+                findSourceDirectories(),
+                isPartialModel() ? getParsedFiles() : null
+        );
+        launcher.buildModel();
+        TypeCatalog typeCatalog = new TypeCatalog(launcher.getModel());
 
-        launcher.process();
-        modelBuilder.process(analysisProcessors);
+        process(launcher, typeCatalog, structureProcessors);
+        process(launcher, typeCatalog, analysisProcessors);
 
         for (PostProcess analysisPostProcessor : analysisPostProcessors) {
             analysisPostProcessor.postProcess(framedGraph);
         }
 
+        // The files of the remove step are only parsed again once
+        reparsedPaths.clear();
     }
 
-    public Set<File> findSourceDirectories() {
-        var propsFile = Paths.get(rootDirectory.getAbsolutePath(), "sources.properties");
-        if (propsFile.toFile().exists()){
-            LOGGER.info("Using sources.properties file to read input sources.");
-            var srcDirs = getFromPropertiesFile(propsFile.toFile());
-            if (srcDirs.isEmpty()){
-                LOGGER.warn("Could not find any directory from sources.properties file. Falling back to recursive src dir.");
-            }else {
-                return srcDirs;
+    /**
+     * Processes the files using the fact cache. The facts of the cached files
+     * are applied to the graph in the same steps as the parsed files, so all
+     * structure is known before the dependencies are added.
+     *
+     * Cached facts are only used when the files they depend on did not change.
+     * The files that are not in the cache are parsed together with the files
+     * of their direct imports, like the incremental input, and only the missed
+     * files are processed. For facts that are not used because a file they
+     * depend on changed, the files they depended on are parsed as well, so a
+     * dependency found through a called method is not lost. When no file is in
+     * the cache all source directories are parsed. The facts of the parsed
+     * files are stored in the cache with the blob ids of the files they depend
+     * on.
+     */
+    private void processWithFactCache() {
+        Set<File> sourceDirectories = findSourceDirectories();
+        ClassProcessor classProcessor = new ClassProcessor(this, framedGraph);
+        ClassAnalysis classAnalysis = new ClassAnalysis(this, framedGraph);
+
+        // Look up the facts of the files, files that are not found are parsed
+        Map<File, SourceFacts> cachedFiles = new LinkedHashMap<>();
+        Map<File, String> parsedFiles = new LinkedHashMap<>();
+        Map<String, String> blobIds = new HashMap<>();
+        Set<File> extraContextFiles = new LinkedHashSet<>();
+        for (File file : findJavaFiles(sourceDirectories)) {
+            String blobId = getBlobId(getSourcePath(file), blobIds);
+            SourceFacts sourceFacts = null;
+            if (blobId != null) {
+                sourceFacts = factCache.get(blobId);
+            }
+            if (sourceFacts != null && !isCurrent(sourceFacts, blobIds)) {
+                for (String sourcePath
+                        : sourceFacts.getDependencyBlobIds().keySet()) {
+                    File contextFile = getSourceFile(sourcePath);
+                    if (sourceTree.isFile(contextFile)) {
+                        extraContextFiles.add(contextFile);
+                    }
+                }
+                sourceFacts = null;
+            }
+            if (sourceFacts != null) {
+                cachedFiles.put(file, sourceFacts);
+            } else {
+                parsedFiles.put(file, blobId);
+            }
+        }
+        LOGGER.info("Found " + cachedFiles.size() + " files in the fact cache, "
+                + parsedFiles.size() + " files need to be parsed");
+
+        // The cached classes need to exist before the context of the parsed
+        // files is found.
+        cachedFiles.forEach((file, sourceFacts) -> {
+            for (ClassFacts classFacts : sourceFacts.getClasses()) {
+                classProcessor.applyClassStructure(
+                        classFacts.getStructure(), getSourcePath(file)
+                );
+            }
+        });
+
+        processedFiles = new HashSet<>();
+        parsedFiles.keySet().forEach(f -> processedFiles.add(getSourcePath(f)));
+        factRecorder = new FactRecorder();
+        partialModel = !cachedFiles.isEmpty();
+        try {
+            Launcher launcher = null;
+            TypeCatalog typeCatalog = null;
+            if (!parsedFiles.isEmpty()) {
+                launcher = getLauncher(sourceDirectories,
+                        isPartialModel() ? parsedFiles.keySet() : null,
+                        extraContextFiles);
+                launcher.buildModel();
+                typeCatalog = new TypeCatalog(launcher.getModel());
+                process(launcher, typeCatalog, structureProcessors);
+            }
+
+            cachedFiles.values().forEach(sourceFacts -> {
+                for (ClassFacts classFacts : sourceFacts.getClasses()) {
+                    if (classFacts.getDependencies() != null) {
+                        classAnalysis.applyCachedClassDependencies(
+                                classFacts.getDependencies()
+                        );
+                    }
+                }
+            });
+
+            if (launcher != null) {
+                process(launcher, typeCatalog, analysisProcessors);
+            }
+
+            for (PostProcess analysisPostProcessor : analysisPostProcessors) {
+                analysisPostProcessor.postProcess(framedGraph);
+            }
+
+            // Store the facts of the parsed files with the files they depend
+            // on
+            IncrementalInput incrementalInput
+                    = new IncrementalInput(this, framedGraph);
+            parsedFiles.forEach((file, blobId) -> {
+                if (blobId == null) {
+                    return;
+                }
+                SourceFacts sourceFacts = factRecorder.getSourceFacts(file);
+                Map<String, String> dependencyBlobIds = new HashMap<>();
+                for (String sourcePath : getDependencyPaths(
+                        file, sourceFacts, incrementalInput, sourceDirectories
+                )) {
+                    String dependencyBlobId = getBlobId(sourcePath, blobIds);
+                    if (dependencyBlobId != null) {
+                        dependencyBlobIds.put(sourcePath, dependencyBlobId);
+                    }
+                }
+                factCache.put(blobId, factRecorder.getSourceFacts(
+                        file, dependencyBlobIds
+                ));
+            });
+        } finally {
+            processedFiles = null;
+            factRecorder = null;
+            partialModel = false;
+        }
+    }
+
+    /**
+     * Checks if the files the cached facts depend on did not change.
+     *
+     * @param sourceFacts The cached facts
+     * @param blobIds The blob ids read so far per source path
+     * @return True if every file still has the blob id of the facts
+     */
+    private boolean isCurrent(
+            SourceFacts sourceFacts, Map<String, String> blobIds
+    ) {
+        for (Map.Entry<String, String> dependency
+                : sourceFacts.getDependencyBlobIds().entrySet()) {
+            if (!dependency.getValue().equals(
+                    getBlobId(dependency.getKey(), blobIds)
+            )) {
+                return false;
             }
         }
-        var searchStartDir = rootDirectory.toPath();
-        Set<File> sourceDirs = new HashSet<>();
-        var testKeyword = File.separator + "test" + File.separator;
-        var exampleKeyword = "example";
-        try(var stream = Files.walk(searchStartDir)){
-            sourceDirs = stream.map(Path::toFile)
-                    .filter(File::isDirectory)
-                    .filter(f -> f.toPath().endsWith("src/main") || f.toPath().endsWith("src/java"))
-                    .filter(f -> !f.getAbsolutePath().toLowerCase().contains(testKeyword))
-                    .filter(f -> !f.getAbsolutePath().toLowerCase().contains(exampleKeyword))
-                    .collect(Collectors.toSet());
-            if (sourceDirs.isEmpty()){
-                LOGGER.warn("Could not find any non-test Java source directory recursively. Using generic 'src'.");
-                try(var stream2 = Files.walk(rootDirectory.toPath())){
-                    sourceDirs = stream2.map(Path::toFile)
-                            .filter(File::isDirectory)
-                            .filter(f -> f.toPath().endsWith("src"))
-                            .filter(f -> !f.getAbsolutePath().toLowerCase().contains(testKeyword))
-                            .filter(f -> !f.getAbsolutePath().toLowerCase().contains(exampleKeyword))
-                            .collect(Collectors.toSet());
+        return true;
+    }
+
+    /**
+     * Gets the source paths of the files the facts of a parsed file depend
+     * on. These are the files of its direct imports and the files of the
+     * source code classes its classes depend on, which declare the return
+     * types of the called methods.
+     *
+     * @param file The parsed file
+     * @param sourceFacts The facts found for the file
+     * @param incrementalInput Finds the direct imports of the file
+     * @param sourceDirectories The source directories of the project
+     * @return The source paths, without the file itself
+     */
+    private Set<String> getDependencyPaths(
+            File file,
+            SourceFacts sourceFacts,
+            IncrementalInput incrementalInput,
+            Set<File> sourceDirectories
+    ) {
+        Set<String> sourcePaths = new LinkedHashSet<>();
+        for (File contextFile : incrementalInput.getInputFiles(
+                List.of(file), sourceDirectories
+        )) {
+            sourcePaths.add(getSourcePath(contextFile));
+        }
+
+        for (ClassFacts classFacts : sourceFacts.getClasses()) {
+            ClassDependencies dependencies = classFacts.getDependencies();
+            if (dependencies == null) {
+                continue;
+            }
+            List<ReferencedType> types = new ArrayList<>();
+            if (dependencies.getSuperClass() != null) {
+                types.add(dependencies.getSuperClass());
+            }
+            types.addAll(dependencies.getSuperInterfaces());
+            dependencies.getDependencies()
+                    .forEach((dependency) -> types.add(dependency.getType()));
+            dependencies.getNamedDependencies()
+                    .forEach((dependency) -> types.add(dependency.getType()));
+            for (ReferencedType type : types) {
+                VertexClass vertexClass = VertexClass.getVertexClassByName(
+                        framedGraph, type.getQualifiedName()
+                );
+                if (vertexClass != null && vertexClass.isSystemClass()
+                        && vertexClass.getSourceFile() != null) {
+                    sourcePaths.add(vertexClass.getSourceFile());
                 }
             }
-        } catch (IOException e) {
-            e.printStackTrace();
         }
 
-        return sourceDirs;
+        sourcePaths.remove(getSourcePath(file));
+        return sourcePaths;
+    }
+
+    /**
+     * Gets the blob id of a source file, reading each file once.
+     *
+     * @param sourcePath The source path of the file
+     * @param blobIds The blob ids read so far per source path
+     * @return The blob id, or null if the file could not be read
+     */
+    private String getBlobId(String sourcePath, Map<String, String> blobIds) {
+        if (blobIds.containsKey(sourcePath)) {
+            return blobIds.get(sourcePath);
+        }
+        String blobId = null;
+        File file = getSourceFile(sourcePath);
+        if (sourceTree.isFile(file)) {
+            try {
+                blobId = sourceTree.getBlobId(file);
+            } catch (IOException ex) {
+                LOGGER.warn("Could not read " + file.getAbsolutePath()
+                        + ": " + ex.getMessage());
+            }
+        }
+        blobIds.put(sourcePath, blobId);
+        return blobId;
     }
 
-    public Set<File> getFromPropertiesFile(File propsFile){
-        Properties props = new Properties();
-        try(var fis = new FileInputStream(propsFile)){
-            props.load(fis);
-        }catch (IOException e){
-            LOGGER.error("Could not read from sources properties file " + propsFile.getAbsolutePath());
+    /**
+     * Finds the java files to process. These are the added java files inside
+     * the source directories, or all java files in the source directories if
+     * the added files are not set.
+     *
+     * @param sourceDirectories The source directories of the project
+     * @return The java files
+     */
+    private Set<File> findJavaFiles(Set<File> sourceDirectories) {
+        Set<File> javaFiles = new LinkedHashSet<>();
+        if (changeSet != null) {
+            for (File addedFile : getParsedFiles()) {
+                if (addedFile.getName().endsWith(".java")
+                        && sourceTree.isFile(addedFile)
+                        && IncrementalInput.isInDirectory(
+                                addedFile, sourceDirectories
+                        )) {
+                    javaFiles.add(addedFile);
+                }
+            }
+            return javaFiles;
+        }
+
+        for (File sourceDirectory : sourceDirectories) {
+            try (var stream = sourceTree.walk(sourceDirectory)) {
+                stream.filter(f -> f.getName().endsWith(".java"))
+                        .filter(sourceTree::isFile)
+                        .forEach(javaFiles::add);
+            } catch (IOException ex) {
+                LOGGER.warn("Could not read "
+                        + sourceDirectory.getAbsolutePath()
+                        + ": " + ex.getMessage());
+            }
         }
-        String include = props.getProperty("sources.include", "src");
-        String exclude = props.getProperty("sources.exclude", "test");
+        return javaFiles;
+    }
 
-        var includeList = List.of(include.split(File.pathSeparator));
-        var excludeList = List.of(exclude.split(File.pathSeparator));
+    /**
+     * Gets the path of a source file relative to the root directory, using
+     * forward slashes like git does. This is the path stored on the vertex
+     * classes. Files outside of the root directory keep their absolute path.
+     *
+     * @param file The source file
+     * @return The path of the source file
+     */
+    public String getSourcePath(File file) {
+        Path path = file.getAbsoluteFile().toPath().normalize();
+        if (rootDirectory != null) {
+            Path root = rootDirectory.getAbsoluteFile().toPath().normalize();
+            if (path.startsWith(root)) {
+                path = root.relativize(path);
+            }
+        }
+        return path.toString().replace(File.separatorChar, '/');
+    }
 
-        var srcDirs = new HashSet<File>();
+    /**
+     * Gets the source file of a path as given by getSourcePath.
+     *
+     * @param sourcePath The path of the source file
+     * @return The source file
+     */
+    public File getSourceFile(String sourcePath) {
+        File file = new File(sourcePath);
+        if (file.isAbsolute() || rootDirectory == null) {
+            return file;
+        }
+        return new File(rootDirectory, sourcePath);
+    }
 
-        for (var inputDir : includeList){
-            var file = Paths.get(rootDirectory.getAbsolutePath(), inputDir).toFile();
-            if (file.exists() && file.isDirectory()){
-                srcDirs.add(file);
+    /**
+     * Runs the processors over the built model. Processors that only process
+     * types are run over the type catalog, others are run by spoon over the
+     * whole model.
+     *
+     * @param launcher The launcher that built the model
+     * @param typeCatalog The types of the model
+     * @param processors The processors to run
+     */
+    private void process(
+            Launcher launcher,
+            TypeCatalog typeCatalog,
+            List<Processor<? extends CtElement>> processors
+    ) {
+        List<Processor<? extends CtElement>> modelProcessors
+                = new ArrayList<>();
+        for (Processor<? extends CtElement> processor : processors) {
+            if (typeCatalog.canProcess(processor)) {
+                typeCatalog.process(processor, launcher.getFactory());
+            } else {
+                modelProcessors.add(processor);
             }
         }
-        return srcDirs;
+
+        if (!modelProcessors.isEmpty()) {
+            SpoonModelBuilder modelBuilder = launcher.getModelBuilder();
+            modelBuilder.process(modelProcessors);
+        }
+    }
+
+    /**
+     * Finds the directories containing the source code of the project. The
+     * directories of the previous parse are reused when the changed files did
+     * not add or remove a relevant directory.
+     *
+     * @return The source directories
+     */
+    public Set<File> findSourceDirectories() {
+        return sourceDirectoryFinder.findSourceDirectories(
+                rootDirectory, sourceTree, changeSet
+        );
+    }
+
+    /**
+     * Gets the source directories listed in a properties file. The
+     * directories in the sources.include key are used, leaving out the
+     * directories in the sources.exclude key.
+     *
+     * @param propsFile The properties file to read
+     * @return The source directories
+     */
+    public Set<File> getFromPropertiesFile(File propsFile) {
+        return sourceDirectoryFinder.readPropertiesFile(
+                rootDirectory, sourceTree, propsFile
+        );
     }
 
 }
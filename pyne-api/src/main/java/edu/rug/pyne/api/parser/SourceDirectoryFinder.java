@@ -0,0 +1,522 @@
+package edu.rug.pyne.api.parser;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * This class finds the directories containing the source code of a project.
+ *
+ * If the root directory contains a sources.properties file, the directories
+ * in its sources.include key are used. The directories matching its
+ * sources.exclude key are left out, an entry matches a directory by its name
+ * or by its path relative to the root directory. An included directory that
+ * contains an excluded directory is replaced by the directories inside it,
+ * so only the excluded directories are left out. Java files directly inside
+ * such a replaced directory are not part of any source directory.
+ *
+ * Without a properties file the directories ending in src/main or src/java
+ * are used, or the directories named src if there are none. Test and example
+ * directories are skipped.
+ *
+ * The directories are walked level by level, the directories of a level are
+ * listed in parallel. Directories that never contain the source code of the
+ * project, like .git, target and node_modules, are not walked into. Neither
+ * are the src/main and src/java directories, as only the directory itself is
+ * needed.
+ *
+ * The result is cached for the next commit. Only the changed files of the
+ * next commit are checked, the directories are walked again if a file is
+ * added in a directory that was not seen before, the directory of a removed
+ * file no longer exists or the properties file changed.
+ *
+ * @author Patrick Beuks (s2288842) <code@beuks.net>
+ */
+public class SourceDirectoryFinder {
+
+    private static final Logger LOGGER
+            = LogManager.getLogger(SourceDirectoryFinder.class);
+
+    /**
+     * The name of the file in the root directory listing the source
+     * directories
+     */
+    public static final String PROPERTIES_FILE = "sources.properties";
+
+    // Directories that do not contain the source code of the project, like
+    // version control data, IDE settings and build outputs
+    private static final Set<String> SKIPPED_DIRECTORIES = Set.of(
+            ".git", ".hg", ".svn", ".idea", ".gradle", ".mvn",
+            "target", "build", "out", "node_modules", "bower_components"
+    );
+
+    // Directories containing these are not part of the source code
+    private static final String TEST_KEYWORD = "/test/";
+    private static final String EXAMPLE_KEYWORD = "example";
+
+    // The result of the last search, null if there is none
+    private Search cachedSearch;
+
+    /**
+     * Finds the source directories of the project. The directories found for
+     * the previous commit are used if the changed files did not add or remove
+     * any relevant directory.
+     *
+     * @param rootDirectory The root directory of the project
+     * @param sourceTree The tree to read the directories from
+     * @param changeSet The files changed since the previous search, or null
+     * if unknown
+     * @return The source directories
+     */
+    public synchronized Set<File> findSourceDirectories(
+            File rootDirectory, SourceTree sourceTree, ChangeSet changeSet
+    ) {
+        File propertiesFile = new File(rootDirectory, PROPERTIES_FILE);
+        String propertiesId = getPropertiesId(propertiesFile, sourceTree);
+
+        if (cachedSearch != null && changeSet != null
+                && cachedSearch.rootDirectory.equals(rootDirectory)
+                && Objects.equals(cachedSearch.propertiesId, propertiesId)
+                && cachedSearch.isUnchanged(sourceTree, changeSet)) {
+            LOGGER.info("Using the source directories of the previous commit");
+            return cachedSearch.getSourceDirectories();
+        }
+
+        Search search = null;
+        if (propertiesId != null) {
+            LOGGER.info("Using sources.properties file to read input sources.");
+            search = new Search(rootDirectory, sourceTree);
+            search.searchPropertiesFile(propertiesFile);
+            if (search.sourceDirectories.isEmpty()) {
+                LOGGER.warn("Could not find any directory from "
+                        + "sources.properties file. Falling back to "
+                        + "recursive src dir.");
+                search = null;
+            }
+        }
+        if (search == null) {
+            search = new Search(rootDirectory, sourceTree);
+            search.searchDefault();
+        }
+
+        search.propertiesId = propertiesId;
+        cachedSearch = search;
+        return search.getSourceDirectories();
+    }
+
+    /**
+     * Gets the source directories listed in a properties file, without using
+     * or changing the cached directories.
+     *
+     * @param rootDirectory The root directory of the project
+     * @param sourceTree The tree to read the directories from
+     * @param propertiesFile The properties file to read
+     * @return The source directories
+     */
+    public Set<File> readPropertiesFile(
+            File rootDirectory, SourceTree sourceTree, File propertiesFile
+    ) {
+        Search search = new Search(rootDirectory, sourceTree);
+        search.searchPropertiesFile(propertiesFile);
+        return search.getSourceDirectories();
+    }
+
+    /**
+     * Removes the cached directories, so the next search walks the
+     * directories again.
+     */
+    public synchronized void clear() {
+        cachedSearch = null;
+    }
+
+    /**
+     * Gets the blob id of the properties file, used to find out if it
+     * changed.
+     *
+     * @param propertiesFile The properties file
+     * @param sourceTree The tree to read the file from
+     * @return The blob id, or null if there is no properties file
+     */
+    private static String getPropertiesId(
+            File propertiesFile, SourceTree sourceTree
+    ) {
+        if (!sourceTree.isFile(propertiesFile)) {
+            return null;
+        }
+        try {
+            return sourceTree.getBlobId(propertiesFile);
+        } catch (IOException ex) {
+            // The search can not read it either and uses the default keys
+            return "";
+        }
+    }
+
+    /**
+     * A single search for source directories. The directories are stored as
+     * paths relative to the root directory, using forward slashes. The root
+     * directory itself is "".
+     */
+    private static class Search {
+
+        private final File rootDirectory;
+        private final Path rootPath;
+        private final SourceTree sourceTree;
+
+        // The blob id of the properties file, null if none is used
+        private String propertiesId;
+
+        // The exclude entries, null if no properties file is used
+        private Set<String> excludes;
+
+        // Per include entry if it was an existing directory
+        private final Map<String, Boolean> includes = new LinkedHashMap<>();
+
+        // The directories found
+        private final Set<String> sourceDirectories
+                = ConcurrentHashMap.newKeySet();
+
+        // The directories that have been listed and their child directories
+        // that are not skipped
+        private final Map<String, List<String>> walkedDirectories
+                = new ConcurrentHashMap<>();
+
+        // The excluded directories found while walking
+        private final Set<String> excludedDirectories
+                = ConcurrentHashMap.newKeySet();
+
+        /**
+         * Creates a search in a root directory
+         *
+         * @param rootDirectory The root directory of the project
+         * @param sourceTree The tree to read the directories from
+         */
+        private Search(File rootDirectory, SourceTree sourceTree) {
+            this.rootDirectory = rootDirectory;
+            this.rootPath = rootDirectory.getAbsoluteFile().toPath()
+                    .normalize();
+            this.sourceTree = sourceTree;
+        }
+
+        /**
+         * Finds the src/main and src/java directories, or the src directories
+         * if there are none.
+         */
+        private void searchDefault() {
+            walk(List.of(""), (path) -> {
+                Path directory = getFile(path).toPath();
+                return directory.endsWith("src/main")
+                        || directory.endsWith("src/java");
+            });
+
+            if (sourceDirectories.isEmpty()) {
+                LOGGER.warn("Could not find any non-test Java source "
+                        + "directory recursively. Using generic 'src'.");
+                for (String path : walkedDirectories.keySet()) {
+                    if (getFile(path).toPath().endsWith("src")) {
+                        sourceDirectories.add(path);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Finds the included directories of a properties file, leaving out
+         * the excluded directories.
+         *
+         * @param propertiesFile The properties file to read
+         */
+        private void searchPropertiesFile(File propertiesFile) {
+            Properties properties = new Properties();
+            try (InputStream inputStream = sourceTree.open(propertiesFile)) {
+                properties.load(inputStream);
+            } catch (IOException ex) {
+                LOGGER.error("Could not read from sources properties file "
+                        + propertiesFile.getAbsolutePath());
+            }
+            String include = properties.getProperty("sources.include", "src");
+            String exclude = properties.getProperty("sources.exclude", "test");
+
+            excludes = new HashSet<>();
+            for (String entry : exclude.split(File.pathSeparator)) {
+                String path = entry.trim().replace(File.separatorChar, '/');
+                if (!path.isEmpty()) {
+                    excludes.add(path);
+                }
+            }
+
+            List<String> included = new ArrayList<>();
+            for (String entry : include.split(File.pathSeparator)) {
+                String path = getPath(new File(rootDirectory, entry.trim()));
+                if (path == null) {
+                    continue;
+                }
+                boolean exists = sourceTree.isDirectory(getFile(path));
+                includes.put(path, exists);
+                if (exists && !isExcluded(path)) {
+                    included.add(path);
+                }
+            }
+
+            walk(included, (path) -> false);
+            for (String path : included) {
+                addIncluded(path);
+            }
+        }
+
+        /**
+         * Adds an included directory as source directory. If it contains an
+         * excluded directory, the directories inside it are added instead.
+         *
+         * @param path The included directory
+         */
+        private void addIncluded(String path) {
+            String prefix = path.isEmpty() ? "" : path + "/";
+            boolean containsExcluded = excludedDirectories.stream()
+                    .anyMatch((excluded) -> excluded.startsWith(prefix));
+            if (!containsExcluded) {
+                sourceDirectories.add(path);
+                return;
+            }
+            for (String child
+                    : walkedDirectories.getOrDefault(path, List.of())) {
+                addIncluded(child);
+            }
+        }
+
+        /**
+         * Walks over the directories level by level, listing the directories
+         * of a level in parallel.
+         *
+         * @param start The directories to start in
+         * @param isSourceDirectory Gives true for the source directories, these
+         * are added and not walked into
+         */
+        private void walk(
+                Collection<String> start, Predicate<String> isSourceDirectory
+        ) {
+            List<String> level = new ArrayList<>(start);
+            while (!level.isEmpty()) {
+                level = level.parallelStream()
+                        .flatMap((path) -> {
+                            if (isSourceDirectory.test(path)) {
+                                sourceDirectories.add(path);
+                                return Stream.empty();
+                            }
+                            return listDirectories(path).stream();
+                        })
+                        .collect(Collectors.toList());
+            }
+        }
+
+        /**
+         * Lists the child directories of a directory that are not skipped,
+         * and stores them as walked.
+         *
+         * @param path The directory to list
+         * @return The child directories that are not skipped
+         */
+        private List<String> listDirectories(String path) {
+            List<String> children = new ArrayList<>();
+            try {
+                for (File child : sourceTree.listDirectories(getFile(path))) {
+                    String childPath = getPath(child);
+                    if (childPath != null && !isSkipped(childPath)) {
+                        children.add(childPath);
+                    }
+                }
+            } catch (IOException ex) {
+                LOGGER.warn("Could not read " + getFile(path).getAbsolutePath()
+                        + ": " + ex.getMessage());
+            }
+            walkedDirectories.put(path, children);
+            return children;
+        }
+
+        /**
+         * Checks if a directory should not be walked into.
+         *
+         * @param path The directory
+         * @return True if the directory is skipped
+         */
+        private boolean isSkipped(String path) {
+            if (excludes != null && isExcluded(path)) {
+                excludedDirectories.add(path);
+                return true;
+            }
+            if (SKIPPED_DIRECTORIES.contains(getName(path))) {
+                return true;
+            }
+            if (excludes != null) {
+                return false;
+            }
+            String lowerCase = path.toLowerCase();
+            return ("/" + lowerCase + "/").contains(TEST_KEYWORD)
+                    || lowerCase.contains(EXAMPLE_KEYWORD);
+        }
+
+        /**
+         * Checks if a directory matches one of the exclude entries, by its
+         * name or by its path.
+         *
+         * @param path The directory
+         * @return True if the directory is excluded
+         */
+        private boolean isExcluded(String path) {
+            return excludes.contains(path) || excludes.contains(getName(path));
+        }
+
+        /**
+         * Checks if the changed files of a commit leave the found directories
+         * the same.
+         *
+         * @param currentTree The tree of the new commit
+         * @param changeSet The changed files
+         * @return True if the directories are still the same
+         */
+        private boolean isUnchanged(SourceTree currentTree, ChangeSet changeSet) {
+            for (Map.Entry<String, Boolean> include : includes.entrySet()) {
+                if (currentTree.isDirectory(getFile(include.getKey()))
+                        != include.getValue()) {
+                    return false;
+                }
+            }
+            for (String path : sourceDirectories) {
+                if (!currentTree.isDirectory(getFile(path))) {
+                    return false;
+                }
+            }
+
+            for (String path : changeSet.getAddedPaths()) {
+                if (isNewDirectory(getPath(changeSet.getFile(path)))) {
+                    return false;
+                }
+            }
+
+            List<String> removedPaths = new ArrayList<>(
+                    changeSet.getRemovedPaths()
+            );
+            removedPaths.addAll(changeSet.getRenamedPaths().keySet());
+            for (String path : removedPaths) {
+                String parent = getParent(getPath(changeSet.getFile(path)));
+                if (parent != null && walkedDirectories.containsKey(parent)
+                        && !currentTree.isDirectory(getFile(parent))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Checks if an added file is in a directory that would be walked, but
+         * was not seen in this search.
+         *
+         * @param path The added file
+         * @return True if the file adds a relevant directory
+         */
+        private boolean isNewDirectory(String path) {
+            String parent = getParent(path);
+            if (parent == null || walkedDirectories.containsKey(parent)) {
+                return false;
+            }
+
+            // Find the closest walked directory
+            String child = parent;
+            String ancestor = getParent(parent);
+            while (ancestor != null && !walkedDirectories.containsKey(ancestor)) {
+                child = ancestor;
+                ancestor = getParent(ancestor);
+            }
+            if (ancestor == null || sourceDirectories.contains(child)) {
+                return false;
+            }
+
+            // A skipped directory does not matter, unless it is an excluded
+            // directory that was not there before.
+            if (excludes != null && isExcluded(child)) {
+                return !excludedDirectories.contains(child);
+            }
+            return !isSkipped(child);
+        }
+
+        /**
+         * Gets the found directories as files
+         *
+         * @return The source directories
+         */
+        private Set<File> getSourceDirectories() {
+            Set<File> directories = new HashSet<>();
+            for (String path : sourceDirectories) {
+                directories.add(getFile(path));
+            }
+            return directories;
+        }
+
+        /**
+         * Gets the path of a file relative to the root directory
+         *
+         * @param file The file
+         * @return The path, or null if the file is not inside the root
+         */
+        private String getPath(File file) {
+            Path path = file.getAbsoluteFile().toPath().normalize();
+            if (!path.startsWith(rootPath)) {
+                return null;
+            }
+            return rootPath.relativize(path).toString()
+                    .replace(File.separatorChar, '/');
+        }
+
+        /**
+         * Gets the file of a path relative to the root directory
+         *
+         * @param path The path
+         * @return The file
+         */
+        private File getFile(String path) {
+            return path.isEmpty() ? rootDirectory
+                    : new File(rootDirectory, path);
+        }
+
+        /**
+         * Gets the directory containing a path
+         *
+         * @param path The path, may be null
+         * @return The parent directory, or null for the root directory
+         */
+        private static String getParent(String path) {
+            if (path == null || path.isEmpty()) {
+                return null;
+            }
+            int slash = path.lastIndexOf('/');
+            return slash < 0 ? "" : path.substring(0, slash);
+        }
+
+        /**
+         * Gets the name of the last directory in a path
+         *
+         * @param path The path
+         * @return The name of the directory
+         */
+        private static String getName(String path) {
+            return path.substring(path.lastIndexOf('/') + 1);
+        }
+
+    }
+
+}
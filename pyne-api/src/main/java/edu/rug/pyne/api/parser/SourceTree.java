@@ -0,0 +1,98 @@
+package edu.rug.pyne.api.parser;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import spoon.Launcher;
+
+/**
+ * This interface gives access to the source code files of a project. The
+ * parser uses it to find the source directories and to give the source files
+ * to spoon, so the files do not need to be on the file system.
+ *
+ * All files are given as files inside the root directory of the parser.
+ *
+ * @author Patrick Beuks (s2288842) <code@beuks.net>
+ */
+public interface SourceTree {
+
+    /**
+     * Checks if the file exists and is a file.
+     *
+     * @param file The file to check
+     * @return True if the file exists in the tree
+     */
+    boolean isFile(File file);
+
+    /**
+     * Checks if the file exists and is a directory.
+     *
+     * @param file The file to check
+     * @return True if the directory exists in the tree
+     */
+    boolean isDirectory(File file);
+
+    /**
+     * Walks over the directory, giving the directory itself and all files and
+     * directories inside it.
+     *
+     * @param directory The directory to walk over
+     * @return The files and directories, should be closed after use
+     * @throws IOException Thrown if the directory could not be read
+     */
+    Stream<File> walk(File directory) throws IOException;
+
+    /**
+     * Gets the directories directly inside a directory. Used to walk over the
+     * directories while skipping the ones that are not needed.
+     *
+     * By default the whole directory is walked over, implementations should
+     * only read the directory itself.
+     *
+     * @param directory The directory to list
+     * @return The directories inside the directory
+     * @throws IOException Thrown if the directory could not be read
+     */
+    default List<File> listDirectories(File directory) throws IOException {
+        File parent = directory.getAbsoluteFile();
+        try (Stream<File> stream = walk(directory)) {
+            return stream
+                    .filter(file -> parent.equals(
+                            file.getAbsoluteFile().getParentFile()
+                    ))
+                    .filter(this::isDirectory)
+                    .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Opens a file for reading.
+     *
+     * @param file The file to read
+     * @return The content of the file
+     * @throws IOException Thrown if the file could not be read
+     */
+    InputStream open(File file) throws IOException;
+
+    /**
+     * Gets the git blob id of the content of a file, used to find the facts of
+     * the file in the fact cache.
+     *
+     * @param file The file to get the id of
+     * @return The blob id as hexadecimal string
+     * @throws IOException Thrown if the file could not be read
+     */
+    String getBlobId(File file) throws IOException;
+
+    /**
+     * Adds a file or a directory as input for spoon.
+     *
+     * @param launcher The launcher to add the input to
+     * @param resource The file or directory to add
+     */
+    void addInputResource(Launcher launcher, File resource);
+
+}
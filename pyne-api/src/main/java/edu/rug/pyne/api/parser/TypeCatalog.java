@@ -0,0 +1,129 @@
+package edu.rug.pyne.api.parser;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import spoon.processing.AbstractProcessor;
+import spoon.processing.Processor;
+import spoon.reflect.CtModel;
+import spoon.reflect.declaration.CtElement;
+import spoon.reflect.declaration.CtType;
+import spoon.reflect.declaration.CtTypeParameter;
+import spoon.reflect.factory.Factory;
+import spoon.reflect.visitor.filter.TypeFilter;
+
+/**
+ * This class contains all types of a spoon model. The model is scanned once to
+ * create the catalog, after which processors that only process types can be
+ * run over the catalog instead of scanning the whole model again.
+ *
+ * @author Patrick Beuks (s2288842) <code@beuks.net>
+ */
+public class TypeCatalog {
+
+    private static final Logger LOGGER
+            = LogManager.getLogger(TypeCatalog.class);
+
+    // All types in the model, including nested, local and anonymous types
+    private final List<CtType<?>> types = new ArrayList<>();
+
+    /**
+     * Creates the catalog by scanning the given model once
+     *
+     * @param model The model to get the types from
+     */
+    public TypeCatalog(CtModel model) {
+        for (CtType<?> topLevelType : model.getAllTypes()) {
+            try {
+                for (CtType<?> type : topLevelType
+                        .getElements(new TypeFilter<>(CtType.class))) {
+                    // Type parameters are types in spoon, but not classes
+                    if (!(type instanceof CtTypeParameter)) {
+                        types.add(type);
+                    }
+                }
+            } catch (Exception | Error e) {
+                LOGGER.warn("Error while scanning type {}: {}",
+                        topLevelType.getQualifiedName(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Gets all types in the catalog
+     *
+     * @return An unmodifiable list of types
+     */
+    public List<CtType<?>> getTypes() {
+        return Collections.unmodifiableList(types);
+    }
+
+    /**
+     * Checks if the given processor can be run over the catalog. This is the
+     * case if it only processes types. Spoon gives type parameters to a
+     * processor of all types, which the catalog does not contain, so such a
+     * processor is not run over the catalog.
+     *
+     * @param processor The processor to check
+     * @return True if the processor only processes types that are not type
+     * parameters
+     */
+    public boolean canProcess(Processor<? extends CtElement> processor) {
+        for (Class<?> elementType : processor.getProcessedElementTypes()) {
+            if (!CtType.class.isAssignableFrom(elementType)
+                    || elementType.isAssignableFrom(CtTypeParameter.class)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Runs a processor over all types in the catalog. The processor is
+     * initialized first and notified when the processing is done, the same
+     * way spoon would when it processes the model.
+     *
+     * @param <E> The type of element the processor processes
+     * @param processor The processor to run
+     * @param factory The factory of the model
+     */
+    @SuppressWarnings("unchecked")
+    public <E extends CtElement> void process(
+            Processor<E> processor, Factory factory
+    ) {
+        if (processor instanceof AbstractProcessor) {
+            ((AbstractProcessor<E>) processor).setFactory(factory);
+        }
+        processor.init();
+
+        for (CtType<?> type : types) {
+            if (isProcessedElementType(processor, type)
+                    && processor.isToBeProcessed((E) type)) {
+                processor.process((E) type);
+            }
+        }
+
+        processor.processingDone();
+    }
+
+    /**
+     * Checks if the processor processes elements of the class of the type
+     *
+     * @param processor The processor to check
+     * @param type The type to check
+     * @return True if the processor processes the type
+     */
+    private boolean isProcessedElementType(
+            Processor<?> processor, CtType<?> type
+    ) {
+        for (Class<?> elementType : processor.getProcessedElementTypes()) {
+            if (elementType.isInstance(type)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+}
@@ -2,34 +2,48 @@ package edu.rug.pyne.api.parser.analysisprocessor;
 
 import com.syncleus.ferma.FramedGraph;
 import edu.rug.pyne.api.parser.Parser;
+import edu.rug.pyne.api.parser.cache.FactRecorder;
 import edu.rug.pyne.api.parser.structureprocessor.ClassProcessor;
 import edu.rug.pyne.api.structure.VertexClass;
 import edu.rug.pyne.api.structure.VertexPackage;
 import java.io.File;
 import java.lang.annotation.Annotation;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Set;
-import java.util.function.Consumer;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.stream.Collectors;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import spoon.processing.AbstractProcessor;
 import spoon.reflect.code.BinaryOperatorKind;
 import spoon.reflect.code.CtBinaryOperator;
-import spoon.reflect.code.CtBlock;
 import spoon.reflect.code.CtConstructorCall;
+import spoon.reflect.code.CtExpression;
 import spoon.reflect.code.CtInvocation;
+import spoon.reflect.code.CtNewClass;
+import spoon.reflect.code.CtTypeAccess;
 import spoon.reflect.declaration.*;
+import spoon.reflect.reference.CtArrayTypeReference;
 import spoon.reflect.reference.CtExecutableReference;
 import spoon.reflect.reference.CtPackageReference;
+import spoon.reflect.reference.CtTypeParameterReference;
 import spoon.reflect.reference.CtTypeReference;
-import spoon.reflect.visitor.filter.TypeFilter;
+import spoon.reflect.visitor.CtScanner;
 
 /**
  * This a analysis processor. It takes the source code class and analyzes the
  * dependencies it has.
  *
+ * Analysing a class is split in two steps. First the dependencies are found by
+ * walking the spoon model, which results in an immutable ClassDependencies.
+ * Then these are applied to the graph. When the parser is set to use more than
+ * one analysis thread, the first step is done in parallel for all classes once
+ * the processing is done, while the graph is only written by a single thread.
+ *
  * @author Patrick Beuks (s2288842) <code@beuks.net>
  */
 public class ClassAnalysis extends AbstractProcessor<CtClass<?>> {
@@ -42,65 +56,287 @@ public class ClassAnalysis extends AbstractProcessor<CtClass<?>> {
     // The parser containing additional information
     private final Parser parser;
 
+    // The classes waiting to be analysed in parallel
+    private final List<CtType<?>> pendingClasses = new ArrayList<>();
+
+    // The declarations of the referenced types of the current model
+    private final DeclarationCache declarationCache = new DeclarationCache();
+
+    // The reference scanner of each analysis thread, so its buffer is reused
+    // for every class the thread analyses.
+    private final ThreadLocal<ReferenceScanner> referenceScanners
+            = ThreadLocal.withInitial(() -> new ReferenceScanner());
+
     /**
-     * A consumer for annotations, used to get the type and add the declaration
-     * of it
+     * A scanner that finds the classes referenced by a class in a single walk
+     * of the class. The declarations of the referenced classes are written to
+     * a buffer that is reused for the next class.
+     *
+     * The class is scanned for instanceof checks, constructor calls,
+     * invocations, annotations and the types of fields and parameters. Nested
+     * types are analysed as classes of their own, so they are not scanned.
+     * Local and anonymous classes are scanned as part of their class.
+     *
+     * When the model only contains a part of the source code, the references
+     * that can not be resolved are kept in a second buffer, so they can be
+     * resolved by name against the graph.
      */
-    private class AnnotationConsumer
-            implements Consumer<CtAnnotation<? extends Annotation>> {
+    private class ReferenceScanner extends CtScanner {
+
+        private final List<CtType> references = new ArrayList<>();
+        private final List<CtTypeReference> namedReferences
+                = new ArrayList<>();
+        private boolean partialModel;
+        private CtType<?> scannedType;
+
+        /**
+         * Finds the classes referenced by a class
+         *
+         * @param clazz The class to scan
+         * @param partialModel True if the unresolved references need to be
+         * kept
+         * @return The buffer with the referenced declarations, which may
+         * contain null for references that could not be resolved. The buffer
+         * is valid until the next class is scanned.
+         */
+        public List<CtType> scanType(CtType<?> clazz, boolean partialModel) {
+            references.clear();
+            namedReferences.clear();
+            this.partialModel = partialModel;
+
+            scannedType = clazz;
+            try {
+                scan(clazz);
+            } finally {
+                scannedType = null;
+            }
 
-        private final List<CtType> dependences;
+            return references;
+        }
 
         /**
-         * A consumer for annotations, used to get the type and add the
-         * declaration of it
+         * Gets the references of the scanned class that could not be
+         * resolved, only kept when the model is a part of the source code
          *
-         * @param dependences The list to add the found type to
+         * @return The buffer with the unresolved references, valid until the
+         * next class is scanned
          */
-        public AnnotationConsumer(List<CtType> dependences) {
-            this.dependences = dependences;
+        public List<CtTypeReference> getNamedReferences() {
+            return namedReferences;
+        }
+
+        /**
+         * Clears the buffers, so the model is not kept alive by them
+         */
+        public void clear() {
+            references.clear();
+            namedReferences.clear();
         }
 
         @Override
-        public void accept(CtAnnotation<? extends Annotation> annotation) {
-            dependences.add(annotation.getAnnotationType().getDeclaration());
+        public void scan(CtElement element) {
+            // Skip the nested types, they are analysed on their own
+            if (element instanceof CtType && element != scannedType
+                    && element.isParentInitialized()
+                    && element.getParent() instanceof CtType) {
+                return;
+            }
+            // Skip the code that is not written, like default constructors
+            if (element != null && element.isImplicit()) {
+                return;
+            }
+            super.scan(element);
         }
 
-    }
+        @Override
+        public <T> void visitCtBinaryOperator(
+                CtBinaryOperator<T> operator
+        ) {
+            // Add the type checked by instanceof
+            if (operator.getKind().equals(BinaryOperatorKind.INSTANCEOF)) {
+                CtTypeReference<?> type
+                        = getCheckedType(operator.getRightHandOperand());
+                CtType<?> declaration
+                        = declarationCache.getTypeDeclaration(type);
+                if (declaration == null) {
+                    addNamed(type);
+                }
+                references.add(declaration);
+            }
+            super.visitCtBinaryOperator(operator);
+        }
 
-    /**
-     * A consumer for elements, used to get the type and add the declaration of
-     * it
-     */
-    private class ExecutatbleConsumer implements Consumer<CtElement> {
+        @Override
+        public <T> void visitCtConstructorCall(
+                CtConstructorCall<T> constructorCall
+        ) {
+            addExecutable(constructorCall.getExecutable());
+            super.visitCtConstructorCall(constructorCall);
+        }
+
+        @Override
+        public <T> void visitCtNewClass(CtNewClass<T> newClass) {
+            addExecutable(newClass.getExecutable());
+            super.visitCtNewClass(newClass);
+        }
+
+        @Override
+        public <T> void visitCtInvocation(CtInvocation<T> invocation) {
+            addExecutable(invocation.getExecutable());
+            super.visitCtInvocation(invocation);
+        }
+
+        @Override
+        public <A extends Annotation> void visitCtAnnotation(
+                CtAnnotation<A> annotation
+        ) {
+            CtTypeReference<?> type = annotation.getAnnotationType();
+            CtType<?> declaration = declarationCache.getDeclaration(type);
+            if (declaration == null) {
+                addNamed(type);
+            }
+            references.add(declaration);
+            super.visitCtAnnotation(annotation);
+        }
 
-        private final List<CtType> dependences;
+        @Override
+        public <T> void visitCtField(CtField<T> field) {
+            addType(field.getType());
+            super.visitCtField(field);
+        }
+
+        @Override
+        public <T> void visitCtParameter(CtParameter<T> parameter) {
+            addType(parameter.getType());
+            super.visitCtParameter(parameter);
+        }
 
         /**
-         * A consumer for elements, used to get the type and add the declaration
-         * of it
+         * Gets the type checked by an instanceof. The right hand operand is a
+         * type access, of which the type itself is void.
          *
-         * @param dependences The list to add the found type to
+         * @param operand The right hand operand of the instanceof
+         * @return The checked type
          */
-        public ExecutatbleConsumer(List<CtType> dependences) {
-            this.dependences = dependences;
+        private CtTypeReference<?> getCheckedType(CtExpression<?> operand) {
+            if (operand instanceof CtTypeAccess) {
+                return ((CtTypeAccess<?>) operand).getAccessedType();
+            }
+            return operand.getType();
         }
 
-        @Override
-        public void accept(CtElement element) {
-            if (!(element instanceof CtExecutableReference<?>)) {
+        /**
+         * Adds the declaration of the type of a field or parameter. Arrays
+         * add the type of their elements.
+         *
+         * @param type The declared type, may be null
+         */
+        private void addType(CtTypeReference<?> type) {
+            while (type instanceof CtArrayTypeReference) {
+                type = ((CtArrayTypeReference<?>) type).getComponentType();
+            }
+            if (type == null || type instanceof CtTypeParameterReference) {
                 return;
             }
-            CtExecutableReference executable = (CtExecutableReference) element;
-            try {
-                CtTypeReference executableType = executable.getType();
-                if (executableType != null && executableType.getDeclaration() != null) {
-                    dependences.add(executableType.getTypeDeclaration());
+            // Only types declared in the source code are added
+            CtType<?> declaration = declarationCache.getDeclaration(type);
+            if (declaration == null) {
+                addNamed(type);
+                return;
+            }
+            references.add(declaration);
+        }
+
+        /**
+         * Adds the declaration of the type of an executable
+         *
+         * @param executable The executable that is called
+         */
+        private void addExecutable(CtExecutableReference<?> executable) {
+            if (executable == null) {
+                return;
+            }
+            // Only types declared in the source code are added
+            CtTypeReference<?> executableType = executable.getType();
+            if (declarationCache.getDeclaration(executableType) == null) {
+                addNamed(getDeclaredType(executable, executableType));
+                return;
+            }
+            CtType<?> declaration
+                    = declarationCache.getTypeDeclaration(executableType);
+            if (declaration != null) {
+                references.add(declaration);
+            }
+        }
+
+        /**
+         * Gets the type of an executable as written in its declaration. Spoon
+         * guesses the package of a type that is not in the model from the
+         * calling class, while the declaration uses the imports of the file
+         * it is declared in. Only used when the model is a part of the source
+         * code.
+         *
+         * @param executable The executable that is called
+         * @param executableType The type of the executable at the call
+         * @return The declared type, or the type at the call if the
+         * declaration is not in the model or is generic
+         */
+        private CtTypeReference<?> getDeclaredType(
+                CtExecutableReference<?> executable,
+                CtTypeReference<?> executableType
+        ) {
+            if (!partialModel || declarationCache.getDeclaration(
+                    executable.getDeclaringType()
+            ) == null) {
+                return executableType;
+            }
+            CtExecutable<?> declaration = executable.getDeclaration();
+            if (declaration instanceof CtTypedElement) {
+                CtTypeReference<?> declaredType
+                        = ((CtTypedElement<?>) declaration).getType();
+                if (declaredType != null && !(declaredType
+                        instanceof CtTypeParameterReference)) {
+                    return declaredType;
                 }
-            }catch (NullPointerException e){
-                // Ignore spoon errors
             }
+            return executableType;
+        }
+
+        /**
+         * Keeps a reference that could not be resolved in the model, if the
+         * model is a part of the source code
+         *
+         * @param reference The reference, may be null
+         */
+        private void addNamed(CtTypeReference<?> reference) {
+            if (partialModel && reference != null && !reference.isPrimitive()
+                    && !(reference instanceof CtTypeParameterReference)) {
+                namedReferences.add(reference);
+            }
+        }
+
+    }
+
+    /**
+     * The number of times a class is referenced by the class being processed
+     */
+    private static class ReferenceCount {
+
+        private final CtTypeReference reference;
+        private final boolean sourceClass;
+        private int count = 0;
+
+        /**
+         * The number of times a class is referenced, starting at zero
+         *
+         * @param reference The first found reference to the class
+         * @param sourceClass True if the class is declared in the source code
+         */
+        public ReferenceCount(CtTypeReference reference, boolean sourceClass) {
+            this.reference = reference;
+            this.sourceClass = sourceClass;
         }
+
     }
 
     /**
@@ -126,9 +362,38 @@ public class ClassAnalysis extends AbstractProcessor<CtClass<?>> {
         this.processClass(clazz);
     }
 
+    /**
+     * Starts the analysis of a new model, the declarations resolved in a
+     * previous model are no longer valid.
+     */
+    @Override
+    public void init() {
+        super.init();
+        declarationCache.clear();
+    }
+
+    /**
+     * Analyses the classes that are waiting to be analysed in parallel.
+     */
+    @Override
+    public void processingDone() {
+        processPendingClasses();
+    }
+
+    /**
+     * Removes the declarations resolved while analysing the current model, so
+     * the model is not kept in memory after the analysis.
+     */
+    public void clearDeclarationCache() {
+        declarationCache.clear();
+    }
+
     /**
      * Processes a single source code class or interface
      *
+     * When the parser uses more than one analysis thread the class is only
+     * queued, and it is analysed when processPendingClasses is called.
+     *
      * @param clazz The class or interface to process
      */
     public void processClass(CtType<?> clazz) {
@@ -140,152 +405,326 @@ public class ClassAnalysis extends AbstractProcessor<CtClass<?>> {
             return;
         }
 
-        // Check if added files is set, and if so only analyze those classes
-        if (parser.getAddedFiles() != null) {
-            File file = clazz.getPosition().getFile();
-            if (!parser.getAddedFiles().contains(file)) {
-                return;
-            }
+        // Only analyze the classes in the files that need to be processed
+        File file = clazz.getPosition().getFile();
+        if (!parser.isProcessedFile(file)) {
+            return;
         }
 
-        processClassDependencies(clazz, vertex);
-        processClassReferences(clazz, vertex);
+        if (parser.getAnalysisThreads() > 1) {
+            pendingClasses.add(clazz);
+            return;
+        }
+
+        applyClassDependencies(analyseClass(clazz));
 
     }
 
     /**
-     * Checks if the given class has a superclass or implements interfaces and
-     * if so adds the corresponding edges to the vertex.
+     * Analyses all queued classes in parallel and applies the results to the
+     * graph.
      *
-     * @param clazz The class being processed
-     * @param vertexClass The corresponding vertex
+     * The classes are partitioned over a fork join pool with the number of
+     * analysis threads of the parser. The calling thread is the only one that
+     * writes to the graph, and it applies the results in the order the classes
+     * were queued.
      */
-    private void processClassDependencies(
-            CtType clazz, VertexClass vertexClass
-    ) {
+    public void processPendingClasses() {
+        if (pendingClasses.isEmpty()) {
+            return;
+        }
+
+        int threads = parser.getAnalysisThreads();
+        // Use a few partitions per thread so slow classes even out
+        int partitionSize = Math.max(
+                1, pendingClasses.size() / (threads * 4)
+        );
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            List<ForkJoinTask<List<ClassDependencies>>> tasks
+                    = new ArrayList<>();
+            for (int i = 0; i < pendingClasses.size(); i += partitionSize) {
+                List<CtType<?>> partition = pendingClasses.subList(
+                        i, Math.min(i + partitionSize, pendingClasses.size())
+                );
+                tasks.add(pool.submit(() -> partition.stream()
+                        .map(this::analyseClass)
+                        .collect(Collectors.toUnmodifiableList())
+                ));
+            }
+
+            for (ForkJoinTask<List<ClassDependencies>> task : tasks) {
+                for (ClassDependencies dependencies : task.join()) {
+                    applyClassDependencies(dependencies);
+                }
+            }
+        } finally {
+            pool.shutdown();
+            pendingClasses.clear();
+        }
+    }
+
+    /**
+     * Finds the dependencies of a class. This only reads the spoon model and
+     * does not use the graph, so it can be called from multiple threads.
+     *
+     * @param clazz The class or interface to analyse
+     * @return The dependencies of the class
+     */
+    public ClassDependencies analyseClass(CtType<?> clazz) {
 
+        ReferencedType superClass = null;
         if (clazz.getSuperclass() != null) {
-            VertexClass superClass
-                    = getOrCreateVertexClass(clazz.getSuperclass());
-            vertexClass.addChildOfClass(superClass);
+            superClass = getReferencedType(clazz.getSuperclass());
         }
 
+        List<ReferencedType> superInterfaces = new ArrayList<>();
         for (CtTypeReference<?> superInterface : clazz.getSuperInterfaces()) {
             if (superInterface == null)
                 continue;
-            VertexClass superInterfaceClass
-                    = getOrCreateVertexClass(superInterface);
-            vertexClass.addImplematationOfClass(superInterfaceClass);
+            superInterfaces.add(getReferencedType(superInterface));
+        }
+
+        // Count the references per referenced class, so every dependency is
+        // written to the graph once with its final weight.
+        Map<String, ReferenceCount> referenceCounts = new LinkedHashMap<>();
+        ReferenceScanner referenceScanner = referenceScanners.get();
+        for (CtType referencedClass
+                : referenceScanner.scanType(clazz, parser.isPartialModel())) {
+            if (referencedClass == null) {
+                continue;
+            }
+            CtTypeReference reference = referencedClass.getReference();
+            if (reference == null) {
+                continue;
+            }
+            boolean sourceClass = !referencedClass.isShadow()
+                    && (referencedClass instanceof CtClass
+                    || referencedClass instanceof CtInterface);
+            referenceCounts.computeIfAbsent(
+                    reference.getQualifiedName(),
+                    (name) -> new ReferenceCount(reference, sourceClass)
+            ).count++;
+        }
+
+        // The references not in the model only need their name
+        Map<String, ReferenceCount> namedCounts = new LinkedHashMap<>();
+        for (CtTypeReference reference
+                : referenceScanner.getNamedReferences()) {
+            namedCounts.computeIfAbsent(
+                    reference.getQualifiedName(),
+                    (name) -> new ReferenceCount(reference, true)
+            ).count++;
+        }
+        referenceScanner.clear();
+
+        List<ClassDependencies.Dependency> dependencies = new ArrayList<>();
+        for (ReferenceCount referenceCount : referenceCounts.values()) {
+            dependencies.add(new ClassDependencies.Dependency(
+                    getReferencedType(referenceCount.reference),
+                    referenceCount.count,
+                    referenceCount.sourceClass
+            ));
+        }
+
+        List<ClassDependencies.Dependency> namedDependencies
+                = new ArrayList<>();
+        for (ReferenceCount referenceCount : namedCounts.values()) {
+            namedDependencies.add(new ClassDependencies.Dependency(
+                    getReferencedType(referenceCount.reference),
+                    referenceCount.count,
+                    true
+            ));
         }
 
+        return new ClassDependencies(
+                clazz.getQualifiedName(),
+                superClass,
+                superInterfaces,
+                dependencies,
+                namedDependencies
+        );
     }
 
     /**
-     * Goes over all class references for the given class and adds the
-     * corresponding edges.
+     * Applies the dependencies of a class to the graph. Adds the edges for the
+     * super class, the implemented interfaces and the referenced classes.
      *
-     * @param clazz The class being processed
-     * @param vertexClass The corresponding vertex
+     * @param classDependencies The dependencies to apply
      */
-    private void processClassReferences(CtType clazz, VertexClass vertexClass) {
+    public void applyClassDependencies(ClassDependencies classDependencies) {
 
-        for (CtType referencedClass : getClassReferences(clazz)) {
-            if (referencedClass == null || referencedClass.getReference() == null) {
-                continue;
-            }
+        VertexClass vertexClass = VertexClass.getVertexClassByName(
+                framedGraph, classDependencies.getClassName()
+        );
+
+        if (vertexClass == null) {
+            return;
+        }
+
+        FactRecorder factRecorder = parser.getFactRecorder();
+        if (factRecorder != null) {
+            factRecorder.recordDependencies(classDependencies);
+        }
+
+        if (classDependencies.getSuperClass() != null) {
+            VertexClass superClass = getOrCreateVertexClass(
+                    classDependencies.getSuperClass()
+            );
+            vertexClass.addChildOfClass(superClass);
+        }
+
+        for (ReferencedType superInterface
+                : classDependencies.getSuperInterfaces()) {
+            VertexClass superInterfaceClass
+                    = getOrCreateVertexClass(superInterface);
+            vertexClass.addImplematationOfClass(superInterfaceClass);
+        }
+
+        for (ClassDependencies.Dependency dependency
+                : classDependencies.getDependencies()) {
             VertexClass referencedClassVertex
-                        = getOrCreateVertexClass(referencedClass.getReference());
-                vertexClass.addDependOnClass(referencedClassVertex);
+                    = getOrCreateVertexClass(dependency.getType());
+            vertexClass.addDependOnClass(
+                    referencedClassVertex, dependency.getWeight()
+            );
+        }
+
+        // A type that was not in the model is only a dependency if it is a
+        // class declared in the source code that was not parsed
+        for (ClassDependencies.Dependency dependency
+                : classDependencies.getNamedDependencies()) {
+            VertexClass referencedClassVertex
+                    = findSystemClass(dependency.getType());
+            if (referencedClassVertex != null) {
+                vertexClass.addDependOnClass(
+                        referencedClassVertex, dependency.getWeight()
+                );
+            }
         }
 
     }
 
     /**
-     * Finds all dependencies the given class has.
+     * Finds the vertex class of a type by its name, if it is a class declared
+     * in the source code.
      *
-     * @param clazz The class being processed
+     * @param clazz The type to find
+     * @return The vertex class, or null if it is not a system class
      */
-    private List<CtType> getClassReferences(CtType clazz) {
-        List<CtType> references = new ArrayList<>();
-
-        // Sets up the consumers that will add the references.
-        AnnotationConsumer annotationConsumer
-                = new AnnotationConsumer(references);
-        ExecutatbleConsumer executatbleConsumer
-                = new ExecutatbleConsumer(references);
-
-        // Get all methods and loop over them
-        for (CtMethod<?> ctMethod : (Set<CtMethod<?>>) clazz.getMethods()) {
-
-            // Get binaryOperators used in the method, so we can check if they 
-            // are instanceof elements and add the dependency if so.
-            List<CtBinaryOperator<?>> BinaryElements = ctMethod
-                    .getElements(new TypeFilter<>(CtBinaryOperator.class));
-
-            for (CtBinaryOperator<?> element : BinaryElements) {
-                if (element.getKind().equals(BinaryOperatorKind.INSTANCEOF)) {
-                    references.add(element.getRightHandOperand().getType()
-                            .getTypeDeclaration());
-                }
-            }
-
-            // Add all references for annotations this method uses
-            ctMethod.getAnnotations().forEach(annotationConsumer);
-            for (CtParameter<?> parameter : ctMethod.getParameters()) {
-                parameter.getAnnotations().forEach(annotationConsumer);
+    private VertexClass findSystemClass(ReferencedType clazz) {
+        VertexCache vertexCache = parser.getVertexCache();
+        VertexClass vertexClass
+                = vertexCache.getVertexClass(clazz.getQualifiedName());
+        if (vertexClass == null) {
+            vertexClass = VertexClass.getVertexClassByName(
+                    framedGraph, clazz.getQualifiedName()
+            );
+            if (vertexClass == null) {
+                return null;
             }
+            vertexCache.putVertexClass(clazz.getQualifiedName(), vertexClass);
+        }
+        return vertexClass.isSystemClass() ? vertexClass : null;
+    }
 
-            // Get the body if the method has one
-            CtBlock<?> body = ctMethod.getBody();
-            if (body == null) {
-                continue;
+    /**
+     * Applies dependencies of a class found in an earlier parse, like the ones
+     * stored in the fact cache. A dependency on a class declared in the source
+     * code is only applied when that class is still a system class, as it is
+     * not found when the class is no longer declared.
+     *
+     * @param classDependencies The dependencies to apply
+     */
+    public void applyCachedClassDependencies(
+            ClassDependencies classDependencies
+    ) {
+        List<ClassDependencies.Dependency> dependencies = new ArrayList<>();
+        for (ClassDependencies.Dependency dependency
+                : classDependencies.getDependencies()) {
+            if (dependency.isSourceClass()) {
+                VertexClass vertexClass = VertexClass.getVertexClassByName(
+                        framedGraph, dependency.getType().getQualifiedName()
+                );
+                if (vertexClass == null || !vertexClass.isSystemClass()) {
+                    continue;
+                }
             }
+            dependencies.add(dependency);
+        }
 
-            // Get all constructors in the method
-            List<CtConstructorCall<?>> constructorElements = body
-                    .getElements(new TypeFilter<>(CtConstructorCall.class));
-
-            // Get all invocations in the method
-            List<CtInvocation<?>> invocationElements = body
-                    .getElements(new TypeFilter<>(CtInvocation.class));
-
-            // Add all references from the constructors
-            constructorElements.forEach((constructorCall) -> {
-                constructorCall.getDirectChildren()
-                        .forEach(executatbleConsumer);
-            });
+        applyClassDependencies(new ClassDependencies(
+                classDependencies.getClassName(),
+                classDependencies.getSuperClass(),
+                classDependencies.getSuperInterfaces(),
+                dependencies,
+                classDependencies.getNamedDependencies()
+        ));
+    }
 
-            // Add all references from the invocations.
-            invocationElements.forEach((statement) -> {
-                statement.getDirectChildren().forEach(executatbleConsumer);
-            });
+    /**
+     * Creates the description of a referenced type, containing the package
+     * the type belongs to.
+     *
+     * @param clazz The reference to the type
+     * @return The description of the type
+     */
+    private ReferencedType getReferencedType(CtTypeReference clazz) {
 
+        // An inner class does not have a package. So we need to go outside
+        // until we find the parent class that does have a package.
+        CtTypeReference cur = clazz;
+        while (!cur.isPrimitive() && cur.getPackage() == null) {
+            var tmp = cur.getDeclaringType();
+            if (tmp == null || tmp.getPackage() == null)
+                break;
+            cur = tmp;
         }
 
-        // Get all annotations the class uses and add them
-        clazz.getAnnotations().forEach(annotationConsumer);
-        for (CtField<?> field : (List<CtField<?>>) clazz.getFields()) {
-            field.getAnnotations().forEach(annotationConsumer);
+        // If the type is a primative (like int or byte) it does not have a
+        // package, So we set it to java.lang
+        if (cur.isPrimitive()) {
+            return new ReferencedType(
+                    clazz.getQualifiedName(), "java.lang", "RetrievedPackage"
+            );
         }
 
-        return references;
+        CtPackageReference ctPackage = cur.getPackage();
+        if (ctPackage == null) {
+            return new ReferencedType(clazz.getQualifiedName(), null, null);
+        }
+        return new ReferencedType(
+                clazz.getQualifiedName(),
+                ctPackage.getQualifiedName(),
+                declarationCache.getPackageType(ctPackage)
+        );
     }
 
     /**
-     * Gets the vertex class by the reference. If it does not exists a new
-     * vertex class, with SystemType set to RetrievedClass, is created and
+     * Gets the vertex class of the referenced type. If it does not exists a
+     * new vertex class, with SystemType set to RetrievedClass, is created and
      * returned.
      *
      * @param clazz The class to find in the graph
      * @return The found vertex, or a newly created one if it does not exists
      */
-    private VertexClass getOrCreateVertexClass(CtTypeReference clazz) {
+    private VertexClass getOrCreateVertexClass(ReferencedType clazz) {
+        // A class referenced before in this parse is cached
+        VertexCache vertexCache = parser.getVertexCache();
+        VertexClass vertexClass
+                = vertexCache.getVertexClass(clazz.getQualifiedName());
+        if (vertexClass != null) {
+            return vertexClass;
+        }
+
         // Find the vertex class by name
-        VertexClass vertexClass = VertexClass
+        vertexClass = VertexClass
                 .getVertexClassByName(framedGraph, clazz.getQualifiedName());
 
         // If found we are done and it can be returned
         if (vertexClass != null) {
+            vertexCache.putVertexClass(clazz.getQualifiedName(), vertexClass);
             return vertexClass;
         }
 
@@ -293,48 +732,42 @@ public class ClassAnalysis extends AbstractProcessor<CtClass<?>> {
         vertexClass = VertexClass
                 .createRetrievedClass(framedGraph, clazz.getQualifiedName());
 
-        // An inner class does not have a package. So we need to go outside
-        // until we find the parent class that does have a package.
-        CtTypeReference cur = clazz;
-        while (!cur.isPrimitive() && cur.getPackage() == null) {
-            var tmp = cur.getDeclaringType();
-            if (tmp == null || tmp.getPackage() == null)
-                break;
-            cur = tmp;
-        }
-        
-        VertexPackage packageVertex = null;
-        // If the type is a primative (like int or byte) it does not have a
-        // package, So we set it to java.lang
-        if (cur.isPrimitive()) {
-            packageVertex = VertexPackage
-                    .getVertexPackageByName(framedGraph, "java.lang");
-            if (packageVertex == null) {
-                packageVertex = VertexPackage.createRetrievedPackage(
-                        framedGraph, "java.lang"
-                );
-            }
-        } else {
-            // Get or create the package by name.
-            CtPackageReference ctPackage = cur.getPackage();
-            if (ctPackage != null) {
-                packageVertex = VertexPackage.getVertexPackageByName(
-                        framedGraph, ctPackage.getQualifiedName()
-                );
-                if (packageVertex == null) {
-                    packageVertex = VertexPackage.createVertexPackage(
-                            framedGraph, ctPackage
-                    );
-                }
-            }
+        // Get or create the package by name and set the belongsTo edge.
+        if (clazz.getPackageName() != null) {
+            vertexClass.setBelongsTo(getOrCreateVertexPackage(clazz));
         }
 
-        // Set the belongsTo edge.
+        vertexCache.putVertexClass(clazz.getQualifiedName(), vertexClass);
+        return vertexClass;
+    }
+
+    /**
+     * Gets the vertex package of the referenced type. If it does not exists a
+     * package is created.
+     *
+     * @param clazz The referenced type with a package
+     * @return The vertex package
+     */
+    private VertexPackage getOrCreateVertexPackage(ReferencedType clazz) {
+        VertexCache vertexCache = parser.getVertexCache();
+        VertexPackage packageVertex
+                = vertexCache.getVertexPackage(clazz.getPackageName());
         if (packageVertex != null) {
-            vertexClass.setBelongsTo(packageVertex);
+            return packageVertex;
         }
 
-        return vertexClass;
+        packageVertex = VertexPackage.getVertexPackageByName(
+                framedGraph, clazz.getPackageName()
+        );
+        if (packageVertex == null) {
+            packageVertex = VertexPackage.createVertexPackage(
+                    framedGraph,
+                    clazz.getPackageName(),
+                    clazz.getPackageType()
+            );
+        }
+        vertexCache.putVertexPackage(clazz.getPackageName(), packageVertex);
+        return packageVertex;
     }
 
 }
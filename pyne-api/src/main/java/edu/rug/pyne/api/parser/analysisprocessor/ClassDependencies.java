@@ -0,0 +1,183 @@
+package edu.rug.pyne.api.parser.analysisprocessor;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * This is an immutable list of the dependencies found for a single source
+ * code class. It is the result of analysing a class, and can be applied to
+ * the graph later on and on another thread. It can be serialized, so it can be
+ * stored in the fact cache.
+ *
+ * @author Patrick Beuks (s2288842) <code@beuks.net>
+ */
+public final class ClassDependencies implements Serializable {
+
+    private static final long serialVersionUID = 2L;
+
+    /**
+     * A referenced type together with the number of times it is referenced
+     */
+    public static final class Dependency implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final ReferencedType type;
+        private final int weight;
+        private final boolean sourceClass;
+
+        /**
+         * A referenced type together with the number of times it is referenced
+         *
+         * @param type The referenced type
+         * @param weight The number of times the type is referenced
+         */
+        public Dependency(ReferencedType type, int weight) {
+            this(type, weight, false);
+        }
+
+        /**
+         * A referenced type together with the number of times it is referenced
+         *
+         * @param type The referenced type
+         * @param weight The number of times the type is referenced
+         * @param sourceClass True if the type is a class or interface declared
+         * in the parsed source code
+         */
+        public Dependency(
+                ReferencedType type, int weight, boolean sourceClass
+        ) {
+            this.type = type;
+            this.weight = weight;
+            this.sourceClass = sourceClass;
+        }
+
+        /**
+         * Gets the referenced type
+         *
+         * @return The referenced type
+         */
+        public ReferencedType getType() {
+            return type;
+        }
+
+        /**
+         * Gets the number of times the type is referenced
+         *
+         * @return The weight of the dependency
+         */
+        public int getWeight() {
+            return weight;
+        }
+
+        /**
+         * Gets if the type is a class or interface declared in the parsed
+         * source code. Such a dependency is only found while the type is
+         * declared in the source code.
+         *
+         * @return True if the type is declared in the source code
+         */
+        public boolean isSourceClass() {
+            return sourceClass;
+        }
+
+    }
+
+    private final String className;
+    private final ReferencedType superClass;
+    private final List<ReferencedType> superInterfaces;
+    private final List<Dependency> dependencies;
+    private final List<Dependency> namedDependencies;
+
+    /**
+     * Creates the dependencies of a class
+     *
+     * @param className The qualified name of the analysed class
+     * @param superClass The super class, or null if it has none
+     * @param superInterfaces The interfaces the class implements
+     * @param dependencies The types the class references
+     */
+    public ClassDependencies(
+            String className,
+            ReferencedType superClass,
+            List<ReferencedType> superInterfaces,
+            List<Dependency> dependencies
+    ) {
+        this(className, superClass, superInterfaces, dependencies, List.of());
+    }
+
+    /**
+     * Creates the dependencies of a class
+     *
+     * @param className The qualified name of the analysed class
+     * @param superClass The super class, or null if it has none
+     * @param superInterfaces The interfaces the class implements
+     * @param dependencies The types the class references
+     * @param namedDependencies The types the class references that are not
+     * declared in the model, which are only dependencies if the graph has a
+     * source code class with their name
+     */
+    public ClassDependencies(
+            String className,
+            ReferencedType superClass,
+            List<ReferencedType> superInterfaces,
+            List<Dependency> dependencies,
+            List<Dependency> namedDependencies
+    ) {
+        this.className = className;
+        this.superClass = superClass;
+        this.superInterfaces = List.copyOf(superInterfaces);
+        this.dependencies = List.copyOf(dependencies);
+        this.namedDependencies = List.copyOf(namedDependencies);
+    }
+
+    /**
+     * Gets the qualified name of the analysed class
+     *
+     * @return The class name
+     */
+    public String getClassName() {
+        return className;
+    }
+
+    /**
+     * Gets the super class of the analysed class
+     *
+     * @return The super class, or null if it has none
+     */
+    public ReferencedType getSuperClass() {
+        return superClass;
+    }
+
+    /**
+     * Gets the interfaces the analysed class implements
+     *
+     * @return An unmodifiable list of interfaces
+     */
+    public List<ReferencedType> getSuperInterfaces() {
+        return superInterfaces;
+    }
+
+    /**
+     * Gets the types the analysed class references, in the order they are
+     * first found
+     *
+     * @return An unmodifiable list of dependencies
+     */
+    public List<Dependency> getDependencies() {
+        return dependencies;
+    }
+
+    /**
+     * Gets the types the analysed class references that could not be resolved
+     * in the model, in the order they are first found. When only a part of
+     * the source code is parsed these can be classes declared in the files
+     * that are not parsed.
+     *
+     * @return An unmodifiable list of dependencies
+     */
+    public List<Dependency> getNamedDependencies() {
+        return namedDependencies;
+    }
+
+}
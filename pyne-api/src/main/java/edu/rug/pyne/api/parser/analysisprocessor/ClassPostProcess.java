@@ -2,18 +2,30 @@ package edu.rug.pyne.api.parser.analysisprocessor;
 
 import com.syncleus.ferma.FramedGraph;
 import edu.rug.pyne.api.parser.PostProcess;
+import edu.rug.pyne.api.structure.ChangeTracker;
 import edu.rug.pyne.api.structure.VertexClass;
-import java.util.List;
-
 import edu.rug.pyne.api.structure.VertexPackage;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__;
+import org.apache.tinkerpop.gremlin.structure.Direction;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
 
 /**
  * This class is a post processor for the analysis processor. It removes orphan
  * nodes and adds afferent and efferent edges.
  *
+ * Only the classes marked as changed by the change tracker of the graph are
+ * processed. The afferent and efferent edges of a class only depend on its own
+ * dependency edges and the packages of its neighbours, so the edges of all
+ * other classes are still up to date. On the first parse every class is new,
+ * so the whole graph is processed.
+ *
  * @author Patrick Beuks (s2288842) <code@beuks.net>
  */
 public class ClassPostProcess implements PostProcess {
@@ -29,65 +41,155 @@ public class ClassPostProcess implements PostProcess {
     @Override
     public void postProcess(FramedGraph framedGraph) {
 
-        LOGGER.info("Post processing classes");
+        ChangeTracker changeTracker = ChangeTracker.of(framedGraph);
+        Set<Object> changedClasses = changeTracker.takeChangedClasses();
+
+        LOGGER.info("Post processing " + changedClasses.size() + " classes");
         LOGGER.info("Removing orphan nodes");
-        // Get nodes with no edges going out or in
-        framedGraph.traverse((g) -> {
-            return g.V().hasLabel(VertexClass.LABEL).where(
-                    __.both("dependsOn", "isChildOf", "isImplementationOf")
-                            .count().is(0)
-            );
-        }).toList(VertexClass.class)
-                .forEach((orphanNode) -> orphanNode.remove());
+        // Remove changed classes with no edges going out or in
+        for (VertexClass changedClass
+                : getVertexClasses(framedGraph, changedClasses)) {
+            if (!changedClass.getElement().edges(
+                    Direction.BOTH, VertexClass.DEPENDENCY_LABELS
+            ).hasNext()) {
+                changedClass.remove();
+            }
+        }
+        changedClasses.addAll(changeTracker.takeChangedClasses());
 
         LOGGER.info("Processing afferent edges");
-        String SystemClassLabel = VertexClass.ClassType.SystemClass.name();
+        for (VertexClass changedClass
+                : getVertexClasses(framedGraph, changedClasses)) {
+            updateAfferentOf(changedClass);
+            updateEfferentOf(changedClass);
+        }
+    }
 
-        // Get all system classes
-        List<? extends VertexClass> systemClasses = framedGraph.traverse(
-                (g) -> {
-                    return g.V().hasLabel(VertexClass.LABEL)
-                            .has("ClassType", SystemClassLabel);
-                }
-        ).toList(VertexClass.class);
-
-        // Loop over the system classes
-        for (VertexClass systemClass : systemClasses) {
-
-            // Get all classes that this class points to
-            List<? extends VertexClass> outVertexes = framedGraph.traverse(
-                    (g) -> {
-                        return g.V(systemClass.getElement().id())
-                                .out(
-                                        "dependsOn",
-                                        "isChildOf",
-                                        "isImplementationOf"
-                                );
-                    }
-            ).toList(VertexClass.class);
-
-            // For each of the classes add afferent and efferent edges where
-            // needed.
-            for (VertexClass outVertex : outVertexes) {
-                // Do not add the edge if it belongs to its blongs to package
-                VertexPackage classBelongsToPackage = systemClass.getBelongsToPackage();
-                VertexPackage outVertexBelongsToPackage = outVertex.getBelongsToPackage();
-                if (classBelongsToPackage == null || classBelongsToPackage.equals(outVertexBelongsToPackage)) {
-                    continue;
-                }
+    /**
+     * Updates the afferent edges of a class. A system class is afferent of
+     * the packages of the classes it points to, other than its own package.
+     *
+     * @param vertexClass The class to update the afferent edges of
+     */
+    private void updateAfferentOf(VertexClass vertexClass) {
 
-                if (outVertexBelongsToPackage != null && !systemClass.getAfferentOfPackages()
-                        .contains(outVertexBelongsToPackage)) {
-                    systemClass.addAfferentOf(outVertexBelongsToPackage);
+        // Find the packages the class should be afferent of
+        Map<Object, VertexPackage> afferentOf = new LinkedHashMap<>();
+        VertexPackage belongsToPackage = vertexClass.getBelongsToPackage();
+        if (belongsToPackage != null && vertexClass.isSystemClass()) {
+            for (VertexClass outVertex
+                    : getNeighbours(vertexClass, Direction.OUT)) {
+                VertexPackage outVertexBelongsToPackage
+                        = outVertex.getBelongsToPackage();
+                if (outVertexBelongsToPackage != null
+                        && !belongsToPackage.equals(outVertexBelongsToPackage)) {
+                    afferentOf.putIfAbsent(
+                            outVertexBelongsToPackage.getElement().id(),
+                            outVertexBelongsToPackage
+                    );
                 }
+            }
+        }
 
-                if (!outVertex.getEfferentOfPackages()
-                        .contains(classBelongsToPackage)) {
-                    outVertex.addEfferentOf(classBelongsToPackage);
-                }
+        // Remove the edges that are no longer valid, keeping the others
+        for (VertexPackage vertexPackage
+                : vertexClass.getAfferentOfPackages()) {
+            if (afferentOf.remove(vertexPackage.getElement().id()) == null) {
+                vertexClass.removeAfferentOf(vertexPackage);
             }
+        }
 
+        // Add the new edges
+        for (VertexPackage vertexPackage : afferentOf.values()) {
+            vertexClass.addAfferentOf(vertexPackage);
+        }
+    }
+
+    /**
+     * Updates the efferent edges of a class. A class is efferent of the
+     * packages of the system classes pointing to it, other than its own
+     * package.
+     *
+     * @param vertexClass The class to update the efferent edges of
+     */
+    private void updateEfferentOf(VertexClass vertexClass) {
+
+        // Find the packages the class should be efferent of
+        Map<Object, VertexPackage> efferentOf = new LinkedHashMap<>();
+        VertexPackage belongsToPackage = vertexClass.getBelongsToPackage();
+        for (VertexClass inVertex : getNeighbours(vertexClass, Direction.IN)) {
+            VertexPackage inVertexBelongsToPackage
+                    = inVertex.getBelongsToPackage();
+            if (inVertexBelongsToPackage != null && inVertex.isSystemClass()
+                    && !inVertexBelongsToPackage.equals(belongsToPackage)) {
+                efferentOf.putIfAbsent(
+                        inVertexBelongsToPackage.getElement().id(),
+                        inVertexBelongsToPackage
+                );
+            }
+        }
+
+        // Remove the edges that are no longer valid, keeping the others
+        for (VertexPackage vertexPackage
+                : vertexClass.getEfferentOfPackages()) {
+            if (efferentOf.remove(vertexPackage.getElement().id()) == null) {
+                vertexClass.removeEfferentOf(vertexPackage);
+            }
+        }
+
+        // Add the new edges
+        for (VertexPackage vertexPackage : efferentOf.values()) {
+            vertexClass.addEfferentOf(vertexPackage);
+        }
+    }
+
+    /**
+     * Gets the classes connected to a class by a dependency edge
+     *
+     * @param vertexClass The class to get the neighbours of
+     * @param direction The direction of the dependency edges
+     * @return The neighbouring classes
+     */
+    private List<VertexClass> getNeighbours(
+            VertexClass vertexClass, Direction direction
+    ) {
+        List<VertexClass> neighbours = new ArrayList<>();
+        vertexClass.getElement()
+                .vertices(direction, VertexClass.DEPENDENCY_LABELS)
+                .forEachRemaining((vertex) -> neighbours.add(
+                        vertexClass.getGraph()
+                                .frameElement(vertex, VertexClass.class)
+                ));
+        return neighbours;
+    }
+
+    /**
+     * Gets the vertex classes with the given ids that still exist
+     *
+     * @param framedGraph The graph to get the classes from
+     * @param ids The ids of the classes
+     * @return The existing vertex classes
+     */
+    private List<VertexClass> getVertexClasses(
+            FramedGraph framedGraph, Set<Object> ids
+    ) {
+        List<VertexClass> vertexClasses = new ArrayList<>();
+        // No ids would return all vertices of the graph
+        if (ids.isEmpty()) {
+            return vertexClasses;
+        }
+
+        Iterator<Vertex> vertices = framedGraph.getRawTraversal().getGraph()
+                .vertices(ids.toArray());
+        while (vertices.hasNext()) {
+            Vertex vertex = vertices.next();
+            if (vertex.label().equals(VertexClass.LABEL)) {
+                vertexClasses.add(
+                        framedGraph.frameElement(vertex, VertexClass.class)
+                );
+            }
         }
+        return vertexClasses;
     }
 
 }
@@ -0,0 +1,163 @@
+package edu.rug.pyne.api.parser.analysisprocessor;
+
+import edu.rug.pyne.api.structure.VertexPackage;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import spoon.reflect.declaration.CtType;
+import spoon.reflect.reference.CtPackageReference;
+import spoon.reflect.reference.CtTypeParameterReference;
+import spoon.reflect.reference.CtTypeReference;
+
+/**
+ * This class caches the declarations of referenced types while a model is
+ * analysed.
+ *
+ * In noclasspath mode, resolving the declaration of a type that is not in the
+ * source code can build a shadow class using reflection. The same types, like
+ * java.lang.String, are referenced thousands of times, so every qualified name
+ * is only resolved once. Types that can not be resolved are stored as such, so
+ * they are not tried again either.
+ *
+ * Resolving can create shadow classes in the spoon factory, which is not
+ * thread safe. The cache can be read by multiple threads, but a type that is
+ * not in the cache is resolved by one thread at a time.
+ *
+ * The declarations belong to one spoon model, so the cache needs to be cleared
+ * before another model is analysed.
+ *
+ * @author Patrick Beuks (s2288842) <code@beuks.net>
+ */
+public class DeclarationCache {
+
+    // Marks a type that could not be resolved, as the map can not hold null
+    private static final Object UNRESOLVABLE = new Object();
+
+    // Makes sure the spoon factory is used by one thread at a time
+    private final Object resolveLock = new Object();
+
+    // The declarations per qualified name, as given by getDeclaration
+    private final Map<String, Object> declarations = new ConcurrentHashMap<>();
+
+    // The declarations per qualified name, as given by getTypeDeclaration
+    private final Map<String, Object> typeDeclarations
+            = new ConcurrentHashMap<>();
+
+    // The package type per qualified package name
+    private final Map<String, String> packageTypes = new ConcurrentHashMap<>();
+
+    /**
+     * Gets the declaration of a type in the source code, as given by
+     * CtTypeReference.getDeclaration.
+     *
+     * @param reference The reference to the type, may be null
+     * @return The declaration, or null if the type is not declared in the
+     * source code or could not be resolved
+     */
+    public CtType<?> getDeclaration(CtTypeReference<?> reference) {
+        return lookup(declarations, reference, CtTypeReference::getDeclaration);
+    }
+
+    /**
+     * Gets the declaration of a type, as given by
+     * CtTypeReference.getTypeDeclaration. This creates a shadow class for
+     * types that are not in the source code.
+     *
+     * @param reference The reference to the type, may be null
+     * @return The declaration, or null if the type could not be resolved
+     */
+    public CtType<?> getTypeDeclaration(CtTypeReference<?> reference) {
+        return lookup(
+                typeDeclarations, reference, CtTypeReference::getTypeDeclaration
+        );
+    }
+
+    /**
+     * Gets the type of a package, as given by VertexPackage.getPackageType.
+     * An implicit package reference is always a retrieved package, for the
+     * others the type only depends on the name.
+     *
+     * @param reference The reference to the package
+     * @return SystemPackage or RetrievedPackage
+     */
+    public String getPackageType(CtPackageReference reference) {
+        if (reference.isImplicit()) {
+            return "RetrievedPackage";
+        }
+        String packageType = packageTypes.get(reference.getQualifiedName());
+        if (packageType == null) {
+            synchronized (resolveLock) {
+                packageType = VertexPackage.getPackageType(reference);
+            }
+            packageTypes.put(reference.getQualifiedName(), packageType);
+        }
+        return packageType;
+    }
+
+    /**
+     * Removes all cached declarations
+     */
+    public void clear() {
+        declarations.clear();
+        typeDeclarations.clear();
+        packageTypes.clear();
+    }
+
+    /**
+     * Finds a declaration in a cache, resolving it when it is not found.
+     *
+     * Type parameters are resolved in the context of their declaration, so
+     * the same name can resolve to a different declaration. These are not
+     * cached.
+     *
+     * @param cache The cache to use
+     * @param reference The reference to resolve
+     * @param resolver The function resolving the declaration
+     * @return The declaration, or null if not resolvable
+     */
+    private CtType<?> lookup(
+            Map<String, Object> cache,
+            CtTypeReference<?> reference,
+            Function<CtTypeReference<?>, CtType<?>> resolver
+    ) {
+        if (reference == null) {
+            return null;
+        }
+        if (reference instanceof CtTypeParameterReference) {
+            return resolve(reference, resolver);
+        }
+
+        String qualifiedName = reference.getQualifiedName();
+        Object declaration = cache.get(qualifiedName);
+        if (declaration == null) {
+            CtType<?> resolved = resolve(reference, resolver);
+            declaration = resolved == null ? UNRESOLVABLE : resolved;
+            cache.put(qualifiedName, declaration);
+        }
+        return declaration == UNRESOLVABLE ? null : (CtType<?>) declaration;
+    }
+
+    /**
+     * Resolves a declaration, one thread at a time. In noclasspath mode spoon
+     * can create incomplete references without a factory or a name, these are
+     * seen as not resolvable.
+     *
+     * @param reference The reference to resolve
+     * @param resolver The function resolving the declaration
+     * @return The declaration, or null if not resolvable
+     */
+    private CtType<?> resolve(
+            CtTypeReference<?> reference,
+            Function<CtTypeReference<?>, CtType<?>> resolver
+    ) {
+        String simpleName = reference.getSimpleName();
+        if (reference.getFactory() == null
+                || simpleName == null || simpleName.isEmpty()) {
+            return null;
+        }
+        synchronized (resolveLock) {
+            return resolver.apply(reference);
+        }
+    }
+
+}
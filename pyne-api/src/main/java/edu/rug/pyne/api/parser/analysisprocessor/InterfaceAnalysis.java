@@ -39,4 +39,15 @@ public class InterfaceAnalysis extends AbstractProcessor<CtInterface<?>> {
         analyser.processClass(clazz);
     }
 
+    /**
+     * Analyses the interfaces that are waiting to be analysed in parallel.
+     * The interfaces are analysed last, so the resolved declarations are no
+     * longer needed after this.
+     */
+    @Override
+    public void processingDone() {
+        analyser.processPendingClasses();
+        analyser.clearDeclarationCache();
+    }
+
 }
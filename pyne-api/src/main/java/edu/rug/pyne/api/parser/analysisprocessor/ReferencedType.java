@@ -0,0 +1,85 @@
+package edu.rug.pyne.api.parser.analysisprocessor;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * This is an immutable description of a type that is referenced by a source
+ * code class. It contains everything needed to find or create the vertex
+ * class of the type, without needing the spoon model. It can be serialized, so
+ * it can be stored in the fact cache.
+ *
+ * @author Patrick Beuks (s2288842) <code@beuks.net>
+ */
+public final class ReferencedType implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String qualifiedName;
+    private final String packageName;
+    private final String packageType;
+
+    /**
+     * Creates a description of a referenced type
+     *
+     * @param qualifiedName The qualified name of the type
+     * @param packageName The qualified name of the package the type belongs
+     * to, or null if it does not have a package
+     * @param packageType The package type to use when the package vertex needs
+     * to be created, or null if it does not have a package
+     */
+    public ReferencedType(
+            String qualifiedName, String packageName, String packageType
+    ) {
+        this.qualifiedName = qualifiedName;
+        this.packageName = packageName;
+        this.packageType = packageType;
+    }
+
+    /**
+     * Gets the qualified name of the type
+     *
+     * @return The qualified name
+     */
+    public String getQualifiedName() {
+        return qualifiedName;
+    }
+
+    /**
+     * Gets the qualified name of the package the type belongs to
+     *
+     * @return The package name, or null if the type does not have a package
+     */
+    public String getPackageName() {
+        return packageName;
+    }
+
+    /**
+     * Gets the type of the package the type belongs to
+     *
+     * @return The package type, or null if the type does not have a package
+     */
+    public String getPackageType() {
+        return packageType;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof ReferencedType)) {
+            return false;
+        }
+        ReferencedType other = (ReferencedType) obj;
+        return qualifiedName.equals(other.qualifiedName)
+                && Objects.equals(packageName, other.packageName)
+                && Objects.equals(packageType, other.packageType);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(qualifiedName, packageName, packageType);
+    }
+
+}
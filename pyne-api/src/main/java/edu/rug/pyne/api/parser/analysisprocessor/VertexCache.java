@@ -0,0 +1,79 @@
+package edu.rug.pyne.api.parser.analysisprocessor;
+
+import edu.rug.pyne.api.structure.VertexClass;
+import edu.rug.pyne.api.structure.VertexPackage;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * This class caches the vertex classes and vertex packages found or created
+ * for the referenced types during a parse.
+ *
+ * The same types are referenced by many classes. Without the cache every
+ * reference looks the class up in the graph and, when it is created, looks up
+ * the package as well. With the cache a repeated reference is a single hash
+ * lookup.
+ *
+ * The vertices are only valid as long as nothing is removed from the graph.
+ * The parser clears the cache before the remove step and before every parse,
+ * so vertices removed in between are never returned.
+ *
+ * @author Patrick Beuks (s2288842) <code@beuks.net>
+ */
+public class VertexCache {
+
+    // The vertex classes per qualified class name
+    private final Map<String, VertexClass> classes = new HashMap<>();
+
+    // The vertex packages per qualified package name
+    private final Map<String, VertexPackage> packages = new HashMap<>();
+
+    /**
+     * Gets a cached vertex class
+     *
+     * @param name The qualified name of the class
+     * @return The vertex class, or null if not cached
+     */
+    public VertexClass getVertexClass(String name) {
+        return classes.get(name);
+    }
+
+    /**
+     * Caches a vertex class
+     *
+     * @param name The qualified name of the class
+     * @param vertexClass The vertex class of the name
+     */
+    public void putVertexClass(String name, VertexClass vertexClass) {
+        classes.put(name, vertexClass);
+    }
+
+    /**
+     * Gets a cached vertex package
+     *
+     * @param name The qualified name of the package
+     * @return The vertex package, or null if not cached
+     */
+    public VertexPackage getVertexPackage(String name) {
+        return packages.get(name);
+    }
+
+    /**
+     * Caches a vertex package
+     *
+     * @param name The qualified name of the package
+     * @param vertexPackage The vertex package of the name
+     */
+    public void putVertexPackage(String name, VertexPackage vertexPackage) {
+        packages.put(name, vertexPackage);
+    }
+
+    /**
+     * Removes all cached vertices
+     */
+    public void clear() {
+        classes.clear();
+        packages.clear();
+    }
+
+}
@@ -0,0 +1,52 @@
+package edu.rug.pyne.api.parser.cache;
+
+import edu.rug.pyne.api.parser.analysisprocessor.ClassDependencies;
+import edu.rug.pyne.api.parser.structureprocessor.ClassStructure;
+import java.io.Serializable;
+
+/**
+ * This contains the facts found for a single source code class: its structure
+ * and its dependencies.
+ *
+ * @author Patrick Beuks (s2288842) <code@beuks.net>
+ */
+public final class ClassFacts implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final ClassStructure structure;
+    private final ClassDependencies dependencies;
+
+    /**
+     * Creates the facts of a class
+     *
+     * @param structure The structure of the class
+     * @param dependencies The dependencies of the class, or null if the class
+     * was not analysed
+     */
+    public ClassFacts(
+            ClassStructure structure, ClassDependencies dependencies
+    ) {
+        this.structure = structure;
+        this.dependencies = dependencies;
+    }
+
+    /**
+     * Gets the structure of the class
+     *
+     * @return The structure
+     */
+    public ClassStructure getStructure() {
+        return structure;
+    }
+
+    /**
+     * Gets the dependencies of the class
+     *
+     * @return The dependencies, or null if the class was not analysed
+     */
+    public ClassDependencies getDependencies() {
+        return dependencies;
+    }
+
+}
@@ -0,0 +1,267 @@
+package edu.rug.pyne.api.parser.cache;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * This is an on disk cache of the facts found in source code files. The facts
+ * are stored per git blob id of the file content, so a file that did not
+ * change between commits, or that is parsed again in a later run, does not
+ * need to be given to spoon again.
+ *
+ * The cache is bounded by a size in bytes. When a new entry does not fit, the
+ * least recently used entries are removed. The last use of an entry is kept
+ * as the modification time of its file, so it survives between runs.
+ *
+ * The facts of a file are the facts found when it was first parsed. They store
+ * the blob ids of the files they depend on, and the parser only uses them when
+ * these files did not change. A dependency on a source code class is dropped
+ * when the class is no longer declared, but like the incremental parsing of
+ * commits, a cached file is not analysed again when a class it refers to is
+ * added.
+ *
+ * @author Patrick Beuks (s2288842) <code@beuks.net>
+ */
+public class FactCache {
+
+    private static final Logger LOGGER = LogManager.getLogger(FactCache.class);
+
+    // The directory of the current format, changing the stored facts needs a
+    // new version so old entries are not read.
+    private static final String FORMAT_VERSION = "v3";
+
+    // The directory the entries are stored in
+    private final Path directory;
+
+    // The maximum total size of the entries in bytes
+    private final long maxBytes;
+
+    // The size of each entry, from least to most recently used
+    private final LinkedHashMap<String, Long> entries
+            = new LinkedHashMap<>(16, 0.75f, true);
+
+    // The total size of the entries
+    private long totalBytes = 0;
+
+    /**
+     * Opens or creates a fact cache in a directory. The existing entries are
+     * read from the directory.
+     *
+     * @param directory The directory to store the entries in
+     * @param maxBytes The maximum total size of the entries in bytes
+     * @throws IOException Thrown if the directory could not be created or read
+     */
+    public FactCache(Path directory, long maxBytes) throws IOException {
+        if (maxBytes < 0) {
+            throw new IllegalArgumentException(
+                    "Expected a positive cache size"
+            );
+        }
+        this.directory = directory.resolve(FORMAT_VERSION);
+        this.maxBytes = maxBytes;
+        Files.createDirectories(this.directory);
+        loadEntries();
+        evict();
+    }
+
+    /**
+     * Gets the facts of a file by the blob id of its content
+     *
+     * @param blobId The git blob id of the file content
+     * @return The facts, or null if they are not in the cache
+     */
+    public synchronized SourceFacts get(String blobId) {
+        if (entries.get(blobId) == null) {
+            return null;
+        }
+
+        Path entry = getEntryPath(blobId);
+        try (InputStream inputStream = Files.newInputStream(entry);
+                ObjectInputStream objectStream = new ObjectInputStream(
+                        new BufferedInputStream(inputStream)
+                )) {
+            SourceFacts sourceFacts = (SourceFacts) objectStream.readObject();
+            Files.setLastModifiedTime(
+                    entry, FileTime.fromMillis(System.currentTimeMillis())
+            );
+            return sourceFacts;
+        } catch (IOException | ClassNotFoundException | ClassCastException ex) {
+            LOGGER.warn("Removing unreadable cache entry " + blobId + ": "
+                    + ex.getMessage());
+            remove(blobId);
+            return null;
+        }
+    }
+
+    /**
+     * Stores the facts of a file by the blob id of its content. If the cache
+     * becomes too large the least recently used entries are removed.
+     *
+     * @param blobId The git blob id of the file content
+     * @param sourceFacts The facts of the file
+     */
+    public synchronized void put(String blobId, SourceFacts sourceFacts) {
+        byte[] content;
+        try (ByteArrayOutputStream byteStream = new ByteArrayOutputStream();
+                ObjectOutputStream objectStream
+                = new ObjectOutputStream(byteStream)) {
+            objectStream.writeObject(sourceFacts);
+            objectStream.flush();
+            content = byteStream.toByteArray();
+        } catch (IOException ex) {
+            LOGGER.warn("Could not serialize facts of " + blobId, ex);
+            return;
+        }
+        if (content.length > maxBytes) {
+            return;
+        }
+
+        // Write to a temporary file first, so other runs never read a half
+        // written entry.
+        Path entry = getEntryPath(blobId);
+        try {
+            Files.createDirectories(entry.getParent());
+            Path temporary = Files.createTempFile(directory, blobId, ".tmp");
+            Files.write(temporary, content);
+            Files.move(
+                    temporary,
+                    entry,
+                    StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE
+            );
+        } catch (IOException ex) {
+            LOGGER.warn("Could not store facts of " + blobId, ex);
+            return;
+        }
+
+        Long previous = entries.put(blobId, (long) content.length);
+        if (previous != null) {
+            totalBytes -= previous;
+        }
+        totalBytes += content.length;
+        evict();
+    }
+
+    /**
+     * Gets the total size of the entries in the cache
+     *
+     * @return The size in bytes
+     */
+    public synchronized long getSize() {
+        return totalBytes;
+    }
+
+    /**
+     * Gets the number of entries in the cache
+     *
+     * @return The number of entries
+     */
+    public synchronized int getEntryCount() {
+        return entries.size();
+    }
+
+    /**
+     * Reads the existing entries, ordered by the time they were last used.
+     *
+     * @throws IOException Thrown if the directory could not be read
+     */
+    private void loadEntries() throws IOException {
+        List<Path> files;
+        try (Stream<Path> stream = Files.walk(directory, 2)) {
+            files = stream.filter(Files::isRegularFile)
+                    .collect(Collectors.toList());
+        }
+
+        List<Path> entryFiles = new ArrayList<>();
+        Map<Path, Long> lastUsed = new LinkedHashMap<>();
+        for (Path file : files) {
+            // Remove temporary files left by runs that did not finish
+            if (file.getParent().equals(directory)) {
+                Files.deleteIfExists(file);
+                continue;
+            }
+            entryFiles.add(file);
+            lastUsed.put(file, Files.getLastModifiedTime(file).toMillis());
+        }
+        entryFiles.sort(Comparator.comparing(lastUsed::get));
+
+        for (Path file : entryFiles) {
+            String blobId = file.getParent().getFileName().toString()
+                    + file.getFileName().toString();
+            long size = Files.size(file);
+            entries.put(blobId, size);
+            totalBytes += size;
+        }
+    }
+
+    /**
+     * Removes the least recently used entries until the cache fits its size.
+     */
+    private void evict() {
+        Iterator<Map.Entry<String, Long>> iterator
+                = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && iterator.hasNext()) {
+            Map.Entry<String, Long> entry = iterator.next();
+            iterator.remove();
+            totalBytes -= entry.getValue();
+            deleteEntry(entry.getKey());
+        }
+    }
+
+    /**
+     * Removes an entry from the cache
+     *
+     * @param blobId The blob id of the entry
+     */
+    private void remove(String blobId) {
+        Long size = entries.remove(blobId);
+        if (size != null) {
+            totalBytes -= size;
+        }
+        deleteEntry(blobId);
+    }
+
+    /**
+     * Deletes the file of an entry
+     *
+     * @param blobId The blob id of the entry
+     */
+    private void deleteEntry(String blobId) {
+        try {
+            Files.deleteIfExists(getEntryPath(blobId));
+        } catch (IOException ex) {
+            LOGGER.warn("Could not remove cache entry " + blobId, ex);
+        }
+    }
+
+    /**
+     * Gets the path of an entry. Like git, the first two characters of the id
+     * are used as directory.
+     *
+     * @param blobId The blob id of the entry
+     * @return The path of the entry file
+     */
+    private Path getEntryPath(String blobId) {
+        return directory.resolve(blobId.substring(0, 2))
+                .resolve(blobId.substring(2));
+    }
+
+}
@@ -0,0 +1,98 @@
+package edu.rug.pyne.api.parser.cache;
+
+import edu.rug.pyne.api.parser.analysisprocessor.ClassDependencies;
+import edu.rug.pyne.api.parser.structureprocessor.ClassStructure;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This records the facts the processors find while the parser processes the
+ * files that are not in the fact cache. The structure is recorded per file,
+ * the dependencies are matched to the file of the class they belong to.
+ *
+ * @author Patrick Beuks (s2288842) <code@beuks.net>
+ */
+public class FactRecorder {
+
+    // The structures of the classes per file, in processing order
+    private final Map<File, List<ClassStructure>> structures
+            = new LinkedHashMap<>();
+
+    // The file each recorded class is declared in
+    private final Map<String, File> classFiles = new HashMap<>();
+
+    // The dependencies per class name
+    private final Map<String, ClassDependencies> dependencies
+            = new HashMap<>();
+
+    /**
+     * Records the structure of a class declared in a file
+     *
+     * @param file The file the class is declared in
+     * @param structure The structure of the class
+     */
+    public synchronized void recordStructure(
+            File file, ClassStructure structure
+    ) {
+        File absoluteFile = file.getAbsoluteFile();
+        structures.computeIfAbsent(absoluteFile, (key) -> new ArrayList<>())
+                .add(structure);
+        classFiles.putIfAbsent(structure.getClassName(), absoluteFile);
+    }
+
+    /**
+     * Records the dependencies of a class. Dependencies of classes of which no
+     * structure is recorded are ignored.
+     *
+     * @param classDependencies The dependencies of the class
+     */
+    public synchronized void recordDependencies(
+            ClassDependencies classDependencies
+    ) {
+        if (classFiles.containsKey(classDependencies.getClassName())) {
+            dependencies.putIfAbsent(
+                    classDependencies.getClassName(), classDependencies
+            );
+        }
+    }
+
+    /**
+     * Gets the facts recorded for a file
+     *
+     * @param file The source code file
+     * @return The facts of the classes declared in the file, empty if no
+     * classes were recorded for the file
+     */
+    public SourceFacts getSourceFacts(File file) {
+        return getSourceFacts(file, Map.of());
+    }
+
+    /**
+     * Gets the facts recorded for a file together with the files they depend
+     * on
+     *
+     * @param file The source code file
+     * @param dependencyBlobIds The blob id of every file the facts depend on,
+     * per source path
+     * @return The facts of the classes declared in the file, empty if no
+     * classes were recorded for the file
+     */
+    public synchronized SourceFacts getSourceFacts(
+            File file, Map<String, String> dependencyBlobIds
+    ) {
+        List<ClassFacts> classes = new ArrayList<>();
+        for (ClassStructure structure : structures.getOrDefault(
+                file.getAbsoluteFile(), List.of()
+        )) {
+            classes.add(new ClassFacts(
+                    structure, dependencies.get(structure.getClassName())
+            ));
+        }
+        return new SourceFacts(classes, dependencyBlobIds);
+    }
+
+}
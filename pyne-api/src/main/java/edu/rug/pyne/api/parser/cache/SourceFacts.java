@@ -0,0 +1,68 @@
+package edu.rug.pyne.api.parser.cache;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This contains the facts found for all classes declared in a single source
+ * code file. A file without classes has no facts, but is still cached so it
+ * does not need to be parsed again.
+ *
+ * The facts also depend on the files the types used in the file are declared
+ * in. The blob ids of these files are stored with the facts, so facts found
+ * with another version of these files are not used.
+ *
+ * @author Patrick Beuks (s2288842) <code@beuks.net>
+ */
+public final class SourceFacts implements Serializable {
+
+    private static final long serialVersionUID = 2L;
+
+    private final List<ClassFacts> classes;
+    private final Map<String, String> dependencyBlobIds;
+
+    /**
+     * Creates the facts of a source code file that do not depend on other
+     * files
+     *
+     * @param classes The facts of the classes declared in the file
+     */
+    public SourceFacts(List<ClassFacts> classes) {
+        this(classes, Map.of());
+    }
+
+    /**
+     * Creates the facts of a source code file
+     *
+     * @param classes The facts of the classes declared in the file
+     * @param dependencyBlobIds The blob id of every file the facts depend on,
+     * per source path
+     */
+    public SourceFacts(
+            List<ClassFacts> classes, Map<String, String> dependencyBlobIds
+    ) {
+        this.classes = List.copyOf(classes);
+        this.dependencyBlobIds = Map.copyOf(dependencyBlobIds);
+    }
+
+    /**
+     * Gets the facts of the classes declared in the file, in the order they
+     * were processed.
+     *
+     * @return The facts of the classes
+     */
+    public List<ClassFacts> getClasses() {
+        return classes;
+    }
+
+    /**
+     * Gets the blob ids of the files the facts depend on
+     *
+     * @return An unmodifiable map of the blob id per source path
+     */
+    public Map<String, String> getDependencyBlobIds() {
+        return dependencyBlobIds;
+    }
+
+}
@@ -2,30 +2,37 @@ package edu.rug.pyne.api.parser.removeprocessor;
 
 import com.syncleus.ferma.FramedGraph;
 import edu.rug.pyne.api.parser.PostProcess;
-import java.util.List;
-import org.apache.tinkerpop.gremlin.structure.Edge;
+import edu.rug.pyne.api.structure.ChangeTracker;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
 /**
- * This class is a post processor for the remove processor. It removes all
- * efferent and afferent edges as these are re-added on the post analysis step
+ * This class is a post processor for the remove processor.
+ *
+ * The efferent and afferent edges are no longer removed here to be re-added on
+ * the post analysis step. Removing classes and edges marks the classes
+ * involved as changed, and the post analysis step only updates the edges of
+ * those classes. The removal of the edges between packages is counted by the
+ * vertices themselves, so the package counters stay correct as well.
  *
  * @author Patrick Beuks (s2288842) <code@beuks.net>
  */
 public class ClassRemovePostProcess implements PostProcess {
 
+    private static final Logger LOGGER
+            = LogManager.getLogger(ClassRemovePostProcess.class);
+
     /**
-     * Removes all efferent and afferent edges from the given framedGraph
+     * Reports if the remove step changed any classes, their efferent and
+     * afferent edges are updated on the post analysis step
      *
-     * @param framedGraph The graph to remove all efferent and afferent edges
-     * from
+     * @param framedGraph The graph the classes are removed from
      */
     @Override
     public void postProcess(FramedGraph framedGraph) {
-        List<Edge> efferentEdges = framedGraph.getRawTraversal().E()
-                .hasLabel("isAfferentOf", "isEfferentOf", "packageIsAfferentOf")
-                .toList();
-        for (Edge efferentEdge : efferentEdges) {
-            efferentEdge.remove();
+        if (ChangeTracker.of(framedGraph).hasChanges()) {
+            LOGGER.info("Classes changed by removal, edges are updated after "
+                    + "the analysis");
         }
     }
 
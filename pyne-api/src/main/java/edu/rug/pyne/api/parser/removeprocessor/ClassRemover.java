@@ -1,85 +1,293 @@
 package edu.rug.pyne.api.parser.removeprocessor;
 
 import com.syncleus.ferma.FramedGraph;
+import edu.rug.pyne.api.parser.ChangeSet;
 import edu.rug.pyne.api.parser.Parser;
+import edu.rug.pyne.api.parser.PostProcess;
 import edu.rug.pyne.api.structure.VertexClass;
+import edu.rug.pyne.api.structure.VertexPackage;
 import java.io.File;
-import spoon.processing.AbstractProcessor;
-import spoon.reflect.declaration.CtClass;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import spoon.reflect.declaration.CtType;
 
 /**
- * This a remove processor. It takes the source code class and checks if it
- * needs to be removed and removes it
+ * This a remove processor. It finds the classes declared in the removed,
+ * modified and renamed files and removes them or their edges.
+ *
+ * The classes of a renamed file are kept and moved to the new path. When the
+ * new file is processed they are found by their source file, so a class that
+ * moved to another package keeps its vertex.
+ *
+ * The files of the classes depending on the classes of a removed or renamed
+ * file need to be parsed again, as their references can now resolve to the
+ * new name of the class or to nothing. Their edges are removed as well, and
+ * the files are given to the parser to be parsed next to the added files.
+ *
+ * The classes are found by the source file stored on the vertex classes, so
+ * this only uses the graph and does not need the old source code. Graphs
+ * stored without the source files, like a loaded GraphML file, fall back to
+ * finding the class by the name the path of the file gives.
  *
  * @author Patrick Beuks (s2288842) <code@beuks.net>
  */
-public class ClassRemover extends AbstractProcessor<CtClass<?>> {
+public class ClassRemover implements PostProcess {
 
-    // The graph to remove the vertexes from
-    private final FramedGraph framedGraph;
+    private static final Logger LOGGER
+            = LogManager.getLogger(ClassRemover.class);
 
     // The parser containing additional information
     private final Parser parser;
 
+    // True once the fallback to the class names has been logged
+    private boolean nameLookupLogged = false;
+
     /**
-     * This class processor implements a spoon processor to find source code
-     * classes
+     * This class processor removes the classes of removed and modified files
+     * from the graph
      *
      * @param parser The parser to use
-     * @param framedGraph The graph to remove the classes from
      */
-    public ClassRemover(Parser parser, FramedGraph framedGraph) {
-        this.framedGraph = framedGraph;
+    public ClassRemover(Parser parser) {
         this.parser = parser;
     }
 
     /**
-     * Processes a single source code class
+     * This class processor removes the classes of removed and modified files
+     * from the graph
      *
-     * @param clazz The class to process
+     * @param parser The parser to use
+     * @param framedGraph Not used, the graph is given to postProcess
+     * @deprecated The remove step only works on the graph, use
+     * ClassRemover(Parser) instead.
+     */
+    @Deprecated
+    public ClassRemover(Parser parser, FramedGraph framedGraph) {
+        this(parser);
+    }
+
+    /**
+     * Removes the classes of the removed files and removes the edges of the
+     * classes in the modified and renamed files. The files depending on the
+     * removed and renamed classes are given to the parser to parse again.
+     *
+     * @param framedGraph The graph to remove the classes from
      */
     @Override
-    public void process(CtClass<?> clazz) {
-        this.removeClass(clazz);
+    public void postProcess(FramedGraph framedGraph) {
+        parser.addReparsedFiles(removeClasses(framedGraph));
+    }
+
+    /**
+     * Removes the classes of the removed files and removes the edges of the
+     * classes in the modified and renamed files.
+     *
+     * @param framedGraph The graph to remove the classes from
+     * @return The files of the classes depending on the removed and renamed
+     * classes, which are not changed themselves and need to be parsed again
+     */
+    public Set<File> removeClasses(FramedGraph framedGraph) {
+
+        // Input validation
+        ChangeSet changeSet = parser.getChangeSet();
+        if (changeSet == null) {
+            throw new IllegalStateException("Expected files to be removed");
+        }
+
+        // The classes depending on a removed or renamed file are parsed
+        // again, so their edges are removed with the edges of the modified
+        // files
+        List<String> movedPaths = new ArrayList<>(changeSet.getRemovedPaths());
+        movedPaths.addAll(changeSet.getRenamedPaths().keySet());
+        Set<File> dependantFiles = new LinkedHashSet<>();
+        for (String movedPath : movedPaths) {
+            for (VertexClass vertex : getVertexClasses(
+                    framedGraph, changeSet.getFile(movedPath)
+            )) {
+                addDependants(vertex, changeSet, dependantFiles);
+            }
+        }
+
+        // Classes in a removed file need to be completely removed
+        for (String removedPath : changeSet.getRemovedPaths()) {
+            for (VertexClass vertex : getVertexClasses(
+                    framedGraph, changeSet.getFile(removedPath)
+            )) {
+                vertex.remove();
+            }
+        }
+
+        // Otherwise only the edges need to be removed
+        for (String modifiedPath : changeSet.getModifiedPaths()) {
+            for (VertexClass vertex : getVertexClasses(
+                    framedGraph, changeSet.getFile(modifiedPath)
+            )) {
+                vertex.removeEdges();
+            }
+        }
+        for (File dependantFile : dependantFiles) {
+            for (VertexClass vertex
+                    : getVertexClasses(framedGraph, dependantFile)) {
+                vertex.removeEdges();
+            }
+        }
+
+        // The classes of a renamed file move along with the file
+        changeSet.getRenamedPaths().forEach((oldPath, newPath) -> {
+            String newSourceFile = parser.getSourcePath(
+                    changeSet.getFile(newPath)
+            );
+            for (VertexClass vertex : getVertexClasses(
+                    framedGraph, changeSet.getFile(oldPath)
+            )) {
+                vertex.removeEdges();
+                vertex.setSourceFile(newSourceFile);
+            }
+        });
+
+        return dependantFiles;
     }
 
     /**
-     * Processes a single source code class or interface
+     * Removes a class of the spoon model of the old source code, if it is
+     * declared in a removed file, or removes its edges, if it is declared in
+     * a modified file.
      *
-     * @param clazz The class or interface to process
+     * @param clazz The class or interface to remove
+     * @deprecated The classes are found on the graph by postProcess, the
+     * source code of the removed files is no longer parsed.
      */
+    @Deprecated
     public void removeClass(CtType<?> clazz) {
 
         // Input validation
-        if (parser.getRemovedFiles() == null
-                || parser.getModifiedFiles() == null) {
+        ChangeSet changeSet = parser.getChangeSet();
+        if (changeSet == null) {
             throw new IllegalStateException("Expected files to be removed");
         }
-        
-        // Check if it needs to be removed or modified
-        File curFile = clazz.getPosition().getFile();
-        if (!parser.getRemovedFiles().contains(curFile)
-                && !parser.getModifiedFiles().contains(curFile)) {
+
+        File file = clazz.getPosition().getFile();
+        if (file == null) {
             return;
         }
 
-        // Get the vertex to remove
-        VertexClass vertex = VertexClass
-                .getVertexClassByName(framedGraph, clazz.getQualifiedName());
-
+        VertexClass vertex = VertexClass.getVertexClassByName(
+                parser.getFramedGraph(), clazz.getQualifiedName()
+        );
         if (vertex == null) {
             return;
         }
 
-        // If it is in a removed files it needs to be complete removed
-        // Otherwise only the edges need to be removed
-        if (parser.getRemovedFiles().contains(curFile)) {
+        if (changeSet.isRemoved(file)) {
             vertex.remove();
-        } else if (parser.getModifiedFiles().contains(curFile)) {
+        } else if (changeSet.isModified(file)) {
             vertex.removeEdges();
         }
+    }
+
+    /**
+     * Adds the files of the classes depending on a class. Files that are
+     * changed themselves are left out.
+     *
+     * @param vertex The class to add the dependants of
+     * @param changeSet The changed files
+     * @param dependantFiles The files to add to
+     */
+    private void addDependants(
+            VertexClass vertex, ChangeSet changeSet, Set<File> dependantFiles
+    ) {
+        for (VertexClass dependant : vertex.getDependantClasses()) {
+            String sourceFile = dependant.getSourceFile();
+            if (sourceFile == null) {
+                continue;
+            }
+            File file = parser.getSourceFile(sourceFile);
+            String path = changeSet.getPath(file);
+            if (!changeSet.getRemovedPaths().contains(path)
+                    && !changeSet.getRenamedPaths().containsKey(path)
+                    && !changeSet.getModifiedPaths().contains(path)) {
+                dependantFiles.add(file);
+            }
+        }
+    }
 
+    /**
+     * Gets the vertex classes declared in a file
+     *
+     * @param framedGraph The graph to find the classes on
+     * @param file The source file
+     * @return The vertex classes declared in the file
+     */
+    private List<VertexClass> getVertexClasses(
+            FramedGraph framedGraph, File file
+    ) {
+        String sourcePath = parser.getSourcePath(file);
+        List<VertexClass> vertices = VertexClass
+                .getVertexClassesBySourceFile(framedGraph, sourcePath);
+        if (!vertices.isEmpty() || !sourcePath.endsWith(".java")) {
+            return vertices;
+        }
+        return getVertexClassesByName(framedGraph, sourcePath);
+    }
+
+    /**
+     * Gets the vertex classes declared in a file by the name the path of the
+     * file gives, for classes stored without their source file. The source
+     * directory is not known, so the directories are stripped from the start
+     * of the path until a class is found. Nested classes of the found class
+     * are included.
+     *
+     * @param framedGraph The graph to find the classes on
+     * @param sourcePath The source path of the file
+     * @return The vertex classes declared in the file, empty if none are found
+     */
+    private List<VertexClass> getVertexClassesByName(
+            FramedGraph framedGraph, String sourcePath
+    ) {
+        String name = sourcePath
+                .substring(0, sourcePath.length() - ".java".length())
+                .replace('/', '.');
+        while (true) {
+            VertexClass vertex
+                    = VertexClass.getVertexClassByName(framedGraph, name);
+            if (vertex != null && vertex.isSystemClass()
+                    && vertex.getSourceFile() == null) {
+                break;
+            }
+            int firstDot = name.indexOf('.');
+            if (firstDot < 0) {
+                return List.of();
+            }
+            name = name.substring(firstDot + 1);
+        }
+
+        if (!nameLookupLogged) {
+            LOGGER.warn("The graph has classes without a source file, "
+                    + "these are found by the path of their file");
+            nameLookupLogged = true;
+        }
+
+        List<VertexClass> vertices = new ArrayList<>();
+        VertexClass vertex
+                = VertexClass.getVertexClassByName(framedGraph, name);
+        vertices.add(vertex);
+        VertexPackage vertexPackage = vertex.getBelongsToPackage();
+        if (vertexPackage != null) {
+            String nestedPrefix = name + "$";
+            framedGraph.traverse(
+                    (g) -> g.V(vertexPackage.getElement().id()).in("belongsTo")
+            ).toList(VertexClass.class).forEach((nested) -> {
+                if (nested.getName().startsWith(nestedPrefix)
+                        && nested.getSourceFile() == null) {
+                    vertices.add(nested);
+                }
+            });
+        }
+        return vertices;
     }
 
 }
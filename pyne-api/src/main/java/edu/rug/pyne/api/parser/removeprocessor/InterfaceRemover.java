@@ -13,7 +13,10 @@ import spoon.reflect.declaration.CtInterface;
  * This is because in java you cannot extend two different Objects.
  *
  * @author Patrick Beuks (s2288842) <code@beuks.net>
+ * @deprecated The class remover removes the classes and interfaces of the
+ * changed files from the graph, without the source code.
  */
+@Deprecated
 public class InterfaceRemover extends AbstractProcessor<CtInterface<?>> {
 
     // The class processor to do the processing
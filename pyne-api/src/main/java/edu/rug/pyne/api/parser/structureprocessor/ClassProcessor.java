@@ -2,18 +2,19 @@ package edu.rug.pyne.api.parser.structureprocessor;
 
 import com.syncleus.ferma.FramedGraph;
 import edu.rug.pyne.api.parser.Parser;
+import edu.rug.pyne.api.parser.cache.FactRecorder;
 import edu.rug.pyne.api.structure.VertexClass;
 import edu.rug.pyne.api.structure.VertexPackage;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.apache.tinkerpop.gremlin.structure.Vertex;
-import spoon.SpoonException;
+import org.apache.tinkerpop.gremlin.structure.Direction;
 import spoon.processing.AbstractProcessor;
 import spoon.reflect.declaration.CtClass;
 import spoon.reflect.declaration.CtType;
+import spoon.reflect.reference.CtPackageReference;
 import spoon.reflect.reference.CtTypeReference;
 
-import java.util.regex.Pattern;
+import java.io.File;
 
 /**
  * This a structure processor. It takes the source code class and adds it as a
@@ -31,6 +32,9 @@ public class ClassProcessor extends AbstractProcessor<CtClass<?>> {
     // The parser containing additional information
     private final Parser parser;
 
+    // Counts the lines of code in the source files
+    private final LineCounter lineCounter = new LineCounter();
+
     /**
      * This class processor implements a spoon processor to find source code
      * classes
@@ -60,49 +64,25 @@ public class ClassProcessor extends AbstractProcessor<CtClass<?>> {
      */
     public void processClass(CtType<?> clazz) {
         try {
-            // Check if it only needs to parse added files.
-            // If null process all given classes
-            if (parser.getAddedFiles() != null) {
-                // Check if the current class is in an added file.
-                // If not we do not have to process it.
-                if (!parser.getAddedFiles().contains(
-                        clazz.getPosition().getFile()
-                )) {
-                    return;
-                }
+            // Check if the current class is in a file that needs to be
+            // processed. If not we do not have to process it.
+            File file = clazz.getPosition().getFile();
+            if (!parser.isProcessedFile(file)) {
+                return;
             }
 
-            // Try to get the vertex by name
-            VertexClass vertex = VertexClass.getVertexClassByName(
-                    framedGraph, clazz.getQualifiedName()
-            );
-
-            // Check if the class exists, if not create it.
-            if (vertex == null) {
-                vertex = VertexClass.createSystemClass(framedGraph, clazz);
+            String sourceFile = null;
+            if (file != null) {
+                sourceFile = parser.getSourcePath(file);
             }
 
-            // Check if the vertex has a belonging package, if not add it.
-            if (vertex.getBelongsToPackage() == null) {
-
-                CtTypeReference cur = clazz.getReference();
-                while (cur.getPackage() == null) {
-                    cur = cur.getDeclaringType();
-                }
-                // Try to get the package by name
-                VertexPackage packageVertex = VertexPackage.getVertexPackageByName(
-                        framedGraph, cur.getPackage().getQualifiedName()
-                );
-
-                // Check if the package exists, if not create it.
-                if (packageVertex == null) {
-                    packageVertex = VertexPackage.createVertexPackage(
-                            framedGraph, cur.getPackage()
-                    );
-                }
-
-                vertex.setBelongsTo(packageVertex);
-                vertex.setLinesOfCode(countLOC(clazz));
+            // The structure is also read for a class that already has a
+            // vertex, as the file it is declared in is modified
+            FactRecorder factRecorder = parser.getFactRecorder();
+            ClassStructure classStructure = readClassStructure(clazz);
+            applyClassStructure(classStructure, sourceFile);
+            if (factRecorder != null && file != null) {
+                factRecorder.recordStructure(file, classStructure);
             }
         }catch (Exception e){
             LOGGER.error("Spoon error while analysing class " + clazz.getQualifiedName() + ": " + e.getMessage());
@@ -110,20 +90,188 @@ public class ClassProcessor extends AbstractProcessor<CtClass<?>> {
 
     }
 
-    private Pattern linePattern = Pattern.compile("[^\\s*].*[\\n\\r]+");
-    private long countLOC(CtType<?> clazz){
-        var linesOfCode = 0;
-        try {
-            var sourceCode = clazz.toString();
+    /**
+     * Reads the structure of a source code class from the spoon model.
+     *
+     * @param clazz The class or interface to read
+     * @return The structure of the class
+     */
+    public ClassStructure readClassStructure(CtType<?> clazz) {
+        CtTypeReference cur = clazz.getReference();
+        while (cur.getPackage() == null) {
+            cur = cur.getDeclaringType();
+        }
+        CtPackageReference ctPackage = cur.getPackage();
+
+        return new ClassStructure(
+                clazz.getQualifiedName(),
+                VertexClass.getClassModifier(clazz),
+                ctPackage.getQualifiedName(),
+                VertexPackage.getPackageType(ctPackage),
+                lineCounter.countLines(clazz, parser.getSourceTree())
+        );
+    }
+
+    /**
+     * Applies the structure of a class to the graph. Creates the vertex of the
+     * class if it does not exist yet, and sets its package when it does not
+     * belong to one yet.
+     *
+     * A class that is not found by its name can still be found by its source
+     * file, when it moved to another package together with its file. The
+     * vertex of the class is then moved instead of created.
+     *
+     * @param classStructure The structure to apply
+     * @param sourceFile The path of the file the class is declared in, or null
+     * if unknown
+     */
+    public void applyClassStructure(
+            ClassStructure classStructure, String sourceFile
+    ) {
+        // Try to get the vertex by name
+        VertexClass vertex = VertexClass.getVertexClassByName(
+                framedGraph, classStructure.getClassName()
+        );
+
+        // Check if the class moved to another package
+        if (vertex == null && sourceFile != null) {
+            vertex = findMovedClass(classStructure, sourceFile);
+            if (vertex != null) {
+                moveClass(vertex, classStructure);
+            }
+        }
+
+        // Check if the class exists, if not create it.
+        if (vertex == null) {
+            vertex = VertexClass.createSystemClass(
+                    framedGraph,
+                    classStructure.getClassName(),
+                    classStructure.getClassModifier()
+            );
+        }
+
+        // Store the file the class is declared in, so the class can be
+        // found when the file is removed or modified.
+        if (sourceFile != null) {
+            vertex.setSourceFile(sourceFile);
+        }
+
+        // Check if the vertex has a belonging package, if not add it.
+        if (vertex.getBelongsToPackage() == null) {
+            vertex.setBelongsTo(getOrCreateVertexPackage(classStructure));
+        }
+
+        // The vertex of a class in a modified file is kept, so its size and
+        // modifier can have changed
+        vertex.setClassModifier(classStructure.getClassModifier());
+        vertex.setLinesOfCode(classStructure.getLinesOfCode());
+    }
+
+    /**
+     * Finds the vertex of a class that moved to another package. A file only
+     * declares classes of one package, so a class in the same source file
+     * with the same name relative to its package is the moved class.
+     *
+     * @param classStructure The structure of the class after the move
+     * @param sourceFile The path of the file the class is declared in
+     * @return The vertex of the class before the move, or null if not found
+     */
+    private VertexClass findMovedClass(
+            ClassStructure classStructure, String sourceFile
+    ) {
+        String relativeName = getRelativeName(
+                classStructure.getClassName(), classStructure.getPackageName()
+        );
+        for (VertexClass vertex : VertexClass.getVertexClassesBySourceFile(
+                framedGraph, sourceFile
+        )) {
+            VertexPackage packageVertex = vertex.getBelongsToPackage();
+            if (packageVertex != null && relativeName.equals(getRelativeName(
+                    vertex.getName(), packageVertex.getName()
+            ))) {
+                return vertex;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Moves the vertex of a class to its new name and package.
+     *
+     * The classes depending on a renamed file are parsed again, so their
+     * edges are already removed. Edges still pointing to the class come from
+     * classes that are not parsed again, so their source code is assumed to
+     * still use the old name. These edges are moved to a retrieved class with
+     * the old name. If no more classes belong to the previous package it is
+     * removed.
+     *
+     * @param vertex The vertex of the class before the move
+     * @param classStructure The structure of the class after the move
+     */
+    private void moveClass(VertexClass vertex, ClassStructure classStructure) {
+        String previousName = vertex.getName();
+        VertexPackage previousPackage = vertex.getBelongsToPackage();
+        LOGGER.trace("Moving " + previousName + " to "
+                + classStructure.getClassName());
 
-            var matcher = linePattern.matcher(sourceCode);
+        vertex.setName(classStructure.getClassName());
+        if (vertex.getElement().edges(
+                Direction.IN, VertexClass.DEPENDENCY_LABELS
+        ).hasNext()) {
+            VertexClass retrievedClass = VertexClass
+                    .createRetrievedClass(framedGraph, previousName);
+            retrievedClass.setBelongsTo(previousPackage);
+            vertex.moveIncomingEdgesTo(retrievedClass);
+        }
 
-            while (matcher.find())
-                linesOfCode++;
-        }catch (SpoonException e){
-            LOGGER.warn("Spoon could not fetch class " + clazz.getQualifiedName() + ", 0 LOC assigned.");
+        vertex.setBelongsTo(getOrCreateVertexPackage(classStructure));
+        if (previousPackage.getNumOfClassesInPackage() == 0) {
+            previousPackage.remove();
+        }
+        vertex.setClassModifier(classStructure.getClassModifier());
+        vertex.setLinesOfCode(classStructure.getLinesOfCode());
+    }
+
+    /**
+     * Gets the vertex package of a class, creating it if it does not exist.
+     *
+     * @param classStructure The structure of the class
+     * @return The vertex package
+     */
+    private VertexPackage getOrCreateVertexPackage(
+            ClassStructure classStructure
+    ) {
+        // Try to get the package by name
+        VertexPackage packageVertex = VertexPackage.getVertexPackageByName(
+                framedGraph, classStructure.getPackageName()
+        );
+
+        // Check if the package exists, if not create it.
+        if (packageVertex == null) {
+            packageVertex = VertexPackage.createVertexPackage(
+                    framedGraph,
+                    classStructure.getPackageName(),
+                    classStructure.getPackageType()
+            );
+        }
+        return packageVertex;
+    }
+
+    /**
+     * Gets the name of a class relative to its package
+     *
+     * @param className The qualified name of the class
+     * @param packageName The qualified name of the package
+     * @return The name without the package
+     */
+    private static String getRelativeName(
+            String className, String packageName
+    ) {
+        if (packageName != null && !packageName.isEmpty()
+                && className.startsWith(packageName + ".")) {
+            return className.substring(packageName.length() + 1);
         }
-        return linesOfCode;
+        return className;
     }
 
 }
@@ -0,0 +1,92 @@
+package edu.rug.pyne.api.parser.structureprocessor;
+
+import java.io.Serializable;
+
+/**
+ * This is an immutable description of a source code class as found by the
+ * structure step. It contains everything needed to create the vertex of the
+ * class and its package without the spoon model, so it can be stored in the
+ * fact cache.
+ *
+ * @author Patrick Beuks (s2288842) <code@beuks.net>
+ */
+public final class ClassStructure implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String className;
+    private final String classModifier;
+    private final String packageName;
+    private final String packageType;
+    private final long linesOfCode;
+
+    /**
+     * Creates the description of a source code class
+     *
+     * @param className The qualified name of the class
+     * @param classModifier The modifier of the class
+     * @param packageName The qualified name of the package of the class
+     * @param packageType The package type to use when the package vertex needs
+     * to be created
+     * @param linesOfCode The lines of code of the class
+     */
+    public ClassStructure(
+            String className,
+            String classModifier,
+            String packageName,
+            String packageType,
+            long linesOfCode
+    ) {
+        this.className = className;
+        this.classModifier = classModifier;
+        this.packageName = packageName;
+        this.packageType = packageType;
+        this.linesOfCode = linesOfCode;
+    }
+
+    /**
+     * Gets the qualified name of the class
+     *
+     * @return The class name
+     */
+    public String getClassName() {
+        return className;
+    }
+
+    /**
+     * Gets the modifier of the class
+     *
+     * @return Interface, Abstract or none
+     */
+    public String getClassModifier() {
+        return classModifier;
+    }
+
+    /**
+     * Gets the qualified name of the package the class belongs to
+     *
+     * @return The package name
+     */
+    public String getPackageName() {
+        return packageName;
+    }
+
+    /**
+     * Gets the package type to use when the package vertex needs to be created
+     *
+     * @return The package type
+     */
+    public String getPackageType() {
+        return packageType;
+    }
+
+    /**
+     * Gets the lines of code of the class
+     *
+     * @return The lines of code
+     */
+    public long getLinesOfCode() {
+        return linesOfCode;
+    }
+
+}
@@ -0,0 +1,173 @@
+package edu.rug.pyne.api.parser.structureprocessor;
+
+import edu.rug.pyne.api.parser.SourceTree;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import spoon.reflect.cu.CompilationUnit;
+import spoon.reflect.cu.SourcePosition;
+import spoon.reflect.declaration.CtType;
+
+/**
+ * This class counts the lines of code of source code classes.
+ *
+ * The lines are counted in the original source file, between the start and
+ * end of the class as given by its source position. Lines that are empty or
+ * only contain white space or comments are not counted.
+ *
+ * The source file is read once for all classes declared in it. The lines are
+ * counted by a single pass over the characters of the class, so nothing is
+ * allocated per line.
+ *
+ * @author Patrick Beuks (s2288842) <code@beuks.net>
+ */
+public class LineCounter {
+
+    private static final Logger LOGGER
+            = LogManager.getLogger(LineCounter.class);
+
+    // The states of the scanner
+    private static final int CODE = 0;
+    private static final int LINE_COMMENT = 1;
+    private static final int BLOCK_COMMENT = 2;
+    private static final int STRING_LITERAL = 3;
+    private static final int CHAR_LITERAL = 4;
+
+    // The source code of the last compilation unit, as the classes of a file
+    // are processed after each other.
+    private CompilationUnit lastUnit;
+    private String lastSourceCode;
+
+    /**
+     * Counts the lines of code of a class
+     *
+     * @param clazz The class to count the lines of
+     * @param sourceTree The tree to read the source file from
+     * @return The lines of code, or 0 if the source file could not be read
+     */
+    public long countLines(CtType<?> clazz, SourceTree sourceTree) {
+        SourcePosition position = clazz.getPosition();
+        if (!position.isValidPosition() || position.getFile() == null) {
+            return 0;
+        }
+
+        String sourceCode = getSourceCode(position, sourceTree);
+        if (sourceCode == null) {
+            return 0;
+        }
+        return countLines(
+                sourceCode, position.getSourceStart(), position.getSourceEnd()
+        );
+    }
+
+    /**
+     * Gets the source code of the file of a position. The file is read using
+     * the source tree, the same as spoon got it.
+     *
+     * @param position The position in the file
+     * @param sourceTree The tree to read the file from
+     * @return The source code, or null if it could not be read
+     */
+    private synchronized String getSourceCode(
+            SourcePosition position, SourceTree sourceTree
+    ) {
+        CompilationUnit unit = position.getCompilationUnit();
+        if (unit != null && unit == lastUnit) {
+            return lastSourceCode;
+        }
+
+        File file = position.getFile();
+        String sourceCode;
+        try (InputStream inputStream = sourceTree.open(file)) {
+            sourceCode = new String(
+                    inputStream.readAllBytes(), StandardCharsets.UTF_8
+            );
+        } catch (IOException ex) {
+            LOGGER.warn("Could not read " + file.getAbsolutePath()
+                    + ", 0 LOC assigned: " + ex.getMessage());
+            return null;
+        }
+
+        lastUnit = unit;
+        lastSourceCode = sourceCode;
+        return sourceCode;
+    }
+
+    /**
+     * Counts the lines that contain code between two positions in source
+     * code. Lines with only white space or comments are not counted.
+     *
+     * @param sourceCode The source code
+     * @param start The index of the first character
+     * @param end The index of the last character, inclusive
+     * @return The number of lines containing code
+     */
+    public static long countLines(CharSequence sourceCode, int start, int end) {
+        int last = Math.min(end, sourceCode.length() - 1);
+        long lines = 0;
+        boolean lineHasCode = false;
+        int state = CODE;
+
+        for (int i = Math.max(start, 0); i <= last; i++) {
+            char c = sourceCode.charAt(i);
+            char next = i < last ? sourceCode.charAt(i + 1) : 0;
+
+            // A line ends on \n, \r\n or a lone \r
+            if (c == '\n' || (c == '\r' && next != '\n')) {
+                if (lineHasCode) {
+                    lines++;
+                }
+                lineHasCode = false;
+                if (state != BLOCK_COMMENT) {
+                    state = CODE;
+                }
+                continue;
+            }
+
+            switch (state) {
+                case LINE_COMMENT:
+                    break;
+                case BLOCK_COMMENT:
+                    if (c == '*' && next == '/') {
+                        state = CODE;
+                        i++;
+                    }
+                    break;
+                case STRING_LITERAL:
+                case CHAR_LITERAL:
+                    if (c == '\\') {
+                        // Skip the escaped character
+                        i++;
+                    } else if (c == (state == STRING_LITERAL ? '"' : '\'')) {
+                        state = CODE;
+                    }
+                    break;
+                default:
+                    if (c == '/' && next == '/') {
+                        state = LINE_COMMENT;
+                        i++;
+                    } else if (c == '/' && next == '*') {
+                        state = BLOCK_COMMENT;
+                        i++;
+                    } else if (!Character.isWhitespace(c)) {
+                        lineHasCode = true;
+                        if (c == '"') {
+                            state = STRING_LITERAL;
+                        } else if (c == '\'') {
+                            state = CHAR_LITERAL;
+                        }
+                    }
+                    break;
+            }
+        }
+
+        if (lineHasCode) {
+            lines++;
+        }
+        return lines;
+    }
+
+}
@@ -0,0 +1,77 @@
+package edu.rug.pyne.api.structure;
+
+import com.syncleus.ferma.FramedGraph;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * This class keeps track of the vertex classes of a graph whose derived edges
+ * might be outdated.
+ *
+ * The afferent and efferent edges of a class are derived from the dependsOn,
+ * isChildOf and isImplementationOf edges of the class and from the packages of
+ * the classes on the other side of those edges. Every time one of these
+ * changes, the vertex class functions mark the classes involved as changed.
+ * The post processor only has to update the derived edges of the changed
+ * classes instead of recomputing them for the whole graph.
+ *
+ * The tracker is kept by the structure graph of the graph, so only changes
+ * made through the vertices framed by the structure graph are tracked.
+ *
+ * @author Patrick Beuks (s2288842) <code@beuks.net>
+ */
+public final class ChangeTracker {
+
+    // The ids of the changed vertex classes, in the order they changed
+    private Set<Object> changedClasses = new LinkedHashSet<>();
+
+    /**
+     * Gets the tracker of the given framed graph. A structure graph keeps its
+     * tracker, other framed graphs get a new tracker that is not kept.
+     *
+     * @param framedGraph The graph to get the tracker for
+     * @return The tracker of the graph
+     */
+    public static ChangeTracker of(FramedGraph framedGraph) {
+        if (framedGraph instanceof StructureGraph) {
+            return ((StructureGraph) framedGraph).getChangeTracker();
+        }
+        return new ChangeTracker();
+    }
+
+    ChangeTracker() {
+    }
+
+    /**
+     * Marks a vertex class as changed.
+     *
+     * @param id The id of the vertex class
+     */
+    synchronized void markChanged(Object id) {
+        changedClasses.add(id);
+    }
+
+    /**
+     * Returns true if there are classes changed since the last time they were
+     * taken.
+     *
+     * @return True if there are changed classes
+     */
+    public synchronized boolean hasChanges() {
+        return !changedClasses.isEmpty();
+    }
+
+    /**
+     * Gets the ids of the classes changed since the last time they were taken
+     * and starts tracking anew.
+     *
+     * @return The ids of the changed vertex classes, these vertices might
+     * have been removed since
+     */
+    public synchronized Set<Object> takeChangedClasses() {
+        Set<Object> changed = changedClasses;
+        changedClasses = new LinkedHashSet<>();
+        return changed;
+    }
+
+}
@@ -53,7 +53,16 @@ public abstract class EdgeDependsOn extends AbstractEdgeFrame {
      * Increments the weight by one.
      */
     public void incrementWeight() {
-        setWeight(getWeight() + 1);
+        incrementWeight(1);
+    }
+    
+    /**
+     * Increments the weight by the given amount.
+     * 
+     * @param amount The amount to add to the weight
+     */
+    public void incrementWeight(int amount) {
+        setWeight(getWeight() + amount);
     }
     
 }
@@ -55,5 +55,12 @@ public abstract class EdgePackageIsAfferentOf extends AbstractEdgeFrame {
     public void incrementWeight() {
         setWeight(getWeight() + 1);
     }
+
+    /**
+     * Decrements the weight by one.
+     */
+    public void decrementWeight() {
+        setWeight(getWeight() - 1);
+    }
     
 }
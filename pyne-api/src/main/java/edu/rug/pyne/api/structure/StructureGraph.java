@@ -0,0 +1,56 @@
+package edu.rug.pyne.api.structure;
+
+import com.syncleus.ferma.DelegatingFramedGraph;
+import org.apache.tinkerpop.gremlin.structure.Graph;
+
+/**
+ * This class is a framed graph that keeps the structure index and change
+ * tracker of its graph.
+ *
+ * The index and tracker are used on every name lookup, edge update and change
+ * of a vertex class. They are created with this framed graph and kept by it,
+ * the vertices and edges framed by it get them without a lookup. Parsers
+ * working on different graphs in parallel do not share any lock.
+ *
+ * The in memory maps of the index and the changes in the tracker are only
+ * kept correct by changes made through this framed graph, so one structure
+ * graph should be used per graph.
+ *
+ * @author Patrick Beuks (s2288842) <code@beuks.net>
+ */
+public class StructureGraph extends DelegatingFramedGraph<Graph> {
+
+    // The index and tracker of the graph
+    private final StructureIndex structureIndex;
+    private final ChangeTracker changeTracker;
+
+    /**
+     * Creates a framed graph with type resolution and annotation support
+     *
+     * @param graph The graph to frame
+     */
+    public StructureGraph(Graph graph) {
+        super(graph, true, true);
+        this.structureIndex = new StructureIndex(graph, true);
+        this.changeTracker = new ChangeTracker();
+    }
+
+    /**
+     * Gets the structure index of the graph
+     *
+     * @return The structure index
+     */
+    public StructureIndex getStructureIndex() {
+        return structureIndex;
+    }
+
+    /**
+     * Gets the change tracker of the graph
+     *
+     * @return The change tracker
+     */
+    public ChangeTracker getChangeTracker() {
+        return changeTracker;
+    }
+
+}
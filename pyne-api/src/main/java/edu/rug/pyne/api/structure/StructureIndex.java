@@ -0,0 +1,463 @@
+package edu.rug.pyne.api.structure;
+
+import com.syncleus.ferma.FramedGraph;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.apache.tinkerpop.gremlin.structure.Direction;
+import org.apache.tinkerpop.gremlin.structure.Edge;
+import org.apache.tinkerpop.gremlin.structure.Graph;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerGraph;
+
+/**
+ * This class keeps the lookup indexes of the structure layer for a graph.
+ *
+ * Vertex classes and vertex packages are looked up by their name for every
+ * referenced type. When the graph supports an index on a property, like a
+ * TinkerGraph, the name property is indexed by the graph itself. Otherwise an
+ * in memory name to vertex id map is kept per label, which is kept in sync by
+ * the create, set name and remove functions of the vertices. A name that is
+ * not in the map is looked up on the graph, so vertices added without these
+ * functions are still found.
+ *
+ * The same is done for the source file of the vertex classes. Multiple
+ * classes can be declared in the same file, so this gives the ids of all
+ * vertices declared in a file.
+ *
+ * Edges that are only allowed once between two vertices, like dependsOn, are
+ * found on the outgoing edges of the source vertex when the graph has its own
+ * index. Otherwise they are kept per source vertex on their target vertex,
+ * which gives a constant time lookup when the edge needs to be created or its
+ * weight incremented. An edge that is not in the map is looked up on the
+ * graph, so edges added without going through the frames are not created
+ * twice.
+ *
+ * The index is kept by the structure graph of the graph. Other framed graphs
+ * get an index that does not keep anything in memory and only uses the
+ * graph.
+ *
+ * @author Patrick Beuks (s2288842) <code@beuks.net>
+ */
+public final class StructureIndex {
+
+    /**
+     * The property the vertices are indexed on
+     */
+    public static final String NAME_KEY = "name";
+
+    /**
+     * The property with the source file path the vertices are indexed on
+     */
+    public static final String SOURCE_FILE_KEY = "sourceFile";
+
+    // True if the graph itself maintains an index on the name property
+    private final boolean backendIndexed;
+
+    // True if the in memory maps are used, false if only the graph is used
+    private final boolean cached;
+
+    // Name to vertex id per label, only used if the graph has no index
+    private final Map<String, Map<String, Object>> nameIndex = new HashMap<>();
+
+    // Source file to vertex ids, only used if the graph has no index
+    private Map<String, Set<Object>> sourceFileIndex = null;
+
+    // Source vertex id to target vertex id to edge id, per edge label, only
+    // used if the graph has no index
+    private final Map<String, Map<Object, Map<Object, Object>>> edgeIndex
+            = new HashMap<>();
+
+    /**
+     * Gets the index for the graph of the given framed graph. A structure
+     * graph keeps its index, for other framed graphs an index is created that
+     * only uses the graph.
+     *
+     * @param framedGraph The graph to get the index for
+     * @return The index of the graph
+     */
+    public static StructureIndex of(FramedGraph framedGraph) {
+        if (framedGraph instanceof StructureGraph) {
+            return ((StructureGraph) framedGraph).getStructureIndex();
+        }
+        return new StructureIndex(
+                framedGraph.getRawTraversal().getGraph(), false
+        );
+    }
+
+    /**
+     * Creates the index for a graph. If the graph supports indexing the name
+     * property is indexed on the graph.
+     *
+     * @param graph The graph to create the index for
+     * @param cached True if the in memory maps can be kept, only when all
+     * changes of the structure go through the same index
+     */
+    StructureIndex(Graph graph, boolean cached) {
+        this.cached = cached;
+        if (graph instanceof TinkerGraph) {
+            TinkerGraph tinkerGraph = (TinkerGraph) graph;
+            Set<String> indexedKeys = tinkerGraph.getIndexedKeys(Vertex.class);
+            if (!indexedKeys.contains(NAME_KEY)) {
+                tinkerGraph.createIndex(NAME_KEY, Vertex.class);
+            }
+            if (!indexedKeys.contains(SOURCE_FILE_KEY)) {
+                tinkerGraph.createIndex(SOURCE_FILE_KEY, Vertex.class);
+            }
+            backendIndexed = true;
+        } else {
+            backendIndexed = false;
+        }
+    }
+
+    /**
+     * Returns true if the name lookups are done by an index on the graph
+     * itself instead of the in memory map.
+     *
+     * @return True if the graph maintains the index
+     */
+    public boolean isBackendIndexed() {
+        return backendIndexed;
+    }
+
+    /**
+     * Finds a vertex by its label and name.
+     *
+     * @param <T> The type of the frame to return
+     * @param framedGraph The graph to find the vertex on
+     * @param label The label of the vertex
+     * @param name The name of the vertex
+     * @param kind The frame class of the vertex
+     * @return The framed vertex, or null if not found
+     */
+    synchronized <T> T getVertexByName(
+            FramedGraph framedGraph, String label, String name, Class<T> kind
+    ) {
+
+        // The graph index is used by the traversal strategies of the graph
+        if (backendIndexed || !cached) {
+            return framedGraph.traverse(
+                    (g) -> g.V().hasLabel(label).has(NAME_KEY, name)
+            ).nextOrDefault(kind, null);
+        }
+
+        Map<String, Object> names = getNames(framedGraph, label);
+        Object id = names.get(name);
+        if (id != null) {
+            // Check if the vertex still exists and still has the name, it
+            // could have been changed without going through the frames.
+            Iterator<Vertex> vertices = framedGraph.getRawTraversal()
+                    .getGraph().vertices(id);
+            if (vertices.hasNext()) {
+                Vertex vertex = vertices.next();
+                if (name.equals(vertex.property(NAME_KEY).orElse(null))) {
+                    return framedGraph.frameElement(vertex, kind);
+                }
+            }
+            names.remove(name);
+        }
+
+        // The vertex could have been added without going through the frames
+        Iterator<Vertex> found = framedGraph.getRawTraversal().V()
+                .hasLabel(label).has(NAME_KEY, name);
+        if (!found.hasNext()) {
+            return null;
+        }
+        Vertex vertex = found.next();
+        names.put(name, vertex.id());
+        return framedGraph.frameElement(vertex, kind);
+    }
+
+    /**
+     * Updates the index for a vertex that got a new name.
+     *
+     * @param label The label of the vertex
+     * @param oldName The previous name, or null if it did not have one
+     * @param newName The new name
+     * @param id The id of the vertex
+     */
+    synchronized void rename(
+            String label, String oldName, String newName, Object id
+    ) {
+        if (backendIndexed || !cached) {
+            return;
+        }
+        Map<String, Object> names = nameIndex.get(label);
+        if (names == null) {
+            // Not loaded yet, the first lookup will scan the graph
+            return;
+        }
+        if (oldName != null && id.equals(names.get(oldName))) {
+            names.remove(oldName);
+        }
+        if (newName != null) {
+            names.put(newName, id);
+        }
+    }
+
+    /**
+     * Removes a name from the index.
+     *
+     * @param label The label of the vertex
+     * @param name The name of the removed vertex
+     * @param id The id of the removed vertex
+     */
+    synchronized void remove(String label, String name, Object id) {
+        rename(label, name, null, id);
+    }
+
+    /**
+     * Gets the name map for the label. The first time a label is used all
+     * vertices with the label are read from the graph once.
+     *
+     * @param framedGraph The graph to read the vertices from
+     * @param label The label of the vertices
+     * @return The name to id map
+     */
+    private Map<String, Object> getNames(
+            FramedGraph framedGraph, String label
+    ) {
+        Map<String, Object> names = nameIndex.get(label);
+        if (names != null) {
+            return names;
+        }
+
+        Map<String, Object> loaded = new HashMap<>();
+        framedGraph.getRawTraversal().V().hasLabel(label).has(NAME_KEY)
+                .forEachRemaining((vertex) -> loaded.put(
+                        vertex.value(NAME_KEY), vertex.id()
+                ));
+        nameIndex.put(label, loaded);
+        return loaded;
+    }
+
+    /**
+     * Finds all vertices with the given label that are declared in the given
+     * source file.
+     *
+     * @param <T> The type of the frame to return
+     * @param framedGraph The graph to find the vertices on
+     * @param label The label of the vertices
+     * @param sourceFile The path of the source file
+     * @param kind The frame class of the vertices
+     * @return The framed vertices, empty if none are found
+     */
+    synchronized <T> List<T> getVerticesBySourceFile(
+            FramedGraph framedGraph,
+            String label,
+            String sourceFile,
+            Class<T> kind
+    ) {
+
+        // The graph index is used by the traversal strategies of the graph
+        if (backendIndexed || !cached) {
+            return new ArrayList<>(framedGraph.traverse(
+                    (g) -> g.V().has(SOURCE_FILE_KEY, sourceFile)
+                            .hasLabel(label)
+            ).toList(kind));
+        }
+
+        Set<Object> ids = getSourceFiles(framedGraph).get(sourceFile);
+        List<T> vertices = new ArrayList<>();
+        if (ids == null) {
+            // The vertices could have been added without going through the
+            // frames
+            framedGraph.getRawTraversal().V().has(SOURCE_FILE_KEY, sourceFile)
+                    .hasLabel(label).forEachRemaining((vertex) -> {
+                        moveSourceFile(null, sourceFile, vertex.id());
+                        vertices.add(framedGraph.frameElement(vertex, kind));
+                    });
+            return vertices;
+        }
+
+        // Only return the vertices that still exist and are still declared in
+        // the file.
+        Iterator<Vertex> found = framedGraph.getRawTraversal().getGraph()
+                .vertices(ids.toArray());
+        while (found.hasNext()) {
+            Vertex vertex = found.next();
+            if (vertex.label().equals(label) && sourceFile.equals(
+                    vertex.property(SOURCE_FILE_KEY).orElse(null)
+            )) {
+                vertices.add(framedGraph.frameElement(vertex, kind));
+            }
+        }
+        return vertices;
+    }
+
+    /**
+     * Updates the index for a vertex that is declared in another source file.
+     *
+     * @param oldSourceFile The previous file, or null if it did not have one
+     * @param newSourceFile The new file, or null if it is removed
+     * @param id The id of the vertex
+     */
+    synchronized void moveSourceFile(
+            String oldSourceFile, String newSourceFile, Object id
+    ) {
+        if (backendIndexed || !cached || sourceFileIndex == null) {
+            return;
+        }
+        if (oldSourceFile != null) {
+            Set<Object> ids = sourceFileIndex.get(oldSourceFile);
+            if (ids != null) {
+                ids.remove(id);
+                if (ids.isEmpty()) {
+                    sourceFileIndex.remove(oldSourceFile);
+                }
+            }
+        }
+        if (newSourceFile != null) {
+            sourceFileIndex.computeIfAbsent(
+                    newSourceFile, (key) -> new HashSet<>()
+            ).add(id);
+        }
+    }
+
+    /**
+     * Gets the source file map. The first time it is used all vertices with a
+     * source file are read from the graph once.
+     *
+     * @param framedGraph The graph to read the vertices from
+     * @return The source file to ids map
+     */
+    private Map<String, Set<Object>> getSourceFiles(FramedGraph framedGraph) {
+        if (sourceFileIndex != null) {
+            return sourceFileIndex;
+        }
+
+        sourceFileIndex = new HashMap<>();
+        framedGraph.getRawTraversal().V().has(SOURCE_FILE_KEY)
+                .forEachRemaining((vertex) -> sourceFileIndex.computeIfAbsent(
+                        vertex.value(SOURCE_FILE_KEY), (key) -> new HashSet<>()
+                ).add(vertex.id()));
+        return sourceFileIndex;
+    }
+
+    /**
+     * Finds the edge with the given label going from the source vertex to the
+     * target vertex. If the edge is not in the edge index the outgoing edges
+     * of the source vertex are checked.
+     *
+     * @param source The vertex the edge comes from
+     * @param label The label of the edge
+     * @param target The vertex the edge points to
+     * @return The edge, or null if it does not exists
+     */
+    synchronized Edge getEdge(Vertex source, String label, Vertex target) {
+        if (backendIndexed || !cached) {
+            return findEdge(source, label, target);
+        }
+
+        Map<Object, Object> targets = getTargets(source, label);
+        Object edgeId = targets.get(target.id());
+        if (edgeId != null) {
+            // Check if the edge still exists, it could have been removed by
+            // removing all edges of a vertex.
+            Iterator<Edge> edges = source.graph().edges(edgeId);
+            if (edges.hasNext()) {
+                return edges.next();
+            }
+            targets.remove(target.id());
+        }
+
+        // The edge could have been added without going through the frames
+        Edge edge = findEdge(source, label, target);
+        if (edge != null) {
+            targets.put(target.id(), edge.id());
+        }
+        return edge;
+    }
+
+    /**
+     * Finds the edge with the given label going from the source vertex to the
+     * target vertex on the graph.
+     *
+     * @param source The vertex the edge comes from
+     * @param label The label of the edge
+     * @param target The vertex the edge points to
+     * @return The edge, or null if it does not exists
+     */
+    private static Edge findEdge(Vertex source, String label, Vertex target) {
+        Iterator<Edge> edges = source.edges(Direction.OUT, label);
+        while (edges.hasNext()) {
+            Edge edge = edges.next();
+            if (edge.inVertex().id().equals(target.id())) {
+                return edge;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Adds a newly created edge to the edge index.
+     *
+     * @param edge The edge to add
+     */
+    synchronized void putEdge(Edge edge) {
+        if (backendIndexed || !cached) {
+            return;
+        }
+        getTargets(edge.outVertex(), edge.label())
+                .put(edge.inVertex().id(), edge.id());
+    }
+
+    /**
+     * Gets the number of edges in the edge index, the entries of edges that
+     * were removed without removing their vertices are included.
+     *
+     * @return The number of indexed edges
+     */
+    public synchronized int getIndexedEdgeCount() {
+        int count = 0;
+        for (Map<Object, Map<Object, Object>> sources : edgeIndex.values()) {
+            for (Map<Object, Object> targets : sources.values()) {
+                count += targets.size();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Removes a vertex that is about to be removed from the edge index. The
+     * edges of the vertex are dropped both as source and as target, the ids
+     * are not reused by the graph so the entries would otherwise be kept
+     * forever.
+     *
+     * @param vertex The vertex that is removed, with its edges still attached
+     */
+    synchronized void removeVertex(Vertex vertex) {
+        if (edgeIndex.isEmpty()) {
+            return;
+        }
+        vertex.edges(Direction.IN).forEachRemaining((edge) -> {
+            Map<Object, Map<Object, Object>> sources
+                    = edgeIndex.get(edge.label());
+            if (sources == null) {
+                return;
+            }
+            Map<Object, Object> targets = sources.get(edge.outVertex().id());
+            if (targets != null) {
+                targets.remove(vertex.id());
+            }
+        });
+        edgeIndex.values().forEach((sources) -> sources.remove(vertex.id()));
+    }
+
+    /**
+     * Gets the target to edge map for a source vertex and an edge label.
+     *
+     * @param source The vertex the edges come from
+     * @param label The label of the edges
+     * @return The target vertex id to edge id map
+     */
+    private Map<Object, Object> getTargets(Vertex source, String label) {
+        return edgeIndex.computeIfAbsent(label, (key) -> new HashMap<>())
+                .computeIfAbsent(source.id(), (key) -> new HashMap<>());
+    }
+
+}
@@ -7,9 +7,11 @@ import com.syncleus.ferma.annotations.Adjacency;
 import com.syncleus.ferma.annotations.GraphElement;
 import com.syncleus.ferma.annotations.Incidence;
 import com.syncleus.ferma.annotations.Property;
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Optional;
+import java.util.Set;
 import org.apache.tinkerpop.gremlin.structure.Direction;
 import org.apache.tinkerpop.gremlin.structure.Edge;
 import org.apache.tinkerpop.gremlin.structure.T;
@@ -30,6 +32,14 @@ public abstract class VertexClass extends AbstractVertexFrame {
      */
     public static final String LABEL = "class";
 
+    /**
+     * The labels of the edges between classes the afferent and efferent edges
+     * are derived from
+     */
+    public static final String[] DEPENDENCY_LABELS = {
+        "dependsOn", "isChildOf", "isImplementationOf"
+    };
+
     /**
      * The class types possible.
      *
@@ -63,6 +73,7 @@ public abstract class VertexClass extends AbstractVertexFrame {
         // Not implemented for retieved classes
         vertex.setClassModifier("none");
 
+        ChangeTracker.of(framedGraph).markChanged(vertex.getElement().id());
         return vertex;
     }
 
@@ -76,28 +87,56 @@ public abstract class VertexClass extends AbstractVertexFrame {
     public static VertexClass createSystemClass(
             FramedGraph framedGraph, CtType clazz
     ) {
+        return createSystemClass(
+                framedGraph, clazz.getQualifiedName(), getClassModifier(clazz)
+        );
+    }
 
-        String classModifier = "none";
-
-        if (clazz.isAbstract()) {
-            classModifier = "Abstract";
-        }
-        if (clazz.isInterface()) {
-            classModifier = "Interface";
-        }
+    /**
+     * This static function creates a new system class from its name and
+     * modifier
+     *
+     * @param framedGraph The graph to add the class vertex to
+     * @param name The qualified name of the class
+     * @param classModifier The modifier of the class, as given by
+     * getClassModifier
+     * @return The newly created class vertex
+     */
+    public static VertexClass createSystemClass(
+            FramedGraph framedGraph, String name, String classModifier
+    ) {
 
         // Create the vertex class with the class label
         VertexClass vertex = framedGraph.addFramedVertex(
                 new DefaultClassInitializer<>(VertexClass.class), T.label, LABEL
         );
 
-        vertex.setName(clazz.getQualifiedName());
+        vertex.setName(name);
         vertex.setClassType(ClassType.SystemClass);
         vertex.setClassModifier(classModifier);
 
+        ChangeTracker.of(framedGraph).markChanged(vertex.getElement().id());
         return vertex;
     }
 
+    /**
+     * Gets the modifier stored on the vertex of a source code class
+     *
+     * @param clazz The source code class
+     * @return Interface, Abstract or none
+     */
+    public static String getClassModifier(CtType clazz) {
+        String classModifier = "none";
+
+        if (clazz.isAbstract()) {
+            classModifier = "Abstract";
+        }
+        if (clazz.isInterface()) {
+            classModifier = "Interface";
+        }
+        return classModifier;
+    }
+
     /**
      * This static function gives a vertex class back from a qualified class
      * name or returns null when not found.
@@ -110,10 +149,26 @@ public abstract class VertexClass extends AbstractVertexFrame {
             FramedGraph framedGraph, String name
     ) {
 
-        // Find the class vertexes and then find the name
-        return framedGraph.traverse(
-                (g) -> g.V().hasLabel(LABEL).has("name", name)
-        ).nextOrDefault(VertexClass.class, null);
+        // Find the class vertex using the name index
+        return StructureIndex.of(framedGraph)
+                .getVertexByName(framedGraph, LABEL, name, VertexClass.class);
+    }
+
+    /**
+     * This static function gives all vertex classes back that are declared in
+     * the given source file.
+     *
+     * @param framedGraph The graph to find the vertex classes on
+     * @param sourceFile The path of the source file, relative to the root
+     * directory of the parser
+     * @return The vertex classes declared in the file
+     */
+    public static List<VertexClass> getVertexClassesBySourceFile(
+            FramedGraph framedGraph, String sourceFile
+    ) {
+        return StructureIndex.of(framedGraph).getVerticesBySourceFile(
+                framedGraph, LABEL, sourceFile, VertexClass.class
+        );
     }
 
     /**
@@ -125,12 +180,14 @@ public abstract class VertexClass extends AbstractVertexFrame {
     public abstract String getName();
 
     /**
-     * Sets the name property on the vertex
+     * Sets the name property on the vertex and updates the name index
      *
      * @param name The name to set
      */
-    @Property("name")
-    public abstract void setName(String name);
+    public void setName(String name) {
+        StructureIndex.of(getGraph()).rename(LABEL, getName(), name, getId());
+        setProperty(StructureIndex.NAME_KEY, name);
+    }
 
 
     /**
@@ -147,6 +204,28 @@ public abstract class VertexClass extends AbstractVertexFrame {
     @Property("linesOfCode")
     public abstract void setLinesOfCode(long linesOfCode);
 
+    /**
+     * Gets the path of the source file this class is declared in, relative to
+     * the root directory of the parser.
+     *
+     * @return The path of the source file, or null for retrieved classes
+     */
+    public String getSourceFile() {
+        return getProperty(StructureIndex.SOURCE_FILE_KEY, String.class);
+    }
+
+    /**
+     * Sets the path of the source file this class is declared in and updates
+     * the source file index.
+     *
+     * @param sourceFile The path of the source file
+     */
+    public void setSourceFile(String sourceFile) {
+        StructureIndex.of(getGraph())
+                .moveSourceFile(getSourceFile(), sourceFile, getId());
+        setProperty(StructureIndex.SOURCE_FILE_KEY, sourceFile);
+    }
+
     /**
      * This function returns the class type of the vertex class
      *
@@ -157,12 +236,19 @@ public abstract class VertexClass extends AbstractVertexFrame {
     }
 
     /**
-     * This function sets the class type of the vertex class
+     * This function sets the class type of the vertex class.
+     *
+     * Only system classes have afferent edges and add efferent edges to the
+     * classes they point to, so a changed type marks those as changed.
      *
      * @param classType The class type to set
      */
     public void setClassType(ClassType classType) {
+        String previousType = getProperty("ClassType", String.class);
         setProperty("ClassType", classType.name());
+        if (previousType != null && !previousType.equals(classType.name())) {
+            markChanged(Direction.OUT);
+        }
     }
 
     /**
@@ -191,7 +277,8 @@ public abstract class VertexClass extends AbstractVertexFrame {
     public abstract void setClassModifier(String classModifier);
 
     /**
-     * This function removes all the edges from the vertex class
+     * This function removes all the edges from the vertex class. The classes
+     * the edges pointed to are marked as changed.
      */
     public void removeEdges() {
         removeDependsOn();
@@ -201,12 +288,19 @@ public abstract class VertexClass extends AbstractVertexFrame {
 
     /**
      * This function overrides the default remove, also deleting all edges
-     * and belonging edges as well as the node.
+     * and belonging edges as well as the node. The node is also removed from
+     * the name, source file and edge index. The classes that pointed to this class
+     * are marked as changed.
      */
     @Override
     public void remove() {
+        markChanged(Direction.IN);
+        StructureIndex index = StructureIndex.of(getGraph());
+        index.removeVertex(getElement());
         removeEdges();
         removeBelongsTo();
+        index.remove(LABEL, getName(), getId());
+        index.moveSourceFile(getSourceFile(), null, getId());
         super.remove();
     }
 
@@ -232,7 +326,9 @@ public abstract class VertexClass extends AbstractVertexFrame {
      * This sets the vertex package this vertex class belongs to.
      *
      * Only one per vertex class can exists. If a previous edge exists, that
-     * edge is removed and a new one is set.
+     * edge is removed and a new one is set. The afferent edges counted for the
+     * previous package are removed as well and this class and its neighbours
+     * are marked as changed.
      *
      * This function also increases the total number of classes the package has.
      *
@@ -244,8 +340,12 @@ public abstract class VertexClass extends AbstractVertexFrame {
         Iterator<Edge> edges = getElement().edges(Direction.OUT, "belongsTo");
         // Remove all found edges if any
         if (edges.hasNext()) {
+            removeAfferentOfEdges();
+            markChanged(Direction.BOTH);
             getBelongsToPackage().decrementNumOfClassesInPackage();
             edges.next().remove();
+        } else {
+            ChangeTracker.of(getGraph()).markChanged(getElement().id());
         }
         // This vertex class now belongs to the package, so increment the number
         // of classes
@@ -256,11 +356,14 @@ public abstract class VertexClass extends AbstractVertexFrame {
 
     /**
      * This function removes the belongsTo edge. This also decrements the total
-     * number of the package this class belonged to.
+     * number of the package this class belonged to and removes the afferent
+     * edges counted for the package.
      */
     public void removeBelongsTo() {
         VertexPackage belongsToPackage = getBelongsToPackage();
         if (belongsToPackage != null) {
+            removeAfferentOfEdges();
+            markChanged(Direction.BOTH);
             belongsToPackage.decrementNumOfClassesInPackage();
             getBelongsTo().remove();
 
@@ -310,6 +413,39 @@ public abstract class VertexClass extends AbstractVertexFrame {
         return edgeIsAfferentOf;
     }
 
+    /**
+     * Removes the edges between this class and the given package that denote
+     * that this vertex class is afferent of the package.
+     *
+     * This also decrements the edge between this class belongsTo package and
+     * the given package, removing it if no other class of the package is
+     * afferent of the given package.
+     *
+     * @param vertexPackage The vertex package this class is no longer
+     * afferent of
+     */
+    public void removeAfferentOf(VertexPackage vertexPackage) {
+        VertexPackage belongsToPackage = getBelongsToPackage();
+        for (Edge edge : getOutEdges("isAfferentOf")) {
+            if (edge.inVertex().equals(vertexPackage.getElement())) {
+                edge.remove();
+                if (belongsToPackage != null) {
+                    belongsToPackage.removeAfferentOfPackage(vertexPackage);
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes all edges denoting that this vertex class is afferent of a
+     * package, decrementing the edges between the packages accordingly.
+     */
+    public void removeAfferentOfEdges() {
+        for (VertexPackage vertexPackage : getAfferentOfPackages()) {
+            removeAfferentOf(vertexPackage);
+        }
+    }
+
     /**
      * Gets a list of edges that this vertex class is efferent of.
      *
@@ -339,6 +475,21 @@ public abstract class VertexClass extends AbstractVertexFrame {
         );
     }
 
+    /**
+     * Removes the edges between this class and the given package that denote
+     * that this vertex class is efferent of the package.
+     *
+     * @param vertexPackage The vertex package this class is no longer
+     * efferent of
+     */
+    public void removeEfferentOf(VertexPackage vertexPackage) {
+        for (Edge edge : getOutEdges("isEfferentOf")) {
+            if (edge.inVertex().equals(vertexPackage.getElement())) {
+                edge.remove();
+            }
+        }
+    }
+
     /**
      * Gets a list of edges that this vertex class depends on.
      *
@@ -367,28 +518,51 @@ public abstract class VertexClass extends AbstractVertexFrame {
      * been incremented.
      */
     public EdgeDependsOn addDependOnClass(VertexClass dependingClass) {
+        return addDependOnClass(dependingClass, 1);
+    }
+
+    /**
+     * This adds an edge to a class denoting that this class depends on the
+     * given class with the given weight.
+     *
+     * If the edge already exists the weight is added to the weight of the edge
+     * instead.
+     *
+     * @param dependingClass The class this vertex class depends on.
+     * @param weight The number of times the class is depended on.
+     *
+     * @return The newly created edge, or the already existing edge that has
+     * been incremented.
+     */
+    public EdgeDependsOn addDependOnClass(
+            VertexClass dependingClass, int weight
+    ) {
 
         if (dependingClass.getName().equals(getName())) {
             return null;
         }
 
         // Find if this class already depends on the given class
-        Optional<EdgeDependsOn> dependency = getDependOnEdges().stream().filter(
-                (edge) -> edge.getDependOn().equals(dependingClass)
-        ).findFirst();
+        StructureIndex index = StructureIndex.of(getGraph());
+        Edge dependency = index.getEdge(
+                getElement(), "dependsOn", dependingClass.getElement()
+        );
 
         EdgeDependsOn dependOnEdge;
-        if (dependency.isEmpty()) {
-            // Create an edge and set the weight to 1
+        if (dependency == null) {
+            // Create an edge and set the weight
             dependOnEdge = addFramedEdge(
                     "dependsOn", dependingClass, EdgeDependsOn.class
             );
+            index.putEdge(dependOnEdge.getElement());
+            markChanged(dependingClass);
 
-            dependOnEdge.setWeight(1);
+            dependOnEdge.setWeight(weight);
         } else {
             // Increment the weight.
-            dependOnEdge = dependency.get();
-            dependOnEdge.incrementWeight();
+            dependOnEdge = getGraph()
+                    .frameElement(dependency, EdgeDependsOn.class);
+            dependOnEdge.incrementWeight(weight);
         }
         return dependOnEdge;
     }
@@ -396,8 +570,9 @@ public abstract class VertexClass extends AbstractVertexFrame {
     /**
      * Removes all depends on edges.
      */
-    @Adjacency(label = "dependsOn")
-    public abstract void removeDependsOn();
+    public void removeDependsOn() {
+        removeDependencyEdges("dependsOn");
+    }
 
     /**
      * Gets a list of edges that this vertex class is a child of.
@@ -423,14 +598,16 @@ public abstract class VertexClass extends AbstractVertexFrame {
      * @return The newly created edge
      */
     public EdgeIsChildOf addChildOfClass(VertexClass childOfClass) {
+        markChanged(childOfClass);
         return addFramedEdge("isChildOf", childOfClass, EdgeIsChildOf.class);
     }
 
     /**
      * Removes all is child of edges.
      */
-    @Adjacency(label = "isChildOf")
-    public abstract void removeChildsOf();
+    public void removeChildsOf() {
+        removeDependencyEdges("isChildOf");
+    }
 
     /**
      * Gets a list of edges that this vertex class is an implementation of.
@@ -458,6 +635,7 @@ public abstract class VertexClass extends AbstractVertexFrame {
     public EdgeIsImplementationOf addImplematationOfClass(
             VertexClass implementationOfClass
     ) {
+        markChanged(implementationOfClass);
         return addFramedEdge(
                 "isImplementationOf",
                 implementationOfClass,
@@ -468,7 +646,118 @@ public abstract class VertexClass extends AbstractVertexFrame {
     /**
      * Removes all is implementation of edges.
      */
-    @Adjacency(label = "isImplementationOf")
-    public abstract void removeImplementationOf();
+    public void removeImplementationOf() {
+        removeDependencyEdges("isImplementationOf");
+    }
+
+    /**
+     * Moves the dependency edges pointing to this class to the given class.
+     * The dependsOn edges keep their weight. Both classes and the classes the
+     * edges come from are marked as changed.
+     *
+     * @param otherClass The class the edges should point to
+     */
+    public void moveIncomingEdgesTo(VertexClass otherClass) {
+        List<Edge> edges = new ArrayList<>();
+        getElement().edges(Direction.IN, DEPENDENCY_LABELS)
+                .forEachRemaining(edges::add);
+
+        for (Edge edge : edges) {
+            VertexClass inVertex = getGraph()
+                    .frameElement(edge.outVertex(), VertexClass.class);
+            switch (edge.label()) {
+                case "dependsOn":
+                    inVertex.addDependOnClass(
+                            otherClass,
+                            getGraph().frameElement(edge, EdgeDependsOn.class)
+                                    .getWeight()
+                    );
+                    break;
+                case "isChildOf":
+                    inVertex.addChildOfClass(otherClass);
+                    break;
+                case "isImplementationOf":
+                    inVertex.addImplematationOfClass(otherClass);
+                    break;
+            }
+            edge.remove();
+        }
+        if (!edges.isEmpty()) {
+            markChanged(otherClass);
+        }
+    }
+
+    /**
+     * Gets the classes with a dependency edge pointing to this class. A class
+     * with more than one edge to this class is returned once.
+     *
+     * @return The classes depending on this class
+     */
+    public Set<VertexClass> getDependantClasses() {
+        Set<VertexClass> classes = new LinkedHashSet<>();
+        getElement().vertices(Direction.IN, DEPENDENCY_LABELS)
+                .forEachRemaining((vertex) -> classes.add(
+                        getGraph().frameElement(vertex, VertexClass.class)
+                ));
+        return classes;
+    }
+
+    /**
+     * Removes all outgoing edges with the given dependency label, marking this
+     * class and the classes the edges pointed to as changed.
+     *
+     * @param label The label of the edges to remove
+     */
+    private void removeDependencyEdges(String label) {
+        List<Edge> edges = getOutEdges(label);
+        if (edges.isEmpty()) {
+            return;
+        }
+        ChangeTracker tracker = ChangeTracker.of(getGraph());
+        tracker.markChanged(getElement().id());
+        for (Edge edge : edges) {
+            tracker.markChanged(edge.inVertex().id());
+            edge.remove();
+        }
+    }
+
+    /**
+     * Gets the outgoing edges with the given label. The edges are copied to a
+     * list so they can be removed while iterating.
+     *
+     * @param label The label of the edges
+     * @return The outgoing edges
+     */
+    private List<Edge> getOutEdges(String label) {
+        List<Edge> edges = new ArrayList<>();
+        getElement().edges(Direction.OUT, label).forEachRemaining(edges::add);
+        return edges;
+    }
+
+    /**
+     * Marks this class and the given class as changed, as an edge between
+     * them is added.
+     *
+     * @param otherClass The class on the other side of the edge
+     */
+    private void markChanged(VertexClass otherClass) {
+        ChangeTracker tracker = ChangeTracker.of(getGraph());
+        tracker.markChanged(getElement().id());
+        tracker.markChanged(otherClass.getElement().id());
+    }
+
+    /**
+     * Marks this class and the classes connected to it by a dependency edge in
+     * the given direction as changed.
+     *
+     * @param direction The direction of the dependency edges to follow
+     */
+    private void markChanged(Direction direction) {
+        ChangeTracker tracker = ChangeTracker.of(getGraph());
+        tracker.markChanged(getElement().id());
+        getElement().vertices(direction, DEPENDENCY_LABELS).forEachRemaining(
+                (vertex) -> tracker.markChanged(vertex.id())
+        );
+    }
 
 }
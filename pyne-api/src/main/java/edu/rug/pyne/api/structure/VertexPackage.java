@@ -7,8 +7,10 @@ import com.syncleus.ferma.annotations.Adjacency;
 import com.syncleus.ferma.annotations.GraphElement;
 import com.syncleus.ferma.annotations.Incidence;
 import com.syncleus.ferma.annotations.Property;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Optional;
+import org.apache.tinkerpop.gremlin.structure.Direction;
+import org.apache.tinkerpop.gremlin.structure.Edge;
 import org.apache.tinkerpop.gremlin.structure.T;
 import spoon.reflect.reference.CtPackageReference;
 
@@ -65,10 +67,26 @@ public abstract class VertexPackage extends AbstractVertexFrame {
     public static VertexPackage createVertexPackage(
             FramedGraph framedGraph, CtPackageReference ctPackage
     ) {
+        return createVertexPackage(
+                framedGraph,
+                ctPackage.getQualifiedName(),
+                getPackageType(ctPackage)
+        );
+    }
 
-        // Check if this package comes from within the source files
-        String packageType = ctPackage.isImplicit() || ctPackage.getSimpleName().equals("$") ||  ctPackage.getDeclaration() == null || ctPackage.isUnnamedPackage()
-                ? "RetrievedPackage" : "SystemPackage";
+    /**
+     * This creates a new vertex on the graph denoting a package with the given
+     * package type.
+     *
+     * @param framedGraph The graph to add the vertex to
+     * @param packageName The qualified name of the package
+     * @param packageType The type of the package, either SystemPackage or
+     * RetrievedPackage
+     * @return The newly created vertex.
+     */
+    public static VertexPackage createVertexPackage(
+            FramedGraph framedGraph, String packageName, String packageType
+    ) {
 
         VertexPackage vertex = framedGraph.addFramedVertex(
                 new DefaultClassInitializer<>(VertexPackage.class),
@@ -76,7 +94,7 @@ public abstract class VertexPackage extends AbstractVertexFrame {
                 LABEL
         );
 
-        vertex.setName(ctPackage.getQualifiedName());
+        vertex.setName(packageName);
         vertex.setPackageType(packageType);
         vertex.setNumTotalDep(0);
         vertex.setNumOfClassesInPackage(0);
@@ -84,6 +102,18 @@ public abstract class VertexPackage extends AbstractVertexFrame {
         return vertex;
     }
 
+    /**
+     * Gets the package type for a package reference. A package is a system
+     * package if it comes from within the source files.
+     *
+     * @param ctPackage The reference to the package
+     * @return SystemPackage or RetrievedPackage
+     */
+    public static String getPackageType(CtPackageReference ctPackage) {
+        return ctPackage.isImplicit() || ctPackage.getSimpleName().equals("$") ||  ctPackage.getDeclaration() == null || ctPackage.isUnnamedPackage()
+                ? "RetrievedPackage" : "SystemPackage";
+    }
+
     /**
      * This static function gives a vertex package back from a qualified package
      * name or returns null when not found.
@@ -96,10 +126,9 @@ public abstract class VertexPackage extends AbstractVertexFrame {
             FramedGraph framedGraph, String name
     ) {
 
-        // Find the package vertexes and then find the name
-        return framedGraph.traverse(
-                (g) -> g.V().hasLabel(LABEL).has("name", name)
-        ).nextOrDefault(VertexPackage.class, null);
+        // Find the package vertex using the name index
+        return StructureIndex.of(framedGraph)
+                .getVertexByName(framedGraph, LABEL, name, VertexPackage.class);
     }
 
     /**
@@ -111,12 +140,14 @@ public abstract class VertexPackage extends AbstractVertexFrame {
     public abstract String getName();
 
     /**
-     * Sets the name property on the vertex
+     * Sets the name property on the vertex and updates the name index
      *
      * @param name The name to set
      */
-    @Property("name")
-    public abstract void setName(String name);
+    public void setName(String name) {
+        StructureIndex.of(getGraph()).rename(LABEL, getName(), name, getId());
+        setProperty(StructureIndex.NAME_KEY, name);
+    }
 
     /**
      * Gets the PackageType property of this vertex
@@ -214,11 +245,23 @@ public abstract class VertexPackage extends AbstractVertexFrame {
 
     /**
      * This function overrides the default remove, also deleting all edges as
-     * well as the node.
+     * well as the node. The node is also removed from the name and edge index.
+     * The packages that were afferent of this package have their total number
+     * of dependencies decremented.
      */
     @Override
     public void remove() {
         removePackageIsAfferentOfEdges();
+        Iterator<Edge> afferentBy = getElement()
+                .edges(Direction.IN, "packageIsAfferentOf");
+        while (afferentBy.hasNext()) {
+            getGraph().frameElement(
+                    afferentBy.next().outVertex(), VertexPackage.class
+            ).decrementNumOfTotalDep();
+        }
+        StructureIndex index = StructureIndex.of(getGraph());
+        index.removeVertex(getElement());
+        index.remove(LABEL, getName(), getId());
         super.remove();
     }
 
@@ -251,31 +294,62 @@ public abstract class VertexPackage extends AbstractVertexFrame {
     ) {
 
         // Find if this class already is afferent of the given package
-        Optional<EdgePackageIsAfferentOf> dependency = getAfferentOfEdges()
-                .stream().filter(
-                        (edge) -> edge.getAfferentOf().equals(afferentOfPackage)
-                ).findFirst();
+        StructureIndex index = StructureIndex.of(getGraph());
+        Edge dependency = index.getEdge(
+                getElement(), "packageIsAfferentOf",
+                afferentOfPackage.getElement()
+        );
 
         EdgePackageIsAfferentOf packageAfferentOf;
-        if (dependency.isEmpty()) {
+        if (dependency == null) {
             // Create an edge and set the weight to 1
             packageAfferentOf = addFramedEdge(
                     "packageIsAfferentOf",
                     afferentOfPackage,
                     EdgePackageIsAfferentOf.class
             );
+            index.putEdge(packageAfferentOf.getElement());
 
             incrementNumTotalDep();
             packageAfferentOf.setWeight(1);
         } else {
             // Increment the weight.
-            packageAfferentOf = dependency.get();
+            packageAfferentOf = getGraph()
+                    .frameElement(dependency, EdgePackageIsAfferentOf.class);
             packageAfferentOf.incrementWeight();
         }
 
         return packageAfferentOf;
     }
 
+    /**
+     * Decrements the edge between this package and the given package, as one
+     * class less of this package is afferent of the given package. The edge is
+     * removed when no class is afferent of the given package anymore, which
+     * also decrements the total number of dependencies.
+     *
+     * @param afferentOfPackage The vertex package this vertex package is less
+     * afferent of
+     */
+    public void removeAfferentOfPackage(VertexPackage afferentOfPackage) {
+        Edge dependency = StructureIndex.of(getGraph()).getEdge(
+                getElement(), "packageIsAfferentOf",
+                afferentOfPackage.getElement()
+        );
+        if (dependency == null) {
+            return;
+        }
+
+        EdgePackageIsAfferentOf packageAfferentOf = getGraph()
+                .frameElement(dependency, EdgePackageIsAfferentOf.class);
+        if (packageAfferentOf.getWeight() > 1) {
+            packageAfferentOf.decrementWeight();
+        } else {
+            dependency.remove();
+            decrementNumOfTotalDep();
+        }
+    }
+
     /**
      * Removes all package is afferent of edges.
      */
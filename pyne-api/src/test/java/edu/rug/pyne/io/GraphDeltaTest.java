@@ -0,0 +1,150 @@
+package edu.rug.pyne.io;
+
+import edu.rug.pyne.api.io.DeltaReader;
+import edu.rug.pyne.api.io.DeltaWriter;
+import edu.rug.pyne.api.io.GraphDelta;
+import edu.rug.pyne.api.io.SnapshotWriter;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.tinkerpop.gremlin.structure.Edge;
+import org.apache.tinkerpop.gremlin.structure.Graph;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerGraph;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ * @author Patrick Beuks (s2288842) <code@beuks.net>
+ */
+public class GraphDeltaTest {
+
+    private Graph graph;
+    private Vertex a;
+    private Vertex b;
+    private Edge dependsOn;
+
+    @BeforeEach
+    public void setUp() {
+        graph = TinkerGraph.open();
+        a = graph.addVertex("class");
+        a.property("name", "a.A");
+        a.property("linesOfCode", 10L);
+        b = graph.addVertex("class");
+        b.property("name", "a.B");
+        b.property("classModifier", "None");
+        dependsOn = a.addEdge("dependsOn", b);
+        dependsOn.property("Weight", 1);
+        graph.variables().set("CommitId", "1");
+    }
+
+    /**
+     * Test that applying a delta to the old version gives the new version
+     */
+    @Test
+    public void testApply() throws IOException {
+        Graph previous = SnapshotWriter.snapshot(graph);
+
+        // Change properties, add and remove vertices and edges
+        a.property("linesOfCode", 12L);
+        b.property("classModifier").remove();
+        dependsOn.property("Weight", 2);
+        Vertex c = graph.addVertex("package");
+        c.property("name", "a");
+        a.addEdge("belongsTo", c);
+        b.addEdge("belongsTo", c);
+        graph.variables().set("CommitId", "2");
+
+        Graph applied = applyDelta(previous, graph);
+        assertEquals(dump(graph), dump(applied));
+
+        // Remove a vertex with its edges
+        previous = SnapshotWriter.snapshot(graph);
+        b.remove();
+        applied = applyDelta(previous, graph);
+        assertEquals(dump(graph), dump(applied));
+        assertEquals(2, applied.traversal().V().count().next().intValue());
+    }
+
+    /**
+     * Test that the versions are rebuilt from the keyframes and deltas
+     */
+    @Test
+    public void testDeltaReader() throws IOException {
+        File directory = new File("target", "graph_delta");
+        directory.mkdirs();
+
+        List<String> dumps = new ArrayList<>();
+        try (SnapshotWriter snapshotWriter = new SnapshotWriter(
+                1, new DeltaWriter(directory, 2, true)
+        )) {
+            for (int i = 0; i < 5; i++) {
+                graph.variables().set("CommitId", "" + i);
+                a.property("linesOfCode", 10L + i);
+                graph.addVertex("class").property("name", "a.C" + i);
+                dumps.add(dump(graph));
+                snapshotWriter.write(graph, new File(directory, "v" + i));
+            }
+        }
+
+        DeltaReader deltaReader = new DeltaReader(directory);
+        assertEquals(List.of("v0", "v1", "v2", "v3", "v4"),
+                deltaReader.getNames());
+        for (int i = 0; i < 5; i++) {
+            assertEquals(dumps.get(i), dump(deltaReader.read("v" + i)));
+        }
+        assertTrue(new File(directory, "v2.pyne.gz").isFile());
+        assertTrue(new File(directory, "v3.delta.gz").isFile());
+
+        List<String> replayed = new ArrayList<>();
+        deltaReader.replay((name, version) -> replayed.add(dump(version)));
+        assertEquals(dumps, replayed);
+    }
+
+    /**
+     * Writes the delta between two versions and applies it to a copy of the
+     * old version
+     *
+     * @param previous The old version
+     * @param current The new version
+     * @return The copy of the old version with the delta applied
+     */
+    private Graph applyDelta(Graph previous, Graph current)
+            throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        GraphDelta.write(previous, current, outputStream);
+        Graph applied = SnapshotWriter.snapshot(previous);
+        GraphDelta.apply(
+                new ByteArrayInputStream(outputStream.toByteArray()), applied
+        );
+        return applied;
+    }
+
+    /**
+     * Gets the elements of a graph as a string that can be compared
+     *
+     * @param graph The graph to dump
+     * @return The sorted elements with their ids and properties
+     */
+    private String dump(Graph graph) {
+        List<String> lines = new ArrayList<>();
+        graph.vertices().forEachRemaining((vertex) -> lines.add(
+                vertex.id() + " " + vertex.label() + " "
+                + graph.traversal().V(vertex).valueMap().next()
+        ));
+        graph.edges().forEachRemaining((edge) -> lines.add(
+                edge.id() + " " + edge.outVertex().id() + " " + edge.label()
+                + " " + edge.inVertex().id() + " "
+                + graph.traversal().E(edge).valueMap().next()
+        ));
+        lines.add(graph.variables().asMap().toString());
+        lines.sort(null);
+        return String.join("\n", lines);
+    }
+
+}
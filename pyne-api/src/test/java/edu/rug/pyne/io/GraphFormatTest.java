@@ -0,0 +1,104 @@
+package edu.rug.pyne.io;
+
+import edu.rug.pyne.api.io.GraphFormat;
+import java.io.File;
+import java.io.IOException;
+import org.apache.tinkerpop.gremlin.structure.Graph;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerGraph;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ * @author Patrick Beuks (s2288842) <code@beuks.net>
+ */
+public class GraphFormatTest {
+
+    private File directory;
+    private Graph graph;
+
+    @BeforeEach
+    public void setUp() {
+        directory = new File("target", "graph_format");
+        directory.mkdirs();
+
+        graph = TinkerGraph.open();
+        Vertex a = graph.addVertex("class");
+        a.property("name", "a.A");
+        a.property("linesOfCode", 12L);
+        a.property("isInterface", false);
+        Vertex b = graph.addVertex("package");
+        b.property("name", "a");
+        b.property("instability", 0.5);
+        a.addEdge("belongsTo", b);
+        a.addEdge("dependsOn", a).property("weight", 3);
+    }
+
+    /**
+     * Test that every format reads back what it wrote, compressed or not
+     */
+    @Test
+    public void testRoundTrip() throws IOException {
+        for (GraphFormat format : GraphFormat.values()) {
+            for (boolean compressed : new boolean[]{false, true}) {
+                File file = new File(
+                        directory, format.getFileName("graph", compressed)
+                );
+                format.writeFile(graph, file, compressed);
+
+                Graph read = TinkerGraph.open();
+                GraphFormat.readFile(file, read);
+
+                String message = file.getName();
+                assertEquals(2, read.traversal().V().count().next()
+                        .intValue(), message);
+                assertEquals(2, read.traversal().E().count().next()
+                        .intValue(), message);
+                assertEquals("a", read.traversal().V().has("name", "a.A")
+                        .out("belongsTo").values("name").next(), message);
+                assertEquals(1, read.traversal().V().has("name", "a.A")
+                        .outE("dependsOn").has("weight", 3).count().next()
+                        .intValue(), message);
+            }
+        }
+    }
+
+    /**
+     * Test that the binary format keeps the ids and property types
+     */
+    @Test
+    public void testBinary() throws IOException {
+        graph.variables().set("CommitId", "1234");
+        File file = new File(directory, "types.pyne");
+        GraphFormat.BINARY.writeFile(graph, file, false);
+
+        Graph read = TinkerGraph.open();
+        GraphFormat.readFile(file, read);
+
+        Vertex a = graph.traversal().V().has("name", "a.A").next();
+        Vertex copy = read.traversal().V().has("name", "a.A").next();
+        assertEquals(a.id(), copy.id());
+        assertEquals(12L, (long) copy.value("linesOfCode"));
+        assertFalse(copy.<Boolean>value("isInterface"));
+        assertEquals(0.5, (double) read.traversal().V().has("name", "a")
+                .values("instability").next());
+        assertEquals("1234", read.variables().get("CommitId").get());
+    }
+
+    /**
+     * Test the names of the formats
+     */
+    @Test
+    public void testFromName() {
+        assertEquals(GraphFormat.BINARY, GraphFormat.fromName("binary"));
+        assertEquals(GraphFormat.GRAPHML, GraphFormat.fromName("graphml"));
+        assertEquals(GraphFormat.GRAPHSON, GraphFormat.fromName("json"));
+        assertThrows(IllegalArgumentException.class,
+                () -> GraphFormat.fromName("xml"));
+        assertEquals("graph.pyne.gz",
+                GraphFormat.BINARY.getFileName("graph", true));
+    }
+
+}
@@ -0,0 +1,93 @@
+package edu.rug.pyne.io;
+
+import edu.rug.pyne.api.io.SnapshotWriter;
+import java.io.File;
+import java.io.IOException;
+import org.apache.tinkerpop.gremlin.process.traversal.IO;
+import org.apache.tinkerpop.gremlin.structure.Edge;
+import org.apache.tinkerpop.gremlin.structure.Graph;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerGraph;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ * @author Patrick Beuks (s2288842) <code@beuks.net>
+ */
+public class SnapshotWriterTest {
+
+    private Graph graph;
+
+    @BeforeEach
+    public void setUp() {
+        graph = TinkerGraph.open();
+        Vertex a = graph.addVertex("class");
+        a.property("name", "a.A");
+        Vertex b = graph.addVertex("package");
+        b.property("name", "a");
+        Edge edge = a.addEdge("belongsTo", b);
+        edge.property("weight", 1);
+        graph.variables().set("CommitId", "1234");
+    }
+
+    /**
+     * Test that a snapshot is a copy that does not change with the graph
+     */
+    @Test
+    public void testSnapshot() {
+        Graph snapshot = SnapshotWriter.snapshot(graph);
+
+        Vertex a = graph.traversal().V().has("name", "a.A").next();
+        Vertex copy = snapshot.traversal().V().has("name", "a.A").next();
+        assertEquals(a.id(), copy.id());
+        assertEquals("class", copy.label());
+        assertEquals(1, (int) snapshot.traversal().V(copy).outE("belongsTo")
+                .values("weight").next());
+        assertEquals("a", snapshot.traversal().V(copy).out("belongsTo")
+                .values("name").next());
+        assertEquals("1234", snapshot.variables().get("CommitId").get());
+
+        a.remove();
+        assertEquals(2, snapshot.traversal().V().count().next().intValue());
+        assertEquals(1, snapshot.traversal().E().count().next().intValue());
+    }
+
+    /**
+     * Test that the queued snapshots are written when the writer is closed,
+     * even if the graph changed after it was queued
+     */
+    @Test
+    public void testWrite() throws IOException {
+        File directory = new File("target", "snapshot_writer");
+        directory.mkdirs();
+        File first = new File(directory, "first.graphml");
+        File second = new File(directory, "second.graphml");
+        first.delete();
+        second.delete();
+
+        try (SnapshotWriter snapshotWriter = new SnapshotWriter(1)) {
+            snapshotWriter.write(graph, first);
+            graph.addVertex("class").property("name", "a.B");
+            snapshotWriter.write(graph, second);
+        }
+
+        assertEquals(2, countVertices(first));
+        assertEquals(3, countVertices(second));
+    }
+
+    /**
+     * Counts the vertices of a graphml file
+     *
+     * @param file The file to read
+     * @return The number of vertices
+     */
+    private long countVertices(File file) {
+        Graph read = TinkerGraph.open();
+        read.traversal().io(file.getAbsolutePath())
+                .with(IO.reader, IO.graphml).read().iterate();
+        return read.traversal().V().count().next();
+    }
+
+}
@@ -0,0 +1,167 @@
+package edu.rug.pyne.io;
+
+import edu.rug.pyne.api.io.SnapshotWriter;
+import edu.rug.pyne.api.io.TemporalGraph;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversalSource;
+import org.apache.tinkerpop.gremlin.structure.Edge;
+import org.apache.tinkerpop.gremlin.structure.Graph;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerGraph;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ * @author Patrick Beuks (s2288842) <code@beuks.net>
+ */
+public class TemporalGraphTest {
+
+    private Graph graph;
+    private Vertex a;
+    private Vertex b;
+    private Edge dependsOn;
+
+    @BeforeEach
+    public void setUp() {
+        graph = TinkerGraph.open();
+        a = graph.addVertex("class");
+        a.property("name", "a.A");
+        a.property("linesOfCode", 10L);
+        b = graph.addVertex("class");
+        b.property("name", "a.B");
+        dependsOn = a.addEdge("dependsOn", b);
+        dependsOn.property("Weight", 1);
+    }
+
+    /**
+     * Test that every version is read back from the history and that
+     * unchanged elements are only kept once
+     */
+    @Test
+    public void testVersions() throws IOException {
+        TemporalGraph temporalGraph = new TemporalGraph();
+        List<String> dumps = addVersions(temporalGraph);
+
+        for (int i = 0; i < dumps.size(); i++) {
+            assertEquals(dumps.get(i),
+                    dump(temporalGraph.getVersion("v" + i)));
+        }
+
+        // a.A and a.B are kept once, a.B is removed in v2 and added in v3
+        Graph history = temporalGraph.getGraph();
+        assertEquals(1, history.traversal().V().has("name", "a.A").count()
+                .next().intValue());
+        assertEquals(2, history.traversal().V().has("name", "a.B").count()
+                .next().intValue());
+        assertEquals(3, history.traversal().V().has("name", "a.A")
+                .properties("linesOfCode").count().next().intValue());
+
+        // The history of the weight of the dependency
+        List<Object> weights = history.traversal().E().hasLabel("dependsOn")
+                .order().by(TemporalGraph.VALID_FROM).values("Weight")
+                .toList();
+        assertEquals(List.of(1, 2, 2), weights);
+
+        GraphTraversalSource version = temporalGraph.traversal("v2");
+        assertEquals(0, version.V().has("name", "a.B").count().next()
+                .intValue());
+        assertEquals(List.of(11L), version.V().has("name", "a.A")
+                .values("linesOfCode").toList());
+        assertEquals(List.of(10L), temporalGraph.traversal("v4").V()
+                .has("name", "a.A").values("linesOfCode").toList());
+    }
+
+    /**
+     * Test that a history that is written and read back gives the same
+     * versions and can be continued
+     */
+    @Test
+    public void testFiles() throws IOException {
+        File directory = new File("target", "temporal_graph");
+        directory.mkdirs();
+
+        TemporalGraph temporalGraph = new TemporalGraph();
+        try (SnapshotWriter snapshotWriter
+                = new SnapshotWriter(1, temporalGraph)) {
+            snapshotWriter.write(graph, new File(directory, "v0"));
+        }
+        String first = dump(graph);
+        temporalGraph.writeFiles(directory, true);
+
+        TemporalGraph read = TemporalGraph.readFiles(directory);
+        assertEquals(List.of("v0"), read.getNames());
+        assertEquals(first, dump(read.getVersion("v0")));
+
+        a.property("linesOfCode", 20L);
+        read.add("v1", graph);
+        assertEquals(first, dump(read.getVersion("v0")));
+        assertEquals(dump(graph), dump(read.getVersion("v1")));
+        assertEquals(1, read.getGraph().traversal().V().has("name", "a.A")
+                .count().next().intValue());
+        assertThrows(IllegalArgumentException.class,
+                () -> read.add("v1", graph));
+    }
+
+    /**
+     * Changes the graph and adds every version to the history
+     *
+     * @param temporalGraph The history to add the versions to
+     * @return The dumps of the versions
+     */
+    private List<String> addVersions(TemporalGraph temporalGraph) {
+        List<String> dumps = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            switch (i) {
+                case 1:
+                    a.property("linesOfCode", 11L);
+                    dependsOn.property("Weight", 2);
+                    break;
+                case 2:
+                    b.remove();
+                    break;
+                case 3:
+                    b = graph.addVertex("class");
+                    b.property("name", "a.B");
+                    a.addEdge("dependsOn", b).property("Weight", 2);
+                    break;
+                case 4:
+                    a.property("linesOfCode", 10L);
+                    graph.addVertex("package").property("name", "a");
+                    break;
+                default:
+                    break;
+            }
+            dumps.add(dump(graph));
+            temporalGraph.add("v" + i, graph);
+        }
+        return dumps;
+    }
+
+    /**
+     * Gets the elements of a graph as a string that can be compared, the ids
+     * of the elements are not compared as the history has its own ids
+     *
+     * @param graph The graph to dump
+     * @return The sorted elements with their properties
+     */
+    private String dump(Graph graph) {
+        List<String> lines = new ArrayList<>();
+        graph.vertices().forEachRemaining((vertex) -> lines.add(
+                vertex.label() + " "
+                + graph.traversal().V(vertex).valueMap().next()
+        ));
+        graph.edges().forEachRemaining((edge) -> lines.add(
+                edge.outVertex().value("name") + " " + edge.label()
+                + " " + edge.inVertex().value("name") + " "
+                + graph.traversal().E(edge).valueMap().next()
+        ));
+        lines.sort(null);
+        return String.join("\n", lines);
+    }
+
+}
@@ -0,0 +1,107 @@
+package edu.rug.pyne.parser;
+
+import edu.rug.pyne.api.parser.ChangeSet;
+import edu.rug.pyne.api.parser.Parser;
+import java.io.File;
+import java.util.List;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerGraph;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ * @author Patrick Beuks (s2288842) <code@beuks.net>
+ */
+public class ChangeSetTest {
+
+    private File rootDirectory;
+    private ChangeSet changeSet;
+
+    @BeforeEach
+    public void setUp() {
+        rootDirectory = new File("target", "change_set_root");
+        changeSet = new ChangeSet(rootDirectory);
+        changeSet.addAdded("src/main/java/a/A.java");
+        changeSet.addModified("src/main/java/a/B.java");
+        changeSet.addRemoved("src/main/java/a/C.java");
+    }
+
+    /**
+     * Test that different forms of the same path are found
+     */
+    @Test
+    public void testPathForms() {
+        File relative = new File(rootDirectory, "src/main/java/a/A.java");
+        File absolute = relative.getAbsoluteFile();
+        File unnormalized = new File(
+                rootDirectory, "src/main/java/b/../a/A.java"
+        );
+
+        assertTrue(changeSet.isAdded(relative));
+        assertTrue(changeSet.isAdded(absolute));
+        assertTrue(changeSet.isAdded(unnormalized));
+        assertFalse(changeSet.isAdded(null));
+        assertFalse(changeSet.isAdded(new File("src/main/java/a/A.java")));
+
+        assertTrue(changeSet.isModified(
+                new File(rootDirectory, "src/main/java/a/B.java")
+        ));
+        assertFalse(changeSet.isModified(relative));
+        assertTrue(changeSet.isRemoved(
+                new File(rootDirectory, "src/main/java/a/C.java")
+        ));
+    }
+
+    /**
+     * Test of the list based setters and getters of class Parser, which use
+     * the change set.
+     */
+    @Test
+    public void testParserFiles() {
+        Parser parser = new Parser(TinkerGraph.open());
+        parser.setRootDirectory(rootDirectory);
+        assertNull(parser.getAddedFiles());
+        assertTrue(parser.isProcessedFile(new File("Any.java")));
+
+        File added = new File(rootDirectory, "src/A.java");
+        parser.setAddedFiles(List.of(added));
+        parser.setModifiedFiles(List.of());
+        parser.setRemovedFiles(List.of(new File(rootDirectory, "src/B.java")));
+
+        assertEquals("src/A.java", parser.getChangeSet().getPath(added));
+        assertTrue(parser.isProcessedFile(added.getAbsoluteFile()));
+        assertFalse(parser.isProcessedFile(new File("Any.java")));
+        assertEquals(1, parser.getRemovedFiles().size());
+
+        parser.setAddedFiles(null);
+        assertNull(parser.getChangeSet());
+        assertNull(parser.getRemovedFiles());
+
+        parser.setChangeSet(changeSet);
+        assertEquals(
+                changeSet.getFile("src/main/java/a/A.java"),
+                parser.getAddedFiles().get(0)
+        );
+    }
+
+    /**
+     * Test of addRenamed method, of class ChangeSet.
+     */
+    @Test
+    public void testRenamed() {
+        changeSet.addRenamed("src/main/java/a/D.java", "src/main/java/b/D.java");
+
+        assertTrue(changeSet.isAdded(
+                new File(rootDirectory, "src/main/java/b/D.java")
+        ));
+        assertFalse(changeSet.isRemoved(
+                new File(rootDirectory, "src/main/java/a/D.java")
+        ));
+        assertEquals(
+                "src/main/java/b/D.java",
+                changeSet.getRenamedPaths().get("src/main/java/a/D.java")
+        );
+    }
+
+}
@@ -0,0 +1,124 @@
+package edu.rug.pyne.parser;
+
+import edu.rug.pyne.api.parser.Parser;
+import java.io.IOException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ * @author Patrick Beuks (s2288842) <code@beuks.net>
+ */
+public class ClassAnalysisTest {
+
+    private SampleProject project;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        project = new SampleProject("class_analysis");
+        project.writeSample();
+        project.write("f/Many.java",
+                "package f;",
+                "import c.C;",
+                "public class Many {",
+                "    public int size(Object value) {",
+                "        int size = new C().size() + new C().size();",
+                "        if (value instanceof C) {",
+                "            size += new e.F().hashCode();",
+                "        }",
+                "        return size + new a.A().getB().hashCode();",
+                "    }",
+                "}");
+        project.write("f/Nested.java",
+                "package f;",
+                "public class Nested {",
+                "    public static class Inner {",
+                "        public c.C get() { return new c.C(); }",
+                "    }",
+                "    public int size() {",
+                "        return new Inner().get().size()",
+                "                + new Many().size(null);",
+                "    }",
+                "}");
+    }
+
+    /**
+     * Test that analysing the classes with multiple threads gives the same
+     * graph as analysing them on a single thread, including the weights of
+     * the edges
+     */
+    @Test
+    public void testParallelAnalysis() {
+        String single = SampleProject.dump(project.parse());
+        assertTrue(single.contains(
+                "class:f.Many -dependsOn-> class:c.C {Weight=3,"));
+
+        Parser parser = project.createParser();
+        parser.setAnalysisThreads(4);
+        parser.process();
+
+        assertEquals(single, SampleProject.dump(parser.getGraph()));
+    }
+
+    /**
+     * Test that every kind of reference is found, once per reference
+     *
+     * @throws IOException Thrown if the sources could not be written
+     */
+    @Test
+    public void testReferenceKinds() throws IOException {
+        project.write("k/Base.java",
+                "package k;",
+                "public class Base {",
+                "    public static Base create() { return new Base(); }",
+                "}");
+        project.write("k/Checks.java",
+                "package k;",
+                "public class Checks {",
+                "    public boolean check(Object value) {",
+                "        return value instanceof Base;",
+                "    }",
+                "}");
+        project.write("k/Constructs.java",
+                "package k;",
+                "public class Constructs {",
+                "    public Object make() { return new Base(); }",
+                "}");
+        project.write("k/Anonymous.java",
+                "package k;",
+                "public class Anonymous {",
+                "    public Object make() { return new Base() { }; }",
+                "}");
+        project.write("k/Invokes.java",
+                "package k;",
+                "public class Invokes {",
+                "    public int make() { return Base.create().hashCode(); }",
+                "}");
+        project.write("k/Fields.java",
+                "package k;",
+                "public class Fields {",
+                "    private Base base;",
+                "    private Base[] bases;",
+                "}");
+        project.write("k/Parameters.java",
+                "package k;",
+                "public class Parameters {",
+                "    public void set(Base base, Base... more) { }",
+                "}");
+
+        String dump = SampleProject.dump(project.parse());
+        for (String name : new String[]{
+            "Checks", "Constructs", "Anonymous", "Invokes"
+        }) {
+            assertTrue(dump.contains("class:k." + name
+                    + " -dependsOn-> class:k.Base {Weight=1,"), name);
+        }
+        assertTrue(dump.contains(
+                "class:k.Fields -dependsOn-> class:k.Base {Weight=2,"));
+        assertTrue(dump.contains(
+                "class:k.Parameters -dependsOn-> class:k.Base {Weight=2,"));
+        assertFalse(dump.contains("class:void"));
+    }
+
+}
@@ -0,0 +1,129 @@
+package edu.rug.pyne.parser;
+
+import com.syncleus.ferma.FramedGraph;
+import edu.rug.pyne.api.parser.Parser;
+import edu.rug.pyne.api.parser.structureprocessor.ClassProcessor;
+import edu.rug.pyne.api.parser.structureprocessor.ClassStructure;
+import edu.rug.pyne.api.structure.EdgeDependsOn;
+import edu.rug.pyne.api.structure.VertexClass;
+import edu.rug.pyne.api.structure.VertexPackage;
+import java.util.List;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerGraph;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ * @author Patrick Beuks (s2288842) <code@beuks.net>
+ */
+public class ClassProcessorTest {
+
+    private FramedGraph framedGraph;
+    private ClassProcessor classProcessor;
+
+    @BeforeEach
+    public void setUp() {
+        Parser parser = new Parser(TinkerGraph.open());
+        framedGraph = parser.getFramedGraph();
+        classProcessor = new ClassProcessor(parser, framedGraph);
+    }
+
+    /**
+     * Applies the structure of a system class of 10 lines
+     *
+     * @param className The qualified name of the class
+     * @param packageName The name of the package of the class
+     * @param sourceFile The path of the file the class is declared in
+     * @return The vertex of the class
+     */
+    private VertexClass applyClass(
+            String className, String packageName, String sourceFile
+    ) {
+        classProcessor.applyClassStructure(new ClassStructure(
+                className, "none", packageName, "SystemPackage", 10
+        ), sourceFile);
+        return VertexClass.getVertexClassByName(framedGraph, className);
+    }
+
+    /**
+     * Test that a class found by its source file is moved to its new package,
+     * and that the edges still pointing to it move to a retrieved class with
+     * the old name
+     */
+    @Test
+    public void testMovedClass() {
+        VertexClass movedClass = applyClass("e.F", "e", "src/e/F.java");
+        VertexClass dependant = applyClass("d.D", "d", "src/d/D.java");
+        VertexClass child = applyClass("h.H", "h", "src/h/H.java");
+        VertexClass implementation = applyClass("i.I", "i", "src/i/I.java");
+        dependant.addDependOnClass(movedClass, 3);
+        child.addChildOfClass(movedClass);
+        implementation.addImplematationOfClass(movedClass);
+        Object id = movedClass.getElement().id();
+
+        // The remover moves the classes of a renamed file to the new path
+        movedClass.setSourceFile("src/g/F.java");
+        classProcessor.applyClassStructure(new ClassStructure(
+                "g.F", "public", "g", "SystemPackage", 12
+        ), "src/g/F.java");
+
+        movedClass = VertexClass.getVertexClassByName(framedGraph, "g.F");
+        assertEquals(id, movedClass.getElement().id());
+        assertEquals("g", movedClass.getBelongsToPackage().getName());
+        assertEquals("public", movedClass.getClassModifier());
+        assertEquals(12, movedClass.getLinesOfCode());
+        assertTrue(movedClass.getDependantClasses().isEmpty());
+
+        VertexClass retrievedClass
+                = VertexClass.getVertexClassByName(framedGraph, "e.F");
+        assertNotEquals(id, retrievedClass.getElement().id());
+        assertEquals(VertexClass.ClassType.RetrievedClass,
+                retrievedClass.getClassType());
+        assertEquals("e", retrievedClass.getBelongsToPackage().getName());
+
+        List<EdgeDependsOn> dependsOn = dependant.getDependOnEdges();
+        assertEquals(1, dependsOn.size());
+        assertEquals(retrievedClass, dependsOn.get(0).getDependOn());
+        assertEquals(3, dependsOn.get(0).getWeight());
+        assertEquals(List.of(retrievedClass), child.getChildsOfClasses());
+        assertEquals(List.of(retrievedClass),
+                implementation.getImplementationOfClasses());
+    }
+
+    /**
+     * Test that a moved class without edges pointing to it does not leave a
+     * retrieved class, and that its empty package is removed
+     */
+    @Test
+    public void testMovedClassWithoutDependants() {
+        VertexClass movedClass = applyClass("e.F", "e", "src/e/F.java");
+        Object id = movedClass.getElement().id();
+
+        movedClass.setSourceFile("src/g/F.java");
+        applyClass("g.F", "g", "src/g/F.java");
+
+        assertEquals(id, VertexClass.getVertexClassByName(framedGraph, "g.F")
+                .getElement().id());
+        assertNull(VertexClass.getVertexClassByName(framedGraph, "e.F"));
+        assertNull(VertexPackage.getVertexPackageByName(framedGraph, "e"));
+    }
+
+    /**
+     * Test that a class with another name in the same file is not seen as
+     * moved
+     */
+    @Test
+    public void testRenamedClass() {
+        VertexClass previousClass = applyClass("e.F", "e", "src/e/F.java");
+        Object id = previousClass.getElement().id();
+
+        previousClass.setSourceFile("src/g/G.java");
+        VertexClass newClass = applyClass("g.G", "g", "src/g/G.java");
+
+        assertNotEquals(id, newClass.getElement().id());
+        assertEquals(id, VertexClass.getVertexClassByName(framedGraph, "e.F")
+                .getElement().id());
+    }
+
+}
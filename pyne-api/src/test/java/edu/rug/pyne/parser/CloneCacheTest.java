@@ -0,0 +1,152 @@
+package edu.rug.pyne.parser;
+
+import edu.rug.pyne.api.CloneCache;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.util.FileUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ * @author Patrick Beuks (s2288842) <code@beuks.net>
+ */
+public class CloneCacheTest {
+
+    private SampleProject project;
+    private String repository;
+    private String headCommit;
+    private File cacheDirectory;
+    private File cloneDirectory;
+    private CloneCache cloneCache;
+
+    @BeforeEach
+    public void setUp() throws IOException, GitAPIException {
+        project = new SampleProject("clone_cache");
+        project.writeSample();
+        project.commit("First commit");
+        project.write("g/G.java",
+                "package g;",
+                "public class G {",
+                "}");
+        headCommit = project.commit("Add G");
+        repository = project.getRootDirectory().getAbsolutePath();
+
+        cacheDirectory = new File("target", "clone_cache_mirrors");
+        cloneDirectory = new File("target", "clone_cache_clones");
+        FileUtils.delete(cacheDirectory,
+                FileUtils.RECURSIVE | FileUtils.SKIP_MISSING);
+        FileUtils.delete(cloneDirectory,
+                FileUtils.RECURSIVE | FileUtils.SKIP_MISSING);
+        cloneCache = new CloneCache(cacheDirectory);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        cloneCache.cleanUp();
+    }
+
+    /**
+     * Test that two clones share one mirror, do not copy any objects and
+     * have the head and work tree of the repository
+     *
+     * @throws IOException Thrown if a clone could not be created
+     * @throws GitAPIException Thrown if git failed to clone
+     */
+    @Test
+    public void testTwoClones() throws IOException, GitAPIException {
+        File firstDirectory = new File(cloneDirectory, "first");
+        File secondDirectory = new File(cloneDirectory, "second");
+
+        try (Git first = cloneCache.createClone(repository, firstDirectory)) {
+            Repository mirror = cloneCache.getMirror(repository);
+            try (Git second
+                    = cloneCache.createClone(repository, secondDirectory)) {
+                assertSame(mirror, cloneCache.getMirror(repository));
+                assertEquals(1, cacheDirectory.list().length);
+
+                assertClone(first, mirror);
+                assertClone(second, mirror);
+            }
+        }
+    }
+
+    /**
+     * Test that a new cache reuses the mirror stored by an earlier cache
+     *
+     * @throws IOException Thrown if a mirror could not be opened
+     * @throws GitAPIException Thrown if git failed to clone or fetch
+     */
+    @Test
+    public void testMirrorReusedByNewCache()
+            throws IOException, GitAPIException {
+        File mirrorDirectory = cloneCache.getMirror(repository)
+                .getDirectory().getAbsoluteFile();
+        cloneCache.cleanUp();
+
+        // A mirror that is cloned again would not contain the marker
+        File marker = new File(mirrorDirectory, "marker");
+        assertTrue(marker.createNewFile());
+
+        cloneCache = new CloneCache(cacheDirectory);
+        assertEquals(mirrorDirectory, cloneCache.getMirror(repository)
+                .getDirectory().getAbsoluteFile());
+        assertTrue(marker.isFile());
+        assertEquals(1, cacheDirectory.list().length);
+    }
+
+    /**
+     * Asserts that a clone uses the objects of the mirror and has the head
+     * and work tree of the repository
+     *
+     * @param clone The clone to check
+     * @param mirror The mirror the clone is created from
+     * @throws IOException Thrown if the clone could not be read
+     * @throws GitAPIException Thrown if git failed to get the status
+     */
+    private void assertClone(Git clone, Repository mirror)
+            throws IOException, GitAPIException {
+        Repository cloneRepository = clone.getRepository();
+
+        // Only the alternates file is in the object database
+        File objects = new File(cloneRepository.getDirectory(), "objects");
+        for (File file : objects.listFiles()) {
+            if (file.getName().equals("info")) {
+                assertArrayEquals(new String[]{"alternates"}, file.list());
+            } else {
+                assertEquals("pack", file.getName());
+                assertEquals(0, file.list().length);
+            }
+        }
+        assertEquals(
+                new File(mirror.getDirectory(), "objects").getAbsolutePath(),
+                new String(Files.readAllBytes(
+                        new File(objects, "info/alternates").toPath()
+                )).trim()
+        );
+
+        assertEquals(headCommit,
+                cloneRepository.resolve(Constants.HEAD).getName());
+        assertEquals(mirror.getFullBranch(), cloneRepository.getFullBranch());
+        assertTrue(clone.status().call().isClean());
+        for (String file : SampleProject.SAMPLE_FILES) {
+            assertArrayEquals(
+                    Files.readAllBytes(new File(project.getRootDirectory(),
+                            SampleProject.path(file)).toPath()),
+                    Files.readAllBytes(new File(cloneRepository.getWorkTree(),
+                            SampleProject.path(file)).toPath()),
+                    file
+            );
+        }
+        assertTrue(new File(cloneRepository.getWorkTree(),
+                SampleProject.path("g/G.java")).isFile());
+    }
+
+}
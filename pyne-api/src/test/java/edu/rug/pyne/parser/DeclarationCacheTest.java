@@ -0,0 +1,84 @@
+package edu.rug.pyne.parser;
+
+import edu.rug.pyne.api.parser.analysisprocessor.DeclarationCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import spoon.Launcher;
+import spoon.reflect.declaration.CtClass;
+import spoon.reflect.factory.Factory;
+import spoon.reflect.reference.CtTypeReference;
+import spoon.support.reflect.reference.CtTypeReferenceImpl;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ * @author Patrick Beuks (s2288842) <code@beuks.net>
+ */
+public class DeclarationCacheTest {
+
+    private Factory factory;
+    private DeclarationCache declarationCache;
+
+    @BeforeEach
+    public void setUp() {
+        Launcher launcher = new Launcher();
+        launcher.getEnvironment().setNoClasspath(true);
+        factory = launcher.getFactory();
+        declarationCache = new DeclarationCache();
+    }
+
+    /**
+     * Test that a declared type is resolved once
+     */
+    @Test
+    public void testResolved() {
+        CtClass<?> clazz = factory.Class().create("a.A");
+
+        CtTypeReference<?> reference = factory.Type().createReference("a.A");
+        assertSame(clazz, declarationCache.getDeclaration(reference));
+        assertSame(clazz, declarationCache.getTypeDeclaration(reference));
+
+        // A removed type stays in the cache until it is cleared
+        clazz.delete();
+        assertSame(clazz, declarationCache.getDeclaration(reference));
+        declarationCache.clear();
+        assertNull(declarationCache.getDeclaration(reference));
+    }
+
+    /**
+     * Test that a type that can not be resolved is cached as such, and is
+     * resolved again after the cache is cleared
+     */
+    @Test
+    public void testUnresolvableCached() {
+        CtTypeReference<?> reference
+                = factory.Type().createReference("x.Missing");
+        assertNull(declarationCache.getDeclaration(reference));
+        assertNull(declarationCache.getTypeDeclaration(reference));
+
+        // Adding the type does not change the cached result
+        CtClass<?> clazz = factory.Class().create("x.Missing");
+        assertNull(declarationCache.getDeclaration(reference));
+        assertNull(declarationCache.getTypeDeclaration(reference));
+
+        declarationCache.clear();
+        assertSame(clazz, declarationCache.getDeclaration(reference));
+        assertSame(clazz, declarationCache.getTypeDeclaration(reference));
+    }
+
+    /**
+     * Test that incomplete references are not resolvable
+     */
+    @Test
+    public void testIncompleteReference() {
+        assertNull(declarationCache.getDeclaration(null));
+        assertNull(declarationCache.getTypeDeclaration(null));
+
+        // A reference that is not created by a factory
+        CtTypeReference<?> reference = new CtTypeReferenceImpl<>();
+        reference.setSimpleName("Missing");
+        assertNull(declarationCache.getDeclaration(reference));
+        assertNull(declarationCache.getTypeDeclaration(reference));
+    }
+
+}
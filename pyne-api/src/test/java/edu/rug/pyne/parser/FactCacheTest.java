@@ -0,0 +1,125 @@
+package edu.rug.pyne.parser;
+
+import edu.rug.pyne.api.parser.analysisprocessor.ClassDependencies;
+import edu.rug.pyne.api.parser.analysisprocessor.ReferencedType;
+import edu.rug.pyne.api.parser.cache.ClassFacts;
+import edu.rug.pyne.api.parser.cache.FactCache;
+import edu.rug.pyne.api.parser.cache.SourceFacts;
+import edu.rug.pyne.api.parser.structureprocessor.ClassStructure;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ * @author Patrick Beuks (s2288842) <code@beuks.net>
+ */
+public class FactCacheTest {
+
+    private static final String BLOB_A
+            = "aaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaa";
+    private static final String BLOB_B
+            = "bbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbb";
+    private static final String BLOB_C
+            = "cccccccccccccccccccccccccccccccccccccccc";
+
+    private Path directory;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("pyne_fact_cache_test_");
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder())
+                    .forEach((path) -> path.toFile().delete());
+        }
+    }
+
+    /**
+     * Creates the facts of a file declaring a single class
+     *
+     * @param className The name of the class
+     * @return The facts of the file
+     */
+    private SourceFacts createFacts(String className) {
+        ClassStructure structure = new ClassStructure(
+                "package1." + className, "none", "package1", "SystemPackage", 10
+        );
+        ClassDependencies dependencies = new ClassDependencies(
+                "package1." + className,
+                null,
+                List.of(),
+                List.of(new ClassDependencies.Dependency(
+                        new ReferencedType(
+                                "package2.Other", "package2", "SystemPackage"
+                        ),
+                        3,
+                        true
+                ))
+        );
+        return new SourceFacts(List.of(new ClassFacts(structure, dependencies)));
+    }
+
+    /**
+     * Test of get and put, also after opening the cache again
+     */
+    @Test
+    public void testPutAndGet() throws IOException {
+        FactCache factCache = new FactCache(directory, 1 << 20);
+        assertNull(factCache.get(BLOB_A));
+
+        factCache.put(BLOB_A, createFacts("Class1"));
+        SourceFacts sourceFacts = factCache.get(BLOB_A);
+        assertNotNull(sourceFacts);
+        assertEquals(1, sourceFacts.getClasses().size());
+        ClassFacts classFacts = sourceFacts.getClasses().get(0);
+        assertEquals("package1.Class1", classFacts.getStructure().getClassName());
+        assertEquals(10, classFacts.getStructure().getLinesOfCode());
+        ClassDependencies.Dependency dependency
+                = classFacts.getDependencies().getDependencies().get(0);
+        assertEquals("package2.Other", dependency.getType().getQualifiedName());
+        assertEquals(3, dependency.getWeight());
+        assertTrue(dependency.isSourceClass());
+
+        FactCache reopened = new FactCache(directory, 1 << 20);
+        assertEquals(1, reopened.getEntryCount());
+        assertEquals(factCache.getSize(), reopened.getSize());
+        assertEquals(
+                "package1.Class1",
+                reopened.get(BLOB_A).getClasses().get(0).getStructure()
+                        .getClassName()
+        );
+    }
+
+    /**
+     * Test if the least recently used entry is removed when the cache is full
+     */
+    @Test
+    public void testEvictsLeastRecentlyUsed() throws IOException {
+        FactCache sizeCache = new FactCache(directory, 1 << 20);
+        sizeCache.put(BLOB_A, createFacts("Class1"));
+        long entrySize = sizeCache.getSize();
+
+        // Room for two entries
+        FactCache factCache = new FactCache(directory, entrySize * 2);
+        factCache.put(BLOB_B, createFacts("Class2"));
+        assertNotNull(factCache.get(BLOB_A));
+
+        factCache.put(BLOB_C, createFacts("Class3"));
+        assertEquals(2, factCache.getEntryCount());
+        assertNotNull(factCache.get(BLOB_A));
+        assertNull(factCache.get(BLOB_B));
+        assertNotNull(factCache.get(BLOB_C));
+    }
+
+}
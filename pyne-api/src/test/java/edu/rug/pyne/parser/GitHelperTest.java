@@ -0,0 +1,118 @@
+package edu.rug.pyne.parser;
+
+import edu.rug.pyne.api.GitHelper;
+import edu.rug.pyne.api.parser.Parser;
+import edu.rug.pyne.api.structure.VertexClass;
+import java.io.IOException;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerGraph;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ * @author Patrick Beuks (s2288842) <code@beuks.net>
+ */
+public class GitHelperTest {
+
+    private SampleProject project;
+    private String firstCommit;
+    private String secondCommit;
+
+    @BeforeEach
+    public void setUp() throws IOException, GitAPIException {
+        project = new SampleProject("git_helper");
+        project.writeSample();
+        project.write("e/F.java", fileF("e"));
+        firstCommit = project.commit("First commit");
+
+        // Only the package declaration of F changes with the move
+        project.move("e/F.java", "g/F.java");
+        project.write("g/F.java", fileF("g"));
+        project.write("e/E.java",
+                "package e;",
+                "import g.F;",
+                "public class E {",
+                "    public static F create() { return new F(); }",
+                "}");
+        secondCommit = project.commit("Move F");
+    }
+
+    /**
+     * Gets the lines of a class F that is large enough to be similar after
+     * changing its package declaration
+     *
+     * @param packageName The package of the class
+     * @return The lines of the file
+     */
+    private static String[] fileF(String packageName) {
+        return new String[]{
+            "package " + packageName + ";",
+            "public class F {",
+            "    public int one() { return 1; }",
+            "    public int two() { return 2; }",
+            "    public int three() { return 3; }",
+            "    public int four() { return 4; }",
+            "    public int five() { return 5; }",
+            "}"
+        };
+    }
+
+    /**
+     * Parses both commits and checks that the graph of the second commit is
+     * the same as parsing it completely
+     *
+     * @param renameScore The rename score to use
+     * @return True if the vertex of F is kept
+     */
+    private boolean parseMove(int renameScore)
+            throws IOException, GitAPIException {
+        GitHelper gitHelper = new GitHelper(
+                project.getRootDirectory().getPath(), false
+        );
+        gitHelper.setRenameScore(renameScore);
+        Parser parser = new Parser(TinkerGraph.open());
+
+        gitHelper.parseCommit(parser, firstCommit);
+        Object id = VertexClass.getVertexClassByName(
+                parser.getFramedGraph(), "e.F"
+        ).getElement().id();
+        gitHelper.parseCommit(parser, secondCommit);
+
+        assertNull(VertexClass.getVertexClassByName(
+                parser.getFramedGraph(), "e.F"
+        ));
+        assertEquals(SampleProject.dump(project.parse()),
+                SampleProject.dump(parser.getGraph()));
+        return id.equals(VertexClass.getVertexClassByName(
+                parser.getFramedGraph(), "g.F"
+        ).getElement().id());
+    }
+
+    /**
+     * Test that a moved file is a renamed file when it is similar enough,
+     * keeping the vertex of its class
+     */
+    @Test
+    public void testRenameScore() throws IOException, GitAPIException {
+        assertTrue(parseMove(60));
+        assertFalse(parseMove(100));
+    }
+
+    /**
+     * Test that a rename score outside of 0 to 100 is not accepted
+     */
+    @Test
+    public void testInvalidRenameScore() throws IOException, GitAPIException {
+        GitHelper gitHelper = new GitHelper(
+                project.getRootDirectory().getPath(), false
+        );
+        assertThrows(IllegalArgumentException.class,
+                () -> gitHelper.setRenameScore(101));
+        assertThrows(IllegalArgumentException.class,
+                () -> gitHelper.setRenameScore(-1));
+        assertEquals(60, gitHelper.getRenameScore());
+    }
+
+}
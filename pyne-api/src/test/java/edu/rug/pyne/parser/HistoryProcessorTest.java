@@ -0,0 +1,164 @@
+package edu.rug.pyne.parser;
+
+import edu.rug.pyne.api.GitHelper;
+import edu.rug.pyne.api.HistoryProcessor;
+import edu.rug.pyne.api.parser.Parser;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerGraph;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ * @author Patrick Beuks (s2288842) <code@beuks.net>
+ */
+public class HistoryProcessorTest {
+
+    private static final int COMMITS = 6;
+
+    private SampleProject project;
+    private GitHelper gitHelper;
+    private final List<String> commits = new ArrayList<>();
+
+    @BeforeEach
+    public void setUp() throws IOException, GitAPIException {
+        project = new SampleProject("history_processor");
+        project.writeSample();
+        commits.add(project.commit("Sample"));
+
+        // Every commit adds a method to D
+        List<String> lines = new ArrayList<>(List.of(
+                "package d;",
+                "public class D {"
+        ));
+        for (int i = 1; i < COMMITS; i++) {
+            lines.add("    public int method" + i + "() {");
+            lines.add("        return new c.C().size();");
+            lines.add("    }");
+            List<String> file = new ArrayList<>(lines);
+            file.add("}");
+            project.write("d/D.java", file.toArray(new String[0]));
+            commits.add(project.commit("Commit " + i));
+        }
+
+        gitHelper = new GitHelper(project.getRootDirectory().getPath(), false);
+    }
+
+    /**
+     * Parses the commits one after the other with a single graph
+     *
+     * @return The dump of the graph of every commit
+     */
+    private List<String> parseSequentially() throws IOException {
+        List<String> dumps = new ArrayList<>();
+        Parser parser = new Parser(TinkerGraph.open());
+        for (String commit : commits) {
+            gitHelper.parseCommit(parser, commit);
+            dumps.add(SampleProject.dump(parser.getGraph()));
+        }
+        return dumps;
+    }
+
+    /**
+     * Test that the snapshots are given in commit order and are the same as
+     * parsing the commits one after the other
+     */
+    @Test
+    public void testOrder() throws IOException {
+        List<String> expected = parseSequentially();
+
+        HistoryProcessor historyProcessor = new HistoryProcessor(gitHelper, 3);
+        List<String> consumedCommits = new ArrayList<>();
+        List<String> dumps = new ArrayList<>();
+        historyProcessor.process(
+                commits,
+                (commitId, graph) -> SampleProject.dump(graph),
+                (commitId, snapshot) -> {
+                    consumedCommits.add(commitId);
+                    dumps.add(snapshot);
+                }
+        );
+
+        assertEquals(commits, consumedCommits);
+        assertEquals(expected, dumps);
+    }
+
+    /**
+     * Test that a window does not run further ahead of the consumer than the
+     * maximum number of pending snapshots, while it still runs ahead of it
+     */
+    @Test
+    public void testPendingSnapshots() throws IOException {
+        HistoryProcessor historyProcessor = new HistoryProcessor(gitHelper, 2);
+        historyProcessor.setMaxPendingSnapshots(1);
+
+        // The window of each commit
+        Map<String, Integer> windowOf = new HashMap<>();
+        List<List<String>> windows = HistoryProcessor.splitWindows(commits, 2);
+        for (int i = 0; i < windows.size(); i++) {
+            for (String commit : windows.get(i)) {
+                windowOf.put(commit, i);
+            }
+        }
+
+        AtomicIntegerArray taken = new AtomicIntegerArray(windows.size());
+        AtomicIntegerArray consumed = new AtomicIntegerArray(windows.size());
+        AtomicInteger maxPending = new AtomicInteger();
+        CountDownLatch secondWindowStarted = new CountDownLatch(1);
+        List<String> consumedCommits = new ArrayList<>();
+
+        historyProcessor.process(
+                commits,
+                (commitId, graph) -> {
+                    int window = windowOf.get(commitId);
+                    int pending = taken.incrementAndGet(window)
+                            - consumed.get(window);
+                    maxPending.accumulateAndGet(pending, Math::max);
+                    if (window == 1) {
+                        secondWindowStarted.countDown();
+                    }
+                    return commitId;
+                },
+                (commitId, snapshot) -> {
+                    assertEquals(commitId, snapshot);
+                    if (consumedCommits.isEmpty()) {
+                        // The second window takes its first snapshot while
+                        // the consumer is still at the first commit
+                        try {
+                            assertTrue(secondWindowStarted.await(
+                                    2, TimeUnit.MINUTES
+                            ));
+                        } catch (InterruptedException ex) {
+                            throw new IOException(ex);
+                        }
+                    }
+                    consumed.incrementAndGet(windowOf.get(commitId));
+                    consumedCommits.add(commitId);
+                }
+        );
+
+        assertEquals(commits, consumedCommits);
+        assertEquals(1, maxPending.get());
+    }
+
+    /**
+     * Test that at least one pending snapshot is needed
+     */
+    @Test
+    public void testInvalidMaxPendingSnapshots() {
+        HistoryProcessor historyProcessor = new HistoryProcessor(gitHelper, 2);
+        assertThrows(IllegalArgumentException.class,
+                () -> historyProcessor.setMaxPendingSnapshots(0));
+    }
+
+}
@@ -0,0 +1,121 @@
+package edu.rug.pyne.parser;
+
+import edu.rug.pyne.api.parser.ChangeSet;
+import edu.rug.pyne.api.parser.IncrementalInput;
+import edu.rug.pyne.api.parser.Parser;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.tinkerpop.gremlin.structure.Graph;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ * @author Patrick Beuks (s2288842) <code@beuks.net>
+ */
+public class IncrementalInputTest {
+
+    private SampleProject project;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        project = new SampleProject("incremental_input");
+        project.writeSample();
+    }
+
+    /**
+     * Test that parsing any file with only its direct imports gives the same
+     * graph as parsing the whole project. The dependency of D on C is found
+     * through a method of B, which is not imported by D, so only that one is
+     * lost.
+     */
+    @Test
+    public void testSameAsFullParse() {
+        String full = SampleProject.dump(project.parse());
+        assertTrue(full.contains("class:d.D -dependsOn-> class:b.B"));
+        assertTrue(full.contains("class:d.D -dependsOn-> class:c.C"));
+        assertTrue(full.contains("class:d.D -dependsOn-> class:e.F"));
+
+        for (String file : SampleProject.SAMPLE_FILES) {
+            Parser parser = project.createParser();
+            parser.process();
+            parser.setIncrementalInput(true);
+
+            ChangeSet changeSet = project.createChangeSet();
+            changeSet.addAdded(SampleProject.path(file));
+            changeSet.addModified(SampleProject.path(file));
+            SampleProject.reparse(parser, changeSet);
+
+            String dump = SampleProject.dump(parser.getGraph());
+            if (!file.equals("d/D.java")) {
+                assertEquals(full, dump, file);
+                continue;
+            }
+            assertTrue(dump.contains("class:d.D -dependsOn-> class:a.A"));
+            assertTrue(dump.contains("class:d.D -dependsOn-> class:b.B"));
+            assertFalse(dump.contains("class:d.D -dependsOn-> class:c.C"));
+            assertTrue(dump.contains("class:d.D -dependsOn-> class:e.F"));
+        }
+    }
+
+    /**
+     * Test that the context of a changed file only contains the file and the
+     * files of its direct imports
+     */
+    @Test
+    public void testContextSize() {
+        Parser parser = project.createParser();
+        parser.process();
+
+        Map<String, Integer> expected = new LinkedHashMap<>();
+        expected.put("a/A.java", 2);
+        expected.put("b/B.java", 2);
+        expected.put("c/C.java", 1);
+        // D imports A and refers to E by its qualified name, B and C are only
+        // reached through A
+        expected.put("d/D.java", 3);
+        expected.put("e/E.java", 1);
+        expected.put("e/F.java", 1);
+
+        IncrementalInput incrementalInput
+                = new IncrementalInput(parser, parser.getFramedGraph());
+        expected.forEach((path, size) -> assertEquals(size.intValue(),
+                incrementalInput.getInputFiles(
+                        List.of(parser.getSourceFile(SampleProject.path(path))),
+                        parser.findSourceDirectories()
+                ).size(), path
+        ));
+    }
+
+    /**
+     * Test that a changed file parsed with only its context gives the same
+     * graph as parsing the whole changed project
+     */
+    @Test
+    public void testChangedFile() throws IOException {
+        Parser parser = project.createParser();
+        parser.process();
+        parser.setIncrementalInput(true);
+
+        project.write("d/D.java",
+                "package d;",
+                "public class D {",
+                "    public int size() {",
+                "        return new a.A().getB().hashCode();",
+                "    }",
+                "}");
+        ChangeSet changeSet = project.createChangeSet();
+        changeSet.addAdded(SampleProject.path("d/D.java"));
+        changeSet.addModified(SampleProject.path("d/D.java"));
+        SampleProject.reparse(parser, changeSet);
+
+        Graph full = project.parse();
+
+        assertEquals(SampleProject.dump(full),
+                SampleProject.dump(parser.getGraph()));
+    }
+
+}
@@ -0,0 +1,213 @@
+package edu.rug.pyne.parser;
+
+import edu.rug.pyne.api.parser.ChangeSet;
+import edu.rug.pyne.api.parser.Parser;
+import edu.rug.pyne.api.parser.removeprocessor.ClassRemover;
+import edu.rug.pyne.api.parser.removeprocessor.InterfaceRemover;
+import edu.rug.pyne.api.structure.VertexClass;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.HashSet;
+import java.util.Set;
+import org.apache.tinkerpop.gremlin.structure.Graph;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ * @author Patrick Beuks (s2288842) <code@beuks.net>
+ */
+public class IncrementalParseTest {
+
+    // Files no other file depends on, so they can be removed without
+    // changing how the other files are parsed
+    private static final String[] LEAF_FILES = {
+        "a/Extra.java", "d/D.java", "g/G.java"
+    };
+
+    private SampleProject project;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        project = new SampleProject("incremental_parse");
+        project.writeSample();
+        project.write("a/Extra.java",
+                "package a;",
+                "public class Extra extends b.B {",
+                "    public int size() {",
+                "        return new c.C().size() + new e.F().hashCode();",
+                "    }",
+                "}");
+        project.write("g/G.java",
+                "package g;",
+                "public class G {",
+                "    public int size() {",
+                "        return new a.A().hashCode() + new c.C().size();",
+                "    }",
+                "}");
+    }
+
+    /**
+     * Test that removing a file and adding it again in a later commit gives
+     * the same afferent and efferent edges and package counters as parsing
+     * the whole project after each commit
+     */
+    @Test
+    public void testRemoveAndAddAgain() throws IOException {
+        String full = SampleProject.dump(project.parse());
+        assertTrue(full.contains("class:a.Extra -isAfferentOf-> package:e "));
+        assertTrue(full.contains("class:a.A -isEfferentOf-> package:g "));
+        assertTrue(full.contains(
+                "package:a -packageIsAfferentOf-> package:b {Weight=2,"));
+        assertTrue(full.contains("name=a, numOfClassesInPackage=2, "
+                + "numTotalDep=3}"));
+
+        for (String file : LEAF_FILES) {
+            Parser parser = project.createParser();
+            parser.process();
+
+            File sourceFile = new File(project.getRootDirectory(),
+                    SampleProject.path(file));
+            byte[] content = Files.readAllBytes(sourceFile.toPath());
+            project.delete(file);
+
+            ChangeSet changeSet = project.createChangeSet();
+            changeSet.addRemoved(SampleProject.path(file));
+            SampleProject.reparse(parser, changeSet);
+
+            String removed = SampleProject.dump(parser.getGraph());
+            assertNotEquals(full, removed, "removed " + file);
+            assertEquals(SampleProject.dump(project.parse()), removed,
+                    "removed " + file);
+
+            Files.write(sourceFile.toPath(), content);
+
+            changeSet = project.createChangeSet();
+            changeSet.addAdded(SampleProject.path(file));
+            SampleProject.reparse(parser, changeSet);
+
+            assertEquals(full, SampleProject.dump(parser.getGraph()),
+                    "added " + file);
+        }
+    }
+
+    /**
+     * Test that the classes of a renamed file keep their vertex, and that the
+     * classes depending on them give the same graph as parsing the whole
+     * project. H still extends the old name, D finds the moved class through
+     * the return type of a method of E.
+     */
+    @Test
+    public void testRenamedFile() throws IOException {
+        project.write("h/H.java",
+                "package h;",
+                "import e.F;",
+                "public class H extends F {",
+                "}");
+        Parser parser = project.createParser();
+        parser.process();
+        Object id = VertexClass.getVertexClassByName(
+                parser.getFramedGraph(), "e.F"
+        ).getElement().id();
+
+        project.move("e/F.java", "g/F.java");
+        project.write("g/F.java",
+                "package g;",
+                "public class F {",
+                "}");
+        project.write("e/E.java",
+                "package e;",
+                "import g.F;",
+                "public class E {",
+                "    public static F create() { return new F(); }",
+                "}");
+        ChangeSet changeSet = project.createChangeSet();
+        changeSet.addRenamed(
+                SampleProject.path("e/F.java"), SampleProject.path("g/F.java")
+        );
+        changeSet.addAdded(SampleProject.path("e/E.java"));
+        changeSet.addModified(SampleProject.path("e/E.java"));
+        Set<String> addedPaths = new HashSet<>(changeSet.getAddedPaths());
+        Set<String> modifiedPaths
+                = new HashSet<>(changeSet.getModifiedPaths());
+        SampleProject.reparse(parser, changeSet);
+
+        // The dependants are parsed again without changing the change set
+        assertEquals(addedPaths, changeSet.getAddedPaths());
+        assertEquals(modifiedPaths, changeSet.getModifiedPaths());
+        assertEquals(id, VertexClass.getVertexClassByName(
+                parser.getFramedGraph(), "g.F"
+        ).getElement().id());
+
+        String full = SampleProject.dump(project.parse());
+        assertTrue(full.contains("class:d.D -dependsOn-> class:g.F "));
+        assertTrue(full.contains("class:h.H -isChildOf-> class:e.F "));
+        assertTrue(full.contains("class:e.F {ClassType=RetrievedClass,"));
+        assertFalse(full.contains("class:a.Extra -dependsOn-> class:e.F "));
+        assertEquals(full, SampleProject.dump(parser.getGraph()));
+    }
+
+    /**
+     * Test that the classes of a graph stored without source files, like a
+     * loaded GraphML file, are found by the path of their file
+     */
+    @Test
+    public void testWithoutSourceFile() throws IOException {
+        Parser parser = project.createParser();
+        parser.process();
+        parser.getGraph().vertices().forEachRemaining(
+                (vertex) -> vertex.property("sourceFile").remove()
+        );
+
+        project.delete("d/D.java");
+        project.write("g/G.java",
+                "package g;",
+                "public class G {",
+                "    public int size() {",
+                "        return new c.C().size();",
+                "    }",
+                "}");
+        ChangeSet changeSet = project.createChangeSet();
+        changeSet.addRemoved(SampleProject.path("d/D.java"));
+        changeSet.addAdded(SampleProject.path("g/G.java"));
+        changeSet.addModified(SampleProject.path("g/G.java"));
+        SampleProject.reparse(parser, changeSet);
+
+        Graph full = project.parse();
+        full.vertices().forEachRemaining(
+                (vertex) -> vertex.property("sourceFile").remove()
+        );
+        parser.getGraph().vertices().forEachRemaining(
+                (vertex) -> vertex.property("sourceFile").remove()
+        );
+        assertEquals(SampleProject.dump(full),
+                SampleProject.dump(parser.getGraph()));
+    }
+
+    /**
+     * Test that the remove processors added the old way, as spoon processors,
+     * still remove the classes
+     */
+    @Test
+    @SuppressWarnings("deprecation")
+    public void testDeprecatedRemoveProcessors() throws IOException {
+        Parser parser = project.createParser();
+        parser.process();
+
+        ClassRemover classRemover
+                = new ClassRemover(parser, parser.getFramedGraph());
+        parser.addRemoveProcessor(classRemover);
+        parser.addRemoveProcessor(new InterfaceRemover(classRemover));
+
+        project.delete("d/D.java");
+        ChangeSet changeSet = project.createChangeSet();
+        changeSet.addRemoved(SampleProject.path("d/D.java"));
+        SampleProject.reparse(parser, changeSet);
+
+        assertEquals(SampleProject.dump(project.parse()),
+                SampleProject.dump(parser.getGraph()));
+    }
+
+}
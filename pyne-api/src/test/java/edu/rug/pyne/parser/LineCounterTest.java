@@ -0,0 +1,60 @@
+package edu.rug.pyne.parser;
+
+import edu.rug.pyne.api.parser.structureprocessor.LineCounter;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ * @author Patrick Beuks (s2288842) <code@beuks.net>
+ */
+public class LineCounterTest {
+
+    /**
+     * Counts the lines of the whole source code
+     *
+     * @param sourceCode The source code to count
+     * @return The lines of code
+     */
+    private long countLines(String sourceCode) {
+        return LineCounter.countLines(sourceCode, 0, sourceCode.length() - 1);
+    }
+
+    /**
+     * Test that empty lines and comments are not counted
+     */
+    @Test
+    public void testBlankAndComments() {
+        assertEquals(0, countLines(""));
+        assertEquals(0, countLines("\n  \n\t\n"));
+        assertEquals(0, countLines("// comment\n/* block\n * comment\n */\n"));
+        assertEquals(3, countLines(
+                "/**\n * Doc\n */\nclass A {\n\n    int a; // field\n}\n"
+        ));
+        assertEquals(2, countLines("int a; /* start\n end */ int b;\n"));
+        assertEquals(1, countLines("/* a */ int b; /* c */"));
+    }
+
+    /**
+     * Test that comment characters inside literals do not start a comment
+     */
+    @Test
+    public void testLiterals() {
+        assertEquals(2, countLines("String a = \"/*\";\nint b;\n"));
+        assertEquals(2, countLines("String a = \"\\\" //\";\nint b;\n"));
+        assertEquals(2, countLines("char a = '\"';\nint b;\n"));
+    }
+
+    /**
+     * Test the different line endings and the range
+     */
+    @Test
+    public void testLineEndingsAndRange() {
+        assertEquals(3, countLines("a\r\nb\rc"));
+        String sourceCode = "int a;\nclass B {\n}\nint c;\n";
+        assertEquals(2, LineCounter.countLines(
+                sourceCode, sourceCode.indexOf("class"), sourceCode.indexOf('}')
+        ));
+    }
+
+}
@@ -0,0 +1,179 @@
+package edu.rug.pyne.parser;
+
+import edu.rug.pyne.api.parser.ChangeSet;
+import edu.rug.pyne.api.parser.Parser;
+import edu.rug.pyne.api.parser.cache.FactCache;
+import java.io.File;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+import org.apache.tinkerpop.gremlin.structure.Graph;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import spoon.processing.AbstractProcessor;
+import spoon.reflect.declaration.CtClass;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ * @author Patrick Beuks (s2288842) <code@beuks.net>
+ */
+public class ParserFactCacheTest {
+
+    private SampleProject project;
+    private FactCache factCache;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        project = new SampleProject("parser_fact_cache");
+        project.writeSample();
+        factCache = new FactCache(
+                new File(project.getRootDirectory(), "cache").toPath(), 1 << 20
+        );
+    }
+
+    /**
+     * Parses the whole project into a new graph using the fact cache
+     *
+     * @return The graph of the project
+     */
+    private Graph parseWithCache() {
+        Parser parser = project.createParser();
+        parser.setFactCache(factCache);
+        parser.process();
+        return parser.getGraph();
+    }
+
+    /**
+     * Changes D to depend on A and B only, the return types of the called
+     * methods are declared in the imported class
+     */
+    private void changeD() throws IOException {
+        project.write("d/D.java",
+                "package d;",
+                "import a.A;",
+                "public class D {",
+                "    public int size() {",
+                "        return new A().getB().hashCode();",
+                "    }",
+                "}");
+    }
+
+    /**
+     * Test that a cold, a warm and a partially warm cache give the same graph
+     * as parsing without the cache
+     */
+    @Test
+    public void testSameAsUncached() throws IOException {
+        String uncached = SampleProject.dump(project.parse());
+
+        assertEquals(uncached, SampleProject.dump(parseWithCache()), "cold");
+        assertEquals(SampleProject.SAMPLE_FILES.length,
+                factCache.getEntryCount());
+
+        assertEquals(uncached, SampleProject.dump(parseWithCache()), "warm");
+        assertEquals(SampleProject.SAMPLE_FILES.length,
+                factCache.getEntryCount());
+
+        changeD();
+        String changed = SampleProject.dump(project.parse());
+        assertNotEquals(uncached, changed);
+
+        assertEquals(changed, SampleProject.dump(parseWithCache()), "partial");
+        assertEquals(SampleProject.SAMPLE_FILES.length + 1,
+                factCache.getEntryCount());
+    }
+
+    /**
+     * Test that a change set parsed with the cache gives the same graph as
+     * parsing the whole changed project, and that the facts found with the
+     * reduced context of the incremental input are cached
+     */
+    @Test
+    public void testChangeSet() throws IOException {
+        Parser parser = project.createParser();
+        parser.setFactCache(factCache);
+        parser.process();
+
+        Parser incrementalParser = project.createParser();
+        incrementalParser.setFactCache(factCache);
+        incrementalParser.process();
+        incrementalParser.setIncrementalInput(true);
+
+        changeD();
+        String changed = SampleProject.dump(project.parse());
+
+        ChangeSet changeSet = project.createChangeSet();
+        changeSet.addAdded(SampleProject.path("d/D.java"));
+        changeSet.addModified(SampleProject.path("d/D.java"));
+        SampleProject.reparse(incrementalParser, changeSet);
+
+        assertEquals(changed, SampleProject.dump(incrementalParser.getGraph()));
+        assertEquals(SampleProject.SAMPLE_FILES.length + 1,
+                factCache.getEntryCount());
+
+        changeSet = project.createChangeSet();
+        changeSet.addAdded(SampleProject.path("d/D.java"));
+        changeSet.addModified(SampleProject.path("d/D.java"));
+        SampleProject.reparse(parser, changeSet);
+
+        assertEquals(changed, SampleProject.dump(parser.getGraph()));
+        assertEquals(SampleProject.SAMPLE_FILES.length + 1,
+                factCache.getEntryCount());
+    }
+
+    /**
+     * Test that the cached facts of a file are not used when a file they
+     * depend on changed. D is not changed, but the return type of the method
+     * it calls on A is.
+     */
+    @Test
+    public void testDependencyChanged() throws IOException {
+        parseWithCache();
+
+        project.write("a/A.java",
+                "package a;",
+                "import c.C;",
+                "public class A {",
+                "    public C getB() { return new C(); }",
+                "}");
+        String changed = SampleProject.dump(project.parse());
+        assertFalse(changed.contains("class:d.D -dependsOn-> class:b.B"));
+
+        assertEquals(changed, SampleProject.dump(parseWithCache()));
+    }
+
+    /**
+     * Test that only the files missed by the cache and their direct imports
+     * are given to spoon
+     */
+    @Test
+    public void testMissedFilesModel() throws IOException {
+        parseWithCache();
+
+        project.write("g/G.java",
+                "package g;",
+                "import c.C;",
+                "public class G {",
+                "    public int size() { return new C().size(); }",
+                "}");
+        String changed = SampleProject.dump(project.parse());
+
+        // Only G is missed, it imports C
+        Set<String> modelClasses = new HashSet<>();
+        Parser parser = project.createParser();
+        parser.setFactCache(factCache);
+        parser.addDefaultAnalysisProcessors();
+        parser.addAnalysisProcessor(new AbstractProcessor<CtClass<?>>() {
+            @Override
+            public void process(CtClass<?> clazz) {
+                modelClasses.add(clazz.getQualifiedName());
+            }
+        });
+        parser.process();
+
+        assertEquals(changed, SampleProject.dump(parser.getGraph()));
+        assertEquals(Set.of("c.C", "g.G"), modelClasses);
+    }
+
+}
@@ -0,0 +1,275 @@
+package edu.rug.pyne.parser;
+
+import edu.rug.pyne.api.parser.ChangeSet;
+import edu.rug.pyne.api.parser.Parser;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+import org.apache.tinkerpop.gremlin.structure.Element;
+import org.apache.tinkerpop.gremlin.structure.Graph;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerGraph;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.lib.PersonIdent;
+
+/**
+ * A small java project written to the target directory, to compare the
+ * graphs of different ways of parsing it.
+ *
+ * @author Patrick Beuks (s2288842) <code@beuks.net>
+ */
+public class SampleProject {
+
+    // The directory of the source files in the project
+    public static final String SOURCE_DIRECTORY = "src/main/java/";
+
+    // The files of the sample written by writeSample
+    public static final String[] SAMPLE_FILES = {
+        "a/A.java", "b/B.java", "c/C.java", "d/D.java", "e/E.java", "e/F.java"
+    };
+
+    private final File rootDirectory;
+
+    /**
+     * Creates an empty project, removing an earlier project with the name
+     *
+     * @param name The name of the directory of the project
+     * @throws IOException Thrown if the earlier project could not be removed
+     */
+    public SampleProject(String name) throws IOException {
+        rootDirectory = new File("target", name);
+        if (rootDirectory.exists()) {
+            try (Stream<Path> paths = Files.walk(rootDirectory.toPath())) {
+                paths.sorted(Comparator.reverseOrder())
+                        .map(Path::toFile)
+                        .forEach(File::delete);
+            }
+        }
+        new File(rootDirectory, SOURCE_DIRECTORY).mkdirs();
+    }
+
+    /**
+     * Gets the root directory of the project
+     *
+     * @return The root directory
+     */
+    public File getRootDirectory() {
+        return rootDirectory;
+    }
+
+    /**
+     * Writes a source file
+     *
+     * @param path The path of the file in the source directory
+     * @param lines The lines of the file
+     * @throws IOException Thrown if the file could not be written
+     */
+    public void write(String path, String... lines) throws IOException {
+        File file = new File(rootDirectory, SOURCE_DIRECTORY + path);
+        file.getParentFile().mkdirs();
+        Files.write(file.toPath(), String.join("\n", lines)
+                .getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Writes a sample of classes in different packages. D only imports A, the
+     * other classes D depends on are found through the return types of the
+     * called methods and a qualified name.
+     *
+     * @throws IOException Thrown if the files could not be written
+     */
+    public void writeSample() throws IOException {
+        write("a/A.java",
+                "package a;",
+                "import b.B;",
+                "public class A {",
+                "    public B getB() { return new B(); }",
+                "}");
+        write("b/B.java",
+                "package b;",
+                "import c.C;",
+                "public class B {",
+                "    public C getC() { return new C(); }",
+                "}");
+        write("c/C.java",
+                "package c;",
+                "public class C {",
+                "    public int size() { return 0; }",
+                "}");
+        write("d/D.java",
+                "package d;",
+                "import a.A;",
+                "@Deprecated",
+                "public class D {",
+                "    public int size() {",
+                "        return new A().getB().getC().size()",
+                "                + e.E.create().hashCode();",
+                "    }",
+                "}");
+        write("e/E.java",
+                "package e;",
+                "public class E {",
+                "    public static F create() { return new F(); }",
+                "}");
+        write("e/F.java",
+                "package e;",
+                "public class F {",
+                "}");
+    }
+
+    /**
+     * Moves a source file
+     *
+     * @param oldPath The path of the file in the source directory
+     * @param newPath The new path of the file in the source directory
+     * @throws IOException Thrown if the file could not be moved
+     */
+    public void move(String oldPath, String newPath) throws IOException {
+        File newFile = new File(rootDirectory, SOURCE_DIRECTORY + newPath);
+        newFile.getParentFile().mkdirs();
+        Files.move(
+                new File(rootDirectory, SOURCE_DIRECTORY + oldPath).toPath(),
+                newFile.toPath()
+        );
+    }
+
+    /**
+     * Removes a source file
+     *
+     * @param path The path of the file in the source directory
+     * @throws IOException Thrown if the file could not be removed
+     */
+    public void delete(String path) throws IOException {
+        Files.delete(
+                new File(rootDirectory, SOURCE_DIRECTORY + path).toPath()
+        );
+    }
+
+    /**
+     * Commits all files of the project to its git repository, creating the
+     * repository on the first commit
+     *
+     * @param message The commit message
+     * @return The id of the commit
+     * @throws GitAPIException Thrown if the files could not be committed
+     */
+    public String commit(String message) throws GitAPIException {
+        PersonIdent person = new PersonIdent("Test", "test@example.com");
+        try (Git git = Git.init().setDirectory(rootDirectory).call()) {
+            git.add().addFilepattern(".").call();
+            git.add().addFilepattern(".").setUpdate(true).call();
+            return git.commit().setMessage(message)
+                    .setAuthor(person).setCommitter(person)
+                    .call().getName();
+        }
+    }
+
+    /**
+     * Creates a parser for the project on a new graph
+     *
+     * @return The parser
+     */
+    public Parser createParser() {
+        Parser parser = new Parser(TinkerGraph.open());
+        parser.setRootDirectory(rootDirectory);
+        return parser;
+    }
+
+    /**
+     * Parses the whole project into a new graph
+     *
+     * @return The graph of the project
+     */
+    public Graph parse() {
+        Parser parser = createParser();
+        parser.process();
+        return parser.getGraph();
+    }
+
+    /**
+     * Creates a change set of the project
+     *
+     * @return The empty change set
+     */
+    public ChangeSet createChangeSet() {
+        return new ChangeSet(rootDirectory);
+    }
+
+    /**
+     * Gets the path of a source file relative to the root directory, as it
+     * is used in a change set
+     *
+     * @param path The path of the file in the source directory
+     * @return The path from the root directory
+     */
+    public static String path(String path) {
+        return SOURCE_DIRECTORY + path;
+    }
+
+    /**
+     * Parses the changes of a change set into the graph of a parser
+     *
+     * @param parser The parser with the graph of the project before the
+     * changes
+     * @param changeSet The changes
+     */
+    public static void reparse(Parser parser, ChangeSet changeSet) {
+        parser.setChangeSet(changeSet);
+        parser.processRemoved();
+        parser.process();
+    }
+
+    /**
+     * Gets the vertices and edges of a graph as a string that can be
+     * compared. The ids are left out, so graphs parsed in different ways can
+     * be compared.
+     *
+     * @param graph The graph to dump
+     * @return The sorted vertices and edges with their properties
+     */
+    public static String dump(Graph graph) {
+        List<String> lines = new ArrayList<>();
+        graph.vertices().forEachRemaining((vertex) -> lines.add(
+                name(vertex) + " " + properties(vertex)
+        ));
+        graph.edges().forEachRemaining((edge) -> lines.add(
+                name(edge.outVertex()) + " -" + edge.label() + "-> "
+                + name(edge.inVertex()) + " " + properties(edge)
+        ));
+        lines.sort(null);
+        return String.join("\n", lines);
+    }
+
+    /**
+     * Gets the name of a vertex with its label
+     *
+     * @param vertex The vertex
+     * @return The label and name
+     */
+    private static String name(Vertex vertex) {
+        return vertex.label() + ":" + vertex.property("name").orElse(null);
+    }
+
+    /**
+     * Gets the properties of an element sorted by their key
+     *
+     * @param element The element
+     * @return The properties
+     */
+    private static String properties(Element element) {
+        TreeMap<String, Object> properties = new TreeMap<>();
+        element.properties().forEachRemaining((property) -> properties.put(
+                property.key(), property.value()
+        ));
+        return properties.toString();
+    }
+
+}
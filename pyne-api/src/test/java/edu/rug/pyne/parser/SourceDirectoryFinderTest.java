@@ -0,0 +1,144 @@
+package edu.rug.pyne.parser;
+
+import edu.rug.pyne.api.parser.ChangeSet;
+import edu.rug.pyne.api.parser.FileSystemSourceTree;
+import edu.rug.pyne.api.parser.SourceDirectoryFinder;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ * @author Patrick Beuks (s2288842) <code@beuks.net>
+ */
+public class SourceDirectoryFinderTest {
+
+    private File rootDirectory;
+    private CountingSourceTree sourceTree;
+    private SourceDirectoryFinder finder;
+
+    /**
+     * A source tree counting the number of listed directories
+     */
+    private static class CountingSourceTree extends FileSystemSourceTree {
+
+        private int listed = 0;
+
+        @Override
+        public synchronized List<File> listDirectories(File directory)
+                throws IOException {
+            listed++;
+            return super.listDirectories(directory);
+        }
+
+    }
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        rootDirectory = new File("target", "source_directory_root");
+        if (rootDirectory.exists()) {
+            try (Stream<Path> paths = Files.walk(rootDirectory.toPath())) {
+                paths.sorted(Comparator.reverseOrder())
+                        .map(Path::toFile)
+                        .forEach(File::delete);
+            }
+        }
+        createFile("a/src/main/java/a/A.java");
+        createFile("a/src/test/java/a/ATest.java");
+        createFile("b/src/main/java/b/B.java");
+        createFile("b/target/src/main/java/b/B.java");
+        createFile("examples/src/main/java/c/C.java");
+        createFile(".git/src/main/HEAD");
+
+        sourceTree = new CountingSourceTree();
+        finder = new SourceDirectoryFinder();
+    }
+
+    /**
+     * Creates an empty file inside the root directory
+     *
+     * @param path The path of the file
+     * @throws IOException Thrown if the file could not be created
+     */
+    private void createFile(String path) throws IOException {
+        File file = new File(rootDirectory, path);
+        file.getParentFile().mkdirs();
+        file.createNewFile();
+    }
+
+    /**
+     * Test that test, example and build directories are skipped
+     */
+    @Test
+    public void testFindSourceDirectories() {
+        assertEquals(
+                Set.of(
+                        new File(rootDirectory, "a/src/main"),
+                        new File(rootDirectory, "b/src/main")
+                ),
+                finder.findSourceDirectories(rootDirectory, sourceTree, null)
+        );
+    }
+
+    /**
+     * Test that the directories are only walked again when a directory is
+     * added or removed
+     */
+    @Test
+    public void testCache() throws IOException {
+        Set<File> found
+                = finder.findSourceDirectories(rootDirectory, sourceTree, null);
+        int listed = sourceTree.listed;
+
+        // A new package inside a source directory does not matter
+        createFile("a/src/main/java/a/b/AB.java");
+        ChangeSet changeSet = new ChangeSet(rootDirectory);
+        changeSet.addAdded("a/src/main/java/a/b/AB.java");
+        changeSet.addAdded("a/src/test/java/a/b/ABTest.java");
+        assertEquals(found, finder.findSourceDirectories(
+                rootDirectory, sourceTree, changeSet
+        ));
+        assertEquals(listed, sourceTree.listed);
+
+        // A new module does
+        createFile("c/src/main/java/c/C.java");
+        changeSet = new ChangeSet(rootDirectory);
+        changeSet.addAdded("c/src/main/java/c/C.java");
+        assertTrue(finder.findSourceDirectories(
+                rootDirectory, sourceTree, changeSet
+        ).contains(new File(rootDirectory, "c/src/main")));
+        assertTrue(listed < sourceTree.listed);
+    }
+
+    /**
+     * Test that the excluded directories of the properties file are left out
+     */
+    @Test
+    public void testPropertiesFile() throws IOException {
+        File propertiesFile = new File(
+                rootDirectory, SourceDirectoryFinder.PROPERTIES_FILE
+        );
+        Files.writeString(
+                propertiesFile.toPath(),
+                "sources.include=a" + File.pathSeparator + "b\n"
+                + "sources.exclude=test" + File.pathSeparator + "b/target\n"
+        );
+
+        assertEquals(
+                Set.of(
+                        new File(rootDirectory, "a/src/main"),
+                        new File(rootDirectory, "b/src")
+                ),
+                finder.findSourceDirectories(rootDirectory, sourceTree, null)
+        );
+    }
+
+}
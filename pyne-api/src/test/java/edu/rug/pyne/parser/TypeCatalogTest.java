@@ -0,0 +1,186 @@
+package edu.rug.pyne.parser;
+
+import edu.rug.pyne.api.parser.TypeCatalog;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import spoon.Launcher;
+import spoon.processing.AbstractProcessor;
+import spoon.reflect.declaration.CtClass;
+import spoon.reflect.declaration.CtElement;
+import spoon.reflect.declaration.CtInterface;
+import spoon.reflect.declaration.CtType;
+import spoon.reflect.declaration.CtTypeParameter;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ * @author Patrick Beuks (s2288842) <code@beuks.net>
+ */
+public class TypeCatalogTest {
+
+    private Launcher launcher;
+    private TypeCatalog typeCatalog;
+
+    /**
+     * A processor that keeps the elements it processed
+     *
+     * @param <E> The type of the processed elements
+     */
+    private static class RecordingProcessor<E extends CtElement>
+            extends AbstractProcessor<E> {
+
+        private final List<E> processed = new ArrayList<>();
+
+        /**
+         * Creates a processor of the given element type. The type can not be
+         * found from the generic process method, as it is erased.
+         *
+         * @param elementType The type of the processed elements
+         */
+        public RecordingProcessor(Class<? extends CtElement> elementType) {
+            clearProcessedElementType();
+            addProcessedElementType(elementType);
+        }
+
+        @Override
+        public void process(E element) {
+            processed.add(element);
+        }
+
+    }
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        SampleProject project = new SampleProject("type_catalog");
+        project.write("t/Outer.java",
+                "package t;",
+                "import java.util.List;",
+                "public class Outer<T> {",
+                "    public static class Nested<U> {",
+                "        public interface Inner { }",
+                "    }",
+                "    public <V> Runnable run(List<V> values) {",
+                "        class Local implements Nested.Inner { }",
+                "        new Local();",
+                "        return new Runnable() {",
+                "            public void run() { }",
+                "        };",
+                "    }",
+                "}");
+        project.write("t/Other.java",
+                "package t;",
+                "public interface Other<W> { }");
+
+        launcher = new Launcher();
+        launcher.getEnvironment().setNoClasspath(true);
+        launcher.addInputResource(new File(project.getRootDirectory(),
+                SampleProject.SOURCE_DIRECTORY).getPath());
+        launcher.buildModel();
+        typeCatalog = new TypeCatalog(launcher.getModel());
+    }
+
+    /**
+     * Test that a processor of classes sees the same classes when it is run
+     * over the catalog as when spoon processes the model
+     */
+    @Test
+    public void testSameClassesAsSpoon() {
+        RecordingProcessor<CtClass<?>> catalogRecorder
+                = new RecordingProcessor<>(CtClass.class);
+        RecordingProcessor<CtClass<?>> spoonRecorder
+                = new RecordingProcessor<>(CtClass.class);
+        assertTrue(typeCatalog.canProcess(catalogRecorder));
+
+        typeCatalog.process(catalogRecorder, launcher.getFactory());
+        launcher.getModelBuilder().process(List.of(spoonRecorder));
+
+        assertEquals(
+                List.of("t.Outer", "t.Outer$1", "t.Outer$1Local",
+                        "t.Outer$Nested"),
+                getNames(catalogRecorder.processed)
+        );
+        assertSameElements(spoonRecorder.processed, catalogRecorder.processed);
+    }
+
+    /**
+     * Test that a processor of interfaces sees the same interfaces when it is
+     * run over the catalog as when spoon processes the model
+     */
+    @Test
+    public void testSameInterfacesAsSpoon() {
+        RecordingProcessor<CtInterface<?>> catalogRecorder
+                = new RecordingProcessor<>(CtInterface.class);
+        RecordingProcessor<CtInterface<?>> spoonRecorder
+                = new RecordingProcessor<>(CtInterface.class);
+        assertTrue(typeCatalog.canProcess(catalogRecorder));
+
+        typeCatalog.process(catalogRecorder, launcher.getFactory());
+        launcher.getModelBuilder().process(List.of(spoonRecorder));
+
+        assertEquals(List.of("t.Other", "t.Outer$Nested$Inner"),
+                getNames(catalogRecorder.processed));
+        assertSameElements(spoonRecorder.processed, catalogRecorder.processed);
+    }
+
+    /**
+     * Test that the catalog does not contain type parameters, and that
+     * processors that spoon would give type parameters or other elements are
+     * not run over the catalog
+     */
+    @Test
+    public void testTypeParametersSkipped() {
+        for (CtType<?> type : typeCatalog.getTypes()) {
+            assertFalse(type instanceof CtTypeParameter, type.toString());
+        }
+        assertEquals(6, typeCatalog.getTypes().size());
+
+        RecordingProcessor<CtType<?>> typeRecorder
+                = new RecordingProcessor<>(CtType.class);
+        launcher.getModelBuilder().process(List.of(typeRecorder));
+        assertTrue(typeRecorder.processed.stream()
+                .anyMatch(type -> type instanceof CtTypeParameter));
+
+        assertFalse(typeCatalog.canProcess(typeRecorder));
+        assertFalse(typeCatalog.canProcess(
+                new RecordingProcessor<>(CtElement.class)));
+        assertFalse(typeCatalog.canProcess(
+                new RecordingProcessor<>(CtTypeParameter.class)));
+    }
+
+    /**
+     * Gets the sorted qualified names of types
+     *
+     * @param types The types
+     * @return The sorted qualified names
+     */
+    private static List<String> getNames(List<? extends CtType<?>> types) {
+        return types.stream()
+                .map(CtType::getQualifiedName)
+                .sorted()
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Asserts that both lists contain the same element instances, in any
+     * order
+     *
+     * @param expected The expected elements
+     * @param actual The actual elements
+     */
+    private static void assertSameElements(
+            List<? extends CtElement> expected,
+            List<? extends CtElement> actual
+    ) {
+        assertEquals(expected.size(), actual.size());
+        for (CtElement element : expected) {
+            assertTrue(actual.stream().anyMatch(other -> other == element),
+                    element.toString());
+        }
+    }
+
+}
@@ -0,0 +1,107 @@
+package edu.rug.pyne.parser;
+
+import edu.rug.pyne.api.parser.ChangeSet;
+import edu.rug.pyne.api.parser.Parser;
+import edu.rug.pyne.api.parser.analysisprocessor.VertexCache;
+import edu.rug.pyne.api.structure.VertexClass;
+import java.io.IOException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ * @author Patrick Beuks (s2288842) <code@beuks.net>
+ */
+public class VertexCacheTest {
+
+    private SampleProject project;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        project = new SampleProject("vertex_cache");
+        project.writeSample();
+    }
+
+    /**
+     * Test that the cache is cleared before every parse
+     */
+    @Test
+    public void testClearedBetweenParses() {
+        Parser parser = project.createParser();
+        parser.process();
+
+        VertexCache vertexCache = parser.getVertexCache();
+        VertexClass vertexClass = vertexCache.getVertexClass("e.F");
+        assertNotNull(vertexClass);
+        vertexCache.putVertexClass("x.Stale", vertexClass);
+
+        parser.process();
+        assertNull(vertexCache.getVertexClass("x.Stale"));
+    }
+
+    /**
+     * Test that a vertex class removed in one commit is not returned by the
+     * cache in the next commit, which adds the class again
+     *
+     * @throws IOException Thrown if the files could not be changed
+     */
+    @Test
+    public void testRemovedVertexNotReturned() throws IOException {
+        Parser parser = project.createParser();
+        parser.process();
+        VertexCache vertexCache = parser.getVertexCache();
+        VertexClass removedClass = vertexCache.getVertexClass("e.F");
+        assertNotNull(removedClass);
+
+        // The first commit removes F and the classes using it
+        project.delete("e/E.java");
+        project.delete("e/F.java");
+        project.write("d/D.java",
+                "package d;",
+                "import a.A;",
+                "public class D {",
+                "    public int size() {",
+                "        return new A().getB().getC().size();",
+                "    }",
+                "}");
+        ChangeSet changeSet = project.createChangeSet();
+        changeSet.addRemoved(SampleProject.path("e/E.java"));
+        changeSet.addRemoved(SampleProject.path("e/F.java"));
+        changeSet.addAdded(SampleProject.path("d/D.java"));
+        changeSet.addModified(SampleProject.path("d/D.java"));
+        parser.setChangeSet(changeSet);
+
+        // The cache is cleared before the remove step
+        parser.processRemoved();
+        assertNull(vertexCache.getVertexClass("e.F"));
+        parser.process();
+        assertNull(VertexClass.getVertexClassByName(
+                parser.getFramedGraph(), "e.F"));
+
+        // The second commit adds F again, the cache may not return the
+        // removed vertex
+        project.write("e/F.java",
+                "package e;",
+                "public class F {",
+                "}");
+        project.write("g/G.java",
+                "package g;",
+                "public class G {",
+                "    public int size() { return new e.F().hashCode(); }",
+                "}");
+        changeSet = project.createChangeSet();
+        changeSet.addAdded(SampleProject.path("e/F.java"));
+        changeSet.addAdded(SampleProject.path("g/G.java"));
+        SampleProject.reparse(parser, changeSet);
+
+        VertexClass addedClass = vertexCache.getVertexClass("e.F");
+        assertNotNull(addedClass);
+        Object addedId = addedClass.getId();
+        assertNotEquals(removedClass.getId(), addedId);
+        assertTrue(parser.getGraph().vertices(addedId).hasNext());
+        assertEquals(SampleProject.dump(project.parse()),
+                SampleProject.dump(parser.getGraph()));
+    }
+
+}
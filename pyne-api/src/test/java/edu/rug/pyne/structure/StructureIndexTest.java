@@ -0,0 +1,171 @@
+package edu.rug.pyne.structure;
+
+import com.syncleus.ferma.DelegatingFramedGraph;
+import com.syncleus.ferma.FramedGraph;
+import edu.rug.pyne.api.structure.StructureGraph;
+import edu.rug.pyne.api.structure.StructureIndex;
+import edu.rug.pyne.api.structure.VertexClass;
+import edu.rug.pyne.api.structure.VertexPackage;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.tinkerpop.gremlin.structure.Direction;
+import org.apache.tinkerpop.gremlin.structure.Edge;
+import org.apache.tinkerpop.gremlin.structure.Graph;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerGraph;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ * @author Patrick Beuks (s2288842) <code@beuks.net>
+ */
+public class StructureIndexTest {
+
+    private Graph graph;
+    private FramedGraph framedGraph;
+
+    @BeforeEach
+    public void setUp() {
+        graph = new UnindexedGraph();
+        framedGraph = new StructureGraph(graph);
+    }
+
+    /**
+     * Test that the structure graph keeps its index, and that only a
+     * TinkerGraph is indexed by the graph itself
+     */
+    @Test
+    public void testOf() {
+        StructureIndex index = StructureIndex.of(framedGraph);
+        assertSame(index, StructureIndex.of(framedGraph));
+        assertFalse(index.isBackendIndexed());
+        assertNotSame(index, StructureIndex.of(
+                new DelegatingFramedGraph<>(graph, true, true)
+        ));
+        assertTrue(StructureIndex.of(
+                new StructureGraph(TinkerGraph.open())
+        ).isBackendIndexed());
+    }
+
+    /**
+     * Test that vertices added without going through the frames are found
+     * after the names are loaded
+     */
+    @Test
+    public void testGetVertexByNameAddedOnGraph() {
+        VertexClass.createSystemClass(framedGraph, "a.A", "none");
+        assertNotNull(VertexClass.getVertexClassByName(framedGraph, "a.A"));
+        assertNull(VertexClass.getVertexClassByName(framedGraph, "b.B"));
+
+        graph.addVertex(T.label, VertexClass.LABEL,
+                StructureIndex.NAME_KEY, "b.B",
+                StructureIndex.SOURCE_FILE_KEY, "src/b/B.java");
+        graph.addVertex(T.label, "package", StructureIndex.NAME_KEY, "b");
+
+        VertexClass vertexClass
+                = VertexClass.getVertexClassByName(framedGraph, "b.B");
+        assertNotNull(vertexClass);
+        assertEquals("b.B", vertexClass.getName());
+        assertNotNull(VertexPackage.getVertexPackageByName(framedGraph, "b"));
+        assertEquals(1, VertexClass.getVertexClassesBySourceFile(
+                framedGraph, "src/b/B.java"
+        ).size());
+
+        // The found vertex is renamed through the index
+        vertexClass.setName("b.C");
+        assertNull(VertexClass.getVertexClassByName(framedGraph, "b.B"));
+        assertEquals(vertexClass,
+                VertexClass.getVertexClassByName(framedGraph, "b.C"));
+    }
+
+    /**
+     * Test that removed classes are dropped from the edge index, both as
+     * source and as target.
+     */
+    @Test
+    public void testRemoveFromEdgeIndex() {
+        VertexClass class2 = VertexClass.createSystemClass(
+                framedGraph, "a.B", "none"
+        );
+        VertexClass class3 = VertexClass.createSystemClass(
+                framedGraph, "a.C", "none"
+        );
+        VertexClass class4 = VertexClass.createSystemClass(
+                framedGraph, "a.D", "none"
+        );
+        StructureIndex index = StructureIndex.of(framedGraph);
+        int indexed = index.getIndexedEdgeCount();
+
+        class2.addDependOnClass(class3);
+        class4.addDependOnClass(class2);
+        class4.addDependOnClass(class3);
+        assertEquals(indexed + 3, index.getIndexedEdgeCount());
+
+        class2.remove();
+        assertEquals(indexed + 1, index.getIndexedEdgeCount());
+        class3.remove();
+        assertEquals(indexed, index.getIndexedEdgeCount());
+    }
+
+    /**
+     * Test that a dependency added without going through the frames is
+     * incremented instead of added twice
+     */
+    @Test
+    public void testEdgeAddedOnGraph() {
+        assertEdgeAddedOnGraph(framedGraph);
+        assertEdgeAddedOnGraph(new StructureGraph(TinkerGraph.open()));
+        assertEdgeAddedOnGraph(new DelegatingFramedGraph<>(
+                new UnindexedGraph(), true, true
+        ));
+    }
+
+    /**
+     * Adds a dependency on the graph and then through the frames, and checks
+     * that one edge with the sum of the weights exists
+     *
+     * @param framedGraph The graph to add the dependency on
+     */
+    private static void assertEdgeAddedOnGraph(FramedGraph framedGraph) {
+        VertexClass source = VertexClass.createSystemClass(
+                framedGraph, "a.A", "none"
+        );
+        VertexClass target = VertexClass.createSystemClass(
+                framedGraph, "a.B", "none"
+        );
+
+        // Load the edges of the source before the edge is added
+        source.addDependOnClass(VertexClass.createSystemClass(
+                framedGraph, "a.C", "none"
+        ));
+        source.getElement().addEdge(
+                "dependsOn", target.getElement(), "Weight", 2
+        );
+
+        source.addDependOnClass(target);
+        List<Edge> edges = new ArrayList<>();
+        source.getElement().edges(Direction.OUT, "dependsOn")
+                .forEachRemaining((edge) -> {
+                    if (edge.inVertex().equals(target.getElement())) {
+                        edges.add(edge);
+                    }
+                });
+        assertEquals(1, edges.size());
+        assertEquals(3, (int) edges.get(0).value("Weight"));
+    }
+
+    /**
+     * Test that other framed graphs of the same graph find the vertices on
+     * the graph
+     */
+    @Test
+    public void testOtherFramedGraph() {
+        VertexClass.createSystemClass(framedGraph, "a.A", "none");
+        FramedGraph other = new DelegatingFramedGraph<>(graph, true, true);
+        assertNotNull(VertexClass.getVertexClassByName(other, "a.A"));
+        assertNull(VertexClass.getVertexClassByName(other, "b.B"));
+    }
+
+}
@@ -3,8 +3,8 @@ package edu.rug.pyne.structure;
 import edu.rug.pyne.api.structure.VertexPackage;
 import edu.rug.pyne.api.structure.VertexClass;
 import edu.rug.pyne.api.structure.EdgeBelongsTo;
+import edu.rug.pyne.api.structure.StructureGraph;
 import com.syncleus.ferma.DefaultClassInitializer;
-import com.syncleus.ferma.DelegatingFramedGraph;
 import com.syncleus.ferma.FramedGraph;
 import java.io.IOException;
 import java.util.logging.Level;
@@ -25,7 +25,7 @@ public class StructureTestUtility {
     private final FramedGraph framedGraph;
 
     public StructureTestUtility() {
-        framedGraph = new DelegatingFramedGraph<>(graph, true, true);
+        framedGraph = new StructureGraph(graph);
     }
 
     public Graph getGraph() {
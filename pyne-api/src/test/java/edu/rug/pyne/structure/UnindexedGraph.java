@@ -0,0 +1,72 @@
+package edu.rug.pyne.structure;
+
+import java.util.Iterator;
+import org.apache.commons.configuration.Configuration;
+import org.apache.tinkerpop.gremlin.process.computer.GraphComputer;
+import org.apache.tinkerpop.gremlin.structure.Edge;
+import org.apache.tinkerpop.gremlin.structure.Graph;
+import org.apache.tinkerpop.gremlin.structure.Transaction;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerGraph;
+
+/**
+ * A graph that is not recognized as a graph with its own index, so the in
+ * memory maps of the structure index are used.
+ *
+ * @author Patrick Beuks (s2288842) <code@beuks.net>
+ */
+public class UnindexedGraph implements Graph {
+
+    private final TinkerGraph graph = TinkerGraph.open();
+
+    @Override
+    public Vertex addVertex(Object... keyValues) {
+        return graph.addVertex(keyValues);
+    }
+
+    @Override
+    public <C extends GraphComputer> C compute(Class<C> graphComputerClass) {
+        return graph.compute(graphComputerClass);
+    }
+
+    @Override
+    public GraphComputer compute() {
+        return graph.compute();
+    }
+
+    @Override
+    public Iterator<Vertex> vertices(Object... vertexIds) {
+        return graph.vertices(vertexIds);
+    }
+
+    @Override
+    public Iterator<Edge> edges(Object... edgeIds) {
+        return graph.edges(edgeIds);
+    }
+
+    @Override
+    public Transaction tx() {
+        return graph.tx();
+    }
+
+    @Override
+    public void close() {
+        graph.close();
+    }
+
+    @Override
+    public Variables variables() {
+        return graph.variables();
+    }
+
+    @Override
+    public Configuration configuration() {
+        return graph.configuration();
+    }
+
+    @Override
+    public Features features() {
+        return graph.features();
+    }
+
+}
@@ -1,11 +1,17 @@
 package edu.rug.pyne.structure;
 
+import com.syncleus.ferma.DelegatingFramedGraph;
+import edu.rug.pyne.api.structure.ChangeTracker;
+import edu.rug.pyne.api.structure.StructureIndex;
 import edu.rug.pyne.api.structure.VertexPackage;
 import edu.rug.pyne.api.structure.VertexClass;
 import edu.rug.pyne.api.structure.EdgeBelongsTo;
+import edu.rug.pyne.api.structure.EdgeDependsOn;
 import java.util.List;
+import java.util.Set;
 import org.apache.tinkerpop.gremlin.structure.T;
 import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerGraph;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -240,4 +246,183 @@ public class VertexClassTest {
         assertEquals(test1, class2FromGraph.property(propertyName).value());
     }
 
+    /**
+     * Test of getVertexClassByName method, of class VertexClass.
+     */
+    @Test
+    public void testGetVertexClassByName() {
+
+        VertexClass class1FromFG = stu.getFromFG("name", "class1", VertexClass.class);
+
+        assertEquals(class1FromFG, VertexClass.getVertexClassByName(stu.getFramedGraph(), "class1"));
+        assertNull(VertexClass.getVertexClassByName(stu.getFramedGraph(), "package1"));
+        assertNull(VertexClass.getVertexClassByName(stu.getFramedGraph(), "class5"));
+
+        class1FromFG.setName("newClass1Name");
+        assertNull(VertexClass.getVertexClassByName(stu.getFramedGraph(), "class1"));
+        assertEquals(class1FromFG, VertexClass.getVertexClassByName(stu.getFramedGraph(), "newClass1Name"));
+
+        class1FromFG.remove();
+        assertNull(VertexClass.getVertexClassByName(stu.getFramedGraph(), "newClass1Name"));
+
+        assertTrue(((TinkerGraph) stu.getGraph()).getIndexedKeys(Vertex.class).contains("name"));
+    }
+
+    /**
+     * Test of addDependOnClass method, of class VertexClass.
+     */
+    @Test
+    public void testAddDependOnClass() {
+
+        VertexClass class2FromFG = stu.getFromFG("name", "class2", VertexClass.class);
+        VertexClass class3FromFG = stu.getFromFG("name", "class3", VertexClass.class);
+        VertexClass class4FromFG = stu.getFromFG("name", "class4", VertexClass.class);
+
+        assertNull(class2FromFG.addDependOnClass(class2FromFG));
+
+        EdgeDependsOn firstEdge = class2FromFG.addDependOnClass(class3FromFG);
+        EdgeDependsOn secondEdge = class2FromFG.addDependOnClass(class3FromFG);
+        class2FromFG.addDependOnClass(class4FromFG);
+        assertEquals(4, class2FromFG.addDependOnClass(class4FromFG, 3).getWeight());
+
+        assertEquals(firstEdge, secondEdge);
+        assertEquals(2, secondEdge.getWeight());
+        assertEquals(2, class2FromFG.getDependOnEdges().size());
+
+        class2FromFG.removeDependsOn();
+        EdgeDependsOn newEdge = class2FromFG.addDependOnClass(class3FromFG);
+
+        assertEquals(1, newEdge.getWeight());
+        assertEquals(1, class2FromFG.getDependOnEdges().size());
+    }
+
+    /**
+     * Test that the edge index is not kept for a graph with its own index.
+     */
+    @Test
+    public void testNoEdgeIndexForTinkerGraph() {
+
+        VertexClass class2FromFG = stu.getFromFG("name", "class2", VertexClass.class);
+        VertexClass class3FromFG = stu.getFromFG("name", "class3", VertexClass.class);
+        StructureIndex index = StructureIndex.of(stu.getFramedGraph());
+        assertTrue(index.isBackendIndexed());
+
+        class2FromFG.addDependOnClass(class3FromFG);
+        class2FromFG.addDependOnClass(class3FromFG);
+        assertEquals(0, index.getIndexedEdgeCount());
+        assertEquals(1, class2FromFG.getDependOnEdges().size());
+        assertEquals(2, class2FromFG.getDependOnEdges().get(0).getWeight());
+    }
+
+    /**
+     * Test of addAfferentOf and removeAfferentOf methods, of class VertexClass.
+     */
+    @Test
+    public void testRemoveAfferentOf() {
+
+        VertexClass class1FromFG = stu.getFromFG("name", "class1", VertexClass.class);
+        VertexClass class2FromFG = stu.getFromFG("name", "class2", VertexClass.class);
+        VertexPackage package1FromFG = stu.getFromFG("name", "package1", VertexPackage.class);
+        VertexPackage package2FromFG = stu.getFromFG("name", "package2", VertexPackage.class);
+
+        class1FromFG.addAfferentOf(package2FromFG);
+        class2FromFG.addAfferentOf(package2FromFG);
+        assertEquals(4, package1FromFG.getNumTotalDep());
+        assertEquals(2, package1FromFG.getAfferentOfEdges().get(0).getWeight());
+
+        class1FromFG.removeAfferentOf(package2FromFG);
+        assertTrue(class1FromFG.getAfferentOfPackages().isEmpty());
+        assertEquals(4, package1FromFG.getNumTotalDep());
+        assertEquals(1, package1FromFG.getAfferentOfEdges().get(0).getWeight());
+
+        class2FromFG.removeAfferentOfEdges();
+        assertTrue(class2FromFG.getAfferentOfPackages().isEmpty());
+        assertEquals(3, package1FromFG.getNumTotalDep());
+        assertTrue(package1FromFG.getAfferentOfEdges().isEmpty());
+    }
+
+    /**
+     * Test of the classes marked as changed by the methods of class
+     * VertexClass.
+     */
+    @Test
+    public void testChangeTracker() {
+
+        VertexClass class2FromFG = stu.getFromFG("name", "class2", VertexClass.class);
+        VertexClass class3FromFG = stu.getFromFG("name", "class3", VertexClass.class);
+        VertexClass class4FromFG = stu.getFromFG("name", "class4", VertexClass.class);
+        ChangeTracker changeTracker = ChangeTracker.of(stu.getFramedGraph());
+
+        // Only the structure graph tracks changes
+        assertSame(changeTracker, ChangeTracker.of(stu.getFramedGraph()));
+        assertNotSame(changeTracker, ChangeTracker.of(
+                new DelegatingFramedGraph<>(stu.getGraph(), true, true)
+        ));
+
+        class2FromFG.addDependOnClass(class3FromFG);
+        class4FromFG.addDependOnClass(class2FromFG);
+        changeTracker.takeChangedClasses();
+        assertFalse(changeTracker.hasChanges());
+
+        // Incrementing the weight does not change the derived edges
+        class2FromFG.addDependOnClass(class3FromFG);
+        assertFalse(changeTracker.hasChanges());
+
+        class2FromFG.remove();
+        Set<Object> changed = changeTracker.takeChangedClasses();
+        assertTrue(changed.contains(class3FromFG.getElement().id()));
+        assertTrue(changed.contains(class4FromFG.getElement().id()));
+    }
+
+    /**
+     * Test of getVertexClassesBySourceFile method, of class VertexClass.
+     */
+    @Test
+    public void testGetVertexClassesBySourceFile() {
+
+        VertexClass class2FromFG = stu.getFromFG("name", "class2", VertexClass.class);
+        VertexClass class3FromFG = stu.getFromFG("name", "class3", VertexClass.class);
+        VertexClass class4FromFG = stu.getFromFG("name", "class4", VertexClass.class);
+
+        class2FromFG.setSourceFile("src/Class2.java");
+        class3FromFG.setSourceFile("src/Class2.java");
+        class4FromFG.setSourceFile("src/Class4.java");
+
+        List<VertexClass> inClass2File = VertexClass.getVertexClassesBySourceFile(stu.getFramedGraph(), "src/Class2.java");
+        assertEquals(2, inClass2File.size());
+        assertTrue(inClass2File.contains(class2FromFG));
+        assertTrue(inClass2File.contains(class3FromFG));
+
+        class3FromFG.setSourceFile("src/Class3.java");
+        class4FromFG.remove();
+
+        assertEquals(List.of(class2FromFG), VertexClass.getVertexClassesBySourceFile(stu.getFramedGraph(), "src/Class2.java"));
+        assertEquals(List.of(class3FromFG), VertexClass.getVertexClassesBySourceFile(stu.getFramedGraph(), "src/Class3.java"));
+        assertTrue(VertexClass.getVertexClassesBySourceFile(stu.getFramedGraph(), "src/Class4.java").isEmpty());
+    }
+
+    /**
+     * Test of moveIncomingEdgesTo method, of class VertexClass.
+     */
+    @Test
+    public void testMoveIncomingEdgesTo() {
+
+        VertexClass class2FromFG = stu.getFromFG("name", "class2", VertexClass.class);
+        VertexClass class3FromFG = stu.getFromFG("name", "class3", VertexClass.class);
+        VertexClass class4FromFG = stu.getFromFG("name", "class4", VertexClass.class);
+
+        class2FromFG.addDependOnClass(class3FromFG, 3);
+        class2FromFG.addChildOfClass(class3FromFG);
+        class2FromFG.addImplematationOfClass(class3FromFG);
+        class3FromFG.moveIncomingEdgesTo(class4FromFG);
+
+        assertTrue(class2FromFG.getDependOnClasses().contains(class4FromFG));
+        assertFalse(class2FromFG.getDependOnClasses().contains(class3FromFG));
+        assertEquals(3, class2FromFG.addDependOnClass(class4FromFG, 0).getWeight());
+        assertEquals(List.of(class4FromFG), class2FromFG.getChildsOfClasses());
+        assertEquals(List.of(class4FromFG), class2FromFG.getImplementationOfClasses());
+        assertTrue(class3FromFG.getDependantClasses().isEmpty());
+        assertEquals(Set.of(class2FromFG), class4FromFG.getDependantClasses());
+    }
+
 }
@@ -213,4 +213,24 @@ public class VertexPackageTest {
         
     }
 
+    /**
+     * Test of getVertexPackageByName method, of class VertexPackage.
+     */
+    @Test
+    public void testGetVertexPackageByName() {
+
+        VertexPackage package1FromFG = stu.getFromFG("name", "package1", VertexPackage.class);
+
+        assertEquals(package1FromFG, VertexPackage.getVertexPackageByName(stu.getFramedGraph(), "package1"));
+        assertNull(VertexPackage.getVertexPackageByName(stu.getFramedGraph(), "class1"));
+        assertNull(VertexPackage.getVertexPackageByName(stu.getFramedGraph(), "package3"));
+
+        package1FromFG.setName("newPackage1Name");
+        assertNull(VertexPackage.getVertexPackageByName(stu.getFramedGraph(), "package1"));
+        assertEquals(package1FromFG, VertexPackage.getVertexPackageByName(stu.getFramedGraph(), "newPackage1Name"));
+
+        package1FromFG.remove();
+        assertNull(VertexPackage.getVertexPackageByName(stu.getFramedGraph(), "newPackage1Name"));
+    }
+
 }
@@ -0,0 +1,110 @@
+package edu.rug.pyne.bench;
+
+import com.syncleus.ferma.FramedGraph;
+import edu.rug.pyne.api.structure.StructureGraph;
+import edu.rug.pyne.api.structure.VertexClass;
+import edu.rug.pyne.api.structure.VertexPackage;
+import java.util.Random;
+import org.apache.tinkerpop.gremlin.structure.Graph;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerGraph;
+
+/**
+ * This generates graphs like the ones created by the parser, so the structure
+ * layer can be measured on graphs of any size.
+ *
+ * The graph contains system classes spread over packages, where every class
+ * depends on a few random classes. The same size always gives the same graph.
+ *
+ * @author Patrick Beuks (s2288842) <code@beuks.net>
+ */
+public class GraphGenerator {
+
+    // The number of classes per package
+    public static final int CLASSES_PER_PACKAGE = 50;
+
+    // The number of classes each class depends on
+    public static final int DEPENDENCIES_PER_CLASS = 5;
+
+    private final int classes;
+    private final FramedGraph framedGraph;
+    private final String[] classNames;
+
+    /**
+     * Generates a graph with the given number of classes
+     *
+     * @param classes The number of system classes
+     */
+    public GraphGenerator(int classes) {
+        this.classes = classes;
+        Graph graph = TinkerGraph.open();
+        this.framedGraph = new StructureGraph(graph);
+        this.classNames = new String[classes];
+        generate();
+    }
+
+    /**
+     * Creates the packages, classes and dependencies
+     */
+    private void generate() {
+        Random random = new Random(classes);
+        VertexClass[] vertices = new VertexClass[classes];
+        VertexPackage vertexPackage = null;
+
+        for (int i = 0; i < classes; i++) {
+            if (i % CLASSES_PER_PACKAGE == 0) {
+                vertexPackage = VertexPackage.createVertexPackage(
+                        framedGraph,
+                        getPackageName(i / CLASSES_PER_PACKAGE),
+                        "SystemPackage"
+                );
+            }
+            classNames[i] = getPackageName(i / CLASSES_PER_PACKAGE)
+                    + ".Class" + i;
+            vertices[i] = VertexClass.createSystemClass(
+                    framedGraph, classNames[i], "none"
+            );
+            vertices[i].setBelongsTo(vertexPackage);
+            vertices[i].setLinesOfCode(100);
+        }
+
+        for (int i = 0; i < classes; i++) {
+            for (int j = 0; j < DEPENDENCIES_PER_CLASS; j++) {
+                int target = random.nextInt(classes);
+                if (target != i) {
+                    vertices[i].addDependOnClass(
+                            vertices[target], 1 + random.nextInt(5)
+                    );
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the name of a generated package
+     *
+     * @param index The index of the package
+     * @return The package name
+     */
+    private static String getPackageName(int index) {
+        return "edu.rug.pyne.generated.package" + index;
+    }
+
+    /**
+     * Gets the generated graph
+     *
+     * @return The framed graph
+     */
+    public FramedGraph getFramedGraph() {
+        return framedGraph;
+    }
+
+    /**
+     * Gets the qualified names of the generated classes
+     *
+     * @return The class names, by index
+     */
+    public String[] getClassNames() {
+        return classNames;
+    }
+
+}
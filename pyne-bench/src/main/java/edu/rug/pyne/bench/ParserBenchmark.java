@@ -0,0 +1,84 @@
+package edu.rug.pyne.bench;
+
+import edu.rug.pyne.api.parser.Parser;
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+import org.apache.tinkerpop.gremlin.structure.Graph;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerGraph;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark of a full parse of the sample source tree checked in with this
+ * module.
+ *
+ * The sample is found using the pyne.bench.sample system property, or in the
+ * sample directory of this module when run from the root of the project or
+ * from this module.
+ *
+ * @author Patrick Beuks (s2288842) <code@beuks.net>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ParserBenchmark {
+
+    @Param({"1", "4"})
+    public int analysisThreads;
+
+    private File sampleDirectory;
+    private Parser parser;
+
+    @Setup(Level.Trial)
+    public void findSample() {
+        sampleDirectory = getSampleDirectory();
+    }
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        Graph graph = TinkerGraph.open();
+        parser = new Parser(graph);
+        parser.setRootDirectory(sampleDirectory);
+        parser.setAnalysisThreads(analysisThreads);
+    }
+
+    @Benchmark
+    public Graph process() {
+        parser.process();
+        return parser.getGraph();
+    }
+
+    /**
+     * Finds the sample source tree
+     *
+     * @return The root directory of the sample
+     */
+    private static File getSampleDirectory() {
+        String property = System.getProperty("pyne.bench.sample");
+        if (property != null) {
+            return new File(property).getAbsoluteFile();
+        }
+        for (String path : new String[]{"pyne-bench/sample", "sample"}) {
+            File directory = new File(path);
+            if (directory.isDirectory()) {
+                return directory.getAbsoluteFile();
+            }
+        }
+        throw new IllegalStateException("Could not find the sample source"
+                + " tree, set it using -Dpyne.bench.sample=<directory>");
+    }
+
+}
@@ -0,0 +1,52 @@
+package edu.rug.pyne.bench;
+
+import com.syncleus.ferma.FramedGraph;
+import edu.rug.pyne.api.parser.analysisprocessor.ClassPostProcess;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark of the post processing after the analysis step, which adds the
+ * afferent and efferent edges for the whole graph.
+ *
+ * The post process changes the graph, so every measurement is done once on a
+ * newly generated graph.
+ *
+ * @author Patrick Beuks (s2288842) <code@beuks.net>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class PostProcessBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int classes;
+
+    private FramedGraph framedGraph;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        framedGraph = new GraphGenerator(classes).getFramedGraph();
+    }
+
+    @Benchmark
+    public FramedGraph postProcess() {
+        new ClassPostProcess().postProcess(framedGraph);
+        return framedGraph;
+    }
+
+}
@@ -0,0 +1,49 @@
+package edu.rug.pyne.bench;
+
+import java.io.IOException;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks. Takes the normal JMH command line options, but writes
+ * the results as JSON to pyne-bench-results.json when no result format is
+ * given, so the results of releases can be compared.
+ *
+ * @author Patrick Beuks (s2288842) <code@beuks.net>
+ */
+public class PyneBench {
+
+    // The file the results are written to by default
+    public static final String DEFAULT_RESULT_FILE = "pyne-bench-results.json";
+
+    public static void main(String[] args)
+            throws RunnerException, CommandLineOptionException, IOException {
+
+        CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+        if (commandLineOptions.shouldHelp()) {
+            commandLineOptions.showHelp();
+            return;
+        }
+        if (commandLineOptions.shouldList()) {
+            new Runner(commandLineOptions).list();
+            return;
+        }
+
+        ChainedOptionsBuilder options = new OptionsBuilder()
+                .parent(commandLineOptions);
+        if (!commandLineOptions.getResultFormat().hasValue()) {
+            options.resultFormat(ResultFormatType.JSON);
+            if (!commandLineOptions.getResult().hasValue()) {
+                options.result(DEFAULT_RESULT_FILE);
+            }
+        }
+
+        new Runner(options.build()).run();
+    }
+
+}
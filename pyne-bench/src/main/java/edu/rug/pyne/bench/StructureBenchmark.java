@@ -0,0 +1,91 @@
+package edu.rug.pyne.bench;
+
+import com.syncleus.ferma.FramedGraph;
+import edu.rug.pyne.api.structure.VertexClass;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the lookups and edge updates of the structure layer, done for
+ * every class and every referenced type while parsing.
+ *
+ * @author Patrick Beuks (s2288842) <code@beuks.net>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StructureBenchmark {
+
+    // The number of lookups prepared, used round robin
+    private static final int LOOKUPS = 4096;
+
+    @Param({"1000", "10000", "100000"})
+    public int classes;
+
+    private FramedGraph framedGraph;
+    private String[] names;
+    private VertexClass[] sources;
+    private VertexClass[] targets;
+    private int next = 0;
+
+    @Setup
+    public void setUp() {
+        GraphGenerator generator = new GraphGenerator(classes);
+        framedGraph = generator.getFramedGraph();
+        String[] classNames = generator.getClassNames();
+
+        // Prepare random lookups and dependencies, so the benchmark does not
+        // measure the random generator.
+        Random random = new Random(LOOKUPS);
+        names = new String[LOOKUPS];
+        sources = new VertexClass[LOOKUPS];
+        targets = new VertexClass[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++) {
+            names[i] = classNames[random.nextInt(classes)];
+            sources[i] = VertexClass.getVertexClassByName(
+                    framedGraph, classNames[random.nextInt(classes)]
+            );
+            targets[i] = VertexClass.getVertexClassByName(
+                    framedGraph, classNames[random.nextInt(classes)]
+            );
+        }
+    }
+
+    /**
+     * Gets the next index of the prepared lookups
+     *
+     * @return The index
+     */
+    private int nextIndex() {
+        next = (next + 1) % LOOKUPS;
+        return next;
+    }
+
+    @Benchmark
+    public VertexClass getVertexClassByName() {
+        return VertexClass.getVertexClassByName(
+                framedGraph, names[nextIndex()]
+        );
+    }
+
+    @Benchmark
+    public void addDependOnClass() {
+        int index = nextIndex();
+        sources[index].addDependOnClass(targets[index], 1);
+    }
+
+}
@@ -1,17 +1,26 @@
 package edu.rug.pyne.cli;
 
 import edu.rug.pyne.api.GitHelper;
+import edu.rug.pyne.api.HistoryProcessor;
 import edu.rug.pyne.api.parser.Parser;
+import edu.rug.pyne.api.io.DeltaWriter;
+import edu.rug.pyne.api.io.GraphFormat;
+import edu.rug.pyne.api.io.SnapshotWriter;
+import edu.rug.pyne.api.io.TemporalGraph;
+import edu.rug.pyne.api.parser.cache.FactCache;
 import java.io.File;
 import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.nio.file.FileSystems;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.TreeMap;
+import java.util.function.Function;
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.CommandLineParser;
 import org.apache.commons.cli.DefaultParser;
@@ -22,7 +31,6 @@ import org.apache.commons.cli.ParseException;
 import org.apache.commons.cli.PatternOptionBuilder;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.apache.tinkerpop.gremlin.process.traversal.IO;
 import org.apache.tinkerpop.gremlin.structure.Graph;
 import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerGraph;
 import org.eclipse.jgit.api.Git;
@@ -62,7 +70,7 @@ public class PyneCli {
 
         Option outputDirectoryOption = Option.builder("o")
                 .longOpt("output-directory")
-                .desc("Sets the output directory for the graphml files."
+                .desc("Sets the output directory for the graph files."
                         + " Defautls to the current working directory.")
                 .hasArg().argName("file")
                 .type(PatternOptionBuilder.FILE_VALUE).build();
@@ -94,6 +102,64 @@ public class PyneCli {
                         + " the root of the repo for source files.")
                 .hasArgs().argName("paths").build();
 
+        Option changedOnlyOption = Option.builder("c").longOpt("changed-only")
+                .desc("Only parses the changed files of a commit and the files"
+                        + " needed to resolve their types, instead of all"
+                        + " source files.")
+                .build();
+
+        Option noCheckoutOption = Option.builder("n").longOpt("no-checkout")
+                .desc("Reads the source files of the commits from the git"
+                        + " object database instead of checking them out.")
+                .build();
+
+        Option cacheDirectoryOption = Option.builder("d")
+                .longOpt("cache-directory")
+                .desc("Sets the directory of the fact cache. The facts found in"
+                        + " the source files are stored here by their blob id,"
+                        + " so unchanged files do not need to be parsed again,"
+                        + " also in later runs. Not used if not given.")
+                .hasArg().argName("file")
+                .type(PatternOptionBuilder.FILE_VALUE).build();
+
+        Option cacheSizeOption = Option.builder("z").longOpt("cache-size")
+                .desc("Sets the maximum size of the fact cache in megabytes."
+                        + " Defaults to 512.")
+                .hasArg().argName("megabytes")
+                .type(PatternOptionBuilder.NUMBER_VALUE).build();
+
+        Option windowsOption = Option.builder("w").longOpt("windows")
+                .desc("Sets the number of windows the commits are split in."
+                        + " Every window is parsed in parallel in its own"
+                        + " clone of the repository. Defaults to 1.")
+                .hasArg().argName("count")
+                .type(PatternOptionBuilder.NUMBER_VALUE).build();
+
+        Option formatOption = Option.builder("f").longOpt("format")
+                .desc("Sets the format of the graph files. Possible formats"
+                        + " are: GRAPHML, BINARY, GRAPHSON. Defaults to"
+                        + " GRAPHML.")
+                .hasArg().argName("format")
+                .type(PatternOptionBuilder.STRING_VALUE).build();
+
+        Option compressOption = Option.builder("g").longOpt("gzip")
+                .desc("Compresses the graph files with gzip.")
+                .build();
+
+        Option deltaOption = Option.builder("k").longOpt("delta")
+                .desc("Writes only the changes since the commit before,"
+                        + " with the complete graph of every given number of"
+                        + " commits as a keyframe. The keyframes are written"
+                        + " in the BINARY format. Not used if not given.")
+                .hasArg().argName("keyframes")
+                .type(PatternOptionBuilder.NUMBER_VALUE).build();
+
+        Option temporalOption = Option.builder("t").longOpt("temporal")
+                .desc("Writes the history of all commits as one graph, in"
+                        + " which every element has the commits it existed"
+                        + " in. The graph is written in the GRAPHSON format.")
+                .build();
+
         // Add the options to the collection
         options.addOption(help);
         options.addOption(outputDirectoryOption);
@@ -101,6 +167,15 @@ public class PyneCli {
         options.addOption(endDateOption);
         options.addOption(periodOption);
         options.addOption(inputDirectoriesOption);
+        options.addOption(changedOnlyOption);
+        options.addOption(noCheckoutOption);
+        options.addOption(cacheDirectoryOption);
+        options.addOption(cacheSizeOption);
+        options.addOption(windowsOption);
+        options.addOption(formatOption);
+        options.addOption(compressOption);
+        options.addOption(deltaOption);
+        options.addOption(temporalOption);
 
         // Create a new parser
         CommandLineParser cliParser = new DefaultParser();
@@ -207,17 +282,90 @@ public class PyneCli {
         }
 
         // Get and set the input direcotries
-        Graph graph = TinkerGraph.open();
-        Parser parser = new Parser(graph);
-        if (cmd.getOptionValues(inputDirectoriesOption.getOpt()) != null) {
-            for (String inputDirectory : cmd
-                    .getOptionValues(inputDirectoriesOption.getOpt())) {
-                parser.addInputDirectory(inputDirectory);
+        String[] inputDirectories
+                = cmd.getOptionValues(inputDirectoriesOption.getOpt());
+        boolean changedOnly = cmd.hasOption(changedOnlyOption.getOpt());
+
+        // Open the fact cache if a directory is given
+        FactCache factCache = null;
+        if (cmd.hasOption(cacheDirectoryOption.getOpt())) {
+            File cacheDirectory = (File) cmd
+                    .getParsedOptionValue(cacheDirectoryOption.getOpt());
+            long cacheSize = 512;
+            if (cmd.hasOption(cacheSizeOption.getOpt())) {
+                cacheSize = ((Number) cmd.getParsedOptionValue(
+                        cacheSizeOption.getOpt()
+                )).longValue();
+            }
+            factCache = new FactCache(
+                    cacheDirectory.toPath(), cacheSize * 1024 * 1024
+            );
+        }
+
+        // Get the number of windows, 1 by default
+        int windows = 1;
+        if (cmd.hasOption(windowsOption.getOpt())) {
+            windows = ((Number) cmd.getParsedOptionValue(
+                    windowsOption.getOpt()
+            )).intValue();
+            if (windows < 1) {
+                LOGGER.fatal("At least one window is needed");
+                printHelp(options);
+                return;
+            }
+        }
+
+        // Get the output format, GRAPHML by default
+        GraphFormat format;
+        try {
+            format = GraphFormat.fromName(
+                    cmd.getOptionValue(formatOption.getOpt(), "GRAPHML")
+            );
+        } catch (IllegalArgumentException ex) {
+            LOGGER.fatal("\""
+                    + cmd.getOptionValue(formatOption.getOpt())
+                    + "\" is not a valid format");
+            printHelp(options);
+            return;
+        }
+        boolean compressed = cmd.hasOption(compressOption.getOpt());
+
+        // Get the keyframe interval, 0 if the complete graphs are written
+        int keyframeInterval = 0;
+        if (cmd.hasOption(deltaOption.getOpt())) {
+            keyframeInterval = ((Number) cmd.getParsedOptionValue(
+                    deltaOption.getOpt()
+            )).intValue();
+            if (keyframeInterval < 1) {
+                LOGGER.fatal("The keyframe interval needs to be at least 1");
+                printHelp(options);
+                return;
             }
         }
+        boolean temporal = cmd.hasOption(temporalOption.getOpt());
+        if (temporal && keyframeInterval > 0) {
+            LOGGER.fatal("The delta and temporal options can not be combined");
+            printHelp(options);
+            return;
+        }
+
+        // Every window needs its own parser, the fact cache is shared
+        FactCache sharedFactCache = factCache;
+        Function<Graph, Parser> parserFactory = (graph) -> {
+            Parser parser = new Parser(graph);
+            if (inputDirectories != null) {
+                for (String inputDirectory : inputDirectories) {
+                    parser.addInputDirectory(inputDirectory);
+                }
+            }
+            parser.setIncrementalInput(changedOnly);
+            parser.setFactCache(sharedFactCache);
+            return parser;
+        };
 
         // Create a git helper and a filter between start and end date
         GitHelper gitHelper = new GitHelper(repoURI.toString());
+        gitHelper.setUseWorkTree(!cmd.hasOption(noCheckoutOption.getOpt()));
 
         Git git = gitHelper.getGit();
 
@@ -235,10 +383,11 @@ public class PyneCli {
             );
         }
 
+        // Select one commit per period, with the output file of each
+        Map<String, File> outputFiles = new LinkedHashMap<>();
         Calendar calendar = Calendar.getInstance();
         calendar.setTime(startDate);
         Date checkDate = calendar.getTime();
-        // Go over all commits
         for (Map.Entry<Date, String> commitEntry : commitMap.entrySet()) {
             Date commitDate = commitEntry.getKey();
             String commit = commitEntry.getValue();
@@ -248,31 +397,97 @@ public class PyneCli {
                 continue;
             }
 
-            LOGGER.info("Parsing commit: "
-                    + commitDate + " | " + commit);
-
-            // Parse the commit
-            gitHelper.parseCommit(parser, commit);
-
             // Build the name for the output file
             StringBuilder nameBuilder = new StringBuilder();
             nameBuilder.append(dateInstance.format(commitDate)).append("-");
-            nameBuilder.append(commit).append(".graphml");
-
-            File outputFile = new File(outputDirectory, nameBuilder.toString());
+            nameBuilder.append(commit);
 
-            // Output the generated graph
-            graph.traversal().io(outputFile.getAbsolutePath())
-                    .with(IO.writer, IO.graphml).write().iterate();
-
-            LOGGER.info("Saved graph to: "
-                    + outputFile.getAbsolutePath() + "\n\n");
+            // The delta writer adds its own extensions and the temporal graph
+            // only uses the name
+            String fileName = keyframeInterval > 0 || temporal
+                    ? nameBuilder.toString()
+                    : format.getFileName(nameBuilder.toString(), compressed);
+            outputFiles.put(commit, new File(outputDirectory, fileName));
 
             // Set the date to the next period
             calendar.setTime(commitDate);
             calendar.add(period, 1);
             checkDate = calendar.getTime();
+        }
+
+        // The graphs are written in the background while the next commit is
+        // parsed
+        TemporalGraph temporalGraph = new TemporalGraph();
+        SnapshotWriter snapshotWriter;
+        if (temporal) {
+            snapshotWriter = new SnapshotWriter(
+                    SnapshotWriter.DEFAULT_QUEUE_SIZE, temporalGraph
+            );
+        } else if (keyframeInterval > 0) {
+            snapshotWriter = new SnapshotWriter(
+                    SnapshotWriter.DEFAULT_QUEUE_SIZE, new DeltaWriter(
+                            outputDirectory, keyframeInterval, compressed
+                    )
+            );
+        } else {
+            snapshotWriter = new SnapshotWriter(
+                    SnapshotWriter.DEFAULT_QUEUE_SIZE, format, compressed
+            );
+        }
+        try (snapshotWriter) {
+            if (windows > 1 && (keyframeInterval > 0 || temporal)) {
+                // The deltas and the temporal graph need the graphs in commit
+                // order, so the windows only take the snapshots
+                HistoryProcessor historyProcessor
+                        = new HistoryProcessor(gitHelper, windows);
+                historyProcessor.setParserFactory(parserFactory);
+                historyProcessor.process(
+                        new ArrayList<>(outputFiles.keySet()),
+                        (commit, graph) -> SnapshotWriter.snapshot(graph),
+                        (commit, snapshot) -> snapshotWriter.writeSnapshot(
+                                snapshot, outputFiles.get(commit)
+                        )
+                );
+            } else if (windows > 1) {
+                // Parse the windows in parallel, each queues its own graphs
+                HistoryProcessor historyProcessor
+                        = new HistoryProcessor(gitHelper, windows);
+                historyProcessor.setParserFactory(parserFactory);
+                historyProcessor.process(
+                        new ArrayList<>(outputFiles.keySet()),
+                        (commit, graph) -> {
+                            snapshotWriter.write(
+                                    graph, outputFiles.get(commit)
+                            );
+                            return outputFiles.get(commit);
+                        },
+                        (commit, outputFile) -> LOGGER.info(
+                                "Parsed commit: " + commit
+                        )
+                );
+            } else {
+                Graph graph = TinkerGraph.open();
+                Parser parser = parserFactory.apply(graph);
+
+                // Go over all commits
+                for (Map.Entry<String, File> outputEntry
+                        : outputFiles.entrySet()) {
+                    String commit = outputEntry.getKey();
+
+                    LOGGER.info("Parsing commit: " + commit);
+
+                    // Parse the commit
+                    gitHelper.parseCommit(parser, commit);
+
+                    // Output the generated graph
+                    snapshotWriter.write(graph, outputEntry.getValue());
+                }
+            }
+        }
 
+        // All commits are added once the snapshot writer is closed
+        if (temporal) {
+            temporalGraph.writeFiles(outputDirectory, compressed);
         }
 
     }
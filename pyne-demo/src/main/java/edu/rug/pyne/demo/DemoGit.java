@@ -1,5 +1,6 @@
 package edu.rug.pyne.demo;
 
+import edu.rug.pyne.api.CloneCache;
 import edu.rug.pyne.api.GitHelper;
 import edu.rug.pyne.api.parser.Parser;
 import java.io.File;
@@ -31,13 +32,14 @@ public class DemoGit implements Runnable {
      * Creates a demo showing off how git works
      * 
      * @param repo The repo to clone from
+     * @param cloneCache The cache to clone the repo with
      * @param outputDirectory The location to put output graphs in
      * @throws IOException
      * @throws GitAPIException 
      */
-    public DemoGit(String repo, File outputDirectory) 
+    public DemoGit(String repo, CloneCache cloneCache, File outputDirectory)
             throws IOException, GitAPIException {
-        gitHelper = new GitHelper(repo);
+        gitHelper = new GitHelper(repo, cloneCache);
         this.outputDirectory = outputDirectory;
     }
 
@@ -1,5 +1,6 @@
 package edu.rug.pyne.demo;
 
+import edu.rug.pyne.api.CloneCache;
 import edu.rug.pyne.api.GitHelper;
 import edu.rug.pyne.api.parser.Parser;
 import java.io.File;
@@ -19,6 +20,11 @@ public class DemoReparse implements Runnable {
 
     private final String repo;
 
+    /**
+     * The cache with the mirror of the repo, so it is only cloned once
+     */
+    private final CloneCache cloneCache;
+
     /**
      * Directory to put the graphs in
      */
@@ -28,10 +34,12 @@ public class DemoReparse implements Runnable {
      * Creates a demo showing off how reparsing works
      *
      * @param repo The repo to clone from
+     * @param cloneCache The cache to clone the repo with
      * @param outputDirectory The location to put output graphs in
      */
-    public DemoReparse(String repo, File outputDirectory) {
+    public DemoReparse(String repo, CloneCache cloneCache, File outputDirectory) {
         this.repo = repo;
+        this.cloneCache = cloneCache;
         this.outputDirectory = outputDirectory;
     }
 
@@ -46,7 +54,7 @@ public class DemoReparse implements Runnable {
         try {
             for (int i = 0; i < PyneDemo.COMMIT_LIST.length; i++) {
                 // Create the GitHelper for the current iteration 
-                GitHelper gitHelper = new GitHelper(repo);
+                GitHelper gitHelper = new GitHelper(repo, cloneCache);
 
                 // Create the graph
                 Graph graph = TinkerGraph.open();
@@ -1,5 +1,6 @@
 package edu.rug.pyne.demo;
 
+import edu.rug.pyne.api.CloneCache;
 import java.io.File;
 import java.io.IOException;
 import java.util.EnumMap;
@@ -47,15 +48,18 @@ public class PyneDemo {
         File inputDirectory = new File(args[0]);
         File outputDirectory = new File(args[1]);
         String repo = inputDirectory.toURI().toString();
-        
+
+        // All demos clone the same repo, so it is only copied once
+        CloneCache cloneCache = new CloneCache();
+
         Thread git = new Thread(new DemoGit(
-                repo, new File(outputDirectory, "git")
+                repo, cloneCache, new File(outputDirectory, "git")
         ));
         Thread reparse = new Thread(new DemoReparse(
-                repo, new File(outputDirectory, "reparse")
+                repo, cloneCache, new File(outputDirectory, "reparse")
         ));
         Thread build = new Thread(new DemoBuild(
-                repo, new File(outputDirectory, "build")
+                repo, cloneCache, new File(outputDirectory, "build")
         ));
 
         build.start();